@@ -0,0 +1,79 @@
+package com.alerts.kernels;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The kernels on the Java Vector API, using the widest vectors of the CPU. Only
+ * compiled by the {@code vector-api} Maven profile and only loaded through
+ * {@link ThresholdKernels#best()}; the tails shorter than a vector run scalar.
+ *
+ * The running maximum of {@link #maxDrop} carries from each value to the next, so it
+ * stays scalar.
+ */
+public final class VectorThresholdKernels implements ThresholdKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private final ThresholdKernels scalar = new ScalarThresholdKernels();
+
+    @Override
+    public int countOutside(double[] values, int from, int to, double low, double high) {
+        ScalarThresholdKernels.checkRange(values, from, to);
+        int i = from;
+        int count = 0;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(SPECIES, values, i);
+            count += vector.lt(low).or(vector.compare(VectorOperators.GT, high)).trueCount();
+        }
+        return count + scalar.countOutside(values, i, to, low, high);
+    }
+
+    @Override
+    public int firstOutside(double[] values, int from, int to, double low, double high) {
+        ScalarThresholdKernels.checkRange(values, from, to);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(SPECIES, values, i);
+            VectorMask<Double> outside = vector.lt(low).or(vector.compare(VectorOperators.GT, high));
+            if (outside.anyTrue()) {
+                return i + outside.firstTrue();
+            }
+        }
+        return scalar.firstOutside(values, i, to, low, high);
+    }
+
+    @Override
+    public double min(double[] values, int from, int to) {
+        ScalarThresholdKernels.checkRange(values, from, to);
+        int i = from;
+        DoubleVector min = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            min = min.min(DoubleVector.fromArray(SPECIES, values, i));
+        }
+        return Math.min(min.reduceLanes(VectorOperators.MIN), scalar.min(values, i, to));
+    }
+
+    @Override
+    public double max(double[] values, int from, int to) {
+        ScalarThresholdKernels.checkRange(values, from, to);
+        int i = from;
+        DoubleVector max = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            max = max.max(DoubleVector.fromArray(SPECIES, values, i));
+        }
+        return Math.max(max.reduceLanes(VectorOperators.MAX), scalar.max(values, i, to));
+    }
+
+    @Override
+    public double maxDrop(double[] values, int from, int to) {
+        return scalar.maxDrop(values, from, to);
+    }
+
+    @Override
+    public String getName() {
+        return "vector (" + SPECIES.length() + " x double)";
+    }
+}
@@ -6,7 +6,7 @@ public class Alert {
     public static final String TRIGGERED_ALERT = "TRIGGERED_ALERT";
     private String patientId;
     private String condition;
-    private static long timestamp;
+    private long timestamp;
 
     public Alert(String patientId, String condition, long timestamp) {
         this.patientId = patientId;
@@ -22,7 +22,7 @@ public class Alert {
         return condition;
     }
 
-    public static long getTimestamp() {
+    public long getTimestamp() {
         return timestamp;
     }
 }
@@ -0,0 +1,20 @@
+package com.alerts;
+
+/**
+ * The time source that alert evaluation uses to place its windows. Live monitoring
+ * uses {@link #SYSTEM}; a {@link ReplayClock} lets historical data be evaluated in
+ * its own event time.
+ */
+@FunctionalInterface
+public interface AlertClock {
+
+    /**
+     * The wall clock.
+     */
+    AlertClock SYSTEM = System::currentTimeMillis;
+
+    /**
+     * @return the current time in milliseconds since epoch
+     */
+    long currentTimeMillis();
+}
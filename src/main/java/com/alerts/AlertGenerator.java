@@ -1,5 +1,9 @@
 package com.alerts;
 
+import com.alerts.dispatch.AlertDispatcher;
+import com.alerts.dispatch.AlertGovernor;
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.kernels.ThresholdKernels;
 import com.data_management.DataStorage;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
@@ -9,6 +13,7 @@ import java.util.List;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * The {@code AlertGenerator} class is responsible for monitoring patient data
@@ -19,6 +24,28 @@ import java.time.format.DateTimeFormatter;
 public class AlertGenerator {
     private DataStorage dataStorage;
     private Map<String, Boolean> alertStates;
+    private final StreamingAlertEvaluator streamingEvaluator = new StreamingAlertEvaluator();
+    private final AlertStateMachine stateMachine;
+    private volatile AlertDispatcher dispatcher;
+    private volatile AlertGovernor governor;
+    private final AlertClock clock;
+    // * Correlates the Systolic and Saturation samples passed to addSample by event time.
+    private final EventTimeJoin hypoxemiaJoin = EventTimeJoin.hypotensiveHypoxemia(this::reportHypotensiveHypoxemia);
+    // * EWMA, rolling slope and CUSUM of the vital signs passed to addSample.
+    private final TrendEstimator trendEstimator = TrendEstimator.vitalSigns();
+
+    private static final DateTimeFormatter BUTTON_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private static final ThresholdKernels ECG_KERNELS = ThresholdKernels.best();
+
+    // * The rule index of the combined vital signs alert in the state machine.
+    private static final int VITAL_SIGNS_RULE = 0;
+
+    // * The rule names the alerts are counted under by the alert governor.
+    private static final String VITAL_SIGNS_RULE_NAME = "Vital Signs";
+    private static final String TREND_RULE = "Sustained Trend";
+    private static final String HYPOXEMIA_RULE = "Hypotensive Hypoxemia";
 
 
     /**
@@ -30,8 +57,39 @@ public class AlertGenerator {
      *                    data
      */
     public AlertGenerator(DataStorage dataStorage, Map<String, Boolean> alertStates) {
+        this(dataStorage, alertStates, AlertPolicy.immediate());
+    }
+
+    /**
+     * Constructs an {@code AlertGenerator} whose vital signs alert switches according
+     * to the given policy, e.g. with hold times and reminders, instead of flipping on
+     * every evaluation.
+     *
+     * @param dataStorage the data storage system that provides access to patient data
+     * @param alertStates the map that receives the alert state of every patient on each transition;
+     *                    patients already marked active in it continue their alert
+     * @param alertPolicy the hold times and cooldown of the vital signs alert
+     */
+    public AlertGenerator(DataStorage dataStorage, Map<String, Boolean> alertStates, AlertPolicy alertPolicy) {
+        this(dataStorage, alertStates, alertPolicy, AlertClock.SYSTEM);
+    }
+
+    /**
+     * Constructs an {@code AlertGenerator} that places its evaluation windows using
+     * the given clock, e.g. a {@link ReplayClock} to evaluate historical data.
+     *
+     * @param dataStorage the data storage system that provides access to patient data
+     * @param alertStates the map that receives the alert state of every patient on each transition;
+     *                    patients already marked active in it continue their alert
+     * @param alertPolicy the hold times and cooldown of the vital signs alert
+     * @param clock       the source of the current time
+     */
+    public AlertGenerator(DataStorage dataStorage, Map<String, Boolean> alertStates, AlertPolicy alertPolicy,
+                          AlertClock clock) {
         this.dataStorage = dataStorage;
         this.alertStates = alertStates;
+        this.stateMachine = new AlertStateMachine(alertPolicy);
+        this.clock = clock;
     }
 
 
@@ -48,7 +106,7 @@ public class AlertGenerator {
      */
     public void evaluateData(Patient patient) {
         String patientId = String.valueOf(patient.getPatientId());
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.currentTimeMillis();
         long tenMinutesAgo = currentTime - 10*60*1000;
 
         List<PatientRecord> patientRecords = patient.getRecords(tenMinutesAgo, currentTime);
@@ -56,30 +114,24 @@ public class AlertGenerator {
         List<Double> systolicValues = new ArrayList<>();
         List<Double> diastolicValues = new ArrayList<>();
 
-        boolean hasLowSystolic = false;
-        boolean hasLowSaturation = false;
+        // * Low systolic and low saturation only count together when they are at most a minute apart,
+        // * whatever order the records are stored in.
+        boolean[] hypotensiveHypoxemia = new boolean[1];
+        EventTimeJoin join = EventTimeJoin.hypotensiveHypoxemia(10 * 60 * 1000,
+                (id, time, values) -> hypotensiveHypoxemia[0] = true);
+        for (PatientRecord record : patientRecords) {
+            join.add(patient.getPatientId(), record.getRecordType(), record.getMeasurementValue(),
+                    record.getTimestamp());
+        }
+        if (hypotensiveHypoxemia[0]) {
+            System.out.println("Hypotensive Hypoxemia Alert for patient: " + patientId);
+            alertNeeded = true;
+        }
 
         for(PatientRecord record : patientRecords) {
             String type = record.getRecordType();
             double value = record.getMeasurementValue();
 
-
-          if(type.equals("Systolic") && value < 90) {
-              hasLowSystolic = true;
-          }
-
-          if(type.equals("Saturation") && value < 92) {
-              hasLowSaturation = true;
-          }
-
-          if(hasLowSystolic && hasLowSaturation) {
-              System.out.println("Hypotensive Hypoxemia Alert for patient: " + patientId);
-              alertNeeded = true;
-              break;
-          }
-
-
-
             // * I chose these criteria based ona forum on the internet with ref: https://www.verywellhealth.com/dangerous-heart-rate-5215509
             if (type.equals("HeartRate") && (value < 60 || value > 100)) {
                 alertNeeded = true;
@@ -129,34 +181,175 @@ public class AlertGenerator {
         }
 
 
-        boolean currentState = alertStates.getOrDefault(patientId, false);
-        long timestamp = System.currentTimeMillis();
-
-        if (alertNeeded && !currentState) {
-            alertStates.put(patientId, true);
-            Alert alert = new Alert(patientId, "ALERT TRIGGERED based on vital signs", timestamp);
-            triggerAlert(alert);
-        } else if (!alertNeeded && currentState) {
-            alertStates.put(patientId, false);
-            Alert alert = new Alert(patientId, "Alert RESOLVED: readings back to normal", timestamp);
-            triggerAlert(alert);
-        }
+        updateAlertState(patient.getPatientId(), alertNeeded, currentTime);
 
 
-        List<Double> ecgValues = new ArrayList<>();
+        // * ECG dominates the volume, so its values go into a primitive window for the batch kernels.
+        double[] ecgValues = new double[patientRecords.size()];
+        int ecgCount = 0;
         for (PatientRecord record : patientRecords) {
             if ("ECG".equals(record.getRecordType())) {
-                ecgValues.add(record.getMeasurementValue());
+                ecgValues[ecgCount++] = record.getMeasurementValue();
             }
         }
 
-        if (!alertNeeded && hasEcgAlert(ecgValues, patientId)) {
+        if (!alertNeeded && hasEcgAlert(ecgValues, ecgCount, patientId)) {
             alertNeeded = true;
         }
 
 
 
 
+    }
+
+    /**
+     * Evaluates a single newly arrived record without rescanning the patient's history.
+     *
+     * The record is first passed to {@link #addSample(PatientRecord)}, and the
+     * patient's alert state is then updated from the rolling state the same way as
+     * {@link #evaluateData(Patient)} would.
+     *
+     * @param record the record that just arrived for a patient
+     */
+    public void evaluateSample(PatientRecord record) {
+        addSample(record);
+        evaluateStreaming(record.getPatientId());
+    }
+
+    /**
+     * Feeds a newly arrived record to every incremental evaluator of this generator
+     * without updating the patient's alert state: the rolling state kept by the
+     * {@link StreamingAlertEvaluator}, which applies the same criteria as
+     * {@link #evaluateData(Patient)}, the hypotensive hypoxemia join and the
+     * {@link TrendEstimator}. The join and the estimator raise their own alerts when
+     * a match or the onset of a sustained trend is found.
+     *
+     * This is the entry point of the push path, which calls
+     * {@link #evaluateStreaming(int)} later, once per burst of samples.
+     *
+     * @param record the record that just arrived for a patient
+     */
+    public void addSample(PatientRecord record) {
+        streamingEvaluator.addSample(record);
+        hypoxemiaJoin.add(record.getPatientId(), record.getRecordType(), record.getMeasurementValue(),
+                record.getTimestamp());
+        TrendEstimator.Trend trend = trendEstimator.update(record.getPatientId(), record.getRecordType(),
+                record.getMeasurementValue(), record.getTimestamp());
+        if (trend != TrendEstimator.Trend.NONE) {
+            triggerAlert(new Alert(String.valueOf(record.getPatientId()), "Sustained "
+                    + (trend == TrendEstimator.Trend.RISING ? "rising " : "falling ") + record.getRecordType()
+                    + " trend", record.getTimestamp()), AlertPriority.MEDIUM, TREND_RULE);
+        }
+    }
+
+    /**
+     * Evaluates a patient using only the rolling state built from the samples passed
+     * to {@link #addSample(PatientRecord)}, so the cost does not depend on how
+     * many records are in the 10-minute window.
+     *
+     * @param patientId the unique identifier of the patient
+     */
+    public void evaluateStreaming(int patientId) {
+        long currentTime = clock.currentTimeMillis();
+        boolean alertNeeded = streamingEvaluator.isAlertNeeded(patientId, currentTime);
+
+        updateAlertState(patientId, alertNeeded, currentTime);
+
+        if (!alertNeeded && streamingEvaluator.hasEcgAnomaly(patientId, currentTime)) {
+            System.out.println("ECG anomaly detected for patient: " + patientId);
+        }
+    }
+
+    private void reportHypotensiveHypoxemia(int patientId, long eventTime, double[] values) {
+        triggerAlert(new Alert(String.valueOf(patientId), String.format(
+                "Hypotensive Hypoxemia: systolic %.0f mmHg with saturation %.0f%%", values[0], values[1]), eventTime),
+                AlertPriority.CRITICAL, HYPOXEMIA_RULE);
+    }
+
+    /**
+     * Returns the evaluator that holds the rolling per-patient state used by
+     * {@link #addSample(PatientRecord)}.
+     *
+     * @return the streaming evaluator of this generator
+     */
+    public StreamingAlertEvaluator getStreamingEvaluator() {
+        return streamingEvaluator;
+    }
+
+    /**
+     * Feeds the evaluation outcome to the alert state machine and reports its
+     * transitions. The alert states map is only written, and the patient id only
+     * turned into a string, when the state actually changes.
+     *
+     * The first time a patient is seen, an alert already marked active in the alert
+     * states map (e.g. one passed to the constructor) is continued instead of being
+     * triggered again.
+     *
+     * @param patientId   the unique identifier of the patient
+     * @param alertNeeded whether the latest evaluation requires an alert
+     * @param timestamp   the time of the evaluation
+     */
+    private void updateAlertState(int patientId, boolean alertNeeded, long timestamp) {
+        AlertStateMachine.Transition transition;
+        // * Seed, update and mirror under the patient's shard lock, so the map sees one patient's
+        // * transitions in order while other patients are updated in parallel.
+        synchronized (stateMachine.getLock(patientId)) {
+            if (alertStates != null && !stateMachine.hasPatient(patientId)
+                    && Boolean.TRUE.equals(readAlertState(String.valueOf(patientId)))) {
+                stateMachine.restoreActive(patientId, VITAL_SIGNS_RULE, timestamp);
+            }
+            transition = stateMachine.update(patientId, VITAL_SIGNS_RULE, alertNeeded, timestamp);
+            if (transition == AlertStateMachine.Transition.TRIGGERED
+                    || transition == AlertStateMachine.Transition.RESOLVED) {
+                storeAlertState(String.valueOf(patientId), transition == AlertStateMachine.Transition.TRIGGERED);
+            }
+        }
+
+        switch (transition) {
+            case TRIGGERED:
+                triggerAlert(new Alert(String.valueOf(patientId), "ALERT TRIGGERED based on vital signs", timestamp),
+                        AlertPriority.HIGH, VITAL_SIGNS_RULE_NAME);
+                break;
+            case RENOTIFIED:
+                triggerAlert(new Alert(String.valueOf(patientId), "ALERT STILL ACTIVE: vital signs remain abnormal",
+                        timestamp), AlertPriority.MEDIUM, VITAL_SIGNS_RULE_NAME);
+                break;
+            case RESOLVED:
+                triggerAlert(new Alert(String.valueOf(patientId), "Alert RESOLVED: readings back to normal", timestamp),
+                        AlertPriority.LOW, null);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Reads a patient's entry of the alert states map.
+     */
+    private Boolean readAlertState(String patientId) {
+        if (alertStates instanceof ConcurrentMap) {
+            return alertStates.get(patientId);
+        }
+        synchronized (alertStates) {
+            return alertStates.get(patientId);
+        }
+    }
+
+    /**
+     * Mirrors a transition into the alert states map.
+     */
+    private void storeAlertState(String patientId, boolean alertActive) {
+        if (alertStates == null) {
+            return;
+        }
+        if (alertStates instanceof ConcurrentMap) {
+            alertStates.put(patientId, alertActive);
+            return;
+        }
+        // * Plain maps (e.g. a HashMap in tests) are not thread-safe, so guard them with a lock.
+        synchronized (alertStates) {
+            alertStates.put(patientId, alertActive);
+        }
     }
 
     /**
@@ -188,17 +381,50 @@ public class AlertGenerator {
     }
 
     /**
-     * Triggers an alert for the monitoring system. This method can be extended to
-     * notify medical staff, log the alert, or perform other actions. The method
-     * currently assumes that the alert information is fully formed when passed as
-     * an argument.
+     * Triggers an alert for the monitoring system. With a dispatcher set, the alert is
+     * queued and delivered to the dispatcher's sinks in the background; otherwise it
+     * is printed on the calling thread. With a governor set, the alert may instead be
+     * held back and counted into a storm summary. Detectors of this package, e.g. the
+     * {@link EcgHeartRateMonitor}, raise their alerts here too.
      *
-     * @param alert the alert object containing details about the alert condition
+     * @param alert    the alert object containing details about the alert condition
+     * @param priority the delivery priority of the alert
+     * @param rule     the rule the governor counts the alert under, or null to never hold it back
      */
-    private void triggerAlert(Alert alert) {
+    void triggerAlert(Alert alert, AlertPriority priority, String rule) {
+        AlertGovernor currentGovernor = governor;
+        if (rule != null && currentGovernor != null && !currentGovernor.admit(rule, clock.currentTimeMillis())) {
+            return;
+        }
+        AlertDispatcher currentDispatcher = dispatcher;
+        if (currentDispatcher != null) {
+            currentDispatcher.dispatch(alert.getPatientId(), alert.getCondition(), alert.getTimestamp(), priority);
+            return;
+        }
         System.out.println(">> [ALERT] Patient " + alert.getPatientId() + ": " + alert.getCondition());
     }
 
+    /**
+     * Sends the alerts of this generator through a dispatcher, so evaluation threads
+     * never wait for the console or any other sink.
+     *
+     * @param dispatcher the dispatcher, or null to print alerts directly again
+     */
+    public void setAlertDispatcher(AlertDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Passes the alerts of this generator through a ward-wide governor, which holds
+     * them back during alert storms and reports summaries to its own listener instead.
+     * Resolutions are never held back.
+     *
+     * @param governor the governor, shared by the generators of a ward, or null for none
+     */
+    public void setAlertGovernor(AlertGovernor governor) {
+        this.governor = governor;
+    }
+
     /**
      *  Evaluates a patient's saturation records to determine if an alert should be triggered
      *  based on two specific criteria:
@@ -213,53 +439,46 @@ public class AlertGenerator {
      */
     private boolean checkSaturationAlerts(List<PatientRecord> records, String patientId) {
         List<PatientRecord> saturationRecords = new ArrayList<>();
+        boolean sorted = true;
 
         for(PatientRecord record : records) {
             if("Saturation".equals(record.getRecordType())) {
+                if (!saturationRecords.isEmpty()
+                        && saturationRecords.get(saturationRecords.size() - 1).getTimestamp() > record.getTimestamp()) {
+                    sorted = false;
+                }
                 saturationRecords.add(record);
             }
         }
 
-        // * Sorting by oldest to newest so the rapid drop alert works accurately.
-        saturationRecords.sort(Comparator.comparingLong(PatientRecord::getTimestamp));
-
-        for( int i = 0 ; i< saturationRecords.size(); i++) {
+        // * Sorting by oldest to newest so the rapid drop alert works accurately (records usually arrive sorted already).
+        if (!sorted) {
+            saturationRecords.sort(Comparator.comparingLong(PatientRecord::getTimestamp));
+        }
 
-            double currentValue = saturationRecords.get(i).getMeasurementValue();
+        // * One pass: the drop detector keeps the maximum of the previous 10 minutes for every reading.
+        SlidingWindowDropDetector dropDetector = new SlidingWindowDropDetector(10*60*1000, 5.0);
+        for (PatientRecord record : saturationRecords) {
+            double currentValue = record.getMeasurementValue();
 
             if(currentValue < 92.0) {
                 System.out.println("Low saturation alert thrown!: " + patientId + " :" + currentValue);
                 return true;
             }
 
-            for( int j = i+1; j<saturationRecords.size(); j++) {
-                long time = (saturationRecords.get(j).getTimestamp() - saturationRecords.get(i).getTimestamp());
-                if( time > 10*60*1000) {
-                    break; // skipping if time is more than 10 minutes.
-                }
-                double theDrop = (saturationRecords.get(i).getMeasurementValue() - saturationRecords.get(j).getMeasurementValue());
-                if( theDrop >= 5.0) {
-                    System.out.println("There's a rapid saturation drop for the patient " + patientId + ": " + saturationRecords.get(i).getMeasurementValue() + "% to " + saturationRecords.get(j).getMeasurementValue() + "%");
-                    return true;
-                }
+            if (dropDetector.add(record.getTimestamp(), currentValue)) {
+                System.out.println("There's a rapid saturation drop for the patient " + patientId + ": " + dropDetector.getDropStartValue() + "% to " + currentValue + "%");
+                return true;
             }
         }
         return false;
     }
 
     public static void throwImediateAlert(Alert alert) {
-        String patientId = alert.getPatientId();
-        String condition = alert.getCondition();
-        long timestamp = alert.getTimestamp();
-
-        String readableTime = Instant.ofEpochMilli(alert.getTimestamp())
-                .atZone(ZoneId.systemDefault())
-                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        String readableTime = BUTTON_TIME_FORMAT.format(Instant.ofEpochMilli(alert.getTimestamp()));
 
         System.out.println(">> [ALERT BUTTON IS PUSHED!! ] " + alert.getPatientId() + ": " +
                 alert.getCondition() + " at " + readableTime);
-
-
     }
 
     /**
@@ -274,22 +493,29 @@ public class AlertGenerator {
      * @return true if an ECG peak significantly deviates from the average
      */
     public boolean hasEcgAlert(List<Double> ecgValues, String patientId) {
-        // * Assumption: we choose 5 values just in case of the spike/anomaly detection is to reduce the chance of false positives.
-        if (ecgValues.size() < 5) return false;
-
-        double sum = 0;
-        for (double val : ecgValues) {
-            sum += val;
+        double[] values = new double[ecgValues.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ecgValues.get(i);
         }
+        return hasEcgAlert(values, values.length, patientId);
+    }
 
-        double average = sum / ecgValues.size();
-
-        for (double value : ecgValues) {
-            if (value > 1.2 || value < -0.4) {
-                System.out.println("ECG anomaly detected for patient: " + patientId);
-                return true;
-            }
+    /**
+     * Same check as {@link #hasEcgAlert(List, String)} on the first {@code count} values
+     * of a primitive window, using the {@link ThresholdKernels#best() batch kernels}.
+     *
+     * @param ecgValues the ECG values
+     * @param count     the number of values in use
+     * @param patientId the unique identifier for the patient (used for logging)
+     * @return true if an ECG peak is outside the thresholds
+     */
+    public boolean hasEcgAlert(double[] ecgValues, int count, String patientId) {
+        // * Assumption: we choose 5 values just in case of the spike/anomaly detection is to reduce the chance of false positives.
+        if (count < 5) return false;
 
+        if (ECG_KERNELS.firstOutside(ecgValues, 0, count, -0.4, 1.2) >= 0) {
+            System.out.println("ECG anomaly detected for patient: " + patientId);
+            return true;
         }
 
         return false;
@@ -0,0 +1,527 @@
+package com.alerts;
+
+import com.alerts.dispatch.AlertEvent;
+import com.alerts.dispatch.AlertSink;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * The {@code AlertHistoryStore} is an append-only log of alerts that answers
+ * "which alerts fired for patient 42 between 22:00 and 06:00".
+ *
+ * Alerts are appended as compact binary records to numbered segment files:
+ *
+ *   int length | int crc32 | int patientId | long timestamp | short n | n bytes condition (UTF-8)
+ *
+ * Appends go to an in-memory buffer; {@link #sync()} writes the buffer and forces
+ * it to disk, so all alerts appended since the previous sync share one fsync
+ * (group commit). A background thread syncs at a fixed interval. For every patient
+ * the store keeps its alert timestamps and file positions in sorted primitive
+ * arrays, so a range query is a binary search plus one positional read per alert.
+ *
+ * On opening, the segments are scanned to rebuild the index. A record cut off or
+ * corrupted by a crash ends its segment; in the last segment the file is truncated
+ * there and appending continues after the last intact record.
+ */
+public class AlertHistoryStore implements AlertSink {
+
+    public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int FIXED_PAYLOAD_BYTES = 4 + 8 + 2;
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final String SEGMENT_PREFIX = "alerts-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final CRC32 crc = new CRC32();
+
+    // * Queries read the segments outside the lock, and a new one is only added on a roll, so copy-on-write fits.
+    private final List<FileChannel> segments = new CopyOnWriteArrayList<>();
+    // * The number in the name of the next segment file, above every one on disk, so a gap never makes it reuse a name.
+    private long nextSegmentNumber;
+    private FileChannel current;
+    private long currentSize;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    private final Map<Integer, PatientIndex> index = new HashMap<>();
+    private long alertCount;
+    // * Group commit: the number of alerts known to be on disk, guarded by forceLock.
+    private final Object forceLock = new Object();
+    private long durableCount;
+    private boolean closed;
+    private Thread committer;
+
+    private AlertHistoryStore(Path directory, long maxSegmentBytes) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    /**
+     * Opens the store in the given directory with 64 MB segments and a sync every 10 ms.
+     *
+     * @param directory the directory of the segment files; created if needed
+     * @return the opened store
+     * @throws IOException if the segments cannot be read or created
+     */
+    public static AlertHistoryStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_BYTES, 10);
+    }
+
+    /**
+     * Opens the store in the given directory, recovering the alerts already stored there.
+     *
+     * @param directory            the directory of the segment files; created if needed
+     * @param maxSegmentBytes      the size after which a new segment file is started
+     * @param commitIntervalMillis how often appended alerts are synced to disk, or 0 to only sync on request
+     * @return the opened store
+     * @throws IOException if the segments cannot be read or created
+     */
+    public static AlertHistoryStore open(Path directory, long maxSegmentBytes, long commitIntervalMillis)
+            throws IOException {
+        if (maxSegmentBytes < 1024 || maxSegmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between 1 KB and 2 GB: " + maxSegmentBytes);
+        }
+        Files.createDirectories(directory);
+        AlertHistoryStore store = new AlertHistoryStore(directory, maxSegmentBytes);
+        store.recover();
+        if (commitIntervalMillis > 0) {
+            store.startCommitter(commitIntervalMillis);
+        }
+        return store;
+    }
+
+    /**
+     * Appends an alert. It is durable after the next {@link #sync()}.
+     *
+     * @param patientId the patient the alert is about
+     * @param timestamp the time of the alert in milliseconds since epoch
+     * @param condition the alert text
+     * @throws IOException if the buffer had to be written and that failed
+     */
+    public synchronized void append(int patientId, long timestamp, String condition) throws IOException {
+        ensureOpen();
+        byte[] text = condition.getBytes(StandardCharsets.UTF_8);
+        if (text.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Alert condition too long: " + text.length + " bytes");
+        }
+        int payloadLength = FIXED_PAYLOAD_BYTES + text.length;
+        int recordLength = HEADER_BYTES + payloadLength;
+        if (currentSize + recordLength > maxSegmentBytes && currentSize > 0) {
+            rollSegment();
+        }
+        if (buffer.remaining() < recordLength) {
+            writeBuffer();
+        }
+
+        long position = position(segments.size() - 1, currentSize);
+        int start = buffer.position();
+        buffer.putInt(payloadLength).putInt(0)
+                .putInt(patientId).putLong(timestamp).putShort((short) text.length).put(text);
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(start + HEADER_BYTES).limit(buffer.position());
+        crc.reset();
+        crc.update(payload);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        currentSize += recordLength;
+        index.computeIfAbsent(patientId, id -> new PatientIndex()).add(timestamp, position);
+        alertCount++;
+    }
+
+    /**
+     * Writes all appended alerts to disk and waits until they are stored durably.
+     *
+     * @throws IOException if writing or syncing fails
+     */
+    public void sync() throws IOException {
+        long target;
+        synchronized (this) {
+            ensureOpen();
+            target = alertCount;
+        }
+        synchronized (forceLock) {
+            // * A sync that ran while this one waited for the lock may already cover its alerts.
+            if (durableCount >= target) {
+                return;
+            }
+            long written;
+            FileChannel channel;
+            synchronized (this) {
+                writeBuffer();
+                written = alertCount;
+                channel = current;
+            }
+            // * Outside the store lock: appends continue into the buffer while the disk syncs.
+            channel.force(false);
+            durableCount = written;
+        }
+    }
+
+    /**
+     * Finds the patient's alerts in a time range, oldest first.
+     *
+     * @param patientId the patient
+     * @param from      the start of the range in milliseconds, inclusive
+     * @param to        the end of the range in milliseconds, inclusive
+     * @return the alerts in the range
+     * @throws IOException if a segment cannot be read
+     */
+    public List<Alert> query(int patientId, long from, long to) throws IOException {
+        long[] positions;
+        synchronized (this) {
+            ensureOpen();
+            PatientIndex patientIndex = index.get(patientId);
+            if (patientIndex == null) {
+                return new ArrayList<>();
+            }
+            positions = patientIndex.positionsBetween(from, to);
+            // * Make the buffered alerts readable from the file; no fsync needed for that.
+            writeBuffer();
+        }
+
+        List<Alert> alerts = new ArrayList<>(positions.length);
+        ByteBuffer record = ByteBuffer.allocate(256);
+        for (long position : positions) {
+            record = readRecord(position, record);
+            int id = record.getInt();
+            long timestamp = record.getLong();
+            byte[] text = new byte[record.getShort()];
+            record.get(text);
+            alerts.add(new Alert(String.valueOf(id), new String(text, StandardCharsets.UTF_8), timestamp));
+        }
+        return alerts;
+    }
+
+    /**
+     * @param patientId the patient
+     * @param from      the start of the range in milliseconds, inclusive
+     * @param to        the end of the range in milliseconds, inclusive
+     * @return the number of the patient's alerts in the range, answered from the index alone
+     */
+    public synchronized int count(int patientId, long from, long to) {
+        PatientIndex patientIndex = index.get(patientId);
+        return patientIndex == null ? 0 : patientIndex.countBetween(from, to);
+    }
+
+    /**
+     * @return the number of alerts in the store
+     */
+    public synchronized long size() {
+        return alertCount;
+    }
+
+    /**
+     * @return the number of segment files
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Stores a batch from the {@link com.alerts.dispatch.AlertDispatcher} and syncs it
+     * in one go. Alerts whose patient id is not a number are skipped.
+     */
+    @Override
+    public void deliver(List<AlertEvent> batch) throws IOException {
+        for (AlertEvent event : batch) {
+            try {
+                append(Integer.parseInt(event.getPatientId()), event.getTimestamp(), event.getCondition());
+            } catch (NumberFormatException e) {
+                System.err.println("Alert history skips alert for non-numeric patient id: " + event.getPatientId());
+            }
+        }
+        sync();
+    }
+
+    @Override
+    public String getName() {
+        return "history";
+    }
+
+    /**
+     * Syncs the remaining alerts and closes the segment files.
+     *
+     * @throws IOException if the final sync fails
+     */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            thread = committer;
+            committer = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sync();
+        synchronized (this) {
+            closed = true;
+            for (FileChannel segment : segments) {
+                segment.close();
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> segmentNumber(path) >= 0)
+                    .sorted(Comparator.comparingLong(AlertHistoryStore::segmentNumber))
+                    .collect(Collectors.toList());
+        }
+        if (!files.isEmpty()) {
+            nextSegmentNumber = segmentNumber(files.get(files.size() - 1)) + 1;
+        }
+
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            long validBytes = scanSegment(file, segments.size());
+            boolean last = i == files.size() - 1;
+            if (validBytes < Files.size(file)) {
+                System.err.println("Alert history: dropping damaged tail of " + file.getFileName()
+                        + " after byte " + validBytes);
+                if (last) {
+                    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                        channel.truncate(validBytes);
+                    }
+                }
+            }
+            if (last) {
+                current = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                current.position(validBytes);
+                currentSize = validBytes;
+                segments.add(current);
+            } else {
+                segments.add(FileChannel.open(file, StandardOpenOption.READ));
+            }
+        }
+        if (current == null) {
+            openSegment();
+        }
+        durableCount = alertCount;
+    }
+
+    /**
+     * Adds the intact records of a segment to the index.
+     *
+     * @return the number of bytes up to the end of the last intact record
+     */
+    private long scanSegment(Path file, int segment) throws IOException {
+        long offset = 0;
+        CRC32 check = new CRC32();
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16))) {
+            while (true) {
+                int payloadLength;
+                int expectedCrc;
+                byte[] payload;
+                try {
+                    payloadLength = in.readInt();
+                    if (payloadLength < FIXED_PAYLOAD_BYTES || payloadLength > FIXED_PAYLOAD_BYTES + Short.MAX_VALUE) {
+                        return offset;
+                    }
+                    expectedCrc = in.readInt();
+                    payload = new byte[payloadLength];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    return offset;
+                }
+                check.reset();
+                check.update(payload);
+                if ((int) check.getValue() != expectedCrc) {
+                    return offset;
+                }
+                ByteBuffer record = ByteBuffer.wrap(payload);
+                int patientId = record.getInt();
+                long timestamp = record.getLong();
+                if (record.getShort() != payloadLength - FIXED_PAYLOAD_BYTES) {
+                    return offset;
+                }
+                index.computeIfAbsent(patientId, id -> new PatientIndex()).add(timestamp, position(segment, offset));
+                alertCount++;
+                offset += HEADER_BYTES + payloadLength;
+            }
+        }
+    }
+
+    private ByteBuffer readRecord(long position, ByteBuffer record) throws IOException {
+        FileChannel channel = segments.get((int) (position >>> 32));
+        long offset = position & 0xFFFFFFFFL;
+        record.clear();
+        readFully(channel, record, offset);
+        record.flip();
+        int payloadLength = record.getInt();
+        if (payloadLength + HEADER_BYTES > record.limit()) {
+            ByteBuffer larger = ByteBuffer.allocate(payloadLength + HEADER_BYTES);
+            readFully(channel, larger, offset);
+            larger.flip();
+            larger.getInt();
+            record = larger;
+        }
+        record.getInt();
+        return record;
+    }
+
+    /**
+     * Reads until the buffer is full or the file ends.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer target, long offset) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, offset);
+            if (read < 0) {
+                return;
+            }
+            offset += read;
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            current.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void rollSegment() throws IOException {
+        writeBuffer();
+        current.force(false);
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        Path file = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, nextSegmentNumber, SEGMENT_SUFFIX));
+        nextSegmentNumber++;
+        current = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        currentSize = 0;
+        segments.add(current);
+    }
+
+    /**
+     * @return the number in the name of a segment file, or -1 if the file is no segment
+     */
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)
+                || name.length() == SEGMENT_PREFIX.length() + SEGMENT_SUFFIX.length()) {
+            return -1;
+        }
+        String digits = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+        for (int i = 0; i < digits.length(); i++) {
+            if (digits.charAt(i) < '0' || digits.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        return digits.length() > 18 ? -1 : Long.parseLong(digits);
+    }
+
+    private void startCommitter(long intervalMillis) {
+        committer = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(intervalMillis);
+                    sync();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException | IllegalStateException e) {
+                    System.err.println("Alert history sync failed: " + e.getMessage());
+                }
+            }
+        }, "alert-history-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Alert history store is closed");
+        }
+    }
+
+    private static long position(int segment, long offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    /**
+     * The alert timestamps of one patient with their file positions, sorted by time.
+     */
+    private static final class PatientIndex {
+        private long[] times = new long[8];
+        private long[] positions = new long[8];
+        private int size;
+
+        void add(long timestamp, long position) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            // * Alerts mostly arrive in time order; a late one is moved into place.
+            int at = size;
+            while (at > 0 && times[at - 1] > timestamp) {
+                at--;
+            }
+            System.arraycopy(times, at, times, at + 1, size - at);
+            System.arraycopy(positions, at, positions, at + 1, size - at);
+            times[at] = timestamp;
+            positions[at] = position;
+            size++;
+        }
+
+        long[] positionsBetween(long from, long to) {
+            int start = firstAtOrAfter(from);
+            return Arrays.copyOfRange(positions, start, Math.max(start, endAfter(to)));
+        }
+
+        int countBetween(long from, long to) {
+            return Math.max(0, endAfter(to) - firstAtOrAfter(from));
+        }
+
+        private int endAfter(long to) {
+            return to == Long.MAX_VALUE ? size : firstAtOrAfter(to + 1);
+        }
+
+        private int firstAtOrAfter(long timestamp) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] < timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.alerts;
+
+/**
+ * The {@code AlertPolicy} describes when an alert rule switches on and off in an
+ * {@link AlertStateMachine}:
+ *
+ *   - a hysteresis band: the alert triggers beyond the trigger threshold but only
+ *     resolves once the value is back beyond the (less extreme) clear threshold,
+ *   - hold times: the trigger or clear condition must persist this long before the
+ *     state changes, so a single outlier reading does not flip the alert,
+ *   - a cooldown: while the alert stays active, it is re-notified at most once per cooldown.
+ *
+ * Policies are immutable; the {@code with...} methods return modified copies.
+ */
+public final class AlertPolicy {
+
+    private final boolean above;
+    private final double triggerThreshold;
+    private final double clearThreshold;
+    private final long triggerHoldMillis;
+    private final long clearHoldMillis;
+    private final long cooldownMillis;
+
+    private AlertPolicy(boolean above, double triggerThreshold, double clearThreshold,
+                        long triggerHoldMillis, long clearHoldMillis, long cooldownMillis) {
+        if (triggerHoldMillis < 0 || clearHoldMillis < 0 || cooldownMillis < 0) {
+            throw new IllegalArgumentException("Hold times and cooldown must not be negative");
+        }
+        this.above = above;
+        this.triggerThreshold = triggerThreshold;
+        this.clearThreshold = clearThreshold;
+        this.triggerHoldMillis = triggerHoldMillis;
+        this.clearHoldMillis = clearHoldMillis;
+        this.cooldownMillis = cooldownMillis;
+    }
+
+    /**
+     * A policy for a yes/no condition: it triggers as soon as the condition holds and
+     * resolves as soon as it no longer does, with no reminders. This is how
+     * {@link AlertGenerator} has always switched its alerts.
+     *
+     * @return a policy without hold times or cooldown
+     */
+    public static AlertPolicy immediate() {
+        return new AlertPolicy(true, 0.5, 0.5, 0, 0, 0);
+    }
+
+    /**
+     * A policy for values that are dangerous when high.
+     *
+     * @param triggerThreshold the alert triggers when a value is above this
+     * @param clearThreshold   the alert resolves when a value is below this
+     * @return the policy
+     */
+    public static AlertPolicy above(double triggerThreshold, double clearThreshold) {
+        if (clearThreshold > triggerThreshold) {
+            throw new IllegalArgumentException("Clear threshold " + clearThreshold
+                    + " must not be above the trigger threshold " + triggerThreshold);
+        }
+        return new AlertPolicy(true, triggerThreshold, clearThreshold, 0, 0, 0);
+    }
+
+    /**
+     * A policy for values that are dangerous when low.
+     *
+     * @param triggerThreshold the alert triggers when a value is below this
+     * @param clearThreshold   the alert resolves when a value is above this
+     * @return the policy
+     */
+    public static AlertPolicy below(double triggerThreshold, double clearThreshold) {
+        if (clearThreshold < triggerThreshold) {
+            throw new IllegalArgumentException("Clear threshold " + clearThreshold
+                    + " must not be below the trigger threshold " + triggerThreshold);
+        }
+        return new AlertPolicy(false, triggerThreshold, clearThreshold, 0, 0, 0);
+    }
+
+    /**
+     * @param triggerHoldMillis how long the trigger condition must persist before the alert triggers
+     * @param clearHoldMillis   how long the clear condition must persist before the alert resolves
+     * @return a copy of this policy with the given hold times
+     */
+    public AlertPolicy withHold(long triggerHoldMillis, long clearHoldMillis) {
+        return new AlertPolicy(above, triggerThreshold, clearThreshold, triggerHoldMillis, clearHoldMillis,
+                cooldownMillis);
+    }
+
+    /**
+     * @param cooldownMillis the minimum time between two notifications of an active alert, 0 for no reminders
+     * @return a copy of this policy with the given cooldown
+     */
+    public AlertPolicy withCooldown(long cooldownMillis) {
+        return new AlertPolicy(above, triggerThreshold, clearThreshold, triggerHoldMillis, clearHoldMillis,
+                cooldownMillis);
+    }
+
+    boolean meetsTrigger(double value) {
+        return above ? value > triggerThreshold : value < triggerThreshold;
+    }
+
+    boolean meetsClear(double value) {
+        return above ? value < clearThreshold : value > clearThreshold;
+    }
+
+    long getTriggerHoldMillis() {
+        return triggerHoldMillis;
+    }
+
+    long getClearHoldMillis() {
+        return clearHoldMillis;
+    }
+
+    long getCooldownMillis() {
+        return cooldownMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s, clear %s %s, hold %d/%d ms, cooldown %d ms",
+                above ? ">" : "<", triggerThreshold, above ? "<" : ">", clearThreshold,
+                triggerHoldMillis, clearHoldMillis, cooldownMillis);
+    }
+}
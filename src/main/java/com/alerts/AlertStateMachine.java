@@ -0,0 +1,363 @@
+package com.alerts;
+
+import java.util.Arrays;
+
+/**
+ * The {@code AlertStateMachine} keeps the alert state of every patient for a fixed
+ * list of rules, each switched according to its {@link AlertPolicy}.
+ *
+ * Each (patient, rule) pair is one of four states:
+ *
+ *   NORMAL   -- trigger condition holds -->  PENDING (or ACTIVE without trigger hold)
+ *   PENDING  -- held for the trigger hold --> ACTIVE, reported as TRIGGERED
+ *   ACTIVE   -- clear condition holds -->    CLEARING (or NORMAL without clear hold)
+ *   CLEARING -- held for the clear hold -->   NORMAL, reported as RESOLVED
+ *
+ * A pending or clearing state falls back as soon as its condition stops holding.
+ * The states live in primitive arrays with one slot per (patient, rule); patients
+ * get a slot the first time they are seen through an open-addressing table, so an
+ * update allocates nothing once the arrays have grown to the number of patients.
+ *
+ * Patients are spread by their id over independent shards, each with its own
+ * table, arrays and lock, so threads that update different patients, e.g. the
+ * workers of a parallel sweep, rarely wait for each other.
+ */
+public class AlertStateMachine {
+
+    /**
+     * What an update changed, i.e. whether the caller has to notify anyone.
+     */
+    public enum Transition {
+        NONE, TRIGGERED, RENOTIFIED, RESOLVED
+    }
+
+    private static final byte NORMAL = 0;
+    private static final byte PENDING = 1;
+    private static final byte ACTIVE = 2;
+    private static final byte CLEARING = 3;
+
+    // * Marks a free entry of the patient table; patient ids are never this value.
+    private static final int FREE = Integer.MIN_VALUE;
+
+    // * Power of two, so a patient's shard is a mask of its hash.
+    private static final int SHARD_COUNT = 64;
+
+    private final AlertPolicy[] policies;
+    private final int ruleCount;
+    private final Shard[] shards = new Shard[SHARD_COUNT];
+
+    /**
+     * Constructs a state machine for the given rules; rule {@code i} in the update
+     * methods uses {@code policies[i]}.
+     *
+     * @param policies the policy of each rule
+     */
+    public AlertStateMachine(AlertPolicy... policies) {
+        if (policies.length == 0) {
+            throw new IllegalArgumentException("At least one rule policy is required");
+        }
+        this.policies = policies.clone();
+        this.ruleCount = policies.length;
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(ruleCount);
+        }
+    }
+
+    /**
+     * Updates a rule from a measured value, using the hysteresis band of its policy.
+     *
+     * @param patientId the patient the value belongs to
+     * @param rule      the index of the rule
+     * @param value     the measured value
+     * @param now       the time of the measurement in milliseconds
+     * @return the transition caused by this value
+     */
+    public Transition update(int patientId, int rule, double value, long now) {
+        AlertPolicy policy = policy(rule);
+        Shard shard = shard(patientId);
+        synchronized (shard) {
+            return shard.step(shard.slot(patientId, rule), policy, policy.meetsTrigger(value),
+                    policy.meetsClear(value), now);
+        }
+    }
+
+    /**
+     * Updates a rule from a yes/no condition, e.g. the outcome of an evaluation.
+     * There is no band in between: when the condition does not hold, the clear
+     * condition does.
+     *
+     * @param patientId      the patient that was evaluated
+     * @param rule           the index of the rule
+     * @param conditionHolds whether the alert condition holds
+     * @param now            the time of the evaluation in milliseconds
+     * @return the transition caused by this evaluation
+     */
+    public Transition update(int patientId, int rule, boolean conditionHolds, long now) {
+        AlertPolicy policy = policy(rule);
+        Shard shard = shard(patientId);
+        synchronized (shard) {
+            return shard.step(shard.slot(patientId, rule), policy, conditionHolds, !conditionHolds, now);
+        }
+    }
+
+    /**
+     * Puts a rule of a patient that has no slot yet straight into the active state,
+     * e.g. to continue an alert known from before, without reporting a transition.
+     * Patients that already have a slot are left as they are.
+     *
+     * @param patientId the patient
+     * @param rule      the index of the rule
+     * @param now       the time the alert counts as notified, in milliseconds
+     * @return true if the state was set
+     */
+    public boolean restoreActive(int patientId, int rule, long now) {
+        policy(rule);
+        Shard shard = shard(patientId);
+        synchronized (shard) {
+            if (shard.findSlot(patientId) >= 0) {
+                return false;
+            }
+            int index = shard.slot(patientId, rule);
+            shard.states[index] = ACTIVE;
+            shard.lastNotified[index] = now;
+            return true;
+        }
+    }
+
+    /**
+     * @param patientId the patient
+     * @param rule      the index of the rule
+     * @return true if the alert has triggered and not yet resolved
+     */
+    public boolean isActive(int patientId, int rule) {
+        Shard shard = shard(patientId);
+        synchronized (shard) {
+            int slot = shard.findSlot(patientId);
+            if (slot < 0) {
+                return false;
+            }
+            byte state = shard.states[slot * ruleCount + rule];
+            return state == ACTIVE || state == CLEARING;
+        }
+    }
+
+    /**
+     * @param patientId the patient
+     * @return true if the patient has a slot, i.e. was updated or restored before
+     */
+    public boolean hasPatient(int patientId) {
+        Shard shard = shard(patientId);
+        synchronized (shard) {
+            return shard.findSlot(patientId) >= 0;
+        }
+    }
+
+    /**
+     * Returns the lock that guards the state of a patient. Callers hold it to make
+     * several calls for one patient atomic; patients of other shards are not blocked.
+     *
+     * @param patientId the patient
+     * @return the lock of the patient's shard
+     */
+    public Object getLock(int patientId) {
+        return shard(patientId);
+    }
+
+    /**
+     * @return the number of patients that have a slot
+     */
+    public int getPatientCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                count += shard.patientCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Forgets the state of all patients.
+     */
+    public void clear() {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.clear();
+            }
+        }
+    }
+
+    private AlertPolicy policy(int rule) {
+        if (rule < 0 || rule >= ruleCount) {
+            throw new IllegalArgumentException("Unknown rule index: " + rule);
+        }
+        return policies[rule];
+    }
+
+    private Shard shard(int patientId) {
+        // * The high bits pick the shard, the low bits the entry of its table.
+        return shards[(mix(patientId) >>> 26) & (SHARD_COUNT - 1)];
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * The states of the patients whose hash falls into one shard. Every method is
+     * called with the shard's monitor held.
+     */
+    private static final class Shard {
+        private final int ruleCount;
+
+        private int[] tableKeys;
+        private int[] tableSlots;
+        private int patientCount;
+
+        private byte[] states;
+        private long[] since;
+        private long[] lastNotified;
+
+        Shard(int ruleCount) {
+            this.ruleCount = ruleCount;
+            this.tableKeys = new int[16];
+            Arrays.fill(tableKeys, FREE);
+            this.tableSlots = new int[16];
+            this.states = new byte[4 * ruleCount];
+            this.since = new long[4 * ruleCount];
+            this.lastNotified = new long[4 * ruleCount];
+        }
+
+        void clear() {
+            Arrays.fill(tableKeys, FREE);
+            Arrays.fill(states, NORMAL);
+            patientCount = 0;
+        }
+
+        private Transition step(int index, AlertPolicy policy, boolean triggerHolds, boolean clearHolds, long now) {
+            switch (states[index]) {
+                case NORMAL:
+                    if (triggerHolds) {
+                        since[index] = now;
+                        states[index] = PENDING;
+                        return activateIfHeld(index, policy, now);
+                    }
+                    return Transition.NONE;
+                case PENDING:
+                    if (triggerHolds) {
+                        return activateIfHeld(index, policy, now);
+                    }
+                    states[index] = NORMAL;
+                    return Transition.NONE;
+                case ACTIVE:
+                    if (clearHolds) {
+                        since[index] = now;
+                        states[index] = CLEARING;
+                        return resolveIfHeld(index, policy, now);
+                    }
+                    return renotifyIfCooledDown(index, policy, triggerHolds, now);
+                default:
+                    if (clearHolds) {
+                        return resolveIfHeld(index, policy, now);
+                    }
+                    states[index] = ACTIVE;
+                    return renotifyIfCooledDown(index, policy, triggerHolds, now);
+            }
+        }
+
+        private Transition activateIfHeld(int index, AlertPolicy policy, long now) {
+            if (now - since[index] < policy.getTriggerHoldMillis()) {
+                return Transition.NONE;
+            }
+            states[index] = ACTIVE;
+            lastNotified[index] = now;
+            return Transition.TRIGGERED;
+        }
+
+        private Transition resolveIfHeld(int index, AlertPolicy policy, long now) {
+            if (now - since[index] < policy.getClearHoldMillis()) {
+                return Transition.NONE;
+            }
+            states[index] = NORMAL;
+            return Transition.RESOLVED;
+        }
+
+        private Transition renotifyIfCooledDown(int index, AlertPolicy policy, boolean triggerHolds, long now) {
+            long cooldown = policy.getCooldownMillis();
+            if (cooldown == 0 || !triggerHolds || now - lastNotified[index] < cooldown) {
+                return Transition.NONE;
+            }
+            lastNotified[index] = now;
+            return Transition.RENOTIFIED;
+        }
+
+        /**
+         * Returns the state index of the patient's rule, giving the patient a slot if needed.
+         */
+        private int slot(int patientId, int rule) {
+            int slot = findSlot(patientId);
+            if (slot < 0) {
+                slot = addPatient(patientId);
+            }
+            return slot * ruleCount + rule;
+        }
+
+        private int findSlot(int patientId) {
+            int mask = tableKeys.length - 1;
+            for (int i = mix(patientId) & mask; ; i = (i + 1) & mask) {
+                if (tableKeys[i] == patientId) {
+                    return tableSlots[i];
+                }
+                if (tableKeys[i] == FREE) {
+                    return -1;
+                }
+            }
+        }
+
+        private int addPatient(int patientId) {
+            if (patientId == FREE) {
+                throw new IllegalArgumentException("Unsupported patient id: " + patientId);
+            }
+            // * Keep the table at most half full so probe sequences stay short.
+            if ((patientCount + 1) * 2 > tableKeys.length) {
+                rehash(tableKeys.length * 2);
+            }
+            int slot = patientCount++;
+            insert(patientId, slot);
+            if ((slot + 1) * ruleCount > states.length) {
+                int length = states.length * 2;
+                states = Arrays.copyOf(states, length);
+                since = Arrays.copyOf(since, length);
+                lastNotified = Arrays.copyOf(lastNotified, length);
+            }
+            for (int rule = 0; rule < ruleCount; rule++) {
+                states[slot * ruleCount + rule] = NORMAL;
+            }
+            return slot;
+        }
+
+        private void insert(int patientId, int slot) {
+            int mask = tableKeys.length - 1;
+            int i = mix(patientId) & mask;
+            while (tableKeys[i] != FREE) {
+                i = (i + 1) & mask;
+            }
+            tableKeys[i] = patientId;
+            tableSlots[i] = slot;
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = tableKeys;
+            int[] oldSlots = tableSlots;
+            tableKeys = new int[capacity];
+            Arrays.fill(tableKeys, FREE);
+            tableSlots = new int[capacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    insert(oldKeys[i], oldSlots[i]);
+                }
+            }
+        }
+    }
+}
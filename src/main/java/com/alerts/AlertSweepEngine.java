@@ -0,0 +1,183 @@
+package com.alerts;
+
+import com.data_management.Patient;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code AlertSweepEngine} runs {@link AlertGenerator#evaluateData(Patient)} for
+ * a whole list of patients on a work-stealing {@link ForkJoinPool}.
+ *
+ * The patient list is split in halves until the chunks are small, so idle worker
+ * threads steal the remaining chunks of busy ones. Every sweep has a deadline;
+ * patients not started before it are skipped and reported in the {@link SweepResult},
+ * as are the patients whose evaluation failed.
+ * Each patient is evaluated at most once per sweep and the alert state transitions
+ * of {@link AlertGenerator} are atomic, so the alert states stay consistent.
+ */
+public class AlertSweepEngine implements AutoCloseable {
+
+    // * Below this many patients a chunk is evaluated directly instead of split further.
+    private static final int CHUNK_SIZE = 64;
+
+    private final AlertGenerator alertGenerator;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a sweep engine using every available processor.
+     *
+     * @param alertGenerator the generator used to evaluate each patient
+     */
+    public AlertSweepEngine(AlertGenerator alertGenerator) {
+        this(alertGenerator, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a sweep engine with a fixed number of worker threads.
+     *
+     * @param alertGenerator the generator used to evaluate each patient
+     * @param parallelism    the number of worker threads
+     */
+    public AlertSweepEngine(AlertGenerator alertGenerator, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.alertGenerator = alertGenerator;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Evaluates all given patients, skipping those that were not started before the deadline.
+     *
+     * @param patients the patients to evaluate
+     * @param deadline the maximum duration of the sweep
+     * @param unit     the time unit of the deadline
+     * @return the duration and counts of the sweep; evaluated, skipped and failed patients add up to all
+     */
+    public SweepResult sweep(List<Patient> patients, long deadline, TimeUnit unit) {
+        long start = System.nanoTime();
+        long deadlineNanos = start + unit.toNanos(deadline);
+        LongAdder evaluated = new LongAdder();
+        LongAdder skipped = new LongAdder();
+        LongAdder failed = new LongAdder();
+
+        pool.invoke(new SweepTask(patients, 0, patients.size(), deadlineNanos, evaluated, skipped, failed));
+
+        return new SweepResult(System.nanoTime() - start, evaluated.sum(), skipped.sum(), failed.sum());
+    }
+
+    /**
+     * @return the number of worker threads of this engine
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Shuts the worker threads down.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private final class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Patient> patients;
+        private final int from;
+        private final int to;
+        private final long deadlineNanos;
+        private final LongAdder evaluated;
+        private final LongAdder skipped;
+        private final LongAdder failed;
+
+        SweepTask(List<Patient> patients, int from, int to, long deadlineNanos,
+                  LongAdder evaluated, LongAdder skipped, LongAdder failed) {
+            this.patients = patients;
+            this.from = from;
+            this.to = to;
+            this.deadlineNanos = deadlineNanos;
+            this.evaluated = evaluated;
+            this.skipped = skipped;
+            this.failed = failed;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SweepTask(patients, from, middle, deadlineNanos, evaluated, skipped, failed),
+                        new SweepTask(patients, middle, to, deadlineNanos, evaluated, skipped, failed));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                if (System.nanoTime() - deadlineNanos > 0) {
+                    skipped.add(to - i);
+                    return;
+                }
+                try {
+                    alertGenerator.evaluateData(patients.get(i));
+                    evaluated.increment();
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    System.err.println("Error evaluating patient " + patients.get(i).getPatientId()
+                            + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Summary of one sweep over the patients.
+     */
+    public static final class SweepResult {
+        private final long durationNanos;
+        private final long evaluatedPatients;
+        private final long skippedPatients;
+        private final long failedPatients;
+
+        SweepResult(long durationNanos, long evaluatedPatients, long skippedPatients, long failedPatients) {
+            this.durationNanos = durationNanos;
+            this.evaluatedPatients = evaluatedPatients;
+            this.skippedPatients = skippedPatients;
+            this.failedPatients = failedPatients;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public long getEvaluatedPatients() {
+            return evaluatedPatients;
+        }
+
+        public long getSkippedPatients() {
+            return skippedPatients;
+        }
+
+        /**
+         * @return the number of patients whose evaluation threw an exception
+         */
+        public long getFailedPatients() {
+            return failedPatients;
+        }
+
+        /**
+         * @return true if some patients were skipped because the deadline passed
+         */
+        public boolean isDeadlineMissed() {
+            return skippedPatients > 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Sweep took %.1f ms: %d patients evaluated, %d skipped, %d failed",
+                    durationNanos / 1e6, evaluatedPatients, skippedPatients, failedPatients);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.alerts;
+
+import com.alerts.dispatch.AlertPriority;
+import com.data_management.DataStorage;
+import com.data_management.DataStorageListener;
+import com.data_management.PatientRecord;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code EcgHeartRateMonitor} derives the heart rate from the raw ECG stream.
+ *
+ * It listens to a {@link DataStorage}, feeds every "ECG" record into a per-patient
+ * {@link QrsDetector}, writes a "HeartRate" record back into the storage for every
+ * detected beat (so the usual heart rate rules apply to it) and raises an alert
+ * through an {@link AlertGenerator}, i.e. its dispatcher and governor, when the RR
+ * intervals become irregular.
+ */
+public class EcgHeartRateMonitor implements DataStorageListener {
+
+    /**
+     * The lowest ECG sampling rate the QRS complexes can be found at; below it, e.g. at
+     * the simulator's default of one sample per second, the detector reports noise as beats.
+     */
+    public static final double MIN_SAMPLING_RATE = 100;
+
+    // * The rule name the alert governor counts irregular rhythm alerts under.
+    private static final String IRREGULAR_RHYTHM_RULE = "Irregular Rhythm";
+
+    private final DataStorage dataStorage;
+    private final double samplingRate;
+    private final AlertGenerator alertGenerator;
+    private final Map<Integer, PatientRhythm> rhythms = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a monitor for ECG data sampled at the given rate.
+     *
+     * @param dataStorage    the storage that receives the derived heart rate records
+     * @param samplingRate   the number of ECG samples per second, at least {@link #MIN_SAMPLING_RATE}
+     * @param alertGenerator raises the rhythm alerts
+     * @throws IllegalArgumentException if the sampling rate is below {@link #MIN_SAMPLING_RATE}
+     */
+    public EcgHeartRateMonitor(DataStorage dataStorage, double samplingRate, AlertGenerator alertGenerator) {
+        if (!(samplingRate >= MIN_SAMPLING_RATE)) {
+            throw new IllegalArgumentException("ECG sampling rate too low to detect beats: " + samplingRate);
+        }
+        this.dataStorage = dataStorage;
+        this.samplingRate = samplingRate;
+        this.alertGenerator = alertGenerator;
+    }
+
+    /**
+     * Feeds ECG records to the patient's detector; other records are ignored.
+     *
+     * @param record the record that was just stored
+     */
+    @Override
+    public void onRecordAdded(PatientRecord record) {
+        if (!"ECG".equals(record.getRecordType())) {
+            return;
+        }
+        int patientId = record.getPatientId();
+        PatientRhythm rhythm = rhythms.computeIfAbsent(patientId, id -> new PatientRhythm(samplingRate));
+
+        double heartRate;
+        boolean becameIrregular;
+        boolean becameRegular;
+        synchronized (rhythm) {
+            if (!rhythm.detector.addSample(record.getMeasurementValue())) {
+                return;
+            }
+            heartRate = rhythm.detector.getHeartRate();
+            boolean irregular = rhythm.detector.isRhythmIrregular();
+            becameIrregular = irregular && !rhythm.irregular;
+            becameRegular = !irregular && rhythm.irregular;
+            rhythm.irregular = irregular;
+        }
+
+        // * Written outside the lock: the storage notifies listeners, including this one.
+        if (!Double.isNaN(heartRate)) {
+            dataStorage.addPatientData(patientId, heartRate, "HeartRate", record.getTimestamp());
+        }
+        if (becameIrregular) {
+            alertGenerator.triggerAlert(new Alert(String.valueOf(patientId), "Irregular RR intervals detected in ECG",
+                    record.getTimestamp()), AlertPriority.HIGH, IRREGULAR_RHYTHM_RULE);
+        } else if (becameRegular) {
+            alertGenerator.triggerAlert(new Alert(String.valueOf(patientId), "RR intervals back to regular",
+                    record.getTimestamp()), AlertPriority.LOW, null);
+        }
+    }
+
+    /**
+     * Returns the latest heart rate derived for a patient.
+     *
+     * @param patientId the unique identifier of the patient
+     * @return the heart rate in beats per minute, or NaN if not known yet
+     */
+    public double getHeartRate(int patientId) {
+        PatientRhythm rhythm = rhythms.get(patientId);
+        if (rhythm == null) {
+            return Double.NaN;
+        }
+        synchronized (rhythm) {
+            return rhythm.detector.getHeartRate();
+        }
+    }
+
+    /**
+     * Checks whether the patient's rhythm is currently considered irregular.
+     *
+     * @param patientId the unique identifier of the patient
+     * @return true if the RR intervals are irregular
+     */
+    public boolean isIrregular(int patientId) {
+        PatientRhythm rhythm = rhythms.get(patientId);
+        if (rhythm == null) {
+            return false;
+        }
+        synchronized (rhythm) {
+            return rhythm.irregular;
+        }
+    }
+
+    /**
+     * Detector and irregularity state of a single patient.
+     */
+    private static final class PatientRhythm {
+        private final QrsDetector detector;
+        private boolean irregular;
+
+        PatientRhythm(double samplingRate) {
+            this.detector = new QrsDetector(samplingRate);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.alerts;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code EventTimeJoin} correlates several record streams of the same patient
+ * by event time, e.g. a Systolic reading every minute with a Saturation reading every
+ * second: a match is a combination of one reading per stream whose timestamps lie
+ * within the tolerance of each other and whose values satisfy the join condition.
+ *
+ * Readings may arrive late and out of order. Per patient, the watermark is the
+ * latest event time seen minus the allowed lateness; readings older than the
+ * watermark are dropped as late, and buffered readings that can no longer be part
+ * of a match with a non-late reading (older than watermark minus tolerance) are
+ * evicted. Every stream buffer is also capped, so memory per patient stays bounded
+ * whatever arrives. Each arriving reading is only joined with the buffered readings
+ * inside its tolerance window, so evaluation is incremental.
+ */
+public class EventTimeJoin {
+
+    /**
+     * Condition on one value per stream, in the order the streams were given.
+     */
+    @FunctionalInterface
+    public interface JoinCondition {
+        boolean test(double[] values);
+    }
+
+    /**
+     * Receives the matches of a join.
+     */
+    @FunctionalInterface
+    public interface MatchListener {
+        /**
+         * @param patientId the patient
+         * @param eventTime the latest timestamp of the matching readings
+         * @param values    the matching value of each stream, in stream order
+         */
+        void onMatch(int patientId, long eventTime, double[] values);
+    }
+
+    private final String[] streams;
+    private final long toleranceMillis;
+    private final long allowedLatenessMillis;
+    private final int maxBufferedPerStream;
+    private final long suppressRepeatsMillis;
+    private final JoinCondition condition;
+    private final MatchListener listener;
+
+    private final Map<Integer, PatientStreams> patients = new ConcurrentHashMap<>();
+    private final LongAdder lateCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+
+    /**
+     * Constructs a join.
+     *
+     * @param streams               the record types to join, e.g. {"Systolic", "Saturation"}
+     * @param toleranceMillis       the maximum time between readings of one match
+     * @param allowedLatenessMillis how far behind the latest reading a reading may arrive
+     * @param maxBufferedPerStream  the maximum number of buffered readings per patient and stream
+     * @param suppressRepeatsMillis a match is not reported if the patient's previous reported
+     *                              match is less than this much earlier; 0 reports every match
+     * @param condition             the condition the matching values must satisfy
+     * @param listener              receives the reported matches
+     */
+    public EventTimeJoin(String[] streams, long toleranceMillis, long allowedLatenessMillis, int maxBufferedPerStream,
+                         long suppressRepeatsMillis, JoinCondition condition, MatchListener listener) {
+        if (streams.length < 2) {
+            throw new IllegalArgumentException("A join needs at least two streams");
+        }
+        if (toleranceMillis < 0 || allowedLatenessMillis < 0 || suppressRepeatsMillis < 0 || maxBufferedPerStream < 1) {
+            throw new IllegalArgumentException("Join windows must not be negative and buffers must hold a reading");
+        }
+        this.streams = streams.clone();
+        this.toleranceMillis = toleranceMillis;
+        this.allowedLatenessMillis = allowedLatenessMillis;
+        this.maxBufferedPerStream = maxBufferedPerStream;
+        this.suppressRepeatsMillis = suppressRepeatsMillis;
+        this.condition = condition;
+        this.listener = listener;
+    }
+
+    /**
+     * The hypotensive hypoxemia rule: a Systolic reading below 90 and a Saturation
+     * reading below 92 at most a minute apart. Readings may be 30 seconds late and a
+     * patient is reported at most once every 5 minutes.
+     *
+     * @param listener receives the matches; values are {systolic, saturation}
+     * @return the join
+     */
+    public static EventTimeJoin hypotensiveHypoxemia(MatchListener listener) {
+        return hypotensiveHypoxemia(30_000, listener);
+    }
+
+    /**
+     * The hypotensive hypoxemia rule with a different allowed lateness, e.g. the length
+     * of the window when joining a batch of records that is not in time order.
+     *
+     * @param allowedLatenessMillis how far behind the latest reading a reading may arrive
+     * @param listener              receives the matches; values are {systolic, saturation}
+     * @return the join
+     */
+    public static EventTimeJoin hypotensiveHypoxemia(long allowedLatenessMillis, MatchListener listener) {
+        return new EventTimeJoin(new String[]{"Systolic", "Saturation"}, 60_000, allowedLatenessMillis, 512,
+                5 * 60_000, values -> values[0] < 90 && values[1] < 92, listener);
+    }
+
+    /**
+     * Adds a reading; readings of other record types are ignored.
+     *
+     * @param patientId  the patient
+     * @param recordType the record type of the reading
+     * @param value      the measured value
+     * @param timestamp  the event time of the reading
+     * @return true if the reading completed a match that was reported
+     */
+    public boolean add(int patientId, String recordType, double value, long timestamp) {
+        int stream = streamIndex(recordType);
+        if (stream < 0) {
+            return false;
+        }
+        PatientStreams state = patients.get(patientId);
+        if (state == null) {
+            state = patients.computeIfAbsent(patientId, id -> new PatientStreams());
+        }
+        long matchTime;
+        double[] matchValues;
+        synchronized (state) {
+            if (state.hasData && timestamp < state.maxTime - allowedLatenessMillis) {
+                lateCount.increment();
+                return false;
+            }
+            state.hasData = true;
+            state.maxTime = Math.max(state.maxTime, timestamp);
+            state.insert(stream, timestamp, value);
+            state.evictBefore(state.maxTime - allowedLatenessMillis - toleranceMillis);
+
+            state.scratchValues[stream] = value;
+            matchTime = state.findMatch(stream, 0, timestamp, timestamp);
+            if (matchTime == Long.MIN_VALUE) {
+                return false;
+            }
+            if (state.hasEmitted && Math.abs(matchTime - state.lastEmitted) < suppressRepeatsMillis) {
+                return false;
+            }
+            state.hasEmitted = true;
+            state.lastEmitted = matchTime;
+            matchValues = state.scratchValues.clone();
+        }
+        listener.onMatch(patientId, matchTime, matchValues);
+        return true;
+    }
+
+    /**
+     * @param patientId the patient
+     * @return the number of readings buffered for the patient over all streams
+     */
+    public int getBufferedCount(int patientId) {
+        PatientStreams state = patients.get(patientId);
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            int count = 0;
+            for (int size : state.sizes) {
+                count += size;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * @return the number of readings dropped because they were behind the watermark
+     */
+    public long getLateCount() {
+        return lateCount.sum();
+    }
+
+    /**
+     * @return the number of readings evicted early because a stream buffer was full
+     */
+    public long getEvictedCount() {
+        return evictedCount.sum();
+    }
+
+    /**
+     * Forgets all buffered readings of the patient.
+     *
+     * @param patientId the patient
+     */
+    public void removePatient(int patientId) {
+        patients.remove(patientId);
+    }
+
+    private int streamIndex(String recordType) {
+        for (int i = 0; i < streams.length; i++) {
+            if (streams[i].equals(recordType)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The buffered readings of one patient: per stream, timestamps and values sorted by time.
+     */
+    private final class PatientStreams {
+        private final long[][] times = new long[streams.length][8];
+        private final double[][] values = new double[streams.length][8];
+        private final int[] sizes = new int[streams.length];
+        private final double[] scratchValues = new double[streams.length];
+        private boolean hasData;
+        private long maxTime;
+        private boolean hasEmitted;
+        private long lastEmitted;
+
+        void insert(int stream, long timestamp, double value) {
+            int size = sizes[stream];
+            if (size == maxBufferedPerStream) {
+                removeFirst(stream, 1);
+                evictedCount.increment();
+                size--;
+            }
+            if (size == times[stream].length) {
+                int capacity = Math.min(maxBufferedPerStream, size * 2);
+                times[stream] = Arrays.copyOf(times[stream], capacity);
+                values[stream] = Arrays.copyOf(values[stream], capacity);
+            }
+            // * Readings mostly arrive in order; a late one is moved into place.
+            int at = size;
+            while (at > 0 && times[stream][at - 1] > timestamp) {
+                at--;
+            }
+            System.arraycopy(times[stream], at, times[stream], at + 1, size - at);
+            System.arraycopy(values[stream], at, values[stream], at + 1, size - at);
+            times[stream][at] = timestamp;
+            values[stream][at] = value;
+            sizes[stream] = size + 1;
+        }
+
+        void evictBefore(long cutoff) {
+            for (int stream = 0; stream < streams.length; stream++) {
+                int count = 0;
+                while (count < sizes[stream] && times[stream][count] < cutoff) {
+                    count++;
+                }
+                if (count > 0) {
+                    removeFirst(stream, count);
+                }
+            }
+        }
+
+        /**
+         * Chooses a reading for every stream after {@code next} (skipping the stream of the
+         * new reading, whose value is already in the scratch array) so that all chosen
+         * readings fit in the tolerance and the condition holds.
+         *
+         * @return the latest timestamp of the match, or Long.MIN_VALUE if there is none
+         */
+        long findMatch(int fixedStream, int next, long minTime, long maxTime) {
+            if (next == fixedStream) {
+                next++;
+            }
+            if (next == streams.length) {
+                return condition.test(scratchValues) ? maxTime : Long.MIN_VALUE;
+            }
+            long[] streamTimes = times[next];
+            for (int i = firstAtOrAfter(next, maxTime - toleranceMillis); i < sizes[next]; i++) {
+                long time = streamTimes[i];
+                if (time > minTime + toleranceMillis) {
+                    break;
+                }
+                scratchValues[next] = values[next][i];
+                long match = findMatch(fixedStream, next + 1, Math.min(minTime, time), Math.max(maxTime, time));
+                if (match != Long.MIN_VALUE) {
+                    return match;
+                }
+            }
+            return Long.MIN_VALUE;
+        }
+
+        private int firstAtOrAfter(int stream, long timestamp) {
+            int low = 0;
+            int high = sizes[stream];
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[stream][mid] < timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void removeFirst(int stream, int count) {
+            int remaining = sizes[stream] - count;
+            System.arraycopy(times[stream], count, times[stream], 0, remaining);
+            System.arraycopy(values[stream], count, values[stream], 0, remaining);
+            sizes[stream] = remaining;
+        }
+    }
+}
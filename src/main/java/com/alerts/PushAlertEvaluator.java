@@ -0,0 +1,158 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.DataStorageListener;
+import com.data_management.PatientRecord;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * The {@code PushAlertEvaluator} evaluates a patient as soon as new data for that
+ * patient is written to the {@link DataStorage}, instead of waiting for a sweep
+ * over all patients.
+ *
+ * Every arriving record goes through {@link AlertGenerator#addSample} straight
+ * away (O(1)), which also feeds the event-time join and the trend estimator, and
+ * marks the patient dirty. A worker thread then evaluates
+ * dirty patients one by one. A patient that is already dirty is not queued again,
+ * so a burst of samples for one patient results in a single evaluation.
+ */
+public class PushAlertEvaluator implements DataStorageListener {
+
+    private final AlertGenerator alertGenerator;
+
+    // * Dirty patients mapped to the System.nanoTime() of their oldest unevaluated sample.
+    private final Map<Integer, Long> dirtySince = new ConcurrentHashMap<>();
+    private final BlockingQueue<Integer> dirtyQueue = new LinkedBlockingQueue<>();
+
+    private final AtomicLong sampleCount = new AtomicLong();
+    private final AtomicLong evaluationCount = new AtomicLong();
+
+    private volatile LongConsumer latencyListener;
+    private volatile Thread worker;
+
+    /**
+     * Constructs a push evaluator that evaluates patients with the given generator.
+     *
+     * @param alertGenerator the generator that holds the alert rules and states
+     */
+    public PushAlertEvaluator(AlertGenerator alertGenerator) {
+        this.alertGenerator = alertGenerator;
+    }
+
+    /**
+     * Feeds the record to the generator's incremental evaluators (rolling state,
+     * correlated-rule join and trend estimator) and marks the patient for evaluation.
+     *
+     * @param record the record that was just stored
+     */
+    @Override
+    public void onRecordAdded(PatientRecord record) {
+        alertGenerator.addSample(record);
+        sampleCount.incrementAndGet();
+
+        int patientId = record.getPatientId();
+        if (dirtySince.putIfAbsent(patientId, System.nanoTime()) == null) {
+            dirtyQueue.add(patientId);
+        }
+    }
+
+    /**
+     * Starts the worker thread that evaluates dirty patients as they come in.
+     */
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        worker = new Thread(this::runWorker, "push-alert-evaluator");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops the worker thread. Patients that are still dirty stay queued and can be
+     * evaluated with {@link #processPending()}.
+     */
+    public synchronized void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    /**
+     * Evaluates every patient that is currently dirty on the calling thread.
+     * Useful when no worker thread is running, e.g. in tests.
+     *
+     * @return the number of patients evaluated
+     */
+    public int processPending() {
+        int evaluated = 0;
+        Integer patientId;
+        while ((patientId = dirtyQueue.poll()) != null) {
+            evaluate(patientId);
+            evaluated++;
+        }
+        return evaluated;
+    }
+
+    /**
+     * Sets a listener that receives, for every evaluation, the nanoseconds between
+     * the oldest sample that made the patient dirty and the end of the evaluation.
+     *
+     * @param latencyListener the listener, or null to stop reporting
+     */
+    public void setLatencyListener(LongConsumer latencyListener) {
+        this.latencyListener = latencyListener;
+    }
+
+    /**
+     * @return the number of records received so far
+     */
+    public long getSampleCount() {
+        return sampleCount.get();
+    }
+
+    /**
+     * @return the number of patient evaluations run so far
+     */
+    public long getEvaluationCount() {
+        return evaluationCount.get();
+    }
+
+    /**
+     * @return the number of patients waiting to be evaluated
+     */
+    public int getPendingCount() {
+        return dirtyQueue.size();
+    }
+
+    private void runWorker() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                evaluate(dirtyQueue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                System.err.println("Error evaluating patient data: " + e.getMessage());
+            }
+        }
+    }
+
+    private void evaluate(int patientId) {
+        // * Clear the flag first: a sample arriving during the evaluation queues the patient again.
+        Long since = dirtySince.remove(patientId);
+        alertGenerator.evaluateStreaming(patientId);
+        evaluationCount.incrementAndGet();
+
+        LongConsumer listener = latencyListener;
+        if (listener != null && since != null) {
+            listener.accept(System.nanoTime() - since);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.alerts;
+
+/**
+ * The {@code QrsDetector} finds R-peaks in a raw ECG stream, one sample at a time,
+ * following the steps of the Pan-Tompkins algorithm:
+ *
+ *   1. band-pass filter: a 25 ms moving average (low-pass) minus a 200 ms moving
+ *      average of that (removes baseline wander),
+ *   2. five-point derivative, to emphasise the steep QRS slopes,
+ *   3. squaring, so every slope becomes a positive value,
+ *   4. 150 ms moving-window integration,
+ *   5. peak detection on the integrated signal with adaptive signal/noise levels,
+ *      a 200 ms refractory period and a search-back for missed beats.
+ *
+ * All filters are ring buffers of primitives with running sums, so every sample
+ * costs O(1) and nothing is allocated after construction. One instance handles
+ * one patient and is not thread-safe.
+ */
+public class QrsDetector {
+
+    // * Number of RR intervals used for the heart rate and the irregularity check.
+    private static final int RR_HISTORY = 8;
+
+    private final double samplingRate;
+
+    private final MovingAverage lowPass;
+    private final MovingAverage highPass;
+    private final int highPassDelay;
+    private final double[] derivativeInput = new double[4];
+    private int derivativeIndex;
+    private final MovingAverage integration;
+
+    private final int learningSamples;
+    private final int refractorySamples;
+    private double learningMax;
+    private double learningSum;
+
+    private long sampleIndex;
+    private double previousIntegrated;
+    private double beforePreviousIntegrated;
+
+    private double signalLevel;
+    private double noiseLevel;
+    private double threshold;
+
+    private long lastBeatSample = -1;
+    private double searchBackPeak;
+    private long searchBackSample = -1;
+
+    private final long[] rrIntervals = new long[RR_HISTORY];
+    private int rrNext;
+    private int rrCount;
+    private long rrSum;
+
+    /**
+     * Constructs a detector for an ECG sampled at the given rate.
+     *
+     * @param samplingRate the number of ECG samples per second, e.g. 250 or 500
+     */
+    public QrsDetector(double samplingRate) {
+        if (samplingRate < 50) {
+            throw new IllegalArgumentException("Sampling rate too low for QRS detection: " + samplingRate);
+        }
+        this.samplingRate = samplingRate;
+        this.lowPass = new MovingAverage(samples(0.025));
+        this.highPass = new MovingAverage(samples(0.200));
+        this.highPassDelay = (samples(0.200) - 1) / 2;
+        this.integration = new MovingAverage(samples(0.150));
+        this.learningSamples = samples(2.0);
+        this.refractorySamples = samples(0.200);
+    }
+
+    /**
+     * Adds the next ECG sample.
+     *
+     * @param value the raw ECG value
+     * @return true if a new beat was confirmed with this sample
+     */
+    public boolean addSample(double value) {
+        double lowPassed = lowPass.add(value);
+        double baseline = highPass.add(lowPassed);
+        // * Subtract the baseline from the low-passed value at the centre of the baseline window.
+        double bandPassed = highPass.valueAgo(highPassDelay) - baseline;
+
+        // * Five-point derivative: (2x[n] + x[n-1] - x[n-3] - 2x[n-4]) * fs / 8
+        double x1 = derivativeInput[(derivativeIndex + 3) % 4];
+        double x3 = derivativeInput[(derivativeIndex + 1) % 4];
+        double x4 = derivativeInput[derivativeIndex];
+        double derivative = (2 * bandPassed + x1 - x3 - 2 * x4) * samplingRate / 8.0;
+        derivativeInput[derivativeIndex] = bandPassed;
+        derivativeIndex = (derivativeIndex + 1) % 4;
+
+        double integrated = integration.add(derivative * derivative);
+        long current = sampleIndex++;
+
+        if (current < learningSamples) {
+            learningMax = Math.max(learningMax, integrated);
+            learningSum += integrated;
+            if (current == learningSamples - 1) {
+                signalLevel = learningMax / 3.0;
+                noiseLevel = learningSum / learningSamples / 2.0;
+                updateThreshold();
+            }
+            shiftPeakWindow(integrated);
+            return false;
+        }
+
+        boolean beat = false;
+        // * A local maximum of the integrated signal at the previous sample is a peak candidate.
+        if (previousIntegrated > integrated && previousIntegrated >= beforePreviousIntegrated) {
+            beat = classifyPeak(previousIntegrated, current - 1);
+        }
+        if (!beat) {
+            beat = searchBack(current);
+        }
+        shiftPeakWindow(integrated);
+        return beat;
+    }
+
+    /**
+     * @return the heart rate in beats per minute from the recent RR intervals, or NaN before two beats
+     */
+    public double getHeartRate() {
+        if (rrCount == 0) {
+            return Double.NaN;
+        }
+        return 60.0 * samplingRate * rrCount / rrSum;
+    }
+
+    /**
+     * @return the latest RR interval in milliseconds, or -1 before two beats
+     */
+    public long getLastRrMillis() {
+        if (rrCount == 0) {
+            return -1;
+        }
+        return Math.round(rrIntervals[(rrNext + RR_HISTORY - 1) % RR_HISTORY] * 1000.0 / samplingRate);
+    }
+
+    /**
+     * Checks whether the recent rhythm is irregular: the mean absolute difference
+     * between successive RR intervals is more than 15% of the mean RR interval.
+     *
+     * @return true if the last 8 RR intervals are irregular; false otherwise or if there are fewer
+     */
+    public boolean isRhythmIrregular() {
+        if (rrCount < RR_HISTORY) {
+            return false;
+        }
+        long differenceSum = 0;
+        for (int i = 1; i < RR_HISTORY; i++) {
+            long current = rrIntervals[(rrNext + i) % RR_HISTORY];
+            long previous = rrIntervals[(rrNext + i - 1) % RR_HISTORY];
+            differenceSum += Math.abs(current - previous);
+        }
+        double meanDifference = differenceSum / (double) (RR_HISTORY - 1);
+        double meanRr = rrSum / (double) RR_HISTORY;
+        return meanDifference > 0.15 * meanRr;
+    }
+
+    /**
+     * @return the number of samples between the latest beat and the latest sample, or -1 before the first beat
+     */
+    public long getSamplesSinceBeat() {
+        return lastBeatSample < 0 ? -1 : sampleIndex - 1 - lastBeatSample;
+    }
+
+    /**
+     * @return the sampling rate this detector was built for
+     */
+    public double getSamplingRate() {
+        return samplingRate;
+    }
+
+    private boolean classifyPeak(double peak, long peakSample) {
+        boolean outsideRefractory = lastBeatSample < 0 || peakSample - lastBeatSample > refractorySamples;
+        if (peak > threshold && outsideRefractory) {
+            signalLevel = 0.125 * peak + 0.875 * signalLevel;
+            updateThreshold();
+            registerBeat(peakSample);
+            return true;
+        }
+
+        noiseLevel = 0.125 * peak + 0.875 * noiseLevel;
+        updateThreshold();
+        if (outsideRefractory && peak > searchBackPeak) {
+            searchBackPeak = peak;
+            searchBackSample = peakSample;
+        }
+        return false;
+    }
+
+    /**
+     * When no beat was found for 166% of the average RR interval, the largest peak
+     * since the last beat is accepted if it exceeds half the threshold.
+     */
+    private boolean searchBack(long current) {
+        if (rrCount == 0 || searchBackSample < 0) {
+            return false;
+        }
+        double averageRr = rrSum / (double) rrCount;
+        if (current - lastBeatSample <= 1.66 * averageRr || searchBackPeak <= 0.5 * threshold) {
+            return false;
+        }
+        signalLevel = 0.25 * searchBackPeak + 0.75 * signalLevel;
+        updateThreshold();
+        registerBeat(searchBackSample);
+        return true;
+    }
+
+    private void registerBeat(long beatSample) {
+        if (lastBeatSample >= 0) {
+            long rr = beatSample - lastBeatSample;
+            if (rrCount == RR_HISTORY) {
+                rrSum -= rrIntervals[rrNext];
+            } else {
+                rrCount++;
+            }
+            rrIntervals[rrNext] = rr;
+            rrSum += rr;
+            rrNext = (rrNext + 1) % RR_HISTORY;
+        }
+        lastBeatSample = beatSample;
+        searchBackPeak = 0;
+        searchBackSample = -1;
+    }
+
+    private void updateThreshold() {
+        threshold = noiseLevel + 0.25 * (signalLevel - noiseLevel);
+    }
+
+    private void shiftPeakWindow(double integrated) {
+        beforePreviousIntegrated = previousIntegrated;
+        previousIntegrated = integrated;
+    }
+
+    private int samples(double seconds) {
+        return Math.max(1, (int) Math.round(seconds * samplingRate));
+    }
+
+    /**
+     * Moving average over a ring buffer with a running sum. The sum is recomputed
+     * each time the ring wraps around so rounding errors cannot build up.
+     */
+    private static final class MovingAverage {
+        private final double[] buffer;
+        private int index;
+        private double sum;
+
+        MovingAverage(int length) {
+            buffer = new double[length];
+        }
+
+        double add(double value) {
+            sum += value - buffer[index];
+            buffer[index] = value;
+            index++;
+            if (index == buffer.length) {
+                index = 0;
+                sum = 0;
+                for (double v : buffer) {
+                    sum += v;
+                }
+            }
+            return sum / buffer.length;
+        }
+
+        /**
+         * @param samplesAgo 0 for the latest value, up to length - 1
+         */
+        double valueAgo(int samplesAgo) {
+            int position = index - 1 - samplesAgo;
+            if (position < 0) {
+                position += buffer.length;
+            }
+            return buffer[position];
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.alerts;
+
+/**
+ * An {@link AlertClock} that shows the event time of a replay: it stands at the
+ * timestamp of the latest replayed record and never moves backwards.
+ */
+public class ReplayClock implements AlertClock {
+
+    private volatile long now;
+
+    /**
+     * @param start the initial time in milliseconds since epoch
+     */
+    public ReplayClock(long start) {
+        this.now = start;
+    }
+
+    /**
+     * Moves the clock forward; earlier times are ignored.
+     *
+     * @param timestamp the event time reached by the replay
+     */
+    public void advanceTo(long timestamp) {
+        if (timestamp > now) {
+            now = timestamp;
+        }
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+}
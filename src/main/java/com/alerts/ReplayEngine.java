@@ -0,0 +1,275 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.DataStorageListener;
+import com.data_management.FileDataReader;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code ReplayEngine} streams historical records through the alert pipeline in
+ * event time. Each source (a patient's stored records, or one data file) must be in
+ * timestamp order; the sources are merged with a k-way merge on (timestamp, source
+ * index), so the order of the output, and thus of the alerts, is the same on every
+ * run. Before a record is delivered, the {@link ReplayClock} is moved to its
+ * timestamp, so every window ends at the record's own time.
+ *
+ * By default records are replayed as fast as the CPU allows; with a speed-up factor
+ * the replay is paced, e.g. 60 replays an hour of data in a minute.
+ */
+public class ReplayEngine {
+
+    /**
+     * Replays without pacing.
+     */
+    public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+
+    private final ReplayClock clock;
+    private final double speedUp;
+
+    /**
+     * @param clock   the clock moved along with the replay; give the same clock to the alert generator
+     * @param speedUp how much faster than real time to replay, or {@link #AS_FAST_AS_POSSIBLE}
+     */
+    public ReplayEngine(ReplayClock clock, double speedUp) {
+        if (!(speedUp > 0)) {
+            throw new IllegalArgumentException("Speed-up must be positive: " + speedUp);
+        }
+        this.clock = clock;
+        this.speedUp = speedUp;
+    }
+
+    /**
+     * Replays every record of the storage, patient by patient merged in time order.
+     *
+     * @param storage  the storage to replay
+     * @param consumer receives every record in event-time order, e.g. {@code alertGenerator::evaluateSample}
+     * @return statistics of the replay
+     */
+    public ReplayResult replay(DataStorage storage, DataStorageListener consumer) {
+        List<Patient> patients = new ArrayList<>(storage.getAllPatients());
+        patients.sort(Comparator.comparingInt(Patient::getPatientId));
+        List<Iterator<PatientRecord>> sources = new ArrayList<>();
+        for (Patient patient : patients) {
+            List<PatientRecord> records = patient.getRecords(Long.MIN_VALUE, Long.MAX_VALUE);
+            // * Stable sort: records with equal timestamps keep their insertion order.
+            records.sort(Comparator.comparingLong(PatientRecord::getTimestamp));
+            sources.add(records.iterator());
+        }
+        return replay(sources, consumer);
+    }
+
+    /**
+     * Replays the data files of a directory in the format read by {@link FileDataReader},
+     * streaming each file instead of loading it. Invalid lines are skipped.
+     *
+     * @param reader   the reader that knows the directory
+     * @param consumer receives every record in event-time order
+     * @return statistics of the replay
+     * @throws IOException if the directory or a file cannot be read
+     */
+    public ReplayResult replay(FileDataReader reader, DataStorageListener consumer) throws IOException {
+        File[] files = reader.listDataFiles();
+        Arrays.sort(files);
+        List<FileSource> sources = new ArrayList<>();
+        try {
+            for (File file : files) {
+                sources.add(new FileSource(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)));
+            }
+            return replay(new ArrayList<>(sources), consumer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            for (FileSource source : sources) {
+                source.close();
+            }
+        }
+    }
+
+    /**
+     * Replays any time-ordered record sources.
+     *
+     * @param sources  the sources, each in timestamp order
+     * @param consumer receives every record in event-time order
+     * @return statistics of the replay
+     */
+    public ReplayResult replay(List<? extends Iterator<PatientRecord>> sources, DataStorageListener consumer) {
+        PriorityQueue<Cursor> merge = new PriorityQueue<>(Math.max(1, sources.size()));
+        for (int i = 0; i < sources.size(); i++) {
+            Cursor cursor = new Cursor(sources.get(i), i);
+            if (cursor.advance()) {
+                merge.add(cursor);
+            }
+        }
+
+        long wallStart = System.nanoTime();
+        long firstEvent = merge.isEmpty() ? 0 : merge.peek().record.getTimestamp();
+        long lastEvent = firstEvent;
+        long records = 0;
+        long outOfOrder = 0;
+        while (!merge.isEmpty()) {
+            Cursor cursor = merge.poll();
+            PatientRecord record = cursor.record;
+            long timestamp = record.getTimestamp();
+            if (timestamp < lastEvent) {
+                // * The source was not sorted; the record is delivered late rather than dropped.
+                outOfOrder++;
+            } else {
+                lastEvent = timestamp;
+                pace(wallStart, timestamp - firstEvent);
+            }
+            clock.advanceTo(timestamp);
+            consumer.onRecordAdded(record);
+            records++;
+            if (cursor.advance()) {
+                merge.add(cursor);
+            }
+        }
+        return new ReplayResult(records, outOfOrder, lastEvent - firstEvent, System.nanoTime() - wallStart);
+    }
+
+    private void pace(long wallStart, long eventOffsetMillis) {
+        if (speedUp == AS_FAST_AS_POSSIBLE) {
+            return;
+        }
+        long due = wallStart + (long) (TimeUnit.MILLISECONDS.toNanos(eventOffsetMillis) / speedUp);
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    /**
+     * The head record of one source, ordered by timestamp and then source index.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+        private final Iterator<PatientRecord> source;
+        private final int sourceIndex;
+        private PatientRecord record;
+
+        Cursor(Iterator<PatientRecord> source, int sourceIndex) {
+            this.source = source;
+            this.sourceIndex = sourceIndex;
+        }
+
+        boolean advance() {
+            if (!source.hasNext()) {
+                return false;
+            }
+            record = source.next();
+            return true;
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            int byTime = Long.compare(record.getTimestamp(), other.record.getTimestamp());
+            return byTime != 0 ? byTime : Integer.compare(sourceIndex, other.sourceIndex);
+        }
+    }
+
+    /**
+     * Reads the records of one data file lazily.
+     */
+    private static final class FileSource implements Iterator<PatientRecord> {
+        private final BufferedReader reader;
+        private PatientRecord next;
+
+        FileSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                String line;
+                while (next == null && (line = reader.readLine()) != null) {
+                    next = FileDataReader.parseRecord(line);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return next != null;
+        }
+
+        @Override
+        public PatientRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            PatientRecord record = next;
+            next = null;
+            return record;
+        }
+
+        void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                System.err.println("Error closing replay file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Summary of one replay.
+     */
+    public static final class ReplayResult {
+        private final long records;
+        private final long outOfOrderRecords;
+        private final long eventSpanMillis;
+        private final long wallNanos;
+
+        ReplayResult(long records, long outOfOrderRecords, long eventSpanMillis, long wallNanos) {
+            this.records = records;
+            this.outOfOrderRecords = outOfOrderRecords;
+            this.eventSpanMillis = eventSpanMillis;
+            this.wallNanos = wallNanos;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        /**
+         * @return the number of records that were earlier than a record already replayed
+         */
+        public long getOutOfOrderRecords() {
+            return outOfOrderRecords;
+        }
+
+        /**
+         * @return the event time between the first and the last record
+         */
+        public long getEventSpanMillis() {
+            return eventSpanMillis;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = wallNanos / 1e9;
+            return String.format("Replayed %d records (%.1f h of event time) in %.1f s: %.0f records/s, %.0fx real time",
+                    records, eventSpanMillis / 3.6e6, seconds, records / seconds,
+                    eventSpanMillis / 1000.0 / seconds);
+        }
+    }
+}
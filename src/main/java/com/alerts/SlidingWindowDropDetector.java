@@ -0,0 +1,155 @@
+package com.alerts;
+
+/**
+ * The {@code SlidingWindowDropDetector} detects a rapid drop of any metric: a sample
+ * that is at least {@code dropThreshold} lower than an earlier sample taken at most
+ * {@code windowMillis} before it.
+ *
+ * It keeps a sliding-window maximum in a monotonic deque (timestamps increasing,
+ * values strictly decreasing), stored in primitive ring buffers. Every sample is
+ * pushed and popped at most once and the front of the deque is the window maximum,
+ * so feeding n samples is linear and each new sample is checked as it arrives.
+ *
+ * Samples must be added in timestamp order. Instances are not thread-safe.
+ */
+public class SlidingWindowDropDetector {
+
+    private final long windowMillis;
+    private final double dropThreshold;
+
+    private long[] times = new long[16];
+    private double[] values = new double[16];
+    private int head;
+    private int size;
+
+    private long dropStartTime;
+    private double dropStartValue;
+    private double lastDrop = Double.NaN;
+
+    /**
+     * Constructs a drop detector.
+     *
+     * @param windowMillis  the maximum time between the high and the low sample
+     * @param dropThreshold the minimum drop between the two samples
+     */
+    public SlidingWindowDropDetector(long windowMillis, double dropThreshold) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Window must not be negative: " + windowMillis);
+        }
+        this.windowMillis = windowMillis;
+        this.dropThreshold = dropThreshold;
+    }
+
+    /**
+     * Adds a sample and checks whether it completes a rapid drop.
+     *
+     * If it does, {@link #getDropStartTime()} and {@link #getDropStartValue()} describe
+     * the latest earlier sample that is high enough, which is the drop that stays
+     * inside a moving window the longest.
+     *
+     * @param timestamp the time of the sample in milliseconds
+     * @param value     the measured value
+     * @return true if the sample is at least the threshold below an earlier sample in the window
+     */
+    public boolean add(long timestamp, double value) {
+        long oldest = timestamp - windowMillis;
+        while (size > 0 && times[head] < oldest) {
+            head = (head + 1) % times.length;
+            size--;
+        }
+
+        // * The front of the deque is the window maximum, so the check itself is O(1).
+        lastDrop = size > 0 ? values[head] - value : Double.NaN;
+        boolean dropped = size > 0 && lastDrop >= dropThreshold;
+        if (dropped) {
+            recordDropStart(value);
+        }
+
+        while (size > 0 && values[index(size - 1)] <= value) {
+            size--;
+        }
+        if (size == times.length) {
+            grow();
+        }
+        times[index(size)] = timestamp;
+        values[index(size)] = value;
+        size++;
+        return dropped;
+    }
+
+    /**
+     * @return the timestamp of the high sample of the last detected drop
+     */
+    public long getDropStartTime() {
+        return dropStartTime;
+    }
+
+    /**
+     * @return the value of the high sample of the last detected drop
+     */
+    public double getDropStartValue() {
+        return dropStartValue;
+    }
+
+    /**
+     * @return how far the last added sample is below the highest earlier sample in its
+     *         window (negative if it is higher), or NaN if there was no earlier sample
+     */
+    public double getLastDrop() {
+        return lastDrop;
+    }
+
+    /**
+     * @return the highest value in the window ending at the last added sample, or NaN if there is none
+     */
+    public double getWindowMax() {
+        return size == 0 ? Double.NaN : values[head];
+    }
+
+    /**
+     * Forgets all samples.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+        lastDrop = Double.NaN;
+    }
+
+    /**
+     * Finds the latest sample in the deque that is high enough for a drop. The deque
+     * is decreasing, so those samples form a prefix and a binary search finds its end.
+     * This only runs when a drop was detected.
+     */
+    private void recordDropStart(double value) {
+        int low = 0;
+        int high = size - 1;
+        int latestHigher = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (values[index(mid)] - value >= dropThreshold) {
+                latestHigher = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        dropStartTime = times[index(latestHigher)];
+        dropStartValue = values[index(latestHigher)];
+    }
+
+    private int index(int offset) {
+        return (head + offset) % times.length;
+    }
+
+    private void grow() {
+        long[] newTimes = new long[times.length * 2];
+        double[] newValues = new double[values.length * 2];
+        for (int i = 0; i < size; i++) {
+            newTimes[i] = times[index(i)];
+            newValues[i] = values[index(i)];
+        }
+        times = newTimes;
+        values = newValues;
+        head = 0;
+    }
+}
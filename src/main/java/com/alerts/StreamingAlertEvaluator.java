@@ -0,0 +1,235 @@
+package com.alerts;
+
+import com.data_management.PatientRecord;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code StreamingAlertEvaluator} keeps rolling alert state for every patient
+ * and updates it as each sample arrives, so evaluating a patient never rescans
+ * their history.
+ *
+ * It applies the same rules as {@link AlertGenerator#evaluateData}: heart rate,
+ * critical blood pressure, hypotensive hypoxemia, low saturation, rapid saturation
+ * drop, blood pressure trends and the ECG spike check. For every rule only the
+ * timestamp of its most recent violation is kept; a rule is active while that
+ * timestamp is still inside the window. That makes each sample O(1) amortized
+ * and each evaluation O(1).
+ *
+ * Assumption: samples of one patient arrive in timestamp order (as they do from
+ * the simulator and the WebSocket client).
+ */
+public class StreamingAlertEvaluator {
+
+    public static final long DEFAULT_WINDOW_MILLIS = 10 * 60 * 1000;
+
+    // * Sentinel for "this rule has never been violated".
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final long windowMillis;
+    private final Map<Integer, PatientWindow> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an evaluator using the same 10-minute window as {@link AlertGenerator}.
+     */
+    public StreamingAlertEvaluator() {
+        this(DEFAULT_WINDOW_MILLIS);
+    }
+
+    /**
+     * Constructs an evaluator with a custom window length.
+     *
+     * @param windowMillis the length of the evaluation window in milliseconds
+     */
+    public StreamingAlertEvaluator(long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + windowMillis);
+        }
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Updates the rolling state of the record's patient with a new sample.
+     *
+     * @param record the newly arrived record
+     */
+    public void addSample(PatientRecord record) {
+        addSample(record.getPatientId(), record.getRecordType(), record.getMeasurementValue(), record.getTimestamp());
+    }
+
+    /**
+     * Updates the rolling state of a patient with a new sample.
+     *
+     * @param patientId  the unique identifier of the patient
+     * @param recordType the type of the sample, e.g. "Systolic"
+     * @param value      the measured value
+     * @param timestamp  the time of the measurement in milliseconds since epoch
+     */
+    public void addSample(int patientId, String recordType, double value, long timestamp) {
+        windows.computeIfAbsent(patientId, id -> new PatientWindow(windowMillis))
+                .add(recordType, value, timestamp);
+    }
+
+    /**
+     * Checks whether any vital sign rule is active for the patient at the given time.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param now       the end of the evaluation window in milliseconds since epoch
+     * @return true if an alert is needed; false otherwise
+     */
+    public boolean isAlertNeeded(int patientId, long now) {
+        PatientWindow window = windows.get(patientId);
+        return window != null && window.isAlertNeeded(now - windowMillis);
+    }
+
+    /**
+     * Checks whether the ECG spike rule is active for the patient at the given time.
+     * Same as {@link AlertGenerator#hasEcgAlert}: at least 5 ECG values in the window
+     * and one of them is outside the thresholds.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param now       the end of the evaluation window in milliseconds since epoch
+     * @return true if an ECG anomaly is in the window; false otherwise
+     */
+    public boolean hasEcgAnomaly(int patientId, long now) {
+        PatientWindow window = windows.get(patientId);
+        return window != null && window.hasEcgAnomaly(now - windowMillis);
+    }
+
+    /**
+     * Forgets the rolling state of a patient.
+     *
+     * @param patientId the unique identifier of the patient
+     */
+    public void removePatient(int patientId) {
+        windows.remove(patientId);
+    }
+
+    /**
+     * Forgets the rolling state of all patients.
+     */
+    public void clear() {
+        windows.clear();
+    }
+
+    /**
+     * Rolling rule state of a single patient.
+     */
+    private static final class PatientWindow {
+        private long lastHeartRateViolation = NEVER;
+        private long lastSystolicViolation = NEVER;
+        private long lastDiastolicViolation = NEVER;
+        private long lastLowSaturation = NEVER;
+        private long lastSaturationDrop = NEVER;
+        private long lastEcgAnomaly = NEVER;
+
+        private final TrendTracker systolicTrend = new TrendTracker();
+        private final TrendTracker diastolicTrend = new TrendTracker();
+
+        private final SlidingWindowDropDetector saturationDrop;
+
+        // * Timestamps of the last 5 ECG samples, enough to know if 5 of them are in the window.
+        private final long[] recentEcgTimes = new long[5];
+        private int ecgNext;
+        private int ecgCount;
+
+        PatientWindow(long windowMillis) {
+            this.saturationDrop = new SlidingWindowDropDetector(windowMillis, 5.0);
+        }
+
+        synchronized void add(String type, double value, long timestamp) {
+            switch (type) {
+                case "HeartRate":
+                    if (value < 60 || value > 100) {
+                        lastHeartRateViolation = Math.max(lastHeartRateViolation, timestamp);
+                    }
+                    break;
+                case "Systolic":
+                    if (value > 180 || value < 90) {
+                        lastSystolicViolation = Math.max(lastSystolicViolation, timestamp);
+                    }
+                    systolicTrend.add(value, timestamp);
+                    break;
+                case "Diastolic":
+                    if (value > 120 || value < 60) {
+                        lastDiastolicViolation = Math.max(lastDiastolicViolation, timestamp);
+                    }
+                    diastolicTrend.add(value, timestamp);
+                    break;
+                case "Saturation":
+                    if (value < 92) {
+                        lastLowSaturation = Math.max(lastLowSaturation, timestamp);
+                    }
+                    if (saturationDrop.add(timestamp, value)) {
+                        // * The drop leaves the window once its high reading does.
+                        lastSaturationDrop = Math.max(lastSaturationDrop, saturationDrop.getDropStartTime());
+                    }
+                    break;
+                case "ECG":
+                    recentEcgTimes[ecgNext] = timestamp;
+                    ecgNext = (ecgNext + 1) % recentEcgTimes.length;
+                    ecgCount = Math.min(ecgCount + 1, recentEcgTimes.length);
+                    if (value > 1.2 || value < -0.4) {
+                        lastEcgAnomaly = Math.max(lastEcgAnomaly, timestamp);
+                    }
+                    break;
+                default:
+                    // * Other record types do not take part in any rule.
+                    break;
+            }
+        }
+
+        synchronized boolean isAlertNeeded(long windowStart) {
+            return lastHeartRateViolation >= windowStart
+                    || lastSystolicViolation >= windowStart
+                    || lastDiastolicViolation >= windowStart
+                    // * Hypotensive hypoxemia needs a low saturation, which is an alert on its own.
+                    || lastLowSaturation >= windowStart
+                    || lastSaturationDrop >= windowStart
+                    || systolicTrend.lastTrend >= windowStart
+                    || diastolicTrend.lastTrend >= windowStart;
+        }
+
+        synchronized boolean hasEcgAnomaly(long windowStart) {
+            if (ecgCount < recentEcgTimes.length || lastEcgAnomaly < windowStart) {
+                return false;
+            }
+            // * The oldest of the last 5 ECG samples sits at the next write position.
+            long fifthLatest = recentEcgTimes[ecgNext];
+            return fifthLatest >= windowStart;
+        }
+    }
+
+    /**
+     * Tracks the last three readings of a blood pressure series and remembers when
+     * the latest trend of three readings (each changing by more than 10 mmHg in the
+     * same direction) started.
+     */
+    private static final class TrendTracker {
+        private double previousValue;
+        private double lastValue;
+        private long previousTime;
+        private long lastTime;
+        private int count;
+        private long lastTrend = NEVER;
+
+        void add(double value, long timestamp) {
+            if (count >= 2) {
+                boolean increasing = (lastValue - previousValue > 10) && (value - lastValue > 10);
+                boolean decreasing = (previousValue - lastValue > 10) && (lastValue - value > 10);
+                if (increasing || decreasing) {
+                    // * The trend leaves the window once its first reading does.
+                    lastTrend = Math.max(lastTrend, previousTime);
+                }
+            }
+            previousValue = lastValue;
+            previousTime = lastTime;
+            lastValue = value;
+            lastTime = timestamp;
+            if (count < 2) {
+                count++;
+            }
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.alerts;
+
+import java.util.Arrays;
+
+/**
+ * The {@code TrendEstimator} follows the trend of several vital signs of every
+ * patient, one reading at a time. Per (patient, record type) it keeps
+ *
+ *   - an EWMA of the readings, the baseline of the CUSUM,
+ *   - a rolling least-squares slope over the last readings, from running sums of
+ *     x, y, x*x and x*y that are updated by adding the new and removing the oldest reading,
+ *   - a two-sided CUSUM of the deviations from the EWMA,
+ *
+ * so an update is O(1) no matter how long the window is. When {@link TrendLimits}
+ * are exceeded, the update reports the onset of a rising or falling trend once; it
+ * is reported again only after the slope has settled below half its limit.
+ *
+ * All state lives in primitive arrays with one slot per (patient, record type), the
+ * readings of the windows in float and int ring buffers; patients get a slot through
+ * an open-addressing table like in {@link AlertStateMachine}, so an update allocates
+ * nothing once the arrays have grown to the number of patients.
+ */
+public class TrendEstimator {
+
+    /**
+     * The trend an update reported.
+     */
+    public enum Trend {
+        NONE, RISING, FALLING
+    }
+
+    // * Marks a free entry of the patient table; patient ids are never this value.
+    private static final int FREE = Integer.MIN_VALUE;
+
+    private final TrendLimits[] limits;
+    private final int signalCount;
+    private final double[] alphas;
+    // * Position of each record type's ring inside a patient's ring block.
+    private final int[] ringOffsets;
+    private final int ringStride;
+
+    private int[] tableKeys;
+    private int[] tableSlots;
+    private int patientCount;
+
+    // * Per (patient, record type).
+    private double[] ewma;
+    private double[] cusumHigh;
+    private double[] cusumLow;
+    private double[] sumX;
+    private double[] sumY;
+    private double[] sumXX;
+    private double[] sumXY;
+    private long[] origin;
+    private int[] count;
+    private int[] head;
+    private byte[] reported;
+
+    // * Per (patient, record type, reading): milliseconds since the origin and value.
+    private int[] ringTimes;
+    private float[] ringValues;
+
+    /**
+     * Constructs an estimator for the given record types.
+     *
+     * @param limits the limits of each record type
+     */
+    public TrendEstimator(TrendLimits... limits) {
+        if (limits.length == 0) {
+            throw new IllegalArgumentException("At least one record type is required");
+        }
+        this.limits = limits.clone();
+        this.signalCount = limits.length;
+        this.alphas = new double[signalCount];
+        this.ringOffsets = new int[signalCount];
+        int stride = 0;
+        for (int i = 0; i < signalCount; i++) {
+            alphas[i] = 2.0 / (limits[i].getWindowSize() + 1);
+            ringOffsets[i] = stride;
+            stride += limits[i].getWindowSize();
+        }
+        this.ringStride = stride;
+        this.tableKeys = new int[64];
+        Arrays.fill(tableKeys, FREE);
+        this.tableSlots = new int[64];
+        allocate(16);
+    }
+
+    /**
+     * The estimator for systolic and diastolic pressure, heart rate and saturation,
+     * e.g. a systolic pressure climbing by more than 2 mmHg a minute over its last 10
+     * readings, or settling 40 mmHg of deviations above its baseline.
+     *
+     * Saturation readings come every second and wander by a point at a time within a
+     * few points, so its limits look at the last 5 minutes and only count deviations of
+     * more than 5 points: the simulator's random walk raises less than one onset per
+     * patient in 10 hours, while a fall from 98 to 88 % over 100 seconds is found about
+     * two minutes after it began.
+     *
+     * @return the estimator
+     */
+    public static TrendEstimator vitalSigns() {
+        return new TrendEstimator(
+                TrendLimits.of("Systolic", 10, 2.0, 5, 40),
+                TrendLimits.of("Diastolic", 10, 1.5, 4, 30),
+                TrendLimits.of("HeartRate", 10, 3.0, 5, 50),
+                TrendLimits.of("Saturation", 300, 3.0, 5, 80));
+    }
+
+    /**
+     * Adds a reading; readings of other record types are ignored.
+     *
+     * @param patientId  the patient
+     * @param recordType the record type of the reading
+     * @param value      the measured value
+     * @param timestamp  the time of the reading in milliseconds
+     * @return RISING or FALLING if this reading started a sustained trend, NONE otherwise
+     */
+    public synchronized Trend update(int patientId, String recordType, double value, long timestamp) {
+        int signal = signalIndex(recordType);
+        if (signal < 0) {
+            return Trend.NONE;
+        }
+        int slot = findSlot(patientId);
+        if (slot < 0) {
+            slot = addPatient(patientId);
+        }
+        int index = slot * signalCount + signal;
+        int ring = slot * ringStride + ringOffsets[signal];
+        TrendLimits limit = limits[signal];
+        int window = limit.getWindowSize();
+
+        long offset = timestamp - origin[index];
+        if (count[index] == 0 || offset > Integer.MAX_VALUE || offset < Integer.MIN_VALUE) {
+            // * First reading, or too far from the others to be part of the same trend.
+            reset(index, value, timestamp);
+            offset = 0;
+        } else {
+            double deviation = value - ewma[index];
+            cusumHigh[index] = Math.max(0, cusumHigh[index] + deviation - limit.getCusumSlack());
+            cusumLow[index] = Math.max(0, cusumLow[index] - deviation - limit.getCusumSlack());
+            ewma[index] += alphas[signal] * deviation;
+        }
+
+        int position = ring + head[index];
+        if (count[index] == window) {
+            addToSums(index, ringTimes[position], ringValues[position], -1);
+        } else {
+            count[index]++;
+        }
+        ringTimes[position] = (int) offset;
+        ringValues[position] = (float) value;
+        addToSums(index, ringTimes[position], ringValues[position], 1);
+        head[index] = (head[index] + 1) % window;
+        if (head[index] == 0) {
+            rebase(index, ring, window);
+        }
+
+        return report(index, limit, slope(index, window));
+    }
+
+    /**
+     * @param patientId  the patient
+     * @param recordType the record type
+     * @return the EWMA of the readings, or NaN if there are none
+     */
+    public synchronized double getEwma(int patientId, String recordType) {
+        int index = indexOf(patientId, recordType);
+        return index < 0 || count[index] == 0 ? Double.NaN : ewma[index];
+    }
+
+    /**
+     * @param patientId  the patient
+     * @param recordType the record type
+     * @return the least-squares slope over the window in units per minute, or NaN until the window is full
+     */
+    public synchronized double getSlopePerMinute(int patientId, String recordType) {
+        int index = indexOf(patientId, recordType);
+        if (index < 0) {
+            return Double.NaN;
+        }
+        int window = limits[index % signalCount].getWindowSize();
+        return count[index] < window ? Double.NaN : slope(index, window);
+    }
+
+    /**
+     * @return the number of patients that have a slot
+     */
+    public synchronized int getPatientCount() {
+        return patientCount;
+    }
+
+    /**
+     * @return the bytes of state kept per patient, including its share of the patient table
+     */
+    public long getBytesPerPatient() {
+        // * 7 doubles, a long, 2 ints and a byte per record type, a ring entry per reading,
+        // * and two table ints kept at most half full.
+        return signalCount * (7 * 8 + 8 + 2 * 4 + 1) + ringStride * (4 + 4) + 4 * 4;
+    }
+
+    /**
+     * Forgets the state of all patients.
+     */
+    public synchronized void clear() {
+        Arrays.fill(tableKeys, FREE);
+        patientCount = 0;
+    }
+
+    private Trend report(int index, TrendLimits limit, double slope) {
+        double slopeLimit = limit.getSlopeLimitPerMinute();
+        Trend trend = Trend.NONE;
+        if (slope > slopeLimit || cusumHigh[index] > limit.getCusumThreshold()) {
+            trend = Trend.RISING;
+        } else if (slope < -slopeLimit || cusumLow[index] > limit.getCusumThreshold()) {
+            trend = Trend.FALLING;
+        }
+        if (trend != Trend.NONE) {
+            // * A change has been detected; the CUSUM starts over from the new level.
+            cusumHigh[index] = 0;
+            cusumLow[index] = 0;
+            if (reported[index] == trend.ordinal()) {
+                return Trend.NONE;
+            }
+            reported[index] = (byte) trend.ordinal();
+            return trend;
+        }
+        if (Math.abs(slope) < slopeLimit / 2) {
+            reported[index] = (byte) Trend.NONE.ordinal();
+        }
+        return Trend.NONE;
+    }
+
+    /**
+     * Returns the slope of the full window in units per minute, 0 while it is not full.
+     */
+    private double slope(int index, int window) {
+        if (count[index] < window) {
+            return 0;
+        }
+        double denominator = window * sumXX[index] - sumX[index] * sumX[index];
+        if (denominator <= 0) {
+            return 0;
+        }
+        return (window * sumXY[index] - sumX[index] * sumY[index]) / denominator * 60;
+    }
+
+    private void addToSums(int index, int offsetMillis, float value, int sign) {
+        double x = offsetMillis / 1000.0;
+        sumX[index] += sign * x;
+        sumY[index] += sign * value;
+        sumXX[index] += sign * x * x;
+        sumXY[index] += sign * x * value;
+    }
+
+    /**
+     * Moves the origin to the oldest reading and recomputes the sums, once per window
+     * of readings, so the offsets stay small and the running sums do not drift.
+     */
+    private void rebase(int index, int ring, int window) {
+        int n = count[index];
+        // * With the head back at 0, the oldest reading is at 0 if the window is full.
+        int shift = n == window ? ringTimes[ring] : 0;
+        origin[index] += shift;
+        sumX[index] = 0;
+        sumY[index] = 0;
+        sumXX[index] = 0;
+        sumXY[index] = 0;
+        for (int i = 0; i < n; i++) {
+            ringTimes[ring + i] -= shift;
+            addToSums(index, ringTimes[ring + i], ringValues[ring + i], 1);
+        }
+    }
+
+    private void reset(int index, double value, long timestamp) {
+        ewma[index] = value;
+        cusumHigh[index] = 0;
+        cusumLow[index] = 0;
+        sumX[index] = 0;
+        sumY[index] = 0;
+        sumXX[index] = 0;
+        sumXY[index] = 0;
+        origin[index] = timestamp;
+        count[index] = 0;
+        head[index] = 0;
+        reported[index] = (byte) Trend.NONE.ordinal();
+    }
+
+    private int signalIndex(String recordType) {
+        for (int i = 0; i < signalCount; i++) {
+            if (limits[i].getRecordType().equals(recordType)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOf(int patientId, String recordType) {
+        int signal = signalIndex(recordType);
+        int slot = findSlot(patientId);
+        return signal < 0 || slot < 0 ? -1 : slot * signalCount + signal;
+    }
+
+    private int findSlot(int patientId) {
+        int mask = tableKeys.length - 1;
+        for (int i = mix(patientId) & mask; ; i = (i + 1) & mask) {
+            if (tableKeys[i] == patientId) {
+                return tableSlots[i];
+            }
+            if (tableKeys[i] == FREE) {
+                return -1;
+            }
+        }
+    }
+
+    private int addPatient(int patientId) {
+        if (patientId == FREE) {
+            throw new IllegalArgumentException("Unsupported patient id: " + patientId);
+        }
+        // * Keep the table at most half full so probe sequences stay short.
+        if ((patientCount + 1) * 2 > tableKeys.length) {
+            rehash(tableKeys.length * 2);
+        }
+        int slot = patientCount++;
+        insert(patientId, slot);
+        if ((slot + 1) * signalCount > ewma.length) {
+            allocate(ewma.length / signalCount * 2);
+        }
+        for (int signal = 0; signal < signalCount; signal++) {
+            count[slot * signalCount + signal] = 0;
+            reported[slot * signalCount + signal] = (byte) Trend.NONE.ordinal();
+        }
+        return slot;
+    }
+
+    /**
+     * Grows (or creates) the state arrays to hold the given number of patients.
+     */
+    private void allocate(int patients) {
+        int length = patients * signalCount;
+        ewma = ewma == null ? new double[length] : Arrays.copyOf(ewma, length);
+        cusumHigh = cusumHigh == null ? new double[length] : Arrays.copyOf(cusumHigh, length);
+        cusumLow = cusumLow == null ? new double[length] : Arrays.copyOf(cusumLow, length);
+        sumX = sumX == null ? new double[length] : Arrays.copyOf(sumX, length);
+        sumY = sumY == null ? new double[length] : Arrays.copyOf(sumY, length);
+        sumXX = sumXX == null ? new double[length] : Arrays.copyOf(sumXX, length);
+        sumXY = sumXY == null ? new double[length] : Arrays.copyOf(sumXY, length);
+        origin = origin == null ? new long[length] : Arrays.copyOf(origin, length);
+        count = count == null ? new int[length] : Arrays.copyOf(count, length);
+        head = head == null ? new int[length] : Arrays.copyOf(head, length);
+        reported = reported == null ? new byte[length] : Arrays.copyOf(reported, length);
+        int ringLength = patients * ringStride;
+        ringTimes = ringTimes == null ? new int[ringLength] : Arrays.copyOf(ringTimes, ringLength);
+        ringValues = ringValues == null ? new float[ringLength] : Arrays.copyOf(ringValues, ringLength);
+    }
+
+    private void insert(int patientId, int slot) {
+        int mask = tableKeys.length - 1;
+        int i = mix(patientId) & mask;
+        while (tableKeys[i] != FREE) {
+            i = (i + 1) & mask;
+        }
+        tableKeys[i] = patientId;
+        tableSlots[i] = slot;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = tableKeys;
+        int[] oldSlots = tableSlots;
+        tableKeys = new int[capacity];
+        Arrays.fill(tableKeys, FREE);
+        tableSlots = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                insert(oldKeys[i], oldSlots[i]);
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
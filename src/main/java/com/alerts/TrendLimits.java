@@ -0,0 +1,76 @@
+package com.alerts;
+
+/**
+ * The {@code TrendLimits} describe when a {@link TrendEstimator} reports a sustained
+ * trend for one record type:
+ *
+ *   - the rolling least-squares slope over the last {@code windowSize} readings is
+ *     beyond the slope limit, or
+ *   - the two-sided CUSUM of the deviations from the EWMA baseline passes the
+ *     threshold, each reading only adding what it deviates beyond the slack.
+ *
+ * The EWMA uses the smoothing factor 2 / (windowSize + 1), so its memory matches
+ * the regression window. Limits are immutable.
+ */
+public final class TrendLimits {
+
+    private final String recordType;
+    private final int windowSize;
+    private final double slopeLimitPerMinute;
+    private final double cusumSlack;
+    private final double cusumThreshold;
+
+    private TrendLimits(String recordType, int windowSize, double slopeLimitPerMinute, double cusumSlack,
+                        double cusumThreshold) {
+        if (windowSize < 3) {
+            throw new IllegalArgumentException("A trend window needs at least 3 readings: " + windowSize);
+        }
+        if (!(slopeLimitPerMinute > 0) || cusumSlack < 0 || !(cusumThreshold > 0)) {
+            throw new IllegalArgumentException("Slope limit and CUSUM threshold must be positive, the slack not negative");
+        }
+        this.recordType = recordType;
+        this.windowSize = windowSize;
+        this.slopeLimitPerMinute = slopeLimitPerMinute;
+        this.cusumSlack = cusumSlack;
+        this.cusumThreshold = cusumThreshold;
+    }
+
+    /**
+     * @param recordType          the record type the limits apply to, e.g. "Systolic"
+     * @param windowSize          the number of readings in the regression window
+     * @param slopeLimitPerMinute a slope beyond this, in units per minute, is a trend
+     * @param cusumSlack          the deviation from the baseline a reading may have without adding to the CUSUM
+     * @param cusumThreshold      a CUSUM beyond this is a trend
+     * @return the limits
+     */
+    public static TrendLimits of(String recordType, int windowSize, double slopeLimitPerMinute, double cusumSlack,
+                                 double cusumThreshold) {
+        return new TrendLimits(recordType, windowSize, slopeLimitPerMinute, cusumSlack, cusumThreshold);
+    }
+
+    public String getRecordType() {
+        return recordType;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public double getSlopeLimitPerMinute() {
+        return slopeLimitPerMinute;
+    }
+
+    public double getCusumSlack() {
+        return cusumSlack;
+    }
+
+    public double getCusumThreshold() {
+        return cusumThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: slope over %d readings beyond %s/min, CUSUM slack %s threshold %s",
+                recordType, windowSize, slopeLimitPerMinute, cusumSlack, cusumThreshold);
+    }
+}
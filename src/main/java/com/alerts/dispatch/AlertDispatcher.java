@@ -0,0 +1,335 @@
+package com.alerts.dispatch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * The {@code AlertDispatcher} takes alerts off the evaluation threads and delivers
+ * them to {@link AlertSink}s in the background.
+ *
+ * {@link #dispatch} never blocks: the event goes into a bounded, lock-free queue
+ * (one queue per priority plus an atomic depth counter) or, when the queue is full,
+ * is dropped and counted. A dispatcher thread drains the queues highest priority
+ * first into batches and hands every batch to each sink's own thread, again through
+ * a bounded queue, so one slow sink never holds up the dispatcher or the other sinks.
+ */
+public class AlertDispatcher implements AutoCloseable {
+
+    // * How long idle threads park before checking again whether they were stopped.
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final int capacity;
+    private final int maxBatchSize;
+    // * One queue per priority, indexed by its ordinal.
+    private final List<Queue<AlertEvent>> queues;
+    private final AtomicInteger depth = new AtomicInteger();
+    private final List<SinkWorker> workers = new ArrayList<>();
+
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder deliveredCount = new LongAdder();
+    private final LongAdder latencySum = new LongAdder();
+    private final AtomicLong maxLatency = new AtomicLong();
+    private volatile LongConsumer latencyListener;
+
+    private volatile boolean running;
+    private volatile boolean dispatcherIdle;
+    private Thread dispatcherThread;
+
+    /**
+     * Constructs a dispatcher; call {@link #start()} to begin delivery.
+     *
+     * @param capacity     the maximum number of queued alerts, for the dispatcher and for each sink
+     * @param maxBatchSize the maximum number of alerts handed to a sink at once
+     * @param sinks        the destinations of every alert
+     */
+    public AlertDispatcher(int capacity, int maxBatchSize, AlertSink... sinks) {
+        if (capacity < 1 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("Capacity and batch size must be at least 1");
+        }
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.queues = new ArrayList<>(AlertPriority.values().length);
+        for (int i = 0; i < AlertPriority.values().length; i++) {
+            queues.add(new ConcurrentLinkedQueue<>());
+        }
+        for (AlertSink sink : sinks) {
+            workers.add(new SinkWorker(sink));
+        }
+    }
+
+    /**
+     * Starts the dispatcher thread and one thread per sink.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        // * Created before the sink threads start, since they watch it to know when to stop.
+        dispatcherThread = new Thread(this::runDispatcher, "alert-dispatcher");
+        dispatcherThread.setDaemon(true);
+        for (SinkWorker worker : workers) {
+            worker.thread.start();
+        }
+        dispatcherThread.start();
+    }
+
+    /**
+     * Queues an alert for delivery without blocking.
+     *
+     * @param patientId the patient the alert is about
+     * @param condition the alert text
+     * @param timestamp the time of the alert in milliseconds since epoch
+     * @param priority  the delivery priority
+     * @return true if the alert was queued; false if the queue was full and it was dropped
+     */
+    public boolean dispatch(String patientId, String condition, long timestamp, AlertPriority priority) {
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            droppedCount.increment();
+            return false;
+        }
+        queues.get(priority.ordinal()).offer(new AlertEvent(patientId, condition, timestamp, priority, System.nanoTime()));
+        acceptedCount.incrementAndGet();
+        if (dispatcherIdle) {
+            LockSupport.unpark(dispatcherThread);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until every accepted alert has been handled by every sink.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return true if all alerts were handled in time
+     */
+    public boolean awaitDelivery(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!isDrained()) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    /**
+     * Stops the threads after delivering what is already queued, waiting at most five
+     * seconds, and closes the sinks.
+     */
+    @Override
+    public void close() {
+        awaitDelivery(5, TimeUnit.SECONDS);
+        synchronized (this) {
+            running = false;
+        }
+        if (dispatcherThread != null) {
+            LockSupport.unpark(dispatcherThread);
+            join(dispatcherThread);
+        }
+        for (SinkWorker worker : workers) {
+            LockSupport.unpark(worker.thread);
+            join(worker.thread);
+            try {
+                worker.sink.close();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error closing alert sink " + worker.sink.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sets a listener that receives, for every alert delivered to a sink, the
+     * nanoseconds between {@link #dispatch} and the end of the delivery.
+     *
+     * @param latencyListener the listener, or null to stop reporting
+     */
+    public void setLatencyListener(LongConsumer latencyListener) {
+        this.latencyListener = latencyListener;
+    }
+
+    /**
+     * @return the number of alerts waiting for the dispatcher thread
+     */
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    /**
+     * @return the number of alerts waiting for the given sink, or -1 if it is not one of this dispatcher's
+     */
+    public int getSinkQueueDepth(AlertSink sink) {
+        for (SinkWorker worker : workers) {
+            if (worker.sink == sink) {
+                return worker.depth.get();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of alerts dropped, by the dispatcher or by a sink's full queue
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * @return the number of successful deliveries, counting one per alert and sink
+     */
+    public long getDeliveredCount() {
+        return deliveredCount.sum();
+    }
+
+    /**
+     * @return the mean dispatch-to-delivery latency in nanoseconds, or 0 before the first delivery
+     */
+    public double getAverageLatencyNanos() {
+        long delivered = deliveredCount.sum();
+        return delivered == 0 ? 0 : latencySum.sum() / (double) delivered;
+    }
+
+    /**
+     * @return the highest dispatch-to-delivery latency in nanoseconds
+     */
+    public long getMaxLatencyNanos() {
+        return maxLatency.get();
+    }
+
+    private boolean isDrained() {
+        long accepted = acceptedCount.get();
+        for (SinkWorker worker : workers) {
+            if (worker.handled.get() < accepted) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void runDispatcher() {
+        while (running || depth.get() > 0) {
+            List<AlertEvent> batch = drainBatch();
+            if (batch.isEmpty()) {
+                dispatcherIdle = true;
+                // * Check again after announcing idleness, so an alert added in between is not missed.
+                if (depth.get() == 0 && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                dispatcherIdle = false;
+                continue;
+            }
+            List<AlertEvent> shared = Collections.unmodifiableList(batch);
+            for (SinkWorker worker : workers) {
+                worker.offer(shared);
+            }
+        }
+    }
+
+    private List<AlertEvent> drainBatch() {
+        List<AlertEvent> batch = new ArrayList<>(Math.min(maxBatchSize, Math.max(1, depth.get())));
+        for (Queue<AlertEvent> queue : queues) {
+            AlertEvent event;
+            while (batch.size() < maxBatchSize && (event = queue.poll()) != null) {
+                batch.add(event);
+                depth.decrementAndGet();
+            }
+        }
+        return batch;
+    }
+
+    private void recordLatency(long latency) {
+        latencySum.add(latency);
+        long max;
+        while (latency > (max = maxLatency.get()) && !maxLatency.compareAndSet(max, latency)) {
+            // * Retry until the maximum is ours or a larger one was set.
+        }
+        LongConsumer listener = latencyListener;
+        if (listener != null) {
+            listener.accept(latency);
+        }
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The thread and bounded batch queue of one sink.
+     */
+    private final class SinkWorker {
+        private final AlertSink sink;
+        private final Queue<List<AlertEvent>> batches = new ConcurrentLinkedQueue<>();
+        // * Number of queued alerts (not batches), bounded by the dispatcher capacity.
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicLong handled = new AtomicLong();
+        private final Thread thread;
+        private volatile boolean idle;
+
+        SinkWorker(AlertSink sink) {
+            this.sink = sink;
+            this.thread = new Thread(this::run, "alert-sink-" + sink.getName());
+            this.thread.setDaemon(true);
+        }
+
+        void offer(List<AlertEvent> batch) {
+            if (depth.addAndGet(batch.size()) > capacity) {
+                depth.addAndGet(-batch.size());
+                droppedCount.add(batch.size());
+                handled.addAndGet(batch.size());
+                return;
+            }
+            batches.offer(batch);
+            if (idle) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void run() {
+            while (running || !batches.isEmpty() || dispatcherThread.isAlive()) {
+                List<AlertEvent> batch = batches.poll();
+                if (batch == null) {
+                    idle = true;
+                    if (batches.isEmpty() && (running || dispatcherThread.isAlive())) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    idle = false;
+                    continue;
+                }
+                depth.addAndGet(-batch.size());
+                deliver(batch);
+            }
+        }
+
+        private void deliver(List<AlertEvent> batch) {
+            try {
+                sink.deliver(batch);
+                long now = System.nanoTime();
+                for (AlertEvent event : batch) {
+                    recordLatency(now - event.getEnqueueNanos());
+                }
+                deliveredCount.add(batch.size());
+            } catch (Exception e) {
+                System.err.println("Error delivering " + batch.size() + " alerts to " + sink.getName()
+                        + ": " + e.getMessage());
+            }
+            handled.addAndGet(batch.size());
+        }
+    }
+}
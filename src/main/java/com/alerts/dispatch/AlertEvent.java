@@ -0,0 +1,44 @@
+package com.alerts.dispatch;
+
+/**
+ * One alert waiting for, or in, delivery. Events only hold the raw fields; turning
+ * them into text is left to the sinks, on their own threads.
+ */
+public final class AlertEvent {
+    private final String patientId;
+    private final String condition;
+    private final long timestamp;
+    private final AlertPriority priority;
+    private final long enqueueNanos;
+
+    AlertEvent(String patientId, String condition, long timestamp, AlertPriority priority, long enqueueNanos) {
+        this.patientId = patientId;
+        this.condition = condition;
+        this.timestamp = timestamp;
+        this.priority = priority;
+        this.enqueueNanos = enqueueNanos;
+    }
+
+    public String getPatientId() {
+        return patientId;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public AlertPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return the System.nanoTime() at which the event was accepted by the dispatcher
+     */
+    public long getEnqueueNanos() {
+        return enqueueNanos;
+    }
+}
@@ -0,0 +1,370 @@
+package com.alerts.dispatch;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code AlertGovernor} keeps alert storms, e.g. after a network hiccup makes
+ * many patients cross thresholds at once, from flooding the sinks. One governor is
+ * shared by all alert generators of a ward.
+ *
+ * Every alert passes {@link #admit} with the name of the rule that raised it. The
+ * governor counts the alerts of every rule across all patients in a sliding window;
+ * when a rule's count reaches the storm threshold, its alerts are held back and
+ * reported as one summary per summary interval instead, e.g. "37 Low Saturation
+ * alerts in ward 3 in 30 s", until the count falls below half the threshold. On top,
+ * a token bucket caps the rate of all alerts together; alerts over the rate are
+ * summarized the same way.
+ *
+ * Summaries are emitted by the next alert of the rule after the interval, or by
+ * {@link #flush}, which should be called periodically so the last summary of a
+ * storm is not held back.
+ *
+ * The normal path takes no lock and allocates nothing: a few atomic operations for
+ * the window count and the token bucket.
+ */
+public class AlertGovernor {
+
+    // * The window is counted in this many buckets.
+    private static final int SLOTS = 32;
+    // * A slot holds its bucket number in the upper bits and the count in the lower ones.
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    /**
+     * Receives the summaries of held back alerts.
+     */
+    @FunctionalInterface
+    public interface SummaryListener {
+        /**
+         * @param rule      the rule whose alerts were held back
+         * @param count     how many alerts were held back
+         * @param summary   the summary text, e.g. "37 Low Saturation alerts in ward 3 in 30 s"
+         * @param timestamp the time of the summary
+         */
+        void onSummary(String rule, long count, String summary, long timestamp);
+    }
+
+    private final String ward;
+    private final long emissionIntervalMicros;
+    private final long burstMicros;
+    private final long slotMillis;
+    // * Buckets are counted from the first time seen, not the epoch, so with small slots their
+    // * numbers still fit above the count bits of a slot.
+    private final AtomicLong origin = new AtomicLong(Long.MIN_VALUE);
+    private final int stormThreshold;
+    private final long summaryIntervalMillis;
+    private final SummaryListener listener;
+
+    // * The theoretical arrival time of the token bucket (GCRA), in microseconds.
+    private final AtomicLong bucketTime = new AtomicLong(Long.MIN_VALUE / 2);
+    private final Map<String, RuleState> rules = new ConcurrentHashMap<>();
+
+    private final LongAdder admittedCount = new LongAdder();
+    private final LongAdder heldBackCount = new LongAdder();
+
+    /**
+     * @param ward                  the name of the ward, used in the summaries
+     * @param alertsPerSecond       the sustained rate of alerts let through, across all rules
+     * @param burst                 how many alerts may pass at once above the rate
+     * @param windowMillis          the sliding window the alerts of a rule are counted in
+     * @param stormThreshold        the number of alerts of a rule in the window that means a storm
+     * @param summaryIntervalMillis how often a summary of the held back alerts of a rule is emitted
+     * @param listener              receives the summaries
+     */
+    public AlertGovernor(String ward, double alertsPerSecond, int burst, long windowMillis, int stormThreshold,
+                         long summaryIntervalMillis, SummaryListener listener) {
+        if (alertsPerSecond <= 0 || burst < 1 || windowMillis < SLOTS || stormThreshold < 2
+                || summaryIntervalMillis < 1) {
+            throw new IllegalArgumentException("Invalid alert governor: " + alertsPerSecond + " alerts/s, burst "
+                    + burst + ", window " + windowMillis + " ms, storm threshold " + stormThreshold
+                    + ", summary every " + summaryIntervalMillis + " ms");
+        }
+        this.ward = ward;
+        this.emissionIntervalMicros = Math.max(1, Math.round(1_000_000 / alertsPerSecond));
+        this.burstMicros = emissionIntervalMicros * burst;
+        this.slotMillis = windowMillis / SLOTS;
+        this.stormThreshold = stormThreshold;
+        this.summaryIntervalMillis = summaryIntervalMillis;
+        this.listener = listener;
+    }
+
+    /**
+     * A governor for a ward: 50 alerts per second with bursts of 200, and a storm when
+     * a rule raises 20 alerts within 30 seconds, summarized every 30 seconds.
+     *
+     * @param ward     the name of the ward, used in the summaries
+     * @param listener receives the summaries
+     * @return the governor
+     */
+    public static AlertGovernor ward(String ward, SummaryListener listener) {
+        return new AlertGovernor(ward, 50, 200, 30_000, 20, 30_000, listener);
+    }
+
+    /**
+     * Decides whether an alert is delivered.
+     *
+     * @param rule the name of the rule that raised the alert, e.g. "Low Saturation"
+     * @param now  the current time
+     * @return true to deliver the alert; false if it was held back for a summary
+     */
+    public boolean admit(String rule, long now) {
+        RuleState state = rules.get(rule);
+        if (state == null) {
+            state = rules.computeIfAbsent(rule, RuleState::new);
+        }
+        int count = state.record(now);
+
+        if ((state.storming || count >= stormThreshold) && updateStorm(state, count, now)) {
+            holdBack(state, now);
+            return false;
+        }
+        if (!takeToken(now)) {
+            holdBack(state, now);
+            return false;
+        }
+        admittedCount.increment();
+        if (state.heldBack.get() > 0 && now - state.summaryStart >= summaryIntervalMillis) {
+            emitSummary(state, now, false);
+        }
+        return true;
+    }
+
+    /**
+     * Emits the due summaries of all rules and ends the storms that are over. Call it
+     * periodically, e.g. every second.
+     *
+     * @param now the current time
+     */
+    public void flush(long now) {
+        for (RuleState state : rules.values()) {
+            if (state.storming) {
+                updateStorm(state, state.count(now), now);
+            }
+            if (state.heldBack.get() > 0 && now - state.summaryStart >= summaryIntervalMillis) {
+                emitSummary(state, now, false);
+            }
+        }
+    }
+
+    /**
+     * Calls {@link #flush} with the system time every period on the given executor.
+     *
+     * @param executor     runs the flushes
+     * @param periodMillis the time between two flushes
+     * @return the scheduled flushes, to cancel them
+     */
+    public ScheduledFuture<?> scheduleFlush(ScheduledExecutorService executor, long periodMillis) {
+        return executor.scheduleAtFixedRate(() -> flush(System.currentTimeMillis()), periodMillis, periodMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param rule the name of a rule
+     * @return whether the alerts of the rule are currently held back as a storm
+     */
+    public boolean isStorming(String rule) {
+        RuleState state = rules.get(rule);
+        return state != null && state.storming;
+    }
+
+    /**
+     * @param rule the name of a rule
+     * @param now  the current time
+     * @return the number of alerts of the rule in the sliding window
+     */
+    public int getWindowCount(String rule, long now) {
+        RuleState state = rules.get(rule);
+        return state == null ? 0 : state.count(now);
+    }
+
+    /**
+     * @return the number of alerts delivered
+     */
+    public long getAdmittedCount() {
+        return admittedCount.sum();
+    }
+
+    /**
+     * @return the number of alerts held back for summaries
+     */
+    public long getHeldBackCount() {
+        return heldBackCount.sum();
+    }
+
+    /**
+     * Enters or leaves the storm state of a rule.
+     *
+     * @return whether the rule is in a storm
+     */
+    private boolean updateStorm(RuleState state, int count, long now) {
+        boolean storming = state.storming;
+        if (storming == count >= (storming ? stormThreshold / 2 : stormThreshold)) {
+            // * No change, the common case during a storm.
+            return storming;
+        }
+        synchronized (state) {
+            if (!state.storming && count >= stormThreshold) {
+                state.storming = true;
+                if (state.heldBack.get() == 0) {
+                    state.summaryStart = now;
+                }
+            } else if (state.storming && count < stormThreshold / 2) {
+                state.storming = false;
+                emitSummary(state, now, true);
+            }
+            return state.storming;
+        }
+    }
+
+    private void holdBack(RuleState state, long now) {
+        heldBackCount.increment();
+        if (state.heldBack.getAndIncrement() == 0 && !state.storming) {
+            // * The first alert held back by the rate limit starts the summary period.
+            state.summaryStart = now;
+        }
+        if (now - state.summaryStart >= summaryIntervalMillis) {
+            emitSummary(state, now, false);
+        }
+    }
+
+    /**
+     * Emits the summary of the alerts held back since the last one.
+     *
+     * @param force whether to emit it before the summary interval has passed, at the end of a storm
+     */
+    private void emitSummary(RuleState state, long now, boolean force) {
+        long count;
+        long period;
+        synchronized (state) {
+            if (!force && now - state.summaryStart < summaryIntervalMillis) {
+                // * Another thread emitted it first.
+                return;
+            }
+            count = state.heldBack.getAndSet(0);
+            period = now - state.summaryStart;
+            state.summaryStart = now;
+        }
+        if (count > 0) {
+            listener.onSummary(state.rule, count, count + " " + state.rule + " alerts in " + ward + " in "
+                    + Math.max(1, Math.round(period / 1000.0)) + " s", now);
+        }
+    }
+
+    /**
+     * @return the number of the window bucket the time falls into
+     */
+    private long bucket(long now) {
+        long start = origin.get();
+        if (start == Long.MIN_VALUE) {
+            origin.compareAndSet(Long.MIN_VALUE, now);
+            start = origin.get();
+        }
+        return Math.floorDiv(now - start, slotMillis);
+    }
+
+    /**
+     * Takes a token from the bucket, as a generic cell rate algorithm: the bucket is
+     * one timestamp that each alert moves forward by the emission interval.
+     */
+    private boolean takeToken(long now) {
+        long nowMicros = now * 1000;
+        while (true) {
+            long current = bucketTime.get();
+            long next = Math.max(current, nowMicros) + emissionIntervalMicros;
+            if (next - nowMicros > burstMicros) {
+                return false;
+            }
+            if (bucketTime.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The sliding window count and the storm state of one rule.
+     */
+    private final class RuleState {
+        private final String rule;
+        private final AtomicLongArray slots = new AtomicLongArray(SLOTS);
+        private final AtomicLong heldBack = new AtomicLong();
+        private volatile boolean storming;
+        private volatile long summaryStart;
+        // * The current bucket number in the upper half, the sum of the window's earlier buckets in the lower.
+        private final AtomicLong earlierCount = new AtomicLong(-1L << 32);
+
+        RuleState(String rule) {
+            this.rule = rule;
+        }
+
+        /**
+         * Counts an alert.
+         *
+         * @return the number of alerts in the window, including this one
+         */
+        int record(long now) {
+            long bucket = bucket(now);
+            int index = (int) Math.floorMod(bucket, (long) SLOTS);
+            long updated;
+            while (true) {
+                long slot = slots.get(index);
+                updated = slot >> COUNT_BITS == bucket
+                        ? slot + ((slot & COUNT_MASK) < COUNT_MASK ? 1 : 0)
+                        : bucket << COUNT_BITS | 1;
+                if (slots.compareAndSet(index, slot, updated)) {
+                    break;
+                }
+            }
+            int current = (int) (updated & COUNT_MASK);
+            // * The earlier buckets only change when the current one does, so their sum is kept.
+            long earlier = earlierCount.get();
+            int cachedBucket = (int) (earlier >>> 32);
+            if (cachedBucket == (int) bucket) {
+                return (int) earlier + current;
+            }
+            // * Summed without the current slot, which other threads may be counting into.
+            int sum = earlierSum(bucket, index);
+            if ((int) bucket - cachedBucket > 0) {
+                // * Only moves forward; a late alert of an older bucket does not replace the sum.
+                earlierCount.compareAndSet(earlier, (bucket << 32) | sum);
+            }
+            return sum + current;
+        }
+
+        /**
+         * @return the number of alerts in the window's buckets before the given one
+         */
+        private int earlierSum(long bucket, int index) {
+            int sum = 0;
+            for (int i = 0; i < SLOTS; i++) {
+                long slot = slots.get(i);
+                long age = bucket - (slot >> COUNT_BITS);
+                if (i != index && age > 0 && age < SLOTS) {
+                    sum += (int) (slot & COUNT_MASK);
+                }
+            }
+            return sum;
+        }
+
+        /**
+         * @return the number of alerts in the buckets of the window
+         */
+        int count(long now) {
+            long bucket = bucket(now);
+            int count = 0;
+            for (int i = 0; i < SLOTS; i++) {
+                long slot = slots.get(i);
+                if (bucket - (slot >> COUNT_BITS) < SLOTS) {
+                    count += (int) (slot & COUNT_MASK);
+                }
+            }
+            return count;
+        }
+    }
+}
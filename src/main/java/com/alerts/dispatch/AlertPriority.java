@@ -0,0 +1,30 @@
+package com.alerts.dispatch;
+
+import java.util.Locale;
+
+/**
+ * Priority of an alert event; the dispatcher always delivers higher priorities first.
+ * The names match the levels given to
+ * {@link com.design_pattern.factoryANDdecorator.PriorityAlertDecorator}.
+ */
+public enum AlertPriority {
+    CRITICAL, HIGH, MEDIUM, LOW;
+
+    /**
+     * Maps a priority level as used by the decorators, e.g. {@code "HIGH"}, to a priority.
+     *
+     * @param level the level, case-insensitive
+     * @return the matching priority, or MEDIUM for null or unknown levels
+     */
+    public static AlertPriority fromLevel(String level) {
+        if (level != null) {
+            String name = level.trim().toUpperCase(Locale.ROOT);
+            for (AlertPriority priority : values()) {
+                if (priority.name().equals(name)) {
+                    return priority;
+                }
+            }
+        }
+        return MEDIUM;
+    }
+}
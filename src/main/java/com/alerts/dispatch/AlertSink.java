@@ -0,0 +1,33 @@
+package com.alerts.dispatch;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A destination for alerts. Each sink gets its own thread in the {@link AlertDispatcher},
+ * so a slow sink only delays itself.
+ */
+public interface AlertSink extends AutoCloseable {
+
+    /**
+     * Delivers a batch of alerts, highest priority first.
+     *
+     * @param batch the alerts to deliver; the list must not be modified
+     * @throws Exception if delivery failed; the dispatcher reports it and continues
+     */
+    void deliver(List<AlertEvent> batch) throws Exception;
+
+    /**
+     * @return a short name used for the sink's thread and in error messages
+     */
+    String getName();
+
+    /**
+     * Releases the sink's resources after the last batch.
+     *
+     * @throws IOException if releasing them failed; the dispatcher reports it
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
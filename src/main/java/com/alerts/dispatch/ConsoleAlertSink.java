@@ -0,0 +1,37 @@
+package com.alerts.dispatch;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Prints alerts in the format {@link com.alerts.AlertGenerator} has always used.
+ * A whole batch is written with one print call, so it takes the stream's lock once.
+ */
+public class ConsoleAlertSink implements AlertSink {
+
+    private final PrintStream out;
+
+    public ConsoleAlertSink() {
+        this(System.out);
+    }
+
+    public ConsoleAlertSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void deliver(List<AlertEvent> batch) {
+        StringBuilder text = new StringBuilder(batch.size() * 64);
+        for (AlertEvent event : batch) {
+            text.append(">> [ALERT] Patient ").append(event.getPatientId()).append(": ")
+                    .append(event.getCondition()).append(System.lineSeparator());
+        }
+        out.print(text);
+        out.flush();
+    }
+
+    @Override
+    public String getName() {
+        return "console";
+    }
+}
@@ -0,0 +1,64 @@
+package com.alerts.dispatch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Appends alerts to a log file, one line per alert. The file stays open and is
+ * flushed once per batch.
+ */
+public class FileAlertSink implements AlertSink {
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final Path file;
+    private final BufferedWriter writer;
+
+    /**
+     * @param file the log file; it and its directory are created if needed
+     * @throws IOException if the file cannot be opened
+     */
+    public FileAlertSink(Path file) throws IOException {
+        this.file = file;
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void deliver(List<AlertEvent> batch) throws IOException {
+        for (AlertEvent event : batch) {
+            writer.write(TIME_FORMAT.format(Instant.ofEpochMilli(event.getTimestamp())));
+            writer.write(" [");
+            writer.write(event.getPriority().name());
+            writer.write("] Patient ");
+            writer.write(event.getPatientId());
+            writer.write(": ");
+            writer.write(event.getCondition());
+            writer.newLine();
+        }
+        writer.flush();
+    }
+
+    @Override
+    public String getName() {
+        return "file:" + file.getFileName();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
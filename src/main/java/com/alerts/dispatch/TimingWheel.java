@@ -0,0 +1,356 @@
+package com.alerts.dispatch;
+
+import com.alerts.AlertClock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code TimingWheel} holds many pending timers, e.g. alert re-notifications,
+ * with O(1) schedule and cancel.
+ *
+ * Time is cut into ticks. The wheel has {@link #LEVELS} levels of {@code 2^bits}
+ * buckets each: level 0 has one bucket per tick for the next {@code 2^bits} ticks,
+ * each higher level covers {@code 2^bits} times the span of the level below. A
+ * timer goes into the bucket of the lowest level that reaches its deadline; each
+ * time a level wraps around, the next bucket of the level above is cascaded down.
+ * Buckets are intrusive doubly-linked lists of the {@link Timeout}s themselves.
+ *
+ * The wheel is driven by {@link #advanceTo}, either from a caller (e.g. a replay) or
+ * from the thread started with {@link #start}. Expired tasks run on the advancing
+ * thread, outside the wheel's lock, so they may schedule new timers.
+ */
+public class TimingWheel implements AutoCloseable {
+
+    public static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final Timeout[][] buckets;
+
+    // * The next tick to process; every tick before it has expired.
+    private long currentTick;
+    // * The latest time advanced to, which relative timers count from.
+    private long currentTimeMillis;
+    private int pendingCount;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Constructs a wheel with 256 buckets per level.
+     *
+     * @param tickMillis  the resolution of the wheel; timers never expire early, and at most one tick late
+     * @param startMillis the current time
+     */
+    public TimingWheel(long tickMillis, long startMillis) {
+        this(tickMillis, 8, startMillis);
+    }
+
+    /**
+     * @param tickMillis  the resolution of the wheel; timers never expire early, and at most one tick late
+     * @param bits        the number of buckets per level is 2^bits
+     * @param startMillis the current time
+     */
+    public TimingWheel(long tickMillis, int bits, long startMillis) {
+        if (tickMillis < 1 || bits < 1 || bits * LEVELS > 62) {
+            throw new IllegalArgumentException("Invalid timing wheel: tick " + tickMillis + " ms, " + bits + " bits");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        this.buckets = new Timeout[LEVELS][1 << bits];
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+        this.currentTimeMillis = startMillis;
+    }
+
+    /**
+     * Schedules a task.
+     *
+     * @param task           the task to run when the timer expires
+     * @param deadlineMillis when to run it; a deadline already passed runs on the next advance
+     * @return the handle to cancel the timer
+     */
+    public Timeout schedule(Runnable task, long deadlineMillis) {
+        Timeout timeout = new Timeout(this, task, deadlineMillis);
+        synchronized (this) {
+            add(timeout);
+            pendingCount++;
+        }
+        return timeout;
+    }
+
+    /**
+     * Schedules a task relative to the wheel's current time.
+     *
+     * @param task        the task to run when the timer expires
+     * @param delayMillis how long from the latest time advanced to to wait
+     * @return the handle to cancel the timer
+     */
+    public Timeout scheduleAfter(Runnable task, long delayMillis) {
+        return schedule(task, getCurrentTimeMillis() + delayMillis);
+    }
+
+    /**
+     * Expires every timer whose deadline is at or before the given time and runs its
+     * task on the calling thread.
+     *
+     * @param nowMillis the current time
+     * @return the number of tasks run
+     */
+    public int advanceTo(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        int run = 0;
+        while (true) {
+            Timeout expired;
+            synchronized (this) {
+                currentTimeMillis = Math.max(currentTimeMillis, nowMillis);
+                expired = expireNextTicks(targetTick);
+            }
+            if (expired == null) {
+                return run;
+            }
+            // * Run tick by tick, so timers the tasks schedule within this advance expire in it too.
+            run += runAll(expired);
+        }
+    }
+
+    /**
+     * Processes ticks up to the target until one has expired timers.
+     *
+     * @return the expired timers of that tick, linked through {@code next}, or null when the target was reached
+     */
+    private Timeout expireNextTicks(long targetTick) {
+        while (currentTick <= targetTick) {
+            if (pendingCount == 0) {
+                // * Nothing to expire or cascade, so the idle ticks are skipped at once.
+                currentTick = targetTick + 1;
+                return null;
+            }
+            int index = (int) (currentTick & mask);
+            // * When level 0 wraps, refill it from level 1, and so on up while levels wrap.
+            for (int level = 1; level < LEVELS && index == 0; level++) {
+                index = cascade(level);
+            }
+            index = (int) (currentTick & mask);
+            currentTick++;
+            Timeout expired = buckets[0][index];
+            if (expired == null) {
+                continue;
+            }
+            buckets[0][index] = null;
+            for (Timeout timeout = expired; timeout != null; timeout = timeout.next) {
+                timeout.prev = null;
+                timeout.level = -1;
+                pendingCount--;
+            }
+            return expired;
+        }
+        return null;
+    }
+
+    private static int runAll(Timeout expired) {
+        int run = 0;
+        while (expired != null) {
+            Timeout timeout = expired;
+            expired = timeout.next;
+            timeout.next = null;
+            if (timeout.expire()) {
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Error running timer task: " + e.getMessage());
+                }
+                run++;
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Starts a daemon thread that advances the wheel to the clock's time every tick.
+     *
+     * @param clock the source of the current time
+     */
+    public synchronized void start(AlertClock clock) {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(() -> {
+            while (running) {
+                advanceTo(clock.currentTimeMillis());
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(tickMillis));
+            }
+        }, "alert-timing-wheel");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the thread started with {@link #start}; pending timers stay scheduled.
+     */
+    @Override
+    public void close() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = thread;
+            thread = null;
+        }
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return the number of timers that are neither expired nor cancelled
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * @return the latest time advanced to, or the start time; relative timers count from it
+     */
+    public synchronized long getCurrentTimeMillis() {
+        return currentTimeMillis;
+    }
+
+    /**
+     * Puts a timer into the bucket for its deadline, relative to the current tick.
+     */
+    private void add(Timeout timeout) {
+        long expires = timeout.deadlineTick;
+        long ticks = expires - currentTick;
+        int level;
+        int index;
+        if (ticks < 0) {
+            // * Already due: the bucket processed next.
+            level = 0;
+            index = (int) (currentTick & mask);
+        } else {
+            level = 0;
+            while (level < LEVELS - 1 && ticks >= 1L << (bits * (level + 1))) {
+                level++;
+            }
+            if (ticks >= 1L << (bits * LEVELS)) {
+                // * Beyond the span of the wheel: parked in the last bucket reachable, and re-cascaded from there.
+                expires = currentTick + (1L << (bits * LEVELS)) - 1;
+            }
+            index = (int) ((expires >>> (bits * level)) & mask);
+        }
+        timeout.level = level;
+        timeout.index = index;
+        timeout.prev = null;
+        timeout.next = buckets[level][index];
+        if (timeout.next != null) {
+            timeout.next.prev = timeout;
+        }
+        buckets[level][index] = timeout;
+    }
+
+    /**
+     * Re-adds the timers of the current bucket of a level, which now fall into lower levels.
+     *
+     * @return the index of that bucket; 0 means this level wrapped too
+     */
+    private int cascade(int level) {
+        int index = (int) ((currentTick >>> (bits * level)) & mask);
+        Timeout timeout = buckets[level][index];
+        buckets[level][index] = null;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            add(timeout);
+            timeout = next;
+        }
+        return index;
+    }
+
+    private synchronized void unlink(Timeout timeout) {
+        if (timeout.level < 0) {
+            // * Already taken out of its bucket by an advance; its task will see the cancellation.
+            return;
+        }
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.level][timeout.index] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.level = -1;
+        pendingCount--;
+    }
+
+    /**
+     * A scheduled timer.
+     */
+    public static final class Timeout {
+        private static final int PENDING = 0;
+        private static final int EXPIRED = 1;
+        private static final int CANCELLED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long deadlineMillis;
+        private final long deadlineTick;
+        private volatile int state;
+
+        // * Bucket links, guarded by the wheel's lock.
+        private Timeout prev;
+        private Timeout next;
+        private int level = -1;
+        private int index;
+
+        private Timeout(TimingWheel wheel, Runnable task, long deadlineMillis) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+            // * Rounded up, so a timer never expires before its deadline.
+            this.deadlineTick = Math.floorDiv(deadlineMillis, wheel.tickMillis)
+                    + (Math.floorMod(deadlineMillis, wheel.tickMillis) == 0 ? 0 : 1);
+        }
+
+        /**
+         * Cancels the timer in O(1).
+         *
+         * @return true if the timer was pending and its task will not run
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.unlink(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        private boolean expire() {
+            return STATE.compareAndSet(this, PENDING, EXPIRED);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.alerts.dispatch;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.server.WebSocketServer;
+
+import java.util.List;
+
+/**
+ * Sends alerts to every open connection of a WebSocket server. A batch is sent as
+ * one message with one line per alert: {@code ALERT,patientId,timestamp,priority,condition}.
+ */
+public class WebSocketAlertSink implements AlertSink {
+
+    private final WebSocketServer server;
+
+    public WebSocketAlertSink(WebSocketServer server) {
+        this.server = server;
+    }
+
+    @Override
+    public void deliver(List<AlertEvent> batch) {
+        StringBuilder message = new StringBuilder(batch.size() * 64);
+        for (AlertEvent event : batch) {
+            if (message.length() > 0) {
+                message.append('\n');
+            }
+            message.append("ALERT,").append(event.getPatientId()).append(',').append(event.getTimestamp())
+                    .append(',').append(event.getPriority()).append(',').append(event.getCondition());
+        }
+        String text = message.toString();
+        for (WebSocket connection : server.getConnections()) {
+            if (connection.isOpen()) {
+                try {
+                    connection.send(text);
+                } catch (Exception e) {
+                    System.err.println("Failed to send alerts to a client: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "websocket";
+    }
+}
@@ -0,0 +1,30 @@
+package com.alerts.kernels;
+
+/**
+ * Picks the kernel implementation once, when first used.
+ */
+final class KernelSelection {
+
+    // * Set to "scalar" to rule out the Vector API implementation.
+    static final String PROPERTY = "alerts.kernels";
+
+    static final ThresholdKernels SCALAR = new ScalarThresholdKernels();
+    static final ThresholdKernels BEST = load();
+
+    private KernelSelection() {
+    }
+
+    private static ThresholdKernels load() {
+        if ("scalar".equals(System.getProperty(PROPERTY))) {
+            return SCALAR;
+        }
+        try {
+            // * Loaded by name: the class only exists when built on JDK 17+, and only links
+            // * when the incubator module is added to the running JVM.
+            Class<?> vector = Class.forName("com.alerts.kernels.VectorThresholdKernels");
+            return (ThresholdKernels) vector.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.alerts.kernels;
+
+/**
+ * Plain loops, which the JIT compiles well and may auto-vectorize where it can.
+ */
+public final class ScalarThresholdKernels implements ThresholdKernels {
+
+    @Override
+    public int countOutside(double[] values, int from, int to, double low, double high) {
+        checkRange(values, from, to);
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            double value = values[i];
+            if (value < low || value > high) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int firstOutside(double[] values, int from, int to, double low, double high) {
+        checkRange(values, from, to);
+        for (int i = from; i < to; i++) {
+            double value = values[i];
+            if (value < low || value > high) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public double min(double[] values, int from, int to) {
+        checkRange(values, from, to);
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] values, int from, int to) {
+        checkRange(values, from, to);
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public double maxDrop(double[] values, int from, int to) {
+        checkRange(values, from, to);
+        double peak = Double.NEGATIVE_INFINITY;
+        double drop = 0;
+        for (int i = from; i < to; i++) {
+            double value = values[i];
+            peak = Math.max(peak, value);
+            drop = Math.max(drop, peak - value);
+        }
+        return drop;
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    static void checkRange(double[] values, int from, int to) {
+        if (from < 0 || to > values.length || from > to) {
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") of " + values.length
+                    + " values");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.alerts.kernels;
+
+/**
+ * Batch kernels over a window of readings of one patient and record type, held in a
+ * primitive {@code double[]}: threshold violations, minimum and maximum, and drop
+ * detection, each in one tight loop over the range {@code [from, to)}.
+ *
+ * {@link #best()} returns a Java Vector API implementation when it was compiled (the
+ * {@code vector-api} Maven profile, active on JDK 17 and newer) and the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}; otherwise the scalar implementation.
+ */
+public interface ThresholdKernels {
+
+    /**
+     * @return the number of values below {@code low} or above {@code high}
+     */
+    int countOutside(double[] values, int from, int to, double low, double high);
+
+    /**
+     * @return the index of the first value below {@code low} or above {@code high}, or -1 if there is none
+     */
+    int firstOutside(double[] values, int from, int to, double low, double high);
+
+    /**
+     * @return the smallest value, or positive infinity for an empty range
+     */
+    double min(double[] values, int from, int to);
+
+    /**
+     * @return the largest value, or negative infinity for an empty range
+     */
+    double max(double[] values, int from, int to);
+
+    /**
+     * @return the largest fall from a value to any later value, 0 if the values never fall
+     */
+    double maxDrop(double[] values, int from, int to);
+
+    /**
+     * @return a short name of the implementation, e.g. for benchmark output
+     */
+    String getName();
+
+    /**
+     * @return the scalar implementation, available on every JDK
+     */
+    static ThresholdKernels scalar() {
+        return KernelSelection.SCALAR;
+    }
+
+    /**
+     * @return the fastest implementation available on this JVM
+     */
+    static ThresholdKernels best() {
+        return KernelSelection.BEST;
+    }
+}
@@ -0,0 +1,170 @@
+package com.alerts.rules;
+
+import com.alerts.SlidingWindowDropDetector;
+import com.data_management.PatientRecord;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A value computed over the recent readings of one metric, e.g. {@code max(Systolic, 10m)}.
+ * Two aggregates with the same function, metric and window are equal, which lets the
+ * compiler compute them once for all rules that use them.
+ */
+final class Aggregate {
+
+    /**
+     * The supported aggregate functions.
+     */
+    enum Function {
+        MIN, MAX, AVG, COUNT, LAST,
+        // * Largest fall from an earlier reading to a later one inside the window.
+        DROP,
+        // * Largest step of three consecutive readings moving the same way (see hasTrendAlert).
+        TREND
+    }
+
+    final Function function;
+    final String metric;
+    final long windowMillis;
+
+    Aggregate(Function function, String metric, long windowMillis) {
+        this.function = function;
+        this.metric = metric;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Computes the aggregate by scanning all records on its own; this is the naive
+     * per-rule evaluation the compiled plan is compared against.
+     */
+    double computeDirectly(List<PatientRecord> records, long now) {
+        Accumulator accumulator = new Accumulator(function, windowMillis);
+        for (PatientRecord record : records) {
+            if (record.getRecordType().equalsIgnoreCase(metric) && record.getTimestamp() >= now - windowMillis) {
+                accumulator.add(record.getMeasurementValue(), record.getTimestamp());
+            }
+        }
+        return accumulator.result();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Aggregate)) {
+            return false;
+        }
+        Aggregate aggregate = (Aggregate) other;
+        return function == aggregate.function
+                && metric.equalsIgnoreCase(aggregate.metric)
+                && windowMillis == aggregate.windowMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(function, metric.toLowerCase(), windowMillis);
+    }
+
+    @Override
+    public String toString() {
+        return function.name().toLowerCase() + "(" + metric + ", " + windowMillis + "ms)";
+    }
+
+    /**
+     * Running state of one aggregate during an evaluation. Readings must be added
+     * in timestamp order for DROP and TREND.
+     */
+    static final class Accumulator {
+        private final Function function;
+        private final long windowMillis;
+        private double value;
+        private double count;
+        private double previous;
+        private double beforePrevious;
+        private SlidingWindowDropDetector dropDetector;
+
+        Accumulator(Function function, long windowMillis) {
+            this.function = function;
+            this.windowMillis = windowMillis;
+            reset();
+        }
+
+        void reset() {
+            count = 0;
+            switch (function) {
+                case MIN:
+                    value = Double.POSITIVE_INFINITY;
+                    break;
+                case MAX:
+                    value = Double.NEGATIVE_INFINITY;
+                    break;
+                case LAST:
+                    value = Double.NaN;
+                    break;
+                default:
+                    value = 0;
+                    break;
+            }
+            if (dropDetector != null) {
+                dropDetector.clear();
+            }
+        }
+
+        void add(double reading, long timestamp) {
+            switch (function) {
+                case MIN:
+                    value = Math.min(value, reading);
+                    break;
+                case MAX:
+                    value = Math.max(value, reading);
+                    break;
+                case AVG:
+                    value += reading;
+                    break;
+                case COUNT:
+                    value++;
+                    break;
+                case LAST:
+                    value = reading;
+                    break;
+                case DROP:
+                    if (dropDetector == null) {
+                        // * Only the size of the drop is needed, so no threshold is ever reached.
+                        dropDetector = new SlidingWindowDropDetector(windowMillis, Double.POSITIVE_INFINITY);
+                    }
+                    dropDetector.add(timestamp, reading);
+                    if (dropDetector.getLastDrop() > value) {
+                        value = dropDetector.getLastDrop();
+                    }
+                    break;
+                case TREND:
+                    if (count >= 2) {
+                        double firstStep = previous - beforePrevious;
+                        double secondStep = reading - previous;
+                        if (firstStep * secondStep > 0) {
+                            value = Math.max(value, Math.min(Math.abs(firstStep), Math.abs(secondStep)));
+                        }
+                    }
+                    beforePrevious = previous;
+                    previous = reading;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown aggregate " + function);
+            }
+            count++;
+        }
+
+        /**
+         * Returns the aggregate value, or NaN when the window held no readings so that
+         * no clause matches; only COUNT is defined (as 0) on an empty window.
+         */
+        double result() {
+            if (count == 0) {
+                return function == Function.COUNT ? 0 : Double.NaN;
+            }
+            if (function == Function.AVG) {
+                return value / count;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.alerts.rules;
+
+/**
+ * Rule definitions for the built-in alerts, written in the rule language of {@link RuleParser}.
+ */
+public final class AlertRules {
+
+    /**
+     * The vital sign criteria of {@link com.alerts.AlertGenerator#evaluateData}
+     * (the ECG check excluded) over a 10-minute window.
+     */
+    public static final String VITAL_SIGNS = String.join("\n",
+            "# * Criteria based on ref: https://www.verywellhealth.com/dangerous-heart-rate-5215509",
+            "abnormal_heart_rate: HeartRate < 60 or HeartRate > 100",
+            "# * Criteria based on ref: https://www.verywellhealth.com/systolic-and-diastolic-blood-pressure-1746075",
+            "critical_systolic: Systolic > 180 or Systolic < 90",
+            "critical_diastolic: Diastolic > 120 or Diastolic < 60",
+            "hypotensive_hypoxemia: Systolic < 90 and Saturation < 92",
+            "low_saturation: Saturation < 92",
+            "rapid_desaturation: drop(Saturation, 10m) >= 5",
+            "systolic_trend: trend(Systolic) > 10",
+            "diastolic_trend: trend(Diastolic) > 10");
+
+    /**
+     * The rule of {@link com.design_pattern.strategy.HeartRateStrategy}.
+     */
+    public static final String HEART_RATE = "heart_rate: max(HeartRate, 60s) > 120 or min(HeartRate, 60s) < 50";
+
+    /**
+     * The rule of {@link com.design_pattern.strategy.BloodPressureStrategy}.
+     */
+    public static final String BLOOD_PRESSURE =
+            "blood_pressure: max(BloodPressure, 60s) > 180 or min(BloodPressure, 60s) < 90";
+
+    /**
+     * The rule of {@link com.design_pattern.strategy.OxygenSaturationStrategy}.
+     */
+    public static final String OXYGEN_SATURATION = "oxygen_saturation: min(OxygenSaturation, 10s) < 90";
+
+    private AlertRules() {
+    }
+}
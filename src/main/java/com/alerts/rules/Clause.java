@@ -0,0 +1,62 @@
+package com.alerts.rules;
+
+/**
+ * A comparison of an aggregate with a constant, e.g. {@code min(Saturation, 10m) < 92}.
+ */
+final class Clause {
+
+    /**
+     * The supported comparison operators.
+     */
+    enum Operator {
+        GREATER(">"), GREATER_OR_EQUAL(">="), LESS("<"), LESS_OR_EQUAL("<=");
+
+        final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        static Operator fromSymbol(String symbol) {
+            for (Operator operator : values()) {
+                if (operator.symbol.equals(symbol)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+    }
+
+    final Aggregate aggregate;
+    final Operator operator;
+    final double threshold;
+
+    Clause(Aggregate aggregate, Operator operator, double threshold) {
+        this.aggregate = aggregate;
+        this.operator = operator;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Compares an aggregate value with the threshold. NaN (no readings) never matches.
+     */
+    boolean test(double value) {
+        switch (operator) {
+            case GREATER:
+                return value > threshold;
+            case GREATER_OR_EQUAL:
+                return value >= threshold;
+            case LESS:
+                return value < threshold;
+            case LESS_OR_EQUAL:
+                return value <= threshold;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return aggregate + " " + operator.symbol + " " + threshold;
+    }
+}
@@ -0,0 +1,271 @@
+package com.alerts.rules;
+
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A set of rules compiled into one fused evaluation plan.
+ *
+ * At compile time every distinct aggregate used by any rule gets one slot, and the
+ * slots are grouped by record type. Evaluation makes a single pass over the records:
+ * each record only updates the slots of its own record type, and afterwards every
+ * rule is decided from the slot values. N rules over the same metric therefore
+ * share one pass and, when they use the same aggregate, one computation.
+ */
+public final class CompiledRuleSet {
+
+    public static final long DEFAULT_WINDOW_MILLIS = 10 * 60 * 1000;
+
+    private final List<Rule> rules;
+    private final Aggregate[] aggregates;
+    // * Slot indexes per record type, looked up case-insensitively like the strategies do.
+    private final Map<String, int[]> slotsByMetric = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final long widestWindowMillis;
+
+    // * Rules flattened to arrays: rule -> alternatives -> clause slot/operator/threshold.
+    private final int[][][] clauseSlots;
+    private final Clause[][][] clauses;
+
+    private CompiledRuleSet(List<Rule> rules) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+
+        Map<Aggregate, Integer> slotOf = new LinkedHashMap<>();
+        clauseSlots = new int[rules.size()][][];
+        clauses = new Clause[rules.size()][][];
+        for (int r = 0; r < rules.size(); r++) {
+            List<List<Clause>> alternatives = rules.get(r).getAlternatives();
+            clauseSlots[r] = new int[alternatives.size()][];
+            clauses[r] = new Clause[alternatives.size()][];
+            for (int a = 0; a < alternatives.size(); a++) {
+                List<Clause> conjunction = alternatives.get(a);
+                clauseSlots[r][a] = new int[conjunction.size()];
+                clauses[r][a] = conjunction.toArray(new Clause[0]);
+                for (int c = 0; c < conjunction.size(); c++) {
+                    Aggregate aggregate = conjunction.get(c).aggregate;
+                    Integer slot = slotOf.get(aggregate);
+                    if (slot == null) {
+                        slot = slotOf.size();
+                        slotOf.put(aggregate, slot);
+                    }
+                    clauseSlots[r][a][c] = slot;
+                }
+            }
+        }
+
+        aggregates = slotOf.keySet().toArray(new Aggregate[0]);
+        Map<String, List<Integer>> grouped = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        long widest = 0;
+        for (int slot = 0; slot < aggregates.length; slot++) {
+            grouped.computeIfAbsent(aggregates[slot].metric, k -> new ArrayList<>()).add(slot);
+            widest = Math.max(widest, aggregates[slot].windowMillis);
+        }
+        for (Map.Entry<String, List<Integer>> entry : grouped.entrySet()) {
+            slotsByMetric.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        widestWindowMillis = widest;
+    }
+
+    /**
+     * Compiles already parsed rules.
+     *
+     * @param rules the rules to compile
+     * @return the compiled rule set
+     */
+    public static CompiledRuleSet compile(List<Rule> rules) {
+        return new CompiledRuleSet(rules);
+    }
+
+    /**
+     * Parses and compiles rules written in the rule language of {@link RuleParser},
+     * using a 10-minute default window.
+     *
+     * @param text the rules, one per line
+     * @return the compiled rule set
+     * @throws IllegalArgumentException if a rule cannot be parsed
+     */
+    public static CompiledRuleSet parse(String text) {
+        return compile(RuleParser.parse(text, DEFAULT_WINDOW_MILLIS));
+    }
+
+    /**
+     * Evaluates all rules over the records in one pass.
+     *
+     * @param records the patient's records; readings of one type must be in timestamp order
+     * @param now     the end of every window in milliseconds since epoch
+     * @return for every rule, in order, whether it fires
+     */
+    public boolean[] evaluate(List<PatientRecord> records, long now) {
+        Evaluation evaluation = startEvaluation(now);
+        for (PatientRecord record : records) {
+            evaluation.accept(record.getRecordType(), record.getMeasurementValue(), record.getTimestamp());
+        }
+        return evaluation.result();
+    }
+
+    /**
+     * Starts an evaluation that is fed one reading at a time, e.g. by a caller that
+     * scans the records once for several rule sets.
+     *
+     * @param now the end of every window in milliseconds since epoch
+     * @return the evaluation
+     */
+    public Evaluation startEvaluation(long now) {
+        return new Evaluation(now);
+    }
+
+    /**
+     * Evaluates all rules over the patient's records in the widest window ending now.
+     *
+     * @param patient the patient to evaluate
+     * @param now     the end of every window in milliseconds since epoch
+     * @return the names of the rules that fire, in rule order
+     */
+    public List<String> firedRules(Patient patient, long now) {
+        boolean[] fired = evaluate(patient.getRecords(now - widestWindowMillis, now), now);
+        List<String> names = new ArrayList<>();
+        for (int r = 0; r < fired.length; r++) {
+            if (fired[r]) {
+                names.add(rules.get(r).getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Checks whether any rule fires for the patient.
+     *
+     * @param patient the patient to evaluate
+     * @param now     the end of every window in milliseconds since epoch
+     * @return true if at least one rule fires
+     */
+    public boolean anyFires(Patient patient, long now) {
+        for (boolean fired : evaluate(patient.getRecords(now - widestWindowMillis, now), now)) {
+            if (fired) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the rules of this set, in order
+     */
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return the number of distinct aggregates computed per evaluation
+     */
+    public int getAggregateCount() {
+        return aggregates.length;
+    }
+
+    /**
+     * @return the longest window used by any rule
+     */
+    public long getWidestWindowMillis() {
+        return widestWindowMillis;
+    }
+
+    /**
+     * @return the record types read by the rules
+     */
+    public Set<String> getMetrics() {
+        return Collections.unmodifiableSet(slotsByMetric.keySet());
+    }
+
+    private boolean decide(int rule, double[] results) {
+        for (int a = 0; a < clauses[rule].length; a++) {
+            boolean matches = true;
+            for (int c = 0; c < clauses[rule][a].length; c++) {
+                if (!clauses[rule][a][c].test(results[clauseSlots[rule][a][c]])) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One evaluation of all rules, fed reading by reading. Readings of one type must
+     * come in timestamp order; readings outside every window are ignored.
+     */
+    public final class Evaluation {
+        private final long now;
+        private final Aggregate.Accumulator[] accumulators = new Aggregate.Accumulator[aggregates.length];
+        private String lastType;
+        private int[] slots;
+
+        private Evaluation(long now) {
+            this.now = now;
+            for (int slot = 0; slot < aggregates.length; slot++) {
+                accumulators[slot] = new Aggregate.Accumulator(aggregates[slot].function,
+                        aggregates[slot].windowMillis);
+            }
+        }
+
+        /**
+         * @param recordType the record type of the reading
+         * @param value      the measured value
+         * @param timestamp  the time of the reading in milliseconds since epoch
+         */
+        public void accept(String recordType, double value, long timestamp) {
+            if (timestamp > now || timestamp < now - widestWindowMillis) {
+                return;
+            }
+            // * Records of one type often come in runs, so the lookup result is reused.
+            if (!recordType.equals(lastType)) {
+                slots = slotsByMetric.get(recordType);
+                lastType = recordType;
+            }
+            if (slots == null) {
+                return;
+            }
+            for (int slot : slots) {
+                if (timestamp >= now - aggregates[slot].windowMillis) {
+                    accumulators[slot].add(value, timestamp);
+                }
+            }
+        }
+
+        /**
+         * @return for every rule, in order, whether it fires on the readings accepted so far
+         */
+        public boolean[] result() {
+            double[] results = new double[aggregates.length];
+            for (int slot = 0; slot < aggregates.length; slot++) {
+                results[slot] = accumulators[slot].result();
+            }
+            boolean[] fired = new boolean[clauses.length];
+            for (int r = 0; r < clauses.length; r++) {
+                fired[r] = decide(r, results);
+            }
+            return fired;
+        }
+
+        /**
+         * @return true if at least one rule fires on the readings accepted so far
+         */
+        public boolean anyFires() {
+            for (boolean fired : result()) {
+                if (fired) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
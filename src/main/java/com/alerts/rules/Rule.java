@@ -0,0 +1,70 @@
+package com.alerts.rules;
+
+import com.data_management.PatientRecord;
+
+import java.util.List;
+
+/**
+ * A named alert rule: a disjunction ("or") of conjunctions ("and") of clauses,
+ * as written in the rule language of {@link RuleParser}.
+ */
+public final class Rule {
+
+    private final String name;
+    private final List<List<Clause>> alternatives;
+
+    Rule(String name, List<List<Clause>> alternatives) {
+        this.name = name;
+        this.alternatives = alternatives;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    List<List<Clause>> getAlternatives() {
+        return alternatives;
+    }
+
+    /**
+     * Evaluates this rule on its own, scanning the records once per clause. This is the
+     * naive evaluation; {@link CompiledRuleSet} gives the same result in a single pass.
+     *
+     * @param records the patient's recent records
+     * @param now     the end of every window in milliseconds since epoch
+     * @return true if the rule fires
+     */
+    public boolean evaluateDirectly(List<PatientRecord> records, long now) {
+        for (List<Clause> conjunction : alternatives) {
+            boolean matches = true;
+            for (Clause clause : conjunction) {
+                if (!clause.test(clause.aggregate.computeDirectly(records, now))) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(name).append(": ");
+        for (int i = 0; i < alternatives.size(); i++) {
+            if (i > 0) {
+                text.append(" or ");
+            }
+            List<Clause> conjunction = alternatives.get(i);
+            for (int j = 0; j < conjunction.size(); j++) {
+                if (j > 0) {
+                    text.append(" and ");
+                }
+                text.append(conjunction.get(j));
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,212 @@
+package com.alerts.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the alert rule language. Each non-empty line that does not start with
+ * {@code #} is one rule:
+ *
+ * <pre>
+ * critical_systolic: Systolic &gt; 180 or Systolic &lt; 90
+ * hypotensive_hypoxemia: min(Systolic, 10m) &lt; 90 and min(Saturation, 10m) &lt; 92
+ * rapid_desaturation: drop(Saturation, 10m) &gt;= 5
+ * systolic_trend: trend(Systolic) &gt; 10
+ * </pre>
+ *
+ * A clause compares an aggregate with a number using {@code > >= < <=}. Aggregates
+ * are {@code min, max, avg, count, last, drop, trend}, each taking a record type
+ * and an optional window ({@code ms, s, m, h}); without a window the default window
+ * is used. A bare record type is a threshold on any reading: {@code Systolic > 180}
+ * means {@code max(Systolic) > 180} and {@code Systolic < 90} means {@code min(Systolic) < 90}.
+ * {@code and} binds tighter than {@code or}.
+ */
+public final class RuleParser {
+
+    private static final Pattern TOKEN = Pattern.compile(
+            "\\s*(?:(\\d+(?:\\.\\d+)?(?:ms|s|m|h))(?![\\w.])|(-?\\d+(?:\\.\\d+)?)|([A-Za-z_][\\w]*)|(>=|<=|[><(),:]))");
+
+    private RuleParser() {
+    }
+
+    /**
+     * Parses rules from text.
+     *
+     * @param text                the rules, one per line
+     * @param defaultWindowMillis the window of aggregates that do not name one
+     * @return the parsed rules in the order they appear
+     * @throws IllegalArgumentException if a line is not a valid rule
+     */
+    public static List<Rule> parse(String text, long defaultWindowMillis) {
+        List<Rule> rules = new ArrayList<>();
+        String[] lines = text.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                rules.add(new LineParser(tokenize(line), defaultWindowMillis).parseRule());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return rules;
+    }
+
+    private static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(line);
+        int position = 0;
+        while (position < line.length()) {
+            if (!matcher.find(position) || matcher.start() != position) {
+                throw new IllegalArgumentException("Unexpected text at '" + line.substring(position).trim() + "'");
+            }
+            tokens.add(matcher.group().trim());
+            position = matcher.end();
+            while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Converts a duration such as {@code 500ms}, {@code 30s}, {@code 10m} or {@code 1h} to milliseconds.
+     */
+    static long parseDuration(String token) {
+        Matcher matcher = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|s|m|h)").matcher(token);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Expected a duration like 10m but found '" + token + "'");
+        }
+        double amount = Double.parseDouble(matcher.group(1));
+        switch (matcher.group(2)) {
+            case "ms":
+                return Math.round(amount);
+            case "s":
+                return Math.round(amount * 1000);
+            case "m":
+                return Math.round(amount * 60 * 1000);
+            default:
+                return Math.round(amount * 60 * 60 * 1000);
+        }
+    }
+
+    /**
+     * Recursive-descent parser over the tokens of one line.
+     */
+    private static final class LineParser {
+        private final List<String> tokens;
+        private final long defaultWindowMillis;
+        private int position;
+
+        LineParser(List<String> tokens, long defaultWindowMillis) {
+            this.tokens = tokens;
+            this.defaultWindowMillis = defaultWindowMillis;
+        }
+
+        Rule parseRule() {
+            String name = expectIdentifier("rule name");
+            expect(":");
+            List<List<Clause>> alternatives = new ArrayList<>();
+            alternatives.add(parseConjunction());
+            while (accept("or")) {
+                alternatives.add(parseConjunction());
+            }
+            if (position < tokens.size()) {
+                throw new IllegalArgumentException("Unexpected '" + tokens.get(position) + "'");
+            }
+            return new Rule(name, alternatives);
+        }
+
+        private List<Clause> parseConjunction() {
+            List<Clause> clauses = new ArrayList<>();
+            clauses.add(parseClause());
+            while (accept("and")) {
+                clauses.add(parseClause());
+            }
+            return clauses;
+        }
+
+        private Clause parseClause() {
+            String name = expectIdentifier("record type or function");
+            Aggregate.Function function = null;
+            String metric;
+            long window = defaultWindowMillis;
+
+            if (accept("(")) {
+                function = parseFunction(name);
+                metric = expectIdentifier("record type");
+                if (accept(",")) {
+                    window = parseDuration(next("window"));
+                }
+                expect(")");
+            } else {
+                metric = name;
+            }
+
+            String symbol = next("comparison");
+            Clause.Operator operator = Clause.Operator.fromSymbol(symbol);
+            if (operator == null) {
+                throw new IllegalArgumentException("Expected > >= < or <= but found '" + symbol + "'");
+            }
+            double threshold = parseNumber(next("number"));
+
+            if (function == null) {
+                // * A bare record type is a threshold on any single reading.
+                boolean upper = operator == Clause.Operator.GREATER || operator == Clause.Operator.GREATER_OR_EQUAL;
+                function = upper ? Aggregate.Function.MAX : Aggregate.Function.MIN;
+            }
+            return new Clause(new Aggregate(function, metric, window), operator, threshold);
+        }
+
+        private Aggregate.Function parseFunction(String name) {
+            try {
+                return Aggregate.Function.valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown function '" + name + "'");
+            }
+        }
+
+        private double parseNumber(String token) {
+            try {
+                return Double.parseDouble(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected a number but found '" + token + "'");
+            }
+        }
+
+        private String expectIdentifier(String what) {
+            String token = next(what);
+            if (!Character.isLetter(token.charAt(0)) && token.charAt(0) != '_') {
+                throw new IllegalArgumentException("Expected " + what + " but found '" + token + "'");
+            }
+            return token;
+        }
+
+        private void expect(String expected) {
+            String token = next("'" + expected + "'");
+            if (!token.equals(expected)) {
+                throw new IllegalArgumentException("Expected '" + expected + "' but found '" + token + "'");
+            }
+        }
+
+        private boolean accept(String expected) {
+            if (position < tokens.size() && tokens.get(position).equals(expected)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private String next(String what) {
+            if (position >= tokens.size()) {
+                throw new IllegalArgumentException("Expected " + what + " at end of line");
+            }
+            return tokens.get(position++);
+        }
+    }
+}
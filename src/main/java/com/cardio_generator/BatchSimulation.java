@@ -0,0 +1,265 @@
+package com.cardio_generator;
+
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code BatchSimulation} generates the data of a time span on a simulated clock,
+ * as fast as the threads and the output allow or at a given speedup, e.g. to produce
+ * a week of data for a load test in minutes instead of a week.
+ *
+ * Every patient of a generator gets a random offset within the generator's period;
+ * its data is generated at the start plus the offset plus whole periods, and stamped
+ * with that time. The simulated clock advances a tick at a time: all data due within
+ * a tick is generated, split over the threads by patient, before the next tick begins.
+ * Within a tick, the data of each generator is generated in time order, and handed
+ * to the output in {@link SampleBatch}es.
+ *
+ * With the seeded generators, a seed reproduces the same data set regardless of the
+ * number of threads.
+ */
+public class BatchSimulation implements AutoCloseable {
+
+    public static final long DEFAULT_TICK_MILLIS = 1000;
+    /**
+     * Generates as fast as possible.
+     */
+    public static final double MAX_SPEEDUP = Double.POSITIVE_INFINITY;
+
+    private final int threads;
+    private final long tickMillis;
+    private final Random random;
+    private final ExecutorService executor;
+    private final List<Schedule> schedules = new ArrayList<>();
+    private final LongAdder generatedCount = new LongAdder();
+
+    /**
+     * @param threads    the number of threads generating data
+     * @param tickMillis the step of the simulated clock; periods are rounded to whole ticks
+     * @param random     the source of the patients' offsets
+     */
+    public BatchSimulation(int threads, long tickMillis, Random random) {
+        if (threads < 1 || tickMillis < 1) {
+            throw new IllegalArgumentException("Invalid batch simulation: " + threads + " threads, tick " + tickMillis + " ms");
+        }
+        this.threads = threads;
+        this.tickMillis = tickMillis;
+        this.random = random;
+        this.executor = threads == 1 ? null : Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Constructs a simulation with one thread per available processor and a tick of a second.
+     *
+     * @param random the source of the patients' offsets
+     * @return the simulation
+     */
+    public static BatchSimulation forAvailableProcessors(Random random) {
+        return new BatchSimulation(Runtime.getRuntime().availableProcessors(), DEFAULT_TICK_MILLIS, random);
+    }
+
+    /**
+     * Adds a generator to the simulation.
+     *
+     * @param generator    the generator
+     * @param patientIds   the patients
+     * @param periodMillis the simulated time between two generations for a patient
+     */
+    public void schedule(PatientDataGenerator generator, List<Integer> patientIds, long periodMillis) {
+        int slots = (int) Math.max(1, periodMillis / tickMillis);
+        long period = slots * tickMillis;
+        // * Patients sorted by offset, so each slot is generated in time order.
+        long[] byOffset = new long[patientIds.size()];
+        for (int i = 0; i < byOffset.length; i++) {
+            long offset = (long) (random.nextDouble() * period);
+            byOffset[i] = offset << 32 | i;
+        }
+        Arrays.sort(byOffset);
+
+        int[] slotSizes = new int[slots];
+        for (long entry : byOffset) {
+            slotSizes[(int) ((entry >>> 32) / tickMillis)]++;
+        }
+        int[][] patients = new int[slots][];
+        int[][] offsets = new int[slots][];
+        for (int slot = 0; slot < slots; slot++) {
+            patients[slot] = new int[slotSizes[slot]];
+            offsets[slot] = new int[slotSizes[slot]];
+            slotSizes[slot] = 0;
+        }
+        for (long entry : byOffset) {
+            int offset = (int) ((entry >>> 32) % tickMillis);
+            int slot = (int) ((entry >>> 32) / tickMillis);
+            patients[slot][slotSizes[slot]] = patientIds.get((int) entry);
+            offsets[slot][slotSizes[slot]++] = offset;
+        }
+        schedules.add(new Schedule(generator, patients, offsets));
+    }
+
+    /**
+     * Runs the simulation on the calling thread until the simulated clock reaches the end.
+     *
+     * @param startMillis    the simulated time the data starts at
+     * @param durationMillis the simulated time span to generate
+     * @param speedup        how many times faster than real time to run, or {@link #MAX_SPEEDUP}
+     * @param outputStrategy where the generated data goes
+     * @return the number of generations run
+     * @throws InterruptedException if the calling thread is interrupted; the simulation stops
+     */
+    public long run(long startMillis, long durationMillis, double speedup, OutputStrategy outputStrategy)
+            throws InterruptedException {
+        if (durationMillis < 0 || !(speedup > 0)) {
+            throw new IllegalArgumentException("Invalid batch run: duration " + durationMillis + " ms, speedup " + speedup);
+        }
+        long ticks = (durationMillis + tickMillis - 1) / tickMillis;
+        long endMillis = startMillis + durationMillis;
+        List<Callable<Long>> parts = new ArrayList<>();
+        TickPart[] tickParts = new TickPart[threads];
+        for (int part = 0; part < threads; part++) {
+            tickParts[part] = new TickPart(part, endMillis, outputStrategy);
+            parts.add(tickParts[part]);
+        }
+
+        long before = generatedCount.sum();
+        long wallStart = System.nanoTime();
+        for (long tick = 0; tick < ticks; tick++) {
+            for (TickPart part : tickParts) {
+                part.tick = tick;
+                part.tickStart = startMillis + tick * tickMillis;
+            }
+            if (executor == null) {
+                generatedCount.add(tickParts[0].call());
+            } else {
+                // * invokeAll waits for every part, so the next tick sees all of this one's state.
+                for (Future<Long> done : executor.invokeAll(parts)) {
+                    try {
+                        generatedCount.add(done.get());
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException("Batch simulation failed", e.getCause());
+                    }
+                }
+            }
+            if (speedup != MAX_SPEEDUP) {
+                long due = wallStart + (long) ((tick + 1) * tickMillis * 1_000_000.0 / speedup);
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                    LockSupport.parkNanos(this, wait);
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                }
+            } else if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return generatedCount.sum() - before;
+    }
+
+    /**
+     * @return the number of generations run so far
+     */
+    public long getGeneratedCount() {
+        return generatedCount.sum();
+    }
+
+    /**
+     * Stops the threads.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * A generator with its patients by slot, and their offsets within the tick.
+     */
+    private static final class Schedule {
+        private final PatientDataGenerator generator;
+        private final int[][] patients;
+        private final int[][] offsets;
+
+        Schedule(PatientDataGenerator generator, int[][] patients, int[][] offsets) {
+            this.generator = generator;
+            this.patients = patients;
+            this.offsets = offsets;
+        }
+    }
+
+    /**
+     * One thread's share of a tick: the same contiguous part of every due slot, so a
+     * patient is always generated by one thread within a tick.
+     */
+    private final class TickPart implements Callable<Long> {
+        private final int part;
+        private final long endMillis;
+        private final OutputStrategy outputStrategy;
+        private final SampleBatch batch = new SampleBatch();
+        // * Set before each tick; invokeAll publishes them to the pool.
+        private long tick;
+        private long tickStart;
+
+        TickPart(int part, long endMillis, OutputStrategy outputStrategy) {
+            this.part = part;
+            this.endMillis = endMillis;
+            this.outputStrategy = outputStrategy;
+        }
+
+        @Override
+        public Long call() {
+            long generated = 0;
+            for (Schedule schedule : schedules) {
+                int slot = (int) (tick % schedule.patients.length);
+                int[] due = schedule.patients[slot];
+                int[] offsets = schedule.offsets[slot];
+                int from = (int) ((long) due.length * part / threads);
+                int to = (int) ((long) due.length * (part + 1) / threads);
+                for (int i = from; i < to; i++) {
+                    long timestamp = tickStart + offsets[i];
+                    if (timestamp >= endMillis) {
+                        // * Offsets are sorted, so the rest of the slot is past the end too.
+                        break;
+                    }
+                    try {
+                        schedule.generator.generate(due[i], timestamp, batch);
+                        generated++;
+                    } catch (RuntimeException e) {
+                        System.err.println("Error generating data for patient " + due[i] + ": " + e.getMessage());
+                    }
+                    if (batch.size() >= SampleBatch.DEFAULT_CAPACITY) {
+                        flush();
+                    }
+                }
+            }
+            flush();
+            return generated;
+        }
+
+        private void flush() {
+            try {
+                batch.flushTo(outputStrategy);
+            } catch (RuntimeException e) {
+                System.err.println("Error writing generated data: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,9 +1,5 @@
 package com.cardio_generator;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-
 import com.alerts.Alert;
 import com.cardio_generator.generators.AlertGenerator;
 
@@ -11,16 +7,21 @@ import com.cardio_generator.generators.BloodPressureDataGenerator;
 import com.cardio_generator.generators.BloodSaturationDataGenerator;
 import com.cardio_generator.generators.BloodLevelsDataGenerator;
 import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.generators.PatientRandom;
 import com.cardio_generator.outputs.ConsoleOutputStrategy;
 import com.cardio_generator.outputs.FileOutputStrategy;
 import com.cardio_generator.outputs.OutputStrategy;
 import com.cardio_generator.outputs.TcpOutputStrategy;
 import com.cardio_generator.outputs.WebSocketOutputStrategy;
+import com.data_management.VirtualThreads;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -33,9 +34,20 @@ import java.util.ArrayList;
 public class HealthDataSimulator {
 
     private static int patientCount = 50; // Default number of patients
-    private static ScheduledExecutorService scheduler;
+    private static TickScheduler scheduler;
+    private static boolean virtualThreads = false;
     private static OutputStrategy outputStrategy = new ConsoleOutputStrategy(); // Default output strategy
-    private static final Random random = new Random();
+    private static long seed = PatientRandom.randomSeed();
+    private static Random random;
+    private static String outputDirectory;
+    // * Batch mode runs on a simulated clock; it is on when a duration is given.
+    private static long durationMillis = -1;
+    private static long startTimeMillis = -1;
+    private static double speedup = BatchSimulation.MAX_SPEEDUP;
+    // * Load mode sends at a rate instead; it is on when a rate is given. A ramp has two rates.
+    private static double[] rates;
+    // * 0 for one ECG sample per patient and second; otherwise ECG samples per second, generated in blocks.
+    private static double ecgRate = 0;
     private static HealthDataSimulator instance;
 
 
@@ -59,13 +71,37 @@ public class HealthDataSimulator {
     public static void main(String[] args) throws IOException {
 
         parseArguments(args);
-
-        scheduler = Executors.newScheduledThreadPool(patientCount * 4);
+        // * Everything random derives from the seed: the patient order, the schedule and every patient's data.
+        random = new Random(seed);
 
         List<Integer> patientIds = initializePatientIds(patientCount);
-        Collections.shuffle(patientIds); // Randomize the order of patient IDs
+        Collections.shuffle(patientIds, random); // Randomize the order of patient IDs
 
-        scheduleTasksForPatients(patientIds);
+        if (rates != null) {
+            runLoad();
+            return;
+        }
+        if (durationMillis >= 0) {
+            runBatch(patientIds);
+            return;
+        }
+        if (virtualThreads && !VirtualThreads.isSupported()) {
+            System.err.println("Virtual threads need Java 21 or later; using the tick scheduler.");
+            virtualThreads = false;
+        }
+        if (virtualThreads) {
+            startPatientThreads(patientIds);
+            // * Virtual threads are daemons, so the main thread keeps the simulator running.
+            try {
+                Thread.currentThread().join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            // * A few threads for any number of patients, instead of four per patient.
+            scheduler = TickScheduler.forAvailableProcessors(random);
+            scheduleTasksForPatients(patientIds);
+        }
     }
 
     /**
@@ -91,6 +127,81 @@ public class HealthDataSimulator {
                         }
                     }
                     break;
+                case "--seed":
+                    if (i + 1 < args.length) {
+                        try {
+                            seed = Long.parseLong(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid seed. Using a random seed.");
+                        }
+                    }
+                    break;
+                case "--duration":
+                    if (i + 1 < args.length) {
+                        try {
+                            durationMillis = parseDuration(args[++i]);
+                        } catch (IllegalArgumentException e) {
+                            System.err.println("Error: Invalid duration. Use e.g. 7d, 12h, 30m, 45s or 500ms.");
+                        }
+                    }
+                    break;
+                case "--start-time":
+                    if (i + 1 < args.length) {
+                        try {
+                            startTimeMillis = parseTime(args[++i]);
+                        } catch (IllegalArgumentException e) {
+                            System.err.println("Error: Invalid start time. Using the current time.");
+                        }
+                    }
+                    break;
+                case "--speedup":
+                    if (i + 1 < args.length) {
+                        String speedupArg = args[++i];
+                        try {
+                            speedup = speedupArg.equals("max") ? BatchSimulation.MAX_SPEEDUP : Double.parseDouble(speedupArg);
+                        } catch (NumberFormatException e) {
+                            speedup = 0;
+                        }
+                        if (!(speedup > 0)) {
+                            System.err.println("Error: Invalid speedup. Using default (max).");
+                            speedup = BatchSimulation.MAX_SPEEDUP;
+                        }
+                    }
+                    break;
+                case "--rate":
+                    if (i + 1 < args.length) {
+                        try {
+                            rates = parseRates(args[++i]);
+                        } catch (IllegalArgumentException e) {
+                            System.err.println("Error: Invalid rate. Use e.g. 5000 or 1000:50000 for a ramp.");
+                        }
+                    }
+                    break;
+                case "--ecg-rate":
+                    if (i + 1 < args.length) {
+                        try {
+                            ecgRate = Double.parseDouble(args[++i]);
+                        } catch (NumberFormatException e) {
+                            ecgRate = -1;
+                        }
+                        if (!(ecgRate >= 1) || ecgRate > ECGDataGenerator.MAX_SAMPLING_RATE) {
+                            System.err.println("Error: Invalid ECG sampling rate. Using one sample per second.");
+                            ecgRate = 0;
+                        }
+                    }
+                    break;
+                case "--threads":
+                    if (i + 1 < args.length) {
+                        String threadsArg = args[++i];
+                        if (threadsArg.equals("virtual")) {
+                            virtualThreads = true;
+                        } else if (threadsArg.equals("tick")) {
+                            virtualThreads = false;
+                        } else {
+                            System.err.println("Unknown thread mode. Using default (tick).");
+                        }
+                    }
+                    break;
                 case "--output":
                     if (i + 1 < args.length) {
                         String outputArg = args[++i];
@@ -103,6 +214,7 @@ public class HealthDataSimulator {
                                 Files.createDirectories(outputPath);
                             }
                             outputStrategy = new FileOutputStrategy(baseDirectory);
+                            outputDirectory = baseDirectory;
                         } else if (outputArg.startsWith("websocket:")) {
                             try {
                                 int port = Integer.parseInt(outputArg.substring(10));
@@ -150,10 +262,165 @@ public class HealthDataSimulator {
         System.out.println("                             'file:<directory>' for file output,");
         System.out.println("                             'websocket:<port>' for WebSocket output,");
         System.out.println("                             'tcp:<port>' for TCP socket output.");
+        System.out.println("  --seed <seed>            Seed of the random data; the same seed reproduces the same values.");
+        System.out.println("  --threads <mode>         How patients are run. Options are:");
+        System.out.println("                             'tick' for a few threads that generate the due patients every tick (default),");
+        System.out.println("                             'virtual' for one virtual thread per patient (Java 21 or later).");
+        System.out.println("  --duration <duration>    Generate this much data on a simulated clock and exit, e.g. 7d, 12h, 30m.");
+        System.out.println("  --start-time <time>      Time the simulated data starts at, as ISO-8601 (2024-01-01T00:00:00Z)");
+        System.out.println("                             or epoch milliseconds (default: now). Needs --duration.");
+        System.out.println("  --speedup <factor|max>   How many times faster than real time to generate (default: max). Needs --duration.");
+        System.out.println("  --rate <rate|from:to>    Send samples at this rate per second for --duration (default: 60s) and print");
+        System.out.println("                             the achieved rate and latency percentiles; 'from:to' ramps over the duration.");
+        System.out.println("  --ecg-rate <hz>          Generate the ECG at this sampling rate, e.g. 250 or 500, at most 1000, in");
+        System.out.println("                             blocks of the samples due each second (default: one sample per second).");
         System.out.println("Example:");
         System.out.println("  java HealthDataSimulator --patient-count 100 --output websocket:8080");
         System.out.println(
                 "  This command simulates data for 100 patients and sends the output to WebSocket clients connected to port 8080.");
+        System.out.println("  java HealthDataSimulator --patient-count 10000 --duration 7d --output file:data");
+        System.out.println("  This command writes a week of data for 10000 patients to files in 'data' as fast as possible.");
+    }
+
+    /**
+     * Parses a duration: a number followed by ms, s, m, h or d; a plain number is milliseconds.
+     *
+     * @param text the duration, e.g. "7d"
+     * @return the duration in milliseconds
+     * @throws IllegalArgumentException if the duration is invalid
+     */
+    private static long parseDuration(String text) {
+        String[] units = {"ms", "s", "m", "h", "d"};
+        long[] unitMillis = {1, 1000, 60_000, 3_600_000, 86_400_000};
+        for (int i = 0; i < units.length; i++) {
+            // * "ms" comes first, so "500ms" is not read as 500m with an "s" left over.
+            if (text.endsWith(units[i])) {
+                return checkedDuration(text.substring(0, text.length() - units[i].length()), unitMillis[i]);
+            }
+        }
+        return checkedDuration(text, 1);
+    }
+
+    private static long checkedDuration(String number, long unitMillis) {
+        long value = Long.parseLong(number.trim());
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative duration: " + number);
+        }
+        return Math.multiplyExact(value, unitMillis);
+    }
+
+    /**
+     * Parses a rate: samples per second, or "from:to" for a ramp.
+     *
+     * @param text the rate, e.g. "5000" or "1000:50000"
+     * @return the rate, or the rates at the start and the end of the ramp
+     * @throws IllegalArgumentException if the rate is invalid
+     */
+    private static double[] parseRates(String text) {
+        String[] parts = text.split(":", -1);
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Invalid rate: " + text);
+        }
+        double[] parsed = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            parsed[i] = Double.parseDouble(parts[i]);
+            if (!(parsed[i] > 0) || Double.isInfinite(parsed[i])) {
+                throw new IllegalArgumentException("Invalid rate: " + text);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Parses a time as an ISO-8601 instant or as milliseconds since epoch.
+     *
+     * @param text the time
+     * @return the time in milliseconds since epoch
+     * @throws IllegalArgumentException if the time is invalid
+     */
+    private static long parseTime(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            try {
+                return Instant.parse(text).toEpochMilli();
+            } catch (DateTimeParseException invalid) {
+                throw new IllegalArgumentException("Invalid time: " + text, invalid);
+            }
+        }
+    }
+
+    /**
+     * Generates the requested span of data on a simulated clock, then returns.
+     *
+     * @param patientIds A list of patient ID's.
+     */
+    private static void runBatch(List<Integer> patientIds) {
+        if (outputDirectory != null) {
+            // * Nobody reads the files while they are written, so they stay open and buffered.
+            outputStrategy = new FileOutputStrategy(outputDirectory, true);
+        }
+        long start = startTimeMillis >= 0 ? startTimeMillis : System.currentTimeMillis();
+        long wallStart = System.nanoTime();
+        long generated;
+        try (BatchSimulation simulation = BatchSimulation.forAvailableProcessors(random)) {
+            simulation.schedule(new ECGDataGenerator(patientCount, seed, ecgRate), patientIds, 1000);
+            simulation.schedule(new BloodSaturationDataGenerator(patientCount, seed), patientIds, 1000);
+            simulation.schedule(new BloodPressureDataGenerator(patientCount, seed), patientIds, 60_000);
+            simulation.schedule(new BloodLevelsDataGenerator(patientCount, seed), patientIds, 120_000);
+            simulation.schedule(new AlertGenerator(patientCount, seed), patientIds, 20_000);
+            generated = simulation.run(start, durationMillis, speedup, outputStrategy);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            if (outputStrategy instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) outputStrategy).close();
+                } catch (Exception e) {
+                    System.err.println("Error closing the output: " + e.getMessage());
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - wallStart) / 1e9;
+        // * On stderr, so it does not mix with console output.
+        System.err.printf("Generated %d s of data for %d patients (%d generations) in %.1f s%n",
+                durationMillis / 1000, patientCount, generated, seconds);
+    }
+
+    /**
+     * Sends the generators' samples at the requested rate, then prints the achieved
+     * rate and the latencies.
+     */
+    private static void runLoad() {
+        long duration = durationMillis >= 0 ? durationMillis : 60_000;
+        RateProfile rate = rates.length == 1 ? RateProfile.constant(rates[0])
+                : RateProfile.ramp(rates[0], rates[1], duration);
+        if (outputDirectory != null) {
+            outputStrategy = new FileOutputStrategy(outputDirectory, true);
+        }
+        PatientDataGenerator[] generators = {
+                new ECGDataGenerator(patientCount, seed, ecgRate),
+                new BloodSaturationDataGenerator(patientCount, seed),
+                new BloodPressureDataGenerator(patientCount, seed),
+                new BloodLevelsDataGenerator(patientCount, seed),
+                new AlertGenerator(patientCount, seed)
+        };
+        try {
+            LoadGenerator.Result result = new LoadGenerator(generators, patientCount, 1)
+                    .run(rate, duration, outputStrategy);
+            System.err.print(result.summary());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (outputStrategy instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) outputStrategy).close();
+                } catch (Exception e) {
+                    System.err.println("Error closing the output: " + e.getMessage());
+                }
+            }
+        }
     }
 
     /**
@@ -171,36 +438,42 @@ public class HealthDataSimulator {
     }
 
     /**
-     * Schedules the tasks that will generate the health data.
+     * Schedules the tasks that will generate the health data: one task per generator,
+     * which every tick generates the data of the patients due in it.
      * Each patient's data is specific.
      *
      * @param patientIds A list of patient ID's.
      */
     private static void scheduleTasksForPatients(List<Integer> patientIds) {
-        ECGDataGenerator ecgDataGenerator = new ECGDataGenerator(patientCount);
-        BloodSaturationDataGenerator bloodSaturationDataGenerator = new BloodSaturationDataGenerator(patientCount);
-        BloodPressureDataGenerator bloodPressureDataGenerator = new BloodPressureDataGenerator(patientCount);
-        BloodLevelsDataGenerator bloodLevelsDataGenerator = new BloodLevelsDataGenerator(patientCount);
-        AlertGenerator alertGenerator = new AlertGenerator(patientCount);
+        ECGDataGenerator ecgDataGenerator = new ECGDataGenerator(patientCount, seed, ecgRate);
+        BloodSaturationDataGenerator bloodSaturationDataGenerator = new BloodSaturationDataGenerator(patientCount, seed);
+        BloodPressureDataGenerator bloodPressureDataGenerator = new BloodPressureDataGenerator(patientCount, seed);
+        BloodLevelsDataGenerator bloodLevelsDataGenerator = new BloodLevelsDataGenerator(patientCount, seed);
+        AlertGenerator alertGenerator = new AlertGenerator(patientCount, seed);
 
-        for (int patientId : patientIds) {
-            scheduleTask(() -> ecgDataGenerator.generate(patientId, outputStrategy), 1, TimeUnit.SECONDS);
-            scheduleTask(() -> bloodSaturationDataGenerator.generate(patientId, outputStrategy), 1, TimeUnit.SECONDS);
-            scheduleTask(() -> bloodPressureDataGenerator.generate(patientId, outputStrategy), 1, TimeUnit.MINUTES);
-            scheduleTask(() -> bloodLevelsDataGenerator.generate(patientId, outputStrategy), 2, TimeUnit.MINUTES);
-            scheduleTask(() -> alertGenerator.generate(patientId, outputStrategy), 20, TimeUnit.SECONDS);
-        }
+        scheduler.schedule(ecgDataGenerator, patientIds, 1000, outputStrategy);
+        scheduler.schedule(bloodSaturationDataGenerator, patientIds, 1000, outputStrategy);
+        scheduler.schedule(bloodPressureDataGenerator, patientIds, 60_000, outputStrategy);
+        scheduler.schedule(bloodLevelsDataGenerator, patientIds, 120_000, outputStrategy);
+        scheduler.schedule(alertGenerator, patientIds, 20_000, outputStrategy);
     }
 
     /**
-     * Schedules an execution periodically.
+     * Runs every patient as a virtual thread that generates all its signals and
+     * sleeps until the next one is due.
      *
-     * @param task The tasks to be executed.
-     * @param period The period between task executions.
-     * @param timeUnit The time unit for the period.
+     * @param patientIds A list of patient ID's.
      */
-    private static void scheduleTask(Runnable task, long period, TimeUnit timeUnit) {
-        scheduler.scheduleAtFixedRate(task, random.nextInt(5), period, timeUnit);
+    private static void startPatientThreads(List<Integer> patientIds) {
+        PatientDataGenerator[] generators = {
+                new ECGDataGenerator(patientCount, seed, ecgRate),
+                new BloodSaturationDataGenerator(patientCount, seed),
+                new BloodPressureDataGenerator(patientCount, seed),
+                new BloodLevelsDataGenerator(patientCount, seed),
+                new AlertGenerator(patientCount, seed)
+        };
+        long[] periodsMillis = {1000, 1000, 60_000, 120_000, 20_000};
+        PatientThreadScheduler.virtual(random).start(patientIds, generators, periodsMillis, outputStrategy);
     }
 
     public void triggerAlert(String patientId) {
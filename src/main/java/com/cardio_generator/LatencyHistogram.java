@@ -0,0 +1,187 @@
+package com.cardio_generator;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies with a fixed relative precision over a wide range, laid
+ * out like an HdrHistogram: values are counted in buckets that double in width, each
+ * split into the same number of sub-buckets, so every value is kept to the given
+ * number of significant decimal digits. Recording is a few shifts and one array
+ * increment, with no allocation.
+ *
+ * A histogram is written by one thread; histograms of several threads are combined
+ * with {@link #add}. The unit of the values is up to the caller, e.g. nanoseconds.
+ */
+public class LatencyHistogram {
+
+    private final long highestTrackableValue;
+    private final int significantDigits;
+    private final int subBucketHalfCountMagnitude;
+    private final int subBucketHalfCount;
+    private final long subBucketMask;
+    private final int leadingZeroCountBase;
+    private final long[] counts;
+
+    private long totalCount;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue;
+    private double sum;
+
+    /**
+     * @param highestTrackableValue the largest value kept exactly; larger ones are counted as it
+     * @param significantDigits     the precision of the values, 1 to 5 decimal digits
+     */
+    public LatencyHistogram(long highestTrackableValue, int significantDigits) {
+        if (significantDigits < 1 || significantDigits > 5 || highestTrackableValue < 2) {
+            throw new IllegalArgumentException("Invalid histogram: highest value " + highestTrackableValue + ", "
+                    + significantDigits + " significant digits");
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.significantDigits = significantDigits;
+        // * Enough sub-buckets that the widest one within a bucket is below one unit of the last digit.
+        long largestWithSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+        int subBucketCountMagnitude = 64 - Long.numberOfLeadingZeros(largestWithSingleUnitResolution - 1);
+        this.subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+        this.subBucketHalfCount = 1 << subBucketHalfCountMagnitude;
+        int subBucketCount = 1 << subBucketCountMagnitude;
+        this.subBucketMask = subBucketCount - 1;
+        this.leadingZeroCountBase = 64 - subBucketCountMagnitude;
+
+        int bucketCount = 1;
+        long smallestUntrackable = subBucketCount;
+        while (smallestUntrackable <= highestTrackableValue && smallestUntrackable <= Long.MAX_VALUE / 2) {
+            smallestUntrackable <<= 1;
+            bucketCount++;
+        }
+        this.counts = new long[(bucketCount + 1) * subBucketHalfCount];
+    }
+
+    /**
+     * Counts a value.
+     *
+     * @param value the value, e.g. a latency; negative values count as 0
+     */
+    public void recordValue(long value) {
+        recordValue(value, 1);
+    }
+
+    private void recordValue(long value, long count) {
+        long clamped = Math.min(Math.max(value, 0), highestTrackableValue);
+        counts[indexOf(clamped)] += count;
+        totalCount += count;
+        minValue = Math.min(minValue, clamped);
+        maxValue = Math.max(maxValue, clamped);
+        sum += (double) clamped * count;
+    }
+
+    /**
+     * Counts a value measured by a closed-loop sender, and corrects for coordinated
+     * omission: a value larger than the expected interval between measurements means
+     * the requests that should have been sent meanwhile were held back, so those are
+     * counted too, with the latencies they would have seen.
+     *
+     * @param value            the measured value
+     * @param expectedInterval the expected time between two measurements, in the unit of the values
+     */
+    public void recordValueWithExpectedInterval(long value, long expectedInterval) {
+        recordValue(value);
+        if (expectedInterval <= 0) {
+            return;
+        }
+        for (long missing = value - expectedInterval; missing >= expectedInterval; missing -= expectedInterval) {
+            recordValue(missing);
+        }
+    }
+
+    /**
+     * Adds the counts of another histogram with the same range and precision.
+     *
+     * @param other the histogram to add
+     */
+    public void add(LatencyHistogram other) {
+        if (other.counts.length != counts.length || other.significantDigits != significantDigits) {
+            throw new IllegalArgumentException("Histograms of different range or precision cannot be added");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        minValue = Math.min(minValue, other.minValue);
+        maxValue = Math.max(maxValue, other.maxValue);
+        sum += other.sum;
+    }
+
+    /**
+     * @param percentile the percentile, e.g. 99.9
+     * @return the largest value that the given percentage of the values are at or below,
+     * to the histogram's precision; 0 if the histogram is empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double fraction = Math.min(Math.max(percentile, 0), 100) / 100;
+        long countAtPercentile = Math.max(1, (long) Math.ceil(fraction * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= countAtPercentile) {
+                return Math.min(highestEquivalentValue(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return the smallest value recorded, or 0 if the histogram is empty
+     */
+    public long getMinValue() {
+        return totalCount == 0 ? 0 : minValue;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * @return the mean of the values recorded, or 0 if the histogram is empty
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        minValue = Long.MAX_VALUE;
+        maxValue = 0;
+        sum = 0;
+    }
+
+    private int indexOf(long value) {
+        int bucketIndex = leadingZeroCountBase - Long.numberOfLeadingZeros(value | subBucketMask);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        // * Bucket 0 uses all its sub-buckets, the others only their upper half: the lower half is the bucket below.
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + subBucketIndex - subBucketHalfCount;
+    }
+
+    /**
+     * @return the largest value counted at an index
+     */
+    private long highestEquivalentValue(int index) {
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucketIndex < 0) {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+        return ((long) subBucketIndex << bucketIndex) + (1L << bucketIndex) - 1;
+    }
+}
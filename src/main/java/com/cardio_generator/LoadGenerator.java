@@ -0,0 +1,278 @@
+package com.cardio_generator;
+
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code LoadGenerator} sends samples to an output at a given rate, independent of
+ * the number of patients, to find out how many samples per second a sink and the
+ * ingest behind it sustain.
+ *
+ * The load is open-loop: every send has an intended time given by the
+ * {@link RateProfile}, and a sender that falls behind sends the overdue samples at
+ * once instead of stretching the schedule. The latency of a send is measured from its
+ * intended time, not from when it actually went out, so time spent waiting behind
+ * slow sends counts; a closed-loop measurement would omit exactly those waits
+ * (coordinated omission). The service time, measured from the actual start of the
+ * send, is reported alongside. Every sample is stamped with its intended time, so a
+ * receiver can measure end-to-end latency the same way.
+ *
+ * The samples come from the generators, one at a time, going round the patients and
+ * the generators of each patient.
+ */
+public class LoadGenerator {
+
+    // * Latencies are kept in nanoseconds up to a minute, to three significant digits.
+    private static final long HIGHEST_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final PatientDataGenerator[] generators;
+    private final int patientCount;
+    private final int senders;
+
+    /**
+     * @param generators   the generators of the samples
+     * @param patientCount the number of patients, numbered from 1
+     * @param senders      the number of threads sending, each at its share of the rate and
+     *                     with its own patients
+     */
+    public LoadGenerator(PatientDataGenerator[] generators, int patientCount, int senders) {
+        if (generators.length == 0 || senders < 1 || patientCount < senders) {
+            throw new IllegalArgumentException("Invalid load generator: " + generators.length + " generators, "
+                    + patientCount + " patients, " + senders + " senders");
+        }
+        this.generators = generators.clone();
+        this.patientCount = patientCount;
+        this.senders = senders;
+    }
+
+    /**
+     * Sends samples for the given time and returns the results.
+     *
+     * @param rate           the rate of samples over time
+     * @param durationMillis how long to send
+     * @param outputStrategy where the samples go
+     * @return the achieved rate and the latencies
+     * @throws InterruptedException if the calling thread is interrupted; the senders stop
+     */
+    public Result run(RateProfile rate, long durationMillis, OutputStrategy outputStrategy)
+            throws InterruptedException {
+        long sends = rate.sendsDueBy(TimeUnit.MILLISECONDS.toNanos(durationMillis));
+        long startEpochMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        Sender[] workers = new Sender[senders];
+        Thread[] threads = new Thread[senders];
+        for (int i = 0; i < senders; i++) {
+            workers[i] = new Sender(i, rate, sends, startNanos, startEpochMillis, outputStrategy);
+            threads[i] = new Thread(workers[i], "load-sender-" + i);
+            threads[i].start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            throw e;
+        }
+
+        Result result = new Result(rate, durationMillis);
+        for (Sender worker : workers) {
+            result.add(worker);
+        }
+        result.elapsedNanos -= startNanos;
+        return result;
+    }
+
+    /**
+     * One sending thread: every {@code senders}-th send of the schedule, to its own patients.
+     */
+    private final class Sender implements Runnable {
+        private final int index;
+        private final RateProfile rate;
+        private final long sends;
+        private final long startNanos;
+        private final long startEpochMillis;
+        private final OutputStrategy outputStrategy;
+
+        private final SampleBatch pending = new SampleBatch();
+        private final SampleBatch single = new SampleBatch(1);
+        private int pendingIndex;
+        private int patient;
+        private int generator;
+
+        private final LatencyHistogram latency = new LatencyHistogram(HIGHEST_LATENCY_NANOS, SIGNIFICANT_DIGITS);
+        private final LatencyHistogram serviceTime = new LatencyHistogram(HIGHEST_LATENCY_NANOS, SIGNIFICANT_DIGITS);
+        private long sent;
+        private long failed;
+        private long lastSendEnd;
+        private String firstError;
+
+        Sender(int index, RateProfile rate, long sends, long startNanos, long startEpochMillis,
+               OutputStrategy outputStrategy) {
+            this.index = index;
+            this.rate = rate;
+            this.sends = sends;
+            this.startNanos = startNanos;
+            this.startEpochMillis = startEpochMillis;
+            this.outputStrategy = outputStrategy;
+            this.patient = index + 1;
+            this.lastSendEnd = startNanos;
+        }
+
+        @Override
+        public void run() {
+            for (long send = index; send < sends; send += senders) {
+                long intended = rate.intendedNanos(send);
+                long due = startNanos + intended;
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                    LockSupport.parkNanos(this, wait);
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                }
+                nextSample(startEpochMillis + intended / 1_000_000);
+
+                long begin = System.nanoTime();
+                try {
+                    outputStrategy.output(single);
+                    sent++;
+                } catch (RuntimeException e) {
+                    failed++;
+                    if (firstError == null) {
+                        firstError = e.toString();
+                    }
+                } finally {
+                    single.clear();
+                }
+                long end = System.nanoTime();
+                latency.recordValue(end - due);
+                serviceTime.recordValue(end - begin);
+                lastSendEnd = end;
+            }
+        }
+
+        /**
+         * Puts the next sample into the single-sample batch, stamped with its intended time.
+         */
+        private void nextSample(long timestamp) {
+            while (pendingIndex == pending.size()) {
+                pending.clear();
+                pendingIndex = 0;
+                // * Some generators add nothing on a call, e.g. no alert, so this may take a few.
+                generators[generator].generate(patient, timestamp, pending);
+                if (++generator == generators.length) {
+                    generator = 0;
+                    patient += senders;
+                    if (patient > patientCount) {
+                        patient = index + 1;
+                    }
+                }
+            }
+            int i = pendingIndex++;
+            String text = pending.getText(i);
+            if (text != null) {
+                single.add(pending.getPatientId(i), timestamp, pending.getLabel(i), text);
+            } else {
+                single.add(pending.getPatientId(i), timestamp, pending.getLabel(i), pending.getValue(i));
+            }
+        }
+    }
+
+    /**
+     * The results of a run: what was sent, how fast, and the latencies.
+     */
+    public static final class Result {
+        private final RateProfile rate;
+        private final long durationMillis;
+        private final LatencyHistogram latency = new LatencyHistogram(HIGHEST_LATENCY_NANOS, SIGNIFICANT_DIGITS);
+        private final LatencyHistogram serviceTime = new LatencyHistogram(HIGHEST_LATENCY_NANOS, SIGNIFICANT_DIGITS);
+        private long sentCount;
+        private long failedCount;
+        private long elapsedNanos;
+        private String firstError;
+
+        private Result(RateProfile rate, long durationMillis) {
+            this.rate = rate;
+            this.durationMillis = durationMillis;
+        }
+
+        private void add(Sender sender) {
+            latency.add(sender.latency);
+            serviceTime.add(sender.serviceTime);
+            sentCount += sender.sent;
+            failedCount += sender.failed;
+            elapsedNanos = Math.max(elapsedNanos, sender.lastSendEnd);
+            if (firstError == null) {
+                firstError = sender.firstError;
+            }
+        }
+
+        public long getSentCount() {
+            return sentCount;
+        }
+
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        /**
+         * @return the samples sent per second, from the start until the last send completed
+         */
+        public double getAchievedRate() {
+            return elapsedNanos == 0 ? 0 : (sentCount + failedCount) * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * @return the latencies in nanoseconds, from the intended time of each send until it completed
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return the service times in nanoseconds, from the actual start of each send until it completed
+         */
+        public LatencyHistogram getServiceTime() {
+            return serviceTime;
+        }
+
+        /**
+         * @return the summary of the run, e.g. for printing at its end
+         */
+        public String summary() {
+            StringBuilder summary = new StringBuilder();
+            summary.append(String.format("Target %s for %.1f s: sent %d samples at %.1f/s achieved%n",
+                    rate, durationMillis / 1000.0, sentCount, getAchievedRate()));
+            if (failedCount > 0) {
+                summary.append(String.format("%d sends failed, the first with %s%n", failedCount, firstError));
+            }
+            summary.append("Latency from intended send time: ").append(percentiles(latency)).append(System.lineSeparator());
+            summary.append("Service time from actual send:   ").append(percentiles(serviceTime)).append(System.lineSeparator());
+            return summary.toString();
+        }
+
+        private static String percentiles(LatencyHistogram histogram) {
+            return "p50 " + format(histogram.getValueAtPercentile(50))
+                    + ", p99 " + format(histogram.getValueAtPercentile(99))
+                    + ", p99.9 " + format(histogram.getValueAtPercentile(99.9))
+                    + ", max " + format(histogram.getMaxValue());
+        }
+
+        private static String format(long nanos) {
+            if (nanos < 1_000_000) {
+                return String.format("%.1f us", nanos / 1e3);
+            }
+            if (nanos < 1_000_000_000) {
+                return String.format("%.2f ms", nanos / 1e6);
+            }
+            return String.format("%.2f s", nanos / 1e9);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.cardio_generator;
+
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.data_management.VirtualThreads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code PatientThreadScheduler} runs every simulated patient as its own thread,
+ * which loops over the patient's signals and sleeps until the next one is due. With
+ * virtual threads (Java 21 or later, see {@link VirtualThreads}) a sleeping patient
+ * holds no platform thread, so a million patients fit on a handful of carrier threads.
+ *
+ * Like the tick scheduler, each signal of a patient starts after a random delay of
+ * 0 to 4 periods and then repeats at a fixed rate.
+ *
+ * Each patient's task owns a small {@link SampleBatch} that the generators fill and
+ * that is output after every signal. Nothing is kept per thread, so the memory of a
+ * patient is its thread, its schedule and that batch.
+ */
+public class PatientThreadScheduler implements AutoCloseable {
+
+    private static final int BATCH_CAPACITY = 4;
+
+    private final ThreadFactory threadFactory;
+    private final Random random;
+    private final List<Thread> threads = new ArrayList<>();
+    private final LongAdder generatedCount = new LongAdder();
+    private volatile boolean running = true;
+
+    /**
+     * @param threadFactory creates the thread of every patient
+     * @param random        the source of the start delays
+     */
+    public PatientThreadScheduler(ThreadFactory threadFactory, Random random) {
+        this.threadFactory = threadFactory;
+        this.random = random;
+    }
+
+    /**
+     * Constructs a scheduler with one virtual thread per patient.
+     *
+     * @param random the source of the start delays
+     * @return the scheduler
+     * @throws IllegalStateException if the JVM has no virtual threads
+     */
+    public static PatientThreadScheduler virtual(Random random) {
+        if (!VirtualThreads.isSupported()) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, running on "
+                    + System.getProperty("java.version"));
+        }
+        return new PatientThreadScheduler(VirtualThreads.factory("patient-"), random);
+    }
+
+    /**
+     * Starts one thread per patient that generates the data of all given generators.
+     *
+     * @param patientIds     the patients
+     * @param generators     the generators
+     * @param periodsMillis  the period of each generator
+     * @param outputStrategy where the generated data goes
+     */
+    public synchronized void start(List<Integer> patientIds, PatientDataGenerator[] generators, long[] periodsMillis,
+                                   OutputStrategy outputStrategy) {
+        if (generators.length != periodsMillis.length) {
+            throw new IllegalArgumentException("Need one period per generator: " + generators.length
+                    + " generators, " + periodsMillis.length + " periods");
+        }
+        long start = System.currentTimeMillis();
+        for (int patientId : patientIds) {
+            long[] next = new long[generators.length];
+            for (int i = 0; i < next.length; i++) {
+                next[i] = start + random.nextInt(5) * periodsMillis[i];
+            }
+            Thread thread = threadFactory.newThread(() -> runPatient(patientId, generators, periodsMillis, next,
+                    outputStrategy));
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * @return the number of generations run so far
+     */
+    public long getGeneratedCount() {
+        return generatedCount.sum();
+    }
+
+    /**
+     * Stops the threads of all patients.
+     */
+    @Override
+    public synchronized void close() {
+        running = false;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        threads.clear();
+    }
+
+    private void runPatient(int patientId, PatientDataGenerator[] generators, long[] periodsMillis, long[] next,
+                            OutputStrategy outputStrategy) {
+        // * Room for the few samples of one signal; a high-rate ECG grows it as needed.
+        SampleBatch batch = new SampleBatch(BATCH_CAPACITY);
+        while (running) {
+            long now = System.currentTimeMillis();
+            long wakeUp = Long.MAX_VALUE;
+            for (int i = 0; i < generators.length; i++) {
+                if (next[i] <= now) {
+                    try {
+                        generators[i].generate(patientId, now, batch);
+                        batch.flushTo(outputStrategy);
+                        generatedCount.increment();
+                    } catch (RuntimeException e) {
+                        batch.clear();
+                        System.err.println("Error generating data for patient " + patientId + ": " + e.getMessage());
+                    }
+                    next[i] += periodsMillis[i];
+                }
+                wakeUp = Math.min(wakeUp, next[i]);
+            }
+            long sleep = wakeUp - System.currentTimeMillis();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.cardio_generator;
+
+/**
+ * The send rate of a load test over time: constant, or ramping linearly from one rate
+ * to another and then holding it. The schedule of an open-loop sender derives from it:
+ * {@link #intendedNanos} gives the time the n-th send is due, whenever the previous
+ * sends actually went out.
+ */
+public final class RateProfile {
+
+    private final double fromPerSecond;
+    private final double toPerSecond;
+    private final long rampNanos;
+
+    private RateProfile(double fromPerSecond, double toPerSecond, long rampNanos) {
+        if (!(fromPerSecond > 0) || !(toPerSecond > 0) || rampNanos < 0) {
+            throw new IllegalArgumentException("Invalid rate: " + fromPerSecond + " to " + toPerSecond + "/s over "
+                    + rampNanos + " ns");
+        }
+        this.fromPerSecond = fromPerSecond;
+        this.toPerSecond = toPerSecond;
+        this.rampNanos = rampNanos;
+    }
+
+    /**
+     * @param perSecond the rate
+     * @return a constant rate
+     */
+    public static RateProfile constant(double perSecond) {
+        return new RateProfile(perSecond, perSecond, 0);
+    }
+
+    /**
+     * @param fromPerSecond the rate at the start
+     * @param toPerSecond   the rate at the end of the ramp, held after it
+     * @param rampMillis    how long the ramp takes
+     * @return a linearly ramping rate
+     */
+    public static RateProfile ramp(double fromPerSecond, double toPerSecond, long rampMillis) {
+        return new RateProfile(fromPerSecond, toPerSecond, rampMillis * 1_000_000);
+    }
+
+    /**
+     * @param elapsedNanos the time since the start
+     * @return the rate at that time, per second
+     */
+    public double rateAt(long elapsedNanos) {
+        if (elapsedNanos >= rampNanos) {
+            return toPerSecond;
+        }
+        return fromPerSecond + (toPerSecond - fromPerSecond) * elapsedNanos / rampNanos;
+    }
+
+    /**
+     * @param send the number of the send, counted from 0
+     * @return when the send is due, in nanoseconds since the start
+     */
+    public long intendedNanos(long send) {
+        double rampSeconds = rampNanos / 1e9;
+        // * The number of sends due by the end of the ramp: the area under the rate.
+        double rampSends = (fromPerSecond + toPerSecond) / 2 * rampSeconds;
+        double seconds;
+        if (send >= rampSends) {
+            seconds = rampSeconds + (send - rampSends) / toPerSecond;
+        } else {
+            // * Solves send = from * t + a * t^2 for t, in the form that stays exact for a flat ramp.
+            double a = (toPerSecond - fromPerSecond) / (2 * rampSeconds);
+            seconds = 2 * send / (fromPerSecond + Math.sqrt(fromPerSecond * fromPerSecond + 4 * a * send));
+        }
+        return (long) (seconds * 1e9);
+    }
+
+    /**
+     * @param elapsedNanos the time since the start
+     * @return the number of sends due by then
+     */
+    public long sendsDueBy(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        double rampSeconds = rampNanos / 1e9;
+        if (seconds >= rampSeconds) {
+            return (long) ((fromPerSecond + toPerSecond) / 2 * rampSeconds + (seconds - rampSeconds) * toPerSecond);
+        }
+        return (long) (fromPerSecond * seconds + (toPerSecond - fromPerSecond) / (2 * rampSeconds) * seconds * seconds);
+    }
+
+    @Override
+    public String toString() {
+        if (rampNanos == 0 || fromPerSecond == toPerSecond) {
+            return String.format("%.0f/s", toPerSecond);
+        }
+        return String.format("%.0f/s ramping to %.0f/s over %d s", fromPerSecond, toPerSecond, rampNanos / 1_000_000_000);
+    }
+}
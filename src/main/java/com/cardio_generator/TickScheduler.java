@@ -0,0 +1,175 @@
+package com.cardio_generator;
+
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code TickScheduler} runs the data generators of many patients on a thread
+ * pool sized to the machine instead of one periodic task per patient and signal.
+ *
+ * Each scheduled generator is one periodic task that runs every tick and generates
+ * the data of the patients due in that tick. A generator's period is cut into
+ * ticks, and every patient gets a phase: the tick within the period its data is
+ * generated in. As before, a patient starts after a random delay of 0 to 4 periods;
+ * the phase within the period is random too, so the patients of a generator are
+ * spread evenly over its ticks instead of all falling due at once.
+ *
+ * The data of a tick is collected in a {@link SampleBatch} and handed to the output
+ * a batch at a time.
+ */
+public class TickScheduler implements AutoCloseable {
+
+    public static final long DEFAULT_TICK_MILLIS = 100;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final long tickMillis;
+    private final Random random;
+    private final LongAdder generatedCount = new LongAdder();
+
+    /**
+     * @param threads    the number of threads generating data
+     * @param tickMillis the resolution of the schedule; periods are rounded to whole ticks
+     * @param random     the source of the start delays and phases
+     */
+    public TickScheduler(int threads, long tickMillis, Random random) {
+        if (threads < 1 || tickMillis < 1) {
+            throw new IllegalArgumentException("Invalid tick scheduler: " + threads + " threads, tick " + tickMillis + " ms");
+        }
+        this.executor = new ScheduledThreadPoolExecutor(threads);
+        this.tickMillis = tickMillis;
+        this.random = random;
+    }
+
+    /**
+     * Constructs a scheduler with one thread per available processor and a tick of 100 ms.
+     *
+     * @param random the source of the start delays and phases
+     * @return the scheduler
+     */
+    public static TickScheduler forAvailableProcessors(Random random) {
+        return new TickScheduler(Runtime.getRuntime().availableProcessors(), DEFAULT_TICK_MILLIS, random);
+    }
+
+    /**
+     * Generates data for the given patients periodically.
+     *
+     * @param generator      the generator
+     * @param patientIds     the patients, generated in this order when due in the same tick
+     * @param periodMillis   the time between two generations for a patient
+     * @param outputStrategy where the generated data goes
+     */
+    public void schedule(PatientDataGenerator generator, List<Integer> patientIds, long periodMillis,
+                         OutputStrategy outputStrategy) {
+        int slots = (int) Math.max(1, periodMillis / tickMillis);
+        int[] slotOf = new int[patientIds.size()];
+        long[] firstTickOf = new long[patientIds.size()];
+        int[] slotSizes = new int[slots];
+        for (int i = 0; i < slotOf.length; i++) {
+            slotOf[i] = random.nextInt(slots);
+            firstTickOf[i] = (long) random.nextInt(5) * slots + slotOf[i];
+            slotSizes[slotOf[i]]++;
+        }
+
+        int[][] patients = new int[slots][];
+        long[][] firstTicks = new long[slots][];
+        for (int slot = 0; slot < slots; slot++) {
+            patients[slot] = new int[slotSizes[slot]];
+            firstTicks[slot] = new long[slotSizes[slot]];
+            slotSizes[slot] = 0;
+        }
+        for (int i = 0; i < slotOf.length; i++) {
+            int slot = slotOf[i];
+            patients[slot][slotSizes[slot]] = patientIds.get(i);
+            firstTicks[slot][slotSizes[slot]++] = firstTickOf[i];
+        }
+
+        executor.scheduleAtFixedRate(new GeneratorTask(generator, outputStrategy, patients, firstTicks),
+                0, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the number of generations run so far
+     */
+    public long getGeneratedCount() {
+        return generatedCount.sum();
+    }
+
+    /**
+     * @return the number of threads in the pool
+     */
+    public int getThreadCount() {
+        return executor.getPoolSize();
+    }
+
+    /**
+     * Stops generating, without waiting for the running ticks.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The periodic task of one generator: each run is one tick and generates the data
+     * of the patients in that tick's slot.
+     */
+    private final class GeneratorTask implements Runnable {
+        private final PatientDataGenerator generator;
+        private final OutputStrategy outputStrategy;
+        private final int[][] patients;
+        private final long[][] firstTicks;
+        // * Only touched by the task, which the executor never runs concurrently with itself.
+        private final SampleBatch batch = new SampleBatch();
+        private long tick;
+
+        GeneratorTask(PatientDataGenerator generator, OutputStrategy outputStrategy, int[][] patients,
+                      long[][] firstTicks) {
+            this.generator = generator;
+            this.outputStrategy = outputStrategy;
+            this.patients = patients;
+            this.firstTicks = firstTicks;
+        }
+
+        @Override
+        public void run() {
+            int slot = (int) (tick % patients.length);
+            int[] due = patients[slot];
+            long[] first = firstTicks[slot];
+            int generated = 0;
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < due.length; i++) {
+                if (tick < first[i]) {
+                    continue;
+                }
+                try {
+                    generator.generate(due[i], now, batch);
+                    generated++;
+                } catch (RuntimeException e) {
+                    // * An exception would cancel the periodic task, and with it every patient.
+                    System.err.println("Error generating data for patient " + due[i] + ": " + e.getMessage());
+                }
+                if (batch.size() >= SampleBatch.DEFAULT_CAPACITY) {
+                    flush();
+                }
+            }
+            flush();
+            generatedCount.add(generated);
+            tick++;
+        }
+
+        private void flush() {
+            try {
+                batch.flushTo(outputStrategy);
+            } catch (RuntimeException e) {
+                System.err.println("Error writing generated data: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.cardio_generator.generators;
 
 import java.util.Random;
 import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleLabel;
 
 /**
  * The AlertGenerator simulates giving and resolving alerts for patients based on some probability.
@@ -13,9 +15,16 @@ public class AlertGenerator implements PatientDataGenerator {
     // This is a constant.
     /**
      * A shared random number used for alert simulation.
+     *
+     * @deprecated no longer used: every patient has its own stream, see {@link PatientRandom}
      */
+    @Deprecated
     public static final Random RANDOM_GENERATOR = new Random();
 
+    private static final SampleLabel ALERT = SampleLabel.of("Alert");
+
+    private final PatientRandom random;
+
     // Changed variable name to lower camelCase.
     /**
      * Tracks the alert state of each patient.
@@ -28,7 +37,18 @@ public class AlertGenerator implements PatientDataGenerator {
      * @param patientCount the number of patients to give alerts for.
      */
     public AlertGenerator(int patientCount) {
+        this(patientCount, PatientRandom.randomSeed());
+    }
+
+    /**
+     * Constructs an AlertGenerator whose alerts are reproducible.
+     *
+     * @param patientCount the number of patients to give alerts for.
+     * @param seed         the seed of the simulation; the same seed gives every patient the same alerts
+     */
+    public AlertGenerator(int patientCount, long seed) {
         alertStates = new boolean[patientCount + 1];
+        random = new PatientRandom(patientCount, seed, "Alert");
     }
 
 
@@ -43,12 +63,24 @@ public class AlertGenerator implements PatientDataGenerator {
      */
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
+        generate(patientId, System.currentTimeMillis(), outputStrategy);
+    }
+
+    @Override
+    public void generate(int patientId, long timestamp, OutputStrategy outputStrategy) {
+        SampleBatch batch = new SampleBatch(1);
+        generate(patientId, timestamp, batch);
+        batch.flushTo(outputStrategy);
+    }
+
+    @Override
+    public void generate(int patientId, long timestamp, SampleBatch batch) {
         try {
             if (alertStates[patientId]) {
-                if (RANDOM_GENERATOR.nextDouble() < 0.9) { // 90% chance to resolve
+                if (random.nextDouble(patientId) < 0.9) { // 90% chance to resolve
                     alertStates[patientId] = false;
                     // Output the alert
-                    outputStrategy.output(patientId, System.currentTimeMillis(), "Alert", "resolved");
+                    batch.add(patientId, timestamp, ALERT, "resolved");
                 }
             } else {
 
@@ -57,12 +89,12 @@ public class AlertGenerator implements PatientDataGenerator {
                 // Changed this to a lower camel case
                 double alertProbability = -Math.expm1(-lambda); // Probability of at least one alert in the period
                 // Changed this to a lower camel case
-                boolean alertTriggered = RANDOM_GENERATOR.nextDouble() < alertProbability;
+                boolean alertTriggered = random.nextDouble(patientId) < alertProbability;
 
                 if (alertTriggered) {
                     alertStates[patientId] = true;
                     // Output the alert
-                    outputStrategy.output(patientId, System.currentTimeMillis(), "Alert", "triggered");
+                    batch.add(patientId, timestamp, ALERT, "triggered");
                 }
             }
         } catch (Exception e) {
@@ -1,16 +1,28 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
-
 import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleLabel;
 
 public class BloodLevelsDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+    private static final SampleLabel CHOLESTEROL = SampleLabel.of("Cholesterol");
+    private static final SampleLabel WHITE_BLOOD_CELLS = SampleLabel.of("WhiteBloodCells");
+    private static final SampleLabel RED_BLOOD_CELLS = SampleLabel.of("RedBloodCells");
+    private final PatientRandom random;
     private final double[] baselineCholesterol;
     private final double[] baselineWhiteCells;
     private final double[] baselineRedCells;
 
     public BloodLevelsDataGenerator(int patientCount) {
+        this(patientCount, PatientRandom.randomSeed());
+    }
+
+    /**
+     * @param patientCount the number of patients
+     * @param seed         the seed of the simulation; the same seed gives every patient the same values
+     */
+    public BloodLevelsDataGenerator(int patientCount, long seed) {
+        random = new PatientRandom(patientCount, seed, "BloodLevels");
         // Initialize arrays to store baseline values for each patient
         baselineCholesterol = new double[patientCount + 1];
         baselineWhiteCells = new double[patientCount + 1];
@@ -18,25 +30,36 @@ public class BloodLevelsDataGenerator implements PatientDataGenerator {
 
         // Generate baseline values for each patient
         for (int i = 1; i <= patientCount; i++) {
-            baselineCholesterol[i] = 150 + random.nextDouble() * 50; // Initial random baseline
-            baselineWhiteCells[i] = 4 + random.nextDouble() * 6; // Initial random baseline
-            baselineRedCells[i] = 4.5 + random.nextDouble() * 1.5; // Initial random baseline
+            baselineCholesterol[i] = 150 + random.nextDouble(i) * 50; // Initial random baseline
+            baselineWhiteCells[i] = 4 + random.nextDouble(i) * 6; // Initial random baseline
+            baselineRedCells[i] = 4.5 + random.nextDouble(i) * 1.5; // Initial random baseline
         }
     }
 
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
+        generate(patientId, System.currentTimeMillis(), outputStrategy);
+    }
+
+    @Override
+    public void generate(int patientId, long timestamp, OutputStrategy outputStrategy) {
+        SampleBatch batch = new SampleBatch(3);
+        generate(patientId, timestamp, batch);
+        batch.flushTo(outputStrategy);
+    }
+
+    @Override
+    public void generate(int patientId, long timestamp, SampleBatch batch) {
         try {
             // Generate values around the baseline for realism
-            double cholesterol = baselineCholesterol[patientId] + (random.nextDouble() - 0.5) * 10; // Small variation
-            double whiteCells = baselineWhiteCells[patientId] + (random.nextDouble() - 0.5) * 1; // Small variation
-            double redCells = baselineRedCells[patientId] + (random.nextDouble() - 0.5) * 0.2; // Small variation
+            double cholesterol = baselineCholesterol[patientId] + (random.nextDouble(patientId) - 0.5) * 10; // Small variation
+            double whiteCells = baselineWhiteCells[patientId] + (random.nextDouble(patientId) - 0.5) * 1; // Small variation
+            double redCells = baselineRedCells[patientId] + (random.nextDouble(patientId) - 0.5) * 0.2; // Small variation
 
             // Output the generated values
-            outputStrategy.output(patientId, System.currentTimeMillis(), "Cholesterol", Double.toString(cholesterol));
-            outputStrategy.output(patientId, System.currentTimeMillis(), "WhiteBloodCells",
-                    Double.toString(whiteCells));
-            outputStrategy.output(patientId, System.currentTimeMillis(), "RedBloodCells", Double.toString(redCells));
+            batch.add(patientId, timestamp, CHOLESTEROL, cholesterol);
+            batch.add(patientId, timestamp, WHITE_BLOOD_CELLS, whiteCells);
+            batch.add(patientId, timestamp, RED_BLOOD_CELLS, redCells);
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood levels data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
@@ -1,31 +1,54 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
-
 import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleLabel;
 
 public class BloodPressureDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+    private static final SampleLabel SYSTOLIC_PRESSURE = SampleLabel.of("SystolicPressure");
+    private static final SampleLabel DIASTOLIC_PRESSURE = SampleLabel.of("DiastolicPressure");
+    private final PatientRandom random;
 
     private int[] lastSystolicValues;
     private int[] lastDiastolicValues;
 
     public BloodPressureDataGenerator(int patientCount) {
+        this(patientCount, PatientRandom.randomSeed());
+    }
+
+    /**
+     * @param patientCount the number of patients
+     * @param seed         the seed of the simulation; the same seed gives every patient the same values
+     */
+    public BloodPressureDataGenerator(int patientCount, long seed) {
+        random = new PatientRandom(patientCount, seed, "BloodPressure");
         lastSystolicValues = new int[patientCount + 1];
         lastDiastolicValues = new int[patientCount + 1];
 
         // Initialize with baseline values for each patient
         for (int i = 1; i <= patientCount; i++) {
-            lastSystolicValues[i] = 110 + random.nextInt(20); // Random baseline between 110 and 130
-            lastDiastolicValues[i] = 70 + random.nextInt(15); // Random baseline between 70 and 85
+            lastSystolicValues[i] = 110 + random.nextInt(i, 20); // Random baseline between 110 and 130
+            lastDiastolicValues[i] = 70 + random.nextInt(i, 15); // Random baseline between 70 and 85
         }
     }
 
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
+        generate(patientId, System.currentTimeMillis(), outputStrategy);
+    }
+
+    @Override
+    public void generate(int patientId, long timestamp, OutputStrategy outputStrategy) {
+        SampleBatch batch = new SampleBatch(2);
+        generate(patientId, timestamp, batch);
+        batch.flushTo(outputStrategy);
+    }
+
+    @Override
+    public void generate(int patientId, long timestamp, SampleBatch batch) {
         try {
-            int systolicVariation = random.nextInt(5) - 2; // -2, -1, 0, 1, or 2
-            int diastolicVariation = random.nextInt(5) - 2;
+            int systolicVariation = random.nextInt(patientId, 5) - 2; // -2, -1, 0, 1, or 2
+            int diastolicVariation = random.nextInt(patientId, 5) - 2;
             int newSystolicValue = lastSystolicValues[patientId] + systolicVariation;
             int newDiastolicValue = lastDiastolicValues[patientId] + diastolicVariation;
             // Ensure the blood pressure stays within a realistic and safe range
@@ -34,10 +57,8 @@ public class BloodPressureDataGenerator implements PatientDataGenerator {
             lastSystolicValues[patientId] = newSystolicValue;
             lastDiastolicValues[patientId] = newDiastolicValue;
 
-            outputStrategy.output(patientId, System.currentTimeMillis(), "SystolicPressure",
-                    Double.toString(newSystolicValue));
-            outputStrategy.output(patientId, System.currentTimeMillis(), "DiastolicPressure",
-                    Double.toString(newDiastolicValue));
+            batch.add(patientId, timestamp, SYSTOLIC_PRESSURE, newSystolicValue);
+            batch.add(patientId, timestamp, DIASTOLIC_PRESSURE, newDiastolicValue);
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood pressure data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
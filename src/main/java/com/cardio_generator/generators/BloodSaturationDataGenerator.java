@@ -1,15 +1,16 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
-
 import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleLabel;
 
 /**
  * This class generates simulated blood saturation data for the patients.
  * Each patient's saturation level differs over time from 90 to 100.
  */
 public class BloodSaturationDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+    private static final SampleLabel SATURATION = SampleLabel.of("Saturation", "%");
+    private final PatientRandom random;
     private int[] lastSaturationValues;
 
     /**
@@ -19,11 +20,20 @@ public class BloodSaturationDataGenerator implements PatientDataGenerator {
      * @param patientCount The total number of patients for which the data will be counted for.
      */
     public BloodSaturationDataGenerator(int patientCount) {
+        this(patientCount, PatientRandom.randomSeed());
+    }
+
+    /**
+     * @param patientCount the number of patients
+     * @param seed         the seed of the simulation; the same seed gives every patient the same values
+     */
+    public BloodSaturationDataGenerator(int patientCount, long seed) {
+        random = new PatientRandom(patientCount, seed, "BloodSaturation");
         lastSaturationValues = new int[patientCount + 1];
 
         // Initialize with baseline saturation values for each patient
         for (int i = 1; i <= patientCount; i++) {
-            lastSaturationValues[i] = 95 + random.nextInt(6); // Initializes with a value between 95 and 100
+            lastSaturationValues[i] = 95 + random.nextInt(i, 6); // Initializes with a value between 95 and 100
         }
     }
 
@@ -37,16 +47,27 @@ public class BloodSaturationDataGenerator implements PatientDataGenerator {
      */
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
+        generate(patientId, System.currentTimeMillis(), outputStrategy);
+    }
+
+    @Override
+    public void generate(int patientId, long timestamp, OutputStrategy outputStrategy) {
+        SampleBatch batch = new SampleBatch(1);
+        generate(patientId, timestamp, batch);
+        batch.flushTo(outputStrategy);
+    }
+
+    @Override
+    public void generate(int patientId, long timestamp, SampleBatch batch) {
         try {
             // Simulate blood saturation values
-            int variation = random.nextInt(3) - 1; // -1, 0, or 1 to simulate small fluctuations
+            int variation = random.nextInt(patientId, 3) - 1; // -1, 0, or 1 to simulate small fluctuations
             int newSaturationValue = lastSaturationValues[patientId] + variation;
 
             // Ensure the saturation stays within a realistic and healthy range
             newSaturationValue = Math.min(Math.max(newSaturationValue, 90), 100);
             lastSaturationValues[patientId] = newSaturationValue;
-            outputStrategy.output(patientId, System.currentTimeMillis(), "Saturation",
-                    Double.toString(newSaturationValue) + "%");
+            batch.add(patientId, timestamp, SATURATION, newSaturationValue);
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood saturation data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
@@ -1,20 +1,77 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
-
 import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleLabel;
+
+import java.util.Arrays;
 
 /**
  * Generates ECG (electrocardiogram) data for patients.
  * This implementation uses Gaussian functions to simulate realistic ECG waveforms
  * including P waves, QRS complex, and T waves, along with natural variability.
+ *
+ * By default every call generates one sample, placed in a one-second cycle by its
+ * timestamp. Given a sampling rate, the generator instead keeps a sample clock per
+ * patient, started by the patient's first call, and every call generates all the
+ * samples due since the previous one, e.g. 500 per call at 500 Hz when called every
+ * second, from the table-driven {@link EcgSynthesizer}.
  */
 public class ECGDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+    /**
+     * The highest sampling rate: samples are stamped with whole milliseconds, so above
+     * it several samples of a patient would share a timestamp.
+     */
+    public static final double MAX_SAMPLING_RATE = 1000;
+
+    private static final SampleLabel ECG = SampleLabel.of("ECG");
+    private final PatientRandom random;
     private double[] lastEcgValues;
     private static final double PI = Math.PI;
+    // * Samples are synthesized in blocks of at most this size, into a buffer of the call.
+    private static final int BLOCK_SIZE = 1024;
+    // * After a longer pause, e.g. a jump of the clock, a patient's sample clock restarts instead of catching up.
+    private static final long MAX_CATCH_UP_MILLIS = 60_000;
+
+    private final EcgSynthesizer synthesizer;
+    private final long[] clockOrigins;
+    private final long[] nextSamples;
 
     public ECGDataGenerator(int patientCount) {
+        this(patientCount, PatientRandom.randomSeed());
+    }
+
+    /**
+     * @param patientCount the number of patients
+     * @param seed         the seed of the simulation; the same seed gives every patient the same noise
+     */
+    public ECGDataGenerator(int patientCount, long seed) {
+        this(patientCount, seed, 0);
+    }
+
+    /**
+     * @param patientCount the number of patients
+     * @param seed         the seed of the simulation; the same seed gives every patient the same noise
+     * @param samplingRate the ECG samples per second and patient, e.g. 500, at most {@link #MAX_SAMPLING_RATE};
+     *                     0 for one sample per call
+     * @throws IllegalArgumentException if the sampling rate is above {@link #MAX_SAMPLING_RATE}
+     */
+    public ECGDataGenerator(int patientCount, long seed, double samplingRate) {
+        if (samplingRate > MAX_SAMPLING_RATE) {
+            throw new IllegalArgumentException("ECG sampling rate above " + MAX_SAMPLING_RATE
+                    + " Hz would repeat millisecond timestamps: " + samplingRate);
+        }
+        random = new PatientRandom(patientCount, seed, "ECG");
+        if (samplingRate > 0) {
+            synthesizer = new EcgSynthesizer(patientCount, seed, samplingRate);
+            clockOrigins = new long[patientCount + 1];
+            nextSamples = new long[patientCount + 1];
+            Arrays.fill(clockOrigins, Long.MIN_VALUE);
+        } else {
+            synthesizer = null;
+            clockOrigins = null;
+            nextSamples = null;
+        }
         lastEcgValues = new double[patientCount + 1];
         // Initialize the last ECG value for each patient
         for (int i = 1; i <= patientCount; i++) {
@@ -24,9 +81,25 @@ public class ECGDataGenerator implements PatientDataGenerator {
 
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
+        generate(patientId, System.currentTimeMillis(), outputStrategy);
+    }
+
+    @Override
+    public void generate(int patientId, long timestamp, OutputStrategy outputStrategy) {
+        SampleBatch batch = new SampleBatch(1);
+        generate(patientId, timestamp, batch);
+        batch.flushTo(outputStrategy);
+    }
+
+    @Override
+    public void generate(int patientId, long timestamp, SampleBatch batch) {
+        if (synthesizer != null) {
+            generateBlock(patientId, timestamp, batch);
+            return;
+        }
         try {
-            double ecgValue = simulateEcgWaveform(patientId, lastEcgValues[patientId]);
-            outputStrategy.output(patientId, System.currentTimeMillis(), "ECG", Double.toString(ecgValue));
+            double ecgValue = simulateEcgWaveform(patientId, timestamp, lastEcgValues[patientId]);
+            batch.add(patientId, timestamp, ECG, ecgValue);
             lastEcgValues[patientId] = ecgValue;
         } catch (Exception e) {
             System.err.println("An error occurred while generating ECG data for patient " + patientId);
@@ -34,6 +107,41 @@ public class ECGDataGenerator implements PatientDataGenerator {
         }
     }
 
+    /**
+     * Adds the samples of a patient due by the given time, at the sampling rate,
+     * stamped with the millisecond of their sample clock.
+     */
+    private void generateBlock(int patientId, long timestamp, SampleBatch batch) {
+        double samplingRate = synthesizer.getSamplingRate();
+        long origin = clockOrigins[patientId];
+        if (origin == Long.MIN_VALUE || timestamp - origin - sampleMillis(nextSamples[patientId], samplingRate)
+                > MAX_CATCH_UP_MILLIS) {
+            origin = timestamp;
+            clockOrigins[patientId] = origin;
+            nextSamples[patientId] = 0;
+        }
+        // * The samples with index up to this one are due: their sample time is at or before the timestamp.
+        long due = timestamp < origin ? -1 : (long) ((timestamp - origin) * samplingRate / 1000);
+        long next = nextSamples[patientId];
+        if (next > due) {
+            return;
+        }
+        // * Sized to the samples due, so a call every second at 500 Hz needs 4 KB only while it runs.
+        double[] block = new double[(int) Math.min(BLOCK_SIZE, due - next + 1)];
+        while (next <= due) {
+            int count = (int) Math.min(BLOCK_SIZE, due - next + 1);
+            synthesizer.synthesize(patientId, block, 0, count);
+            for (int i = 0; i < count; i++, next++) {
+                batch.add(patientId, origin + sampleMillis(next, samplingRate), ECG, block[i]);
+            }
+        }
+        nextSamples[patientId] = next;
+    }
+
+    private static long sampleMillis(long sample, double samplingRate) {
+        return (long) (sample * 1000 / samplingRate);
+    }
+
     /**
      * Simulates a realistic ECG waveform using Gaussian functions to model the P wave,
      * QRS complex, and T wave. This approach produces a more physiologically accurate
@@ -48,12 +156,13 @@ public class ECGDataGenerator implements PatientDataGenerator {
      *
      *
      * @param patientId The ID of the patient (used for indexing).
+     * @param timestamp The time of the sample, which places it in the cycle.
      * @param lastEcgValue The previous ECG value (not used in this version, kept for future extension).
-     * @return A simulated ECG signal value at the current time.
+     * @return A simulated ECG signal value at the given time.
      */
-    private double simulateEcgWaveform(int patientId, double lastEcgValue) {
-        double hr = 60.0 + random.nextDouble() * 20.0; // Heart rate between 60-80 bpm
-        double t = (System.currentTimeMillis() % 1000) / 1000.0; // Normalize time to 1-second ECG cycle
+    private double simulateEcgWaveform(int patientId, long timestamp, double lastEcgValue) {
+        double hr = 60.0 + random.nextDouble(patientId) * 20.0; // Heart rate between 60-80 bpm
+        double t = (timestamp % 1000) / 1000.0; // Normalize time to 1-second ECG cycle
 
         double pWave = gaussian(t, 0.2, 0.025, 0.1);    // small bump around t=0.2s
         double qWave = gaussian(t, 0.37, 0.012, -0.15); // small downward dip
@@ -64,7 +173,7 @@ public class ECGDataGenerator implements PatientDataGenerator {
         double ecgSignal = pWave + qWave + rWave + sWave + tWave;
 
         // Adding small random noise
-        ecgSignal += (random.nextDouble() - 0.5) * 0.05;
+        ecgSignal += (random.nextDouble(patientId) - 0.5) * 0.05;
 
         return ecgSignal;
     }
@@ -0,0 +1,200 @@
+package com.cardio_generator.generators;
+
+/**
+ * Synthesizes continuous ECG signals at a real sampling rate, e.g. 250 or 500 Hz, for
+ * many patients, in blocks of consecutive samples per call.
+ *
+ * The shape of one beat, the P, Q, R, S and T Gaussians of {@link ECGDataGenerator} at
+ * 60 bpm, is computed once into a table; a sample is a table lookup with linear
+ * interpolation plus noise, instead of five {@code Math.exp} calls. Every beat has its
+ * own heart rate, drifting around the patient's resting rate, and the table is warped
+ * in time to the beat's length the way a real ECG changes with the rate: the QRS
+ * complex keeps its width, the P wave and the ST-T segment shorten with the square
+ * root of the beat length, and the diastole between T and the next P takes the rest.
+ *
+ * The phase within the current beat and the beat's warp are kept per patient, in one
+ * primitive array for all patients, so a patient's signal continues seamlessly from
+ * one block to the next. A patient must be synthesized by one thread at a time;
+ * different patients may be synthesized concurrently.
+ */
+public final class EcgSynthesizer {
+
+    // * The beat table: 2048 points over the one-second template beat keep the
+    // * interpolation error of the narrow R wave below a thousandth of its height.
+    private static final int TABLE_SIZE = 2048;
+    private static final double[] TABLE = buildTable();
+
+    // * Template times, in seconds of the 60 bpm beat, where its warped segments end.
+    private static final double P_END = 0.33;
+    private static final double QRS_END = 0.47;
+    private static final double T_END = 0.75;
+    private static final double QRS_WIDTH = QRS_END - P_END;
+    private static final double SCALED_WIDTH = P_END + (T_END - QRS_END);
+    // * The shortest diastole; at high rates the P wave and ST-T shrink further to keep it.
+    private static final double MIN_DIASTOLE = 0.05;
+
+    private static final double MIN_RATE = 30;
+    private static final double MAX_RATE = 200;
+    // * How far the rate drifts from one beat to the next and from the resting rate, in bpm.
+    private static final double RATE_STEP = 2;
+    private static final double RATE_RANGE = 10;
+    private static final double NOISE = 0.05;
+
+    // * The state of a patient, at patientId * STRIDE.
+    private static final int STRIDE = 8;
+    private static final int BEAT_TIME = 0;
+    private static final int BEAT_LENGTH = 1;
+    private static final int RATE = 2;
+    private static final int RESTING_RATE = 3;
+    private static final int INVERSE_SCALE = 4;
+    private static final int P_BOUNDARY = 5;
+    private static final int T_BOUNDARY = 6;
+    private static final int DIASTOLE_SCALE = 7;
+
+    private final double samplingRate;
+    private final double samplePeriod;
+    private final PatientRandom random;
+    private final double[] state;
+
+    /**
+     * @param patientCount the number of patients, with ids from 1
+     * @param seed         the seed of the simulation; the same seed gives every patient the same signal
+     * @param samplingRate the number of samples per second
+     */
+    public EcgSynthesizer(int patientCount, long seed, double samplingRate) {
+        if (!(samplingRate >= 1) || samplingRate > 10_000) {
+            throw new IllegalArgumentException("Invalid ECG sampling rate: " + samplingRate);
+        }
+        this.samplingRate = samplingRate;
+        this.samplePeriod = 1 / samplingRate;
+        this.random = new PatientRandom(patientCount, seed, "ECG waveform");
+        this.state = new double[(patientCount + 1) * STRIDE];
+        for (int patientId = 1; patientId <= patientCount; patientId++) {
+            int base = patientId * STRIDE;
+            // * A resting rate of 60-80 bpm, as in the per-sample generator, and a random phase,
+            // * so the patients do not beat in step.
+            state[base + RESTING_RATE] = 60 + random.nextDouble(patientId) * 20;
+            state[base + RATE] = state[base + RESTING_RATE];
+            startBeat(patientId, base);
+            state[base + BEAT_TIME] = random.nextDouble(patientId) * state[base + BEAT_LENGTH];
+        }
+    }
+
+    public double getSamplingRate() {
+        return samplingRate;
+    }
+
+    /**
+     * Writes the next samples of a patient's signal into an array.
+     *
+     * @param patientId the patient
+     * @param samples   where the samples go
+     * @param offset    the index of the first sample in the array
+     * @param count     the number of samples
+     */
+    public void synthesize(int patientId, double[] samples, int offset, int count) {
+        int base = patientId * STRIDE;
+        double[] s = state;
+        double beatTime = s[base + BEAT_TIME];
+        double beatLength = s[base + BEAT_LENGTH];
+        double inverseScale = s[base + INVERSE_SCALE];
+        double pBoundary = s[base + P_BOUNDARY];
+        double tBoundary = s[base + T_BOUNDARY];
+        double diastoleScale = s[base + DIASTOLE_SCALE];
+        double qrsBoundary = pBoundary + QRS_WIDTH;
+
+        for (int i = offset, end = offset + count; i < end; i++) {
+            // * A loop, since at low sampling rates a sample may skip a short beat.
+            while (beatTime >= beatLength) {
+                s[base + BEAT_TIME] = beatTime - beatLength;
+                startBeat(patientId, base);
+                beatTime = s[base + BEAT_TIME];
+                beatLength = s[base + BEAT_LENGTH];
+                inverseScale = s[base + INVERSE_SCALE];
+                pBoundary = s[base + P_BOUNDARY];
+                tBoundary = s[base + T_BOUNDARY];
+                diastoleScale = s[base + DIASTOLE_SCALE];
+                qrsBoundary = pBoundary + QRS_WIDTH;
+            }
+            // * The time within the beat, warped to the time within the template beat.
+            double t;
+            if (beatTime < pBoundary) {
+                t = beatTime * inverseScale;
+            } else if (beatTime < qrsBoundary) {
+                t = P_END + (beatTime - pBoundary);
+            } else if (beatTime < tBoundary) {
+                t = QRS_END + (beatTime - qrsBoundary) * inverseScale;
+            } else {
+                t = T_END + (beatTime - tBoundary) * diastoleScale;
+            }
+            samples[i] = lookup(t) + (random.nextDouble(patientId) - 0.5) * NOISE;
+            beatTime += samplePeriod;
+        }
+        s[base + BEAT_TIME] = beatTime;
+    }
+
+    /**
+     * @param patientId the patient
+     * @return the heart rate of the patient's current beat, in beats per minute
+     */
+    public double getHeartRate(int patientId) {
+        return state[patientId * STRIDE + RATE];
+    }
+
+    /**
+     * The shape of one beat at 60 bpm, from the table.
+     *
+     * @param t the time within the beat, in seconds from 0 to 1
+     * @return the value of the noiseless signal
+     */
+    public static double template(double t) {
+        return lookup(Math.min(Math.max(t, 0), 1));
+    }
+
+    /**
+     * Draws the rate of a new beat and computes how its time maps to the template beat.
+     */
+    private void startBeat(int patientId, int base) {
+        double resting = state[base + RESTING_RATE];
+        double rate = state[base + RATE] + (random.nextDouble(patientId) - 0.5) * 2 * RATE_STEP;
+        rate = Math.min(Math.max(rate, resting - RATE_RANGE), resting + RATE_RANGE);
+        rate = Math.min(Math.max(rate, MIN_RATE), MAX_RATE);
+        double beatLength = 60 / rate;
+        // * Bazett's square root for the P wave and ST-T, unless the diastole would get too short.
+        double scale = Math.min(Math.sqrt(beatLength), (beatLength - QRS_WIDTH - MIN_DIASTOLE) / SCALED_WIDTH);
+        double pBoundary = P_END * scale;
+        double tBoundary = pBoundary + QRS_WIDTH + (T_END - QRS_END) * scale;
+
+        state[base + RATE] = rate;
+        state[base + BEAT_LENGTH] = beatLength;
+        state[base + INVERSE_SCALE] = 1 / scale;
+        state[base + P_BOUNDARY] = pBoundary;
+        state[base + T_BOUNDARY] = tBoundary;
+        state[base + DIASTOLE_SCALE] = (1 - T_END) / (beatLength - tBoundary);
+    }
+
+    private static double lookup(double t) {
+        double x = t * TABLE_SIZE;
+        int i = Math.min((int) x, TABLE_SIZE - 1);
+        double fraction = x - i;
+        return TABLE[i] + fraction * (TABLE[i + 1] - TABLE[i]);
+    }
+
+    private static double[] buildTable() {
+        // * One extra point at t = 1, so the interpolation never wraps.
+        double[] table = new double[TABLE_SIZE + 1];
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            double t = i / (double) TABLE_SIZE;
+            table[i] = gaussian(t, 0.2, 0.025, 0.1)
+                    + gaussian(t, 0.37, 0.012, -0.15)
+                    + gaussian(t, 0.4, 0.01, 1.0)
+                    + gaussian(t, 0.43, 0.012, -0.25)
+                    + gaussian(t, 0.6, 0.04, 0.35);
+        }
+        return table;
+    }
+
+    private static double gaussian(double t, double mean, double stdDev, double amplitude) {
+        return amplitude * Math.exp(-(t - mean) * (t - mean) / (2 * stdDev * stdDev));
+    }
+}
@@ -1,6 +1,7 @@
 package com.cardio_generator.generators;
 
 import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
 
 
 /**
@@ -18,4 +19,31 @@ public interface PatientDataGenerator {
      * @throws IllegalAccessException if the patientId is not found.
      */
     void generate(int patientId, OutputStrategy outputStrategy);
+
+    /**
+     * Generates data for a patient at a given time instead of now, e.g. for a simulated clock.
+     * The default stamps the data of {@link #generate(int, OutputStrategy)} with the time;
+     * generators whose values depend on the time override it.
+     *
+     * @param patientId      the ID of the patient in which the data is being generated and is unique.
+     * @param timestamp      the time the data is generated at, in milliseconds since epoch.
+     * @param outputStrategy is used for outputting the generated data.
+     */
+    default void generate(int patientId, long timestamp, OutputStrategy outputStrategy) {
+        generate(patientId, (id, ignored, label, data) -> outputStrategy.output(id, timestamp, label, data));
+    }
+
+    /**
+     * Generates data for a patient at a given time into a batch, which the caller
+     * outputs together with the data of other patients. The default adds the data of
+     * {@link #generate(int, long, OutputStrategy)} as text; generators override it
+     * to add their values as numbers.
+     *
+     * @param patientId the ID of the patient in which the data is being generated and is unique.
+     * @param timestamp the time the data is generated at, in milliseconds since epoch.
+     * @param batch     where the generated data is added.
+     */
+    default void generate(int patientId, long timestamp, SampleBatch batch) {
+        generate(patientId, timestamp, batch.asOutputStrategy());
+    }
 }
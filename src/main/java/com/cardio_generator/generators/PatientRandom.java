@@ -0,0 +1,72 @@
+package com.cardio_generator.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * One independent random stream per patient, for a generator. Threads generating
+ * different patients never share state, and the numbers a patient gets depend only
+ * on the seed, the generator and how many numbers that patient drew before, not on
+ * which thread generated which patient when.
+ *
+ * Every stream is the SplitMix64 generator of {@link SplittableRandom}, seeded by
+ * splitting a root {@code SplittableRandom}. Only its 64-bit state is kept, in one
+ * array for all patients, instead of one object per patient.
+ */
+public final class PatientRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long[] states;
+
+    /**
+     * @param patientCount the number of patients, with ids from 1
+     * @param seed         the seed of the whole simulation
+     * @param generator    the name of the generator, so every generator gets different streams
+     */
+    public PatientRandom(int patientCount, long seed, String generator) {
+        states = new long[patientCount + 1];
+        SplittableRandom root = new SplittableRandom(mix64(seed + GOLDEN_GAMMA * generator.hashCode()));
+        for (int i = 0; i < states.length; i++) {
+            states[i] = root.split().nextLong();
+        }
+    }
+
+    /**
+     * @return a seed for a simulation that need not be reproducible
+     */
+    public static long randomSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    /**
+     * @param patientId the patient
+     * @return the next pseudorandom long of the patient's stream
+     */
+    public long nextLong(int patientId) {
+        return mix64(states[patientId] += GOLDEN_GAMMA);
+    }
+
+    /**
+     * @param patientId the patient
+     * @return the next pseudorandom double in [0, 1) of the patient's stream
+     */
+    public double nextDouble(int patientId) {
+        return (nextLong(patientId) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * @param patientId the patient
+     * @param bound     the upper bound, exclusive
+     * @return the next pseudorandom int in [0, bound) of the patient's stream
+     */
+    public int nextInt(int patientId, int bound) {
+        // * The upper 32 bits scaled to the bound; the bias is far below anything a simulation notices.
+        return (int) (((nextLong(patientId) >>> 32) * bound) >>> 32);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
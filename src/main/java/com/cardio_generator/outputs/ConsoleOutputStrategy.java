@@ -1,8 +1,30 @@
 package com.cardio_generator.outputs;
 
 public class ConsoleOutputStrategy implements OutputStrategy {
+
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
         System.out.printf("Patient ID: %d, Timestamp: %d, Label: %s, Data: %s%n", patientId, timestamp, label, data);
     }
+
+    /**
+     * Prints the lines of a batch with one write, the same lines as the single-sample output.
+     */
+    @Override
+    public void output(SampleBatch batch) {
+        LineBuffer buffer = LineBuffer.acquire();
+        try {
+            StringBuilder text = buffer.text();
+            for (int i = 0; i < batch.size(); i++) {
+                text.append("Patient ID: ").append(batch.getPatientId(i))
+                        .append(", Timestamp: ").append(batch.getTimestamp(i))
+                        .append(", Label: ").append(batch.getLabel(i).getName())
+                        .append(", Data: ");
+                batch.appendData(i, text).append(System.lineSeparator());
+            }
+            buffer.writeTo(System.out);
+        } finally {
+            buffer.release();
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.cardio_generator.outputs;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
@@ -10,8 +11,12 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * This class implements the OutputStrategy interface and provides the implementation to output health data to files.
  * It also writes health data to files in a specified directory and the files are also separate.
+ *
+ * By default every line is appended by opening and closing its file, so readers see it at once.
+ * A buffered strategy, for generating data sets as fast as possible, keeps one writer per file
+ * open and only flushes when its buffer is full or the strategy is closed.
  */
-public class FileOutputStrategy implements OutputStrategy {
+public class FileOutputStrategy implements OutputStrategy, AutoCloseable {
 
     // Changed it to lower camel case, and made it final since it won't change.
     private final String baseDirectory;
@@ -19,14 +24,25 @@ public class FileOutputStrategy implements OutputStrategy {
     // Changed it to lower camel case, made it private because it's an instance variable.
     private final ConcurrentHashMap<String, String> fileMap = new ConcurrentHashMap<>();
 
+    private final boolean buffered;
+    private final ConcurrentHashMap<String, BufferedWriter> writers = new ConcurrentHashMap<>();
+
     /**
      * Constructs a new FileOutputStrategy with the specified base directory.
      *
      * @param baseDirectory The base directory where the output files will be stored.
      */
     public FileOutputStrategy(String baseDirectory) {
+        this(baseDirectory, false);
+    }
 
+    /**
+     * @param baseDirectory The base directory where the output files will be stored.
+     * @param buffered      whether to keep the files open and buffer the lines until {@link #close}
+     */
+    public FileOutputStrategy(String baseDirectory, boolean buffered) {
         this.baseDirectory = baseDirectory;
+        this.buffered = buffered;
     }
 
     /**
@@ -39,6 +55,10 @@ public class FileOutputStrategy implements OutputStrategy {
      */
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
+        if (buffered) {
+            outputBuffered(patientId, timestamp, label, data);
+            return;
+        }
         try {
             // Create the directory
             Files.createDirectories(Paths.get(baseDirectory));
@@ -57,4 +77,131 @@ public class FileOutputStrategy implements OutputStrategy {
             System.err.println("Error writing to file " + filePath + ": " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes a batch: the samples of each label are encoded together and written with
+     * one open of the file, or one lock of its writer when buffered.
+     *
+     * @param batch the samples
+     */
+    @Override
+    public void output(SampleBatch batch) {
+        int size = batch.size();
+        LineBuffer buffer = LineBuffer.acquire();
+        try {
+            // * A batch has few labels, so they are found by scanning for each next one not written yet.
+            SampleLabel previous = null;
+            for (int first = 0; first < size; first++) {
+                SampleLabel label = batch.getLabel(first);
+                if (label == previous || appearsBefore(batch, label, first)) {
+                    continue;
+                }
+                previous = label;
+                StringBuilder text = buffer.text();
+                for (int i = first; i < size; i++) {
+                    if (batch.getLabel(i) != label) {
+                        continue;
+                    }
+                    text.append("Patient ID: ").append(batch.getPatientId(i))
+                            .append(", Timestamp: ").append(batch.getTimestamp(i))
+                            .append(", Label: ").append(label.getName())
+                            .append(", Data: ");
+                    batch.appendData(i, text).append(System.lineSeparator());
+                }
+                write(label.getName(), buffer);
+            }
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private static boolean appearsBefore(SampleBatch batch, SampleLabel label, int index) {
+        for (int i = 0; i < index; i++) {
+            if (batch.getLabel(i) == label) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void write(String label, LineBuffer buffer) {
+        if (buffered) {
+            BufferedWriter writer = writers.get(label);
+            if (writer == null) {
+                writer = writers.computeIfAbsent(label, this::openWriter);
+                if (writer == null) {
+                    return;
+                }
+            }
+            try {
+                synchronized (writer) {
+                    buffer.writeTo(writer);
+                }
+            } catch (IOException e) {
+                System.err.println("Error writing to file " + label + ".txt: " + e.getMessage());
+            }
+            return;
+        }
+        try {
+            Files.createDirectories(Paths.get(baseDirectory));
+        } catch (IOException e) {
+            System.err.println("Error creating base directory: " + e.getMessage());
+            return;
+        }
+        String filePath = fileMap.computeIfAbsent(label, k -> Paths.get(baseDirectory, label + ".txt").toString());
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+            buffer.writeTo(out);
+        } catch (IOException e) {
+            System.err.println("Error writing to file " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    private void outputBuffered(int patientId, long timestamp, String label, String data) {
+        BufferedWriter writer = writers.get(label);
+        if (writer == null) {
+            writer = writers.computeIfAbsent(label, this::openWriter);
+            if (writer == null) {
+                return;
+            }
+        }
+        // * The same line as printf, without parsing the format for every sample.
+        String line = "Patient ID: " + patientId + ", Timestamp: " + timestamp + ", Label: " + label
+                + ", Data: " + data + System.lineSeparator();
+        try {
+            synchronized (writer) {
+                writer.write(line);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing to file " + label + ".txt: " + e.getMessage());
+        }
+    }
+
+    private BufferedWriter openWriter(String label) {
+        try {
+            Files.createDirectories(Paths.get(baseDirectory));
+            return new BufferedWriter(Files.newBufferedWriter(Paths.get(baseDirectory, label + ".txt"),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16);
+        } catch (IOException e) {
+            System.err.println("Error opening file " + label + ".txt: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Flushes and closes the files of a buffered strategy.
+     */
+    @Override
+    public void close() {
+        for (BufferedWriter writer : writers.values()) {
+            try {
+                synchronized (writer) {
+                    writer.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Error closing output file: " + e.getMessage());
+            }
+        }
+        writers.clear();
+    }
+}
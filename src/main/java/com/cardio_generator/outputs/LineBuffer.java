@@ -0,0 +1,84 @@
+package com.cardio_generator.outputs;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * The text a sink encodes a batch into, and the bytes or characters it is copied to
+ * for writing. Both grow as needed and are reused, so encoding a batch allocates
+ * nothing once they are large enough. Not thread-safe: a sink takes one from the
+ * shared pool with {@link #acquire()} for the duration of a batch.
+ *
+ * The pool is bounded instead of keeping one buffer per thread: with one virtual
+ * thread per patient, per-thread buffers would multiply by the number of patients.
+ */
+final class LineBuffer {
+
+    // * Enough for every carrier thread to encode a batch at once; more are created and dropped when busy.
+    private static final BlockingQueue<LineBuffer> POOL =
+            new ArrayBlockingQueue<>(2 * Runtime.getRuntime().availableProcessors());
+
+    private final StringBuilder text = new StringBuilder(8192);
+    private byte[] bytes = new byte[8192];
+    private char[] chars = new char[0];
+
+    /**
+     * @return a buffer for the calling thread to use until it is {@link #release() released}
+     */
+    static LineBuffer acquire() {
+        LineBuffer buffer = POOL.poll();
+        return buffer != null ? buffer : new LineBuffer();
+    }
+
+    /**
+     * Returns the buffer to the pool; it must not be used afterwards.
+     */
+    void release() {
+        POOL.offer(this);
+    }
+
+    /**
+     * @return the text, emptied
+     */
+    StringBuilder text() {
+        text.setLength(0);
+        return text;
+    }
+
+    /**
+     * Writes the text to a print stream with one write, so it is not interleaved with
+     * other threads. Text that is not plain ASCII is printed as a string instead.
+     */
+    void writeTo(PrintStream out) {
+        int length = text.length();
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c > 0x7F) {
+                out.print(text.toString());
+                return;
+            }
+            bytes[i] = (byte) c;
+        }
+        out.write(bytes, 0, length);
+    }
+
+    /**
+     * Writes the text to a writer without turning it into a string.
+     *
+     * @throws IOException if the writer fails
+     */
+    void writeTo(Writer out) throws IOException {
+        int length = text.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        text.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+    }
+}
@@ -15,4 +15,17 @@ public interface OutputStrategy {
      * @param data The health data associated with the patient and the label.
      */
     void output(int patientId, long timestamp, String label, String data);
+
+    /**
+     * Outputs a batch of samples. The default passes every sample to
+     * {@link #output(int, long, String, String)}; sinks override it to encode the
+     * primitive values directly. The batch must not be kept after this returns.
+     *
+     * @param batch the samples
+     */
+    default void output(SampleBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            output(batch.getPatientId(i), batch.getTimestamp(i), batch.getLabel(i).getName(), batch.getData(i));
+        }
+    }
 }
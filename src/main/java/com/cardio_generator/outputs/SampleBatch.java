@@ -0,0 +1,194 @@
+package com.cardio_generator.outputs;
+
+import java.util.Arrays;
+
+/**
+ * A reusable batch of samples in primitive columns: patient, timestamp, interned
+ * label and value. Generators fill a batch and hand it to
+ * {@link OutputStrategy#output(SampleBatch)} at once, so a sink encodes the values
+ * straight into its buffers instead of formatting a string per sample.
+ *
+ * Most values are numbers; a few, like the alert states, are text, which is kept
+ * as the string given. A sink must not keep the batch after {@code output}
+ * returns: its owner clears and refills it. A batch is used by one thread at a time.
+ *
+ * Batches are owned by whoever fills them, e.g. a scheduler task or a single
+ * generator call, never by a thread: with one virtual thread per patient a batch
+ * per thread would stay reachable for the lifetime of every patient.
+ */
+public final class SampleBatch {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private int[] patientIds;
+    private long[] timestamps;
+    private SampleLabel[] labels;
+    private double[] values;
+    private String[] texts;
+    private int size;
+
+    // * Adds the samples of a string-based generator to this batch.
+    private final OutputStrategy legacyInput = (patientId, timestamp, label, data) ->
+            add(patientId, timestamp, SampleLabel.of(label), data);
+
+    public SampleBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the initial number of samples; the batch grows as needed
+     */
+    public SampleBatch(int capacity) {
+        int initial = Math.max(1, capacity);
+        patientIds = new int[initial];
+        timestamps = new long[initial];
+        labels = new SampleLabel[initial];
+        values = new double[initial];
+        texts = new String[initial];
+    }
+
+    /**
+     * Adds a numeric sample.
+     *
+     * @param patientId the patient
+     * @param timestamp the time of the sample
+     * @param label     the label of the sample
+     * @param value     the value
+     */
+    public void add(int patientId, long timestamp, SampleLabel label, double value) {
+        int index = next();
+        patientIds[index] = patientId;
+        timestamps[index] = timestamp;
+        labels[index] = label;
+        values[index] = value;
+        texts[index] = null;
+    }
+
+    /**
+     * Adds a text sample, e.g. an alert state.
+     *
+     * @param patientId the patient
+     * @param timestamp the time of the sample
+     * @param label     the label of the sample
+     * @param text      the value, printed as given
+     */
+    public void add(int patientId, long timestamp, SampleLabel label, String text) {
+        int index = next();
+        patientIds[index] = patientId;
+        timestamps[index] = timestamp;
+        labels[index] = label;
+        values[index] = Double.NaN;
+        texts[index] = text;
+    }
+
+    private int next() {
+        if (size == patientIds.length) {
+            int capacity = size * 2;
+            patientIds = Arrays.copyOf(patientIds, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            labels = Arrays.copyOf(labels, capacity);
+            values = Arrays.copyOf(values, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+        }
+        return size++;
+    }
+
+    /**
+     * @return an {@link OutputStrategy} that adds the samples it is given to this batch
+     */
+    public OutputStrategy asOutputStrategy() {
+        return legacyInput;
+    }
+
+    /**
+     * Hands the samples to an output and clears the batch, also when the output fails.
+     *
+     * @param outputStrategy the output; not called when the batch is empty
+     */
+    public void flushTo(OutputStrategy outputStrategy) {
+        if (size == 0) {
+            return;
+        }
+        try {
+            outputStrategy.output(this);
+        } finally {
+            clear();
+        }
+    }
+
+    /**
+     * Removes all samples.
+     */
+    public void clear() {
+        // * Only the references are cleared, so the batch keeps no text alive.
+        Arrays.fill(texts, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getPatientId(int index) {
+        return patientIds[index];
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    public SampleLabel getLabel(int index) {
+        return labels[index];
+    }
+
+    /**
+     * @param index the sample
+     * @return the value, or NaN for a text sample
+     */
+    public double getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * @param index the sample
+     * @return the text of a text sample, or null for a numeric one
+     */
+    public String getText(int index) {
+        return texts[index];
+    }
+
+    /**
+     * Formats the value of a sample as the single-sample {@link OutputStrategy} gets it:
+     * the text, or the number as {@link Double#toString} prints it followed by the unit.
+     *
+     * @param index the sample
+     * @return the value as text
+     */
+    public String getData(int index) {
+        String text = texts[index];
+        if (text != null) {
+            return text;
+        }
+        String unit = labels[index].getUnit();
+        return unit.isEmpty() ? Double.toString(values[index]) : Double.toString(values[index]) + unit;
+    }
+
+    /**
+     * Appends the value of a sample as {@link #getData} formats it, without building a string.
+     *
+     * @param index the sample
+     * @param out   where to append it
+     * @return the builder
+     */
+    public StringBuilder appendData(int index, StringBuilder out) {
+        String text = texts[index];
+        if (text != null) {
+            return out.append(text);
+        }
+        return out.append(values[index]).append(labels[index].getUnit());
+    }
+}
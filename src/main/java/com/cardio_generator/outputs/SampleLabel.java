@@ -0,0 +1,68 @@
+package com.cardio_generator.outputs;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The interned label of a sample, e.g. "ECG", with the unit its values are printed
+ * with, e.g. "%" for saturation. There is one instance per name and unit, so sinks
+ * can compare labels by identity and keep per-label state in arrays indexed by
+ * {@link #getId()}.
+ */
+public final class SampleLabel {
+
+    private static final ConcurrentHashMap<String, SampleLabel> LABELS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final int id;
+    private final String name;
+    private final String unit;
+
+    private SampleLabel(String name, String unit) {
+        this.id = NEXT_ID.getAndIncrement();
+        this.name = name;
+        this.unit = unit;
+    }
+
+    /**
+     * @param name the label, e.g. "ECG"
+     * @return the label without a unit
+     */
+    public static SampleLabel of(String name) {
+        return of(name, "");
+    }
+
+    /**
+     * @param name the label, e.g. "Saturation"
+     * @param unit printed right after every value, e.g. "%"
+     * @return the label
+     */
+    public static SampleLabel of(String name, String unit) {
+        String key = unit.isEmpty() ? name : name + '\0' + unit;
+        SampleLabel label = LABELS.get(key);
+        if (label == null) {
+            label = LABELS.computeIfAbsent(key, k -> new SampleLabel(name, unit));
+        }
+        return label;
+    }
+
+    /**
+     * @return a small number unique to the label, counted from 0
+     */
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -15,7 +15,7 @@ public class TcpOutputStrategy implements OutputStrategy {
 
     private ServerSocket serverSocket;
     private Socket clientSocket;
-    private PrintWriter out;
+    private volatile PrintWriter out;
 
     /**
      * Constructs a TcpOutputStrategy that opens a server socket on the specified port.
@@ -58,4 +58,34 @@ public class TcpOutputStrategy implements OutputStrategy {
             out.println(message);
         }
     }
+
+    /**
+     * Sends the lines of a batch with one flush instead of one per line.
+     *
+     * @param batch the samples
+     */
+    @Override
+    public void output(SampleBatch batch) {
+        PrintWriter writer = out;
+        if (writer == null) {
+            return;
+        }
+        LineBuffer buffer = LineBuffer.acquire();
+        try {
+            StringBuilder text = buffer.text();
+            for (int i = 0; i < batch.size(); i++) {
+                text.append(batch.getPatientId(i)).append(',')
+                        .append(batch.getTimestamp(i)).append(',')
+                        .append(batch.getLabel(i).getName()).append(',');
+                batch.appendData(i, text).append(System.lineSeparator());
+            }
+            // * One write, which the writer makes atomic, so the batch is not interleaved with other lines.
+            buffer.writeTo(writer);
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("Error sending data: " + e.getMessage());
+        } finally {
+            buffer.release();
+        }
+    }
 }
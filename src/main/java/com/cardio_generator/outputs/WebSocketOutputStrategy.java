@@ -37,6 +37,31 @@ public class WebSocketOutputStrategy implements OutputStrategy {
         }
     }
 
+    /**
+     * Sends every sample of a batch as its own message, in the same format. Nothing is
+     * encoded while no client is connected, and each message is framed once for all clients.
+     *
+     * @param batch the samples
+     */
+    @Override
+    public void output(SampleBatch batch) {
+        if (server.getConnections().isEmpty()) {
+            return;
+        }
+        StringBuilder text = new StringBuilder(64);
+        for (int i = 0; i < batch.size(); i++) {
+            text.setLength(0);
+            text.append(batch.getPatientId(i)).append(',')
+                    .append(batch.getTimestamp(i)).append(',')
+                    .append(batch.getLabel(i).getName()).append(',');
+            batch.appendData(i, text);
+            try {
+                server.broadcast(text.toString());
+            } catch (Exception e) {
+                System.err.println("Failed to send message to the clients: " + e.getMessage());
+            }
+        }
+    }
 
     private static class SimpleWebSocketServer extends WebSocketServer {
 
@@ -3,8 +3,15 @@ package com.data_management;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import com.alerts.AlertGenerator;
+import com.alerts.AlertSweepEngine;
+import com.alerts.EcgHeartRateMonitor;
+import com.alerts.dispatch.AlertGovernor;
 
 /**
  * Manages storage and retrieval of patient data within a healthcare monitoring
@@ -16,6 +23,9 @@ public class DataStorage {
     // Thread-safe patient map
     private Map<Integer, Patient> patientMap = new ConcurrentHashMap<>();
 
+    // Listeners are rarely changed but read on every write, so copy-on-write fits.
+    private final List<DataStorageListener> listeners = new CopyOnWriteArrayList<>();
+
     private static DataStorage instance;
 
     /**
@@ -52,8 +62,30 @@ public class DataStorage {
      */
     public void addPatientData(int patientId, double measurementValue, String recordType, long timestamp) {
         // Use atomic operation to get or create the patient
-        patientMap.computeIfAbsent(patientId, id -> new Patient(id))
+        PatientRecord record = patientMap.computeIfAbsent(patientId, id -> new Patient(id))
                 .addRecord(measurementValue, recordType, timestamp);
+
+        for (DataStorageListener listener : listeners) {
+            listener.onRecordAdded(record);
+        }
+    }
+
+    /**
+     * Registers a listener that is notified of every record added from now on.
+     *
+     * @param listener the listener to register
+     */
+    public void addListener(DataStorageListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener so it no longer receives new records.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(DataStorageListener listener) {
+        listeners.remove(listener);
     }
 
     /**
@@ -105,23 +137,52 @@ public class DataStorage {
         // the directory path where your data files are located
         String dataDirectoryPath = "C:\\Users\\iikxq\\ken1520_2024\\signal_project";
 
+        // The ECG sampling rate the data was generated with, as --ecg-rate of the simulator; 0 if unknown
+        double ecgRate = 0;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--ecg-rate")) {
+                try {
+                    ecgRate = Double.parseDouble(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.err.println("Error: Invalid ECG sampling rate: " + args[i]);
+                }
+            }
+        }
+
         // Using both FileDataReader and DataStorage
         DataStorage storage = DataStorage.getInstance();
         FileDataReader reader = new FileDataReader(dataDirectoryPath);
 
+        Map<String, Boolean> alertStates = new ConcurrentHashMap<>();
+        AlertGenerator alertGenerator = new AlertGenerator(storage, alertStates);
+
+        // Summarize alert storms instead of printing every alert of them
+        AlertGovernor governor = AlertGovernor.ward("ward",
+                (rule, count, summary, timestamp) -> System.out.println(">> [ALERT] " + summary));
+        alertGenerator.setAlertGovernor(governor);
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        governor.scheduleFlush(flusher, 1000);
+
+        // Derive the heart rate and rhythm alerts from the ECG records as they are read; one sample
+        // per second, the simulator's default, is far too slow to find the beats in
+        if (ecgRate >= EcgHeartRateMonitor.MIN_SAMPLING_RATE) {
+            storage.addListener(new EcgHeartRateMonitor(storage, ecgRate, alertGenerator));
+        }
+
         try {
             reader.readData(storage);
 
             List<PatientRecord> records = storage.getRecords(1, 1700000000000L, 1800000000000L);
 
-            Map<String, Boolean> alertStates = new ConcurrentHashMap<>();
-            AlertGenerator alertGenerator = new AlertGenerator(storage, alertStates);
-
-            for (Patient patient : storage.getAllPatients()) {
-                alertGenerator.evaluateData(patient);
+            // Evaluate all patients in parallel, giving up on the rest after 30 seconds
+            try (AlertSweepEngine sweepEngine = new AlertSweepEngine(alertGenerator)) {
+                AlertSweepEngine.SweepResult result = sweepEngine.sweep(storage.getAllPatients(), 30, TimeUnit.SECONDS);
+                System.out.println(result);
             }
         } catch (IOException e) {
             System.err.println("Error reading data: " + e.getMessage());
+        } finally {
+            flusher.shutdown();
         }
     }
 }
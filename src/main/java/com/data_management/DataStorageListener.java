@@ -0,0 +1,18 @@
+package com.data_management;
+
+/**
+ * Receives every record appended to a {@link DataStorage}.
+ *
+ * Listeners are called on the thread that added the data, right after the record
+ * was stored, so implementations should return quickly and hand heavy work to
+ * another thread.
+ */
+public interface DataStorageListener {
+
+    /**
+     * Called after a record has been added to the storage.
+     *
+     * @param record the record that was just stored
+     */
+    void onRecordAdded(PatientRecord record);
+}
@@ -4,6 +4,11 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class FileDataReader implements DataReader {
 
@@ -22,6 +27,112 @@ public class FileDataReader implements DataReader {
      */
     @Override
     public void readData(DataStorage dataStorage) throws IOException {
+        File[] files = listDataFiles();
+
+        for (File file : files) {
+            readFile(file, dataStorage);
+        }
+    }
+
+    /**
+     * Reads the data files concurrently, each on its own thread: a virtual thread
+     * where the JVM has them (see {@link VirtualThreads}), so reading many files blocks
+     * no platform threads. Fails with the first error after all files were read.
+     *
+     * @param dataStorage the storage where data will be stored
+     * @throws IOException if there is an error reading the data
+     */
+    public void readDataConcurrently(DataStorage dataStorage) throws IOException {
+        File[] files = listDataFiles();
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("file-reader-");
+        List<Future<?>> reads = new ArrayList<>();
+        try {
+            for (File file : files) {
+                reads.add(executor.submit(() -> {
+                    readFile(file, dataStorage);
+                    return null;
+                }));
+            }
+            IOException failure = null;
+            for (Future<?> read : reads) {
+                try {
+                    read.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof IOException
+                                ? (IOException) e.getCause() : new IOException(e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while reading data files", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads one data file into the data storage.
+     *
+     * @param file        the file
+     * @param dataStorage the storage where data will be stored
+     * @throws IOException if there is an error reading the file, or it is empty
+     */
+    private void readFile(File file, DataStorage dataStorage) throws IOException {
+        System.out.println("Reading file: " + file.getName());  // Log which file is being processed
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            boolean isFileEmpty = true;
+
+            // Read each line of the file
+            while ((line = reader.readLine()) != null) {
+                line = line.trim(); // Trim to remove leading/trailing whitespaces
+
+                // Skip empty lines or lines with non-valid data
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                // Ensure the line has exactly 4 parts
+                if (line.split(",").length == 4) {
+                    PatientRecord record = parseRecord(line);
+                    if (record != null) {
+                        // Log the record that is being added
+                        System.out.println("Adding record: ID=" + record.getPatientId() + ", Value="
+                                + record.getMeasurementValue() + ", Type=" + record.getRecordType()
+                                + ", Time=" + record.getTimestamp());
+
+                        // Add the data to the DataStorage
+                        dataStorage.addPatientData(record.getPatientId(), record.getMeasurementValue(),
+                                record.getRecordType(), record.getTimestamp());
+                        isFileEmpty = false;  // Mark that the file is not empty
+                    } else {
+                        System.out.println("Skipping line due to parsing error: " + line);
+                    }
+                } else {
+                    System.out.println("Skipping invalid line (does not have 4 parts): " + line);
+                }
+            }
+
+            // If the file was empty, throw an error
+            if (isFileEmpty) {
+                System.out.println("File is empty: " + file.getName());
+                throw new IOException("File is empty: " + file.getName());
+            }
+        }
+    }
+
+    /**
+     * Lists the data files (.txt or .csv) of the output directory.
+     *
+     * @return the data files
+     * @throws IOException if the directory does not exist or has no data files
+     */
+    public File[] listDataFiles() throws IOException {
         File directory = new File(outputDirectoryPath);
         if(!directory.exists() || !directory.isDirectory()) {
             throw new IOException("Output directory INVALID"+ outputDirectoryPath);
@@ -32,52 +143,28 @@ public class FileDataReader implements DataReader {
         if(files == null || files.length == 0) {
             throw new IOException("No data found in files: " + outputDirectoryPath );
         }
+        return files;
+    }
 
-        for (File file : files) {
-            System.out.println("Reading file: " + file.getName());  // Log which file is being processed
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                boolean isFileEmpty = true;
-
-                // Read each line of the file
-                while ((line = reader.readLine()) != null) {
-                    line = line.trim(); // Trim to remove leading/trailing whitespaces
-
-                    // Skip empty lines or lines with non-valid data
-                    if (line.isEmpty()) {
-                        continue;
-                    }
-
-                    String[] parts = line.split(",");
-
-                    // Ensure the line has exactly 4 parts
-                    if (parts.length == 4) {
-                        try {
-                            int id = Integer.parseInt(parts[0].trim());  // Parse patient ID
-                            double value = Double.parseDouble(parts[1].trim());  // Parse measurement value
-                            String type = parts[2].trim();  // Parse record type
-                            long time = Long.parseLong(parts[3].trim());  // Parse timestamp
-
-                            // Log the record that is being added
-                            System.out.println("Adding record: ID=" + id + ", Value=" + value + ", Type=" + type + ", Time=" + time);
-
-                            // Add the data to the DataStorage
-                            dataStorage.addPatientData(id, value, type, time);
-                            isFileEmpty = false;  // Mark that the file is not empty
-                        } catch (NumberFormatException e) {
-                            System.out.println("Skipping line due to parsing error: " + line);
-                        }
-                    } else {
-                        System.out.println("Skipping invalid line (does not have 4 parts): " + line);
-                    }
-                }
-
-                // If the file was empty, throw an error
-                if (isFileEmpty) {
-                    System.out.println("File is empty: " + file.getName());
-                    throw new IOException("File is empty: " + file.getName());
-                }
-            }
+    /**
+     * Parses one line in the format {@code id,value,type,timestamp}.
+     *
+     * @param line the line to parse
+     * @return the record, or null if the line does not have 4 valid parts
+     */
+    public static PatientRecord parseRecord(String line) {
+        String[] parts = line.trim().split(",");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            int id = Integer.parseInt(parts[0].trim());  // Parse patient ID
+            double value = Double.parseDouble(parts[1].trim());  // Parse measurement value
+            String type = parts[2].trim();  // Parse record type
+            long time = Long.parseLong(parts[3].trim());  // Parse timestamp
+            return new PatientRecord(id, value, type, time);
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 }
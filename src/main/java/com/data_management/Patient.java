@@ -8,6 +8,7 @@ import java.util.List;
  * This class stores patient-specific data, allowing for the addition and
  * retrieval
  * of medical records based on specified criteria.
+ * Records may be added and read from several threads, e.g. concurrent readers.
  */
 public class Patient {
     private int patientId;
@@ -34,10 +35,12 @@ public class Patient {
      *                         "BloodPressure"
      * @param timestamp        the time at which the measurement was taken, in
      *                         milliseconds since UNIX epoch
+     * @return the record that was added
      */
-    public void addRecord(double measurementValue, String recordType, long timestamp) {
+    public synchronized PatientRecord addRecord(double measurementValue, String recordType, long timestamp) {
         PatientRecord record = new PatientRecord(this.patientId, measurementValue, recordType, timestamp);
         this.patientRecords.add(record);
+        return record;
     }
 
     /**
@@ -51,7 +54,7 @@ public class Patient {
      * @return a list of PatientRecord objects that fall within the specified time
      *         range
      */
-    public List<PatientRecord> getRecords(long startTime, long endTime) {
+    public synchronized List<PatientRecord> getRecords(long startTime, long endTime) {
         List<PatientRecord> recordsInRange = new ArrayList<>();
         for (PatientRecord record : patientRecords) {
             if (record.getTimestamp() >= startTime && record.getTimestamp() <= endTime) {
@@ -61,7 +64,7 @@ public class Patient {
         return recordsInRange;
     }
 
-    public void addRecord(PatientRecord record) {
+    public synchronized void addRecord(PatientRecord record) {
         this.patientRecords.add(record);
     }
 
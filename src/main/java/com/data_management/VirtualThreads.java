@@ -0,0 +1,92 @@
+package com.data_management;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Access to virtual threads for code that is compiled for Java 11. On a JVM with
+ * virtual threads (Java 21 or later) they are looked up once by reflection; on older
+ * JVMs {@link #isSupported()} is false and the methods fall back to daemon platform
+ * threads, so callers can use them unconditionally.
+ */
+public final class VirtualThreads {
+
+    // * Thread.ofVirtual() and the builder methods, or null without virtual threads.
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method threadPerTaskExecutor = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            threadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // * On Java 19 and 20 they are a preview and throw without --enable-preview.
+            ofVirtual.invoke(null);
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        THREAD_PER_TASK_EXECUTOR = threadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return whether this JVM has virtual threads
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @param namePrefix the prefix of the thread names, followed by a counter
+     * @return a factory of virtual threads, or of daemon platform threads without them
+     */
+    public static ThreadFactory factory(String namePrefix) {
+        if (isSupported()) {
+            try {
+                Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+                return (ThreadFactory) FACTORY.invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Could not create virtual threads, using platform threads: " + e.getMessage());
+            }
+        }
+        AtomicLong counter = new AtomicLong();
+        return task -> {
+            Thread thread = new Thread(task, namePrefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * @param namePrefix the prefix of the thread names, followed by a counter
+     * @return an executor that runs every task on a new virtual thread, or a cached
+     *         pool of daemon platform threads without them
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory factory = factory(namePrefix);
+        if (isSupported()) {
+            try {
+                return (ExecutorService) THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Could not create a virtual thread executor, using platform threads: " + e.getMessage());
+            }
+        }
+        return Executors.newCachedThreadPool(factory);
+    }
+}
@@ -0,0 +1,74 @@
+package com.design_pattern.factoryANDdecorator;
+
+import com.alerts.dispatch.AlertPriority;
+
+/**
+ * An immutable description of one kind of alert, shared by every alert of that kind:
+ * the alert type (e.g. "ECG"), the condition text and the decorator pipeline applied
+ * to it, i.e. the priority line and the number of repeats. Built once per condition
+ * by a {@link FlyweightAlertFactory}; the per-event part of an alert is only the
+ * patient and the timestamp.
+ */
+public final class AlertCondition {
+    private final String alertType;
+    private final String condition;
+    private final String priorityLevel;
+    private final AlertPriority priority;
+    private final int repeatCount;
+
+    AlertCondition(String alertType, String condition, String priorityLevel, int repeatCount) {
+        this.alertType = alertType;
+        this.condition = condition;
+        this.priorityLevel = priorityLevel;
+        this.priority = AlertPriority.fromLevel(priorityLevel);
+        this.repeatCount = repeatCount;
+    }
+
+    /**
+     * Appends the text the equivalent decorated alert prints: the line of a
+     * {@link PriorityAlertDecorator}, if any, then the alert line once per repeat.
+     *
+     * @param text      the buffer to append to
+     * @param patientId the patient the alert is about
+     * @param timestamp the time of the alert
+     */
+    public void renderTo(StringBuilder text, String patientId, long timestamp) {
+        String lineSeparator = System.lineSeparator();
+        if (priorityLevel != null) {
+            text.append("PRIORITY: ").append(priorityLevel).append(lineSeparator);
+        }
+        for (int i = 0; i < repeatCount; i++) {
+            text.append(alertType).append(" Alert for ").append(patientId).append(": ")
+                    .append(condition).append(" at ").append(timestamp).append(lineSeparator);
+        }
+    }
+
+    /**
+     * @return the alert type, e.g. "Blood Pressure"
+     */
+    public String getAlertType() {
+        return alertType;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    /**
+     * @return the priority level printed before the alert, or null for none
+     */
+    public String getPriorityLevel() {
+        return priorityLevel;
+    }
+
+    /**
+     * @return the delivery priority matching the priority level; MEDIUM without one
+     */
+    public AlertPriority getPriority() {
+        return priority;
+    }
+
+    public int getRepeatCount() {
+        return repeatCount;
+    }
+}
@@ -2,4 +2,25 @@ package com.design_pattern.factoryANDdecorator;
 
 public abstract class AlertFactory {
     public abstract Alert createAlert(String patientId, String condition, long timestamp);
+
+    /**
+     * @return the alert type as printed by the created alerts, e.g. "ECG"
+     */
+    public String getAlertType() {
+        return "Generic";
+    }
+
+    /**
+     * Creates an allocation-light factory for this alert type, whose alerts print the
+     * same text as this factory's alerts wrapped in a {@link RepeatedAlertDecorator}
+     * and, with a priority level, a {@link PriorityAlertDecorator}.
+     *
+     * @param priorityLevel the priority level, e.g. "HIGH", or null for none
+     * @param repeatCount   how often each alert is printed
+     * @param output        where the alerts go, e.g. {@link AlertOutput#console}
+     * @return the flyweight factory
+     */
+    public FlyweightAlertFactory flyweight(String priorityLevel, int repeatCount, AlertOutput output) {
+        return new FlyweightAlertFactory(getAlertType(), priorityLevel, repeatCount, output);
+    }
 }
@@ -0,0 +1,42 @@
+package com.design_pattern.factoryANDdecorator;
+
+import com.alerts.dispatch.AlertDispatcher;
+
+import java.io.PrintStream;
+
+/**
+ * Where the alerts of a {@link FlyweightAlertFactory} go. An output receives the
+ * shared {@link AlertCondition} and the per-event fields, and only formats them
+ * when it actually renders text.
+ */
+@FunctionalInterface
+public interface AlertOutput {
+
+    /**
+     * @param condition the shared description of the alert
+     * @param patientId the patient the alert is about
+     * @param timestamp the time of the alert
+     */
+    void emit(AlertCondition condition, String patientId, long timestamp);
+
+    /**
+     * @param out the stream to print to
+     * @return an output that prints alerts as the decorated alerts do
+     */
+    static AlertOutput console(PrintStream out) {
+        return new ConsoleAlertOutput(out);
+    }
+
+    /**
+     * @param dispatcher the dispatcher to queue alerts on
+     * @return an output that hands alerts to the dispatcher, whose sinks format them
+     *         on their own threads; repeats are dispatched as separate alerts
+     */
+    static AlertOutput dispatcher(AlertDispatcher dispatcher) {
+        return (condition, patientId, timestamp) -> {
+            for (int i = 0; i < condition.getRepeatCount(); i++) {
+                dispatcher.dispatch(patientId, condition.getCondition(), timestamp, condition.getPriority());
+            }
+        };
+    }
+}
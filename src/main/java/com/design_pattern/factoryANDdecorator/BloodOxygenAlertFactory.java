@@ -5,4 +5,9 @@ public class BloodOxygenAlertFactory extends AlertFactory {
     public Alert createAlert(String patientId, String condition, long timestamp) {
         return new BloodOxygenAlert(patientId, condition, timestamp);
     }
-}
\ No newline at end of file
+
+    @Override
+    public String getAlertType() {
+        return "Blood Oxygen";
+    }
+}
@@ -0,0 +1,48 @@
+package com.design_pattern.factoryANDdecorator;
+
+import java.io.PrintStream;
+
+/**
+ * Prints alerts through a per-thread text and byte buffer, so printing an alert
+ * allocates nothing once the buffers have grown. Text that is not plain ASCII is
+ * printed as a string instead.
+ */
+class ConsoleAlertOutput implements AlertOutput {
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private final PrintStream out;
+
+    ConsoleAlertOutput(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void emit(AlertCondition condition, String patientId, long timestamp) {
+        Buffers buffers = BUFFERS.get();
+        StringBuilder text = buffers.text;
+        text.setLength(0);
+        condition.renderTo(text, patientId, timestamp);
+
+        int length = text.length();
+        if (buffers.bytes.length < length) {
+            buffers.bytes = new byte[Math.max(length, buffers.bytes.length * 2)];
+        }
+        byte[] bytes = buffers.bytes;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c > 0x7F) {
+                out.print(text.toString());
+                return;
+            }
+            bytes[i] = (byte) c;
+        }
+        // * One write, so the lines of an alert are never interleaved with those of another thread.
+        out.write(bytes, 0, length);
+    }
+
+    private static final class Buffers {
+        private final StringBuilder text = new StringBuilder(256);
+        private byte[] bytes = new byte[256];
+    }
+}
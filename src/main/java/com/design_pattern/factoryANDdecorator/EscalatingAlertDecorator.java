@@ -0,0 +1,120 @@
+package com.design_pattern.factoryANDdecorator;
+
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.dispatch.TimingWheel;
+
+/**
+ * Re-notifies the wrapped alert on a {@link TimingWheel} until it is acknowledged,
+ * raising its priority one level (LOW, MEDIUM, HIGH, CRITICAL) after every given
+ * number of repeats. Only one timer per alert is pending at any time.
+ */
+public class EscalatingAlertDecorator extends AlertDecorator {
+    private final TimingWheel wheel;
+    private final long intervalMillis;
+    private final int escalateAfterRepeats;
+    // * One priority decorator per level, from the initial level up to CRITICAL.
+    private final PriorityAlertDecorator[] levels;
+
+    private int level;
+    private int repeats;
+    private boolean acknowledged = true;
+    private TimingWheel.Timeout pending;
+    // * Bumped by every trigger and acknowledge, so a timer that already fired for an
+    // * earlier chain cannot be cancelled but still ends without notifying.
+    private long generation;
+
+    /**
+     * @param alert                the alert to re-notify
+     * @param priorityLevel        the initial priority level, e.g. "MEDIUM"
+     * @param wheel                the wheel that schedules the re-notifications
+     * @param intervalMillis       the time between two notifications, e.g. two minutes
+     * @param escalateAfterRepeats how many repeats at one level before raising it, e.g. 3
+     */
+    public EscalatingAlertDecorator(Alert alert, String priorityLevel, TimingWheel wheel,
+                                    long intervalMillis, int escalateAfterRepeats) {
+        super(alert);
+        if (intervalMillis < 1 || escalateAfterRepeats < 1) {
+            throw new IllegalArgumentException("Invalid escalation: every " + intervalMillis
+                    + " ms, escalating after " + escalateAfterRepeats + " repeats");
+        }
+        this.wheel = wheel;
+        this.intervalMillis = intervalMillis;
+        this.escalateAfterRepeats = escalateAfterRepeats;
+        // * AlertPriority is declared highest first.
+        int initial = AlertPriority.fromLevel(priorityLevel).ordinal();
+        this.levels = new PriorityAlertDecorator[initial + 1];
+        for (int i = 0; i <= initial; i++) {
+            levels[i] = new PriorityAlertDecorator(alert, AlertPriority.values()[initial - i].name());
+        }
+    }
+
+    /**
+     * Notifies now at the initial level and keeps re-notifying until {@link #acknowledge()}.
+     */
+    @Override
+    public synchronized void trigger() {
+        if (pending != null) {
+            pending.cancel();
+        }
+        generation++;
+        level = 0;
+        repeats = 0;
+        acknowledged = false;
+        notifyAndReschedule(wheel.getCurrentTimeMillis());
+    }
+
+    /**
+     * Stops the re-notifications.
+     *
+     * @return true if the alert was still being re-notified
+     */
+    public synchronized boolean acknowledge() {
+        if (acknowledged) {
+            return false;
+        }
+        acknowledged = true;
+        generation++;
+        if (pending != null) {
+            pending.cancel();
+            pending = null;
+        }
+        return true;
+    }
+
+    /**
+     * @return the current priority level, e.g. "HIGH"
+     */
+    public synchronized String getPriorityLevel() {
+        return levels[level].getPriorityLevel();
+    }
+
+    /**
+     * @return the number of re-notifications since the last trigger
+     */
+    public synchronized int getRepeatCount() {
+        return repeats;
+    }
+
+    public synchronized boolean isAcknowledged() {
+        return acknowledged;
+    }
+
+    private synchronized void repeat(long chain, long firedAt) {
+        if (acknowledged || chain != generation) {
+            return;
+        }
+        repeats++;
+        if (repeats % escalateAfterRepeats == 0 && level < levels.length - 1) {
+            level++;
+        }
+        notifyAndReschedule(firedAt);
+    }
+
+    private void notifyAndReschedule(long firedAt) {
+        // * Counted from the previous deadline, so a late tick does not shift the later notifications.
+        long next = firedAt + intervalMillis;
+        long chain = generation;
+        pending = wheel.schedule(() -> repeat(chain, next), next);
+        levels[level].trigger();
+    }
+}
@@ -0,0 +1,118 @@
+package com.design_pattern.factoryANDdecorator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An {@link AlertFactory} for high alert rates. The decorator pipeline (priority line
+ * and repeats) is fixed once per factory, and one immutable {@link AlertCondition} is
+ * shared by all alerts with the same condition text, so an alert is only a small
+ * holder of patient and timestamp, and {@link #trigger} needs no alert at all. The
+ * text is formatted by the {@link AlertOutput}, when and if it renders the alert.
+ *
+ * Obtain one from an alert type's factory with {@link AlertFactory#flyweight}.
+ */
+public class FlyweightAlertFactory extends AlertFactory {
+
+    // * Bounds the shared conditions in case condition texts carry measured values.
+    private static final int MAX_CONDITIONS = 1024;
+
+    private final String alertType;
+    private final String priorityLevel;
+    private final int repeatCount;
+    private final AlertOutput output;
+    private final Map<String, AlertCondition> conditions = new ConcurrentHashMap<>();
+
+    /**
+     * @param alertType     the alert type as printed, e.g. "ECG"
+     * @param priorityLevel the priority line to print first, e.g. "HIGH", or null for none
+     * @param repeatCount   how often each alert is printed
+     * @param output        where the alerts go
+     */
+    public FlyweightAlertFactory(String alertType, String priorityLevel, int repeatCount, AlertOutput output) {
+        if (repeatCount < 1) {
+            throw new IllegalArgumentException("Repeat count must be at least 1: " + repeatCount);
+        }
+        this.alertType = alertType;
+        this.priorityLevel = priorityLevel;
+        this.repeatCount = repeatCount;
+        this.output = output;
+    }
+
+    @Override
+    public Alert createAlert(String patientId, String condition, long timestamp) {
+        return new FlyweightAlert(getCondition(condition), output, patientId, timestamp);
+    }
+
+    /**
+     * Emits an alert without creating it.
+     *
+     * @param patientId the patient the alert is about
+     * @param condition the condition text
+     * @param timestamp the time of the alert
+     */
+    public void trigger(String patientId, String condition, long timestamp) {
+        output.emit(getCondition(condition), patientId, timestamp);
+    }
+
+    /**
+     * @param condition the condition text
+     * @return the shared description of alerts with that condition
+     */
+    public AlertCondition getCondition(String condition) {
+        AlertCondition shared = conditions.get(condition);
+        if (shared != null) {
+            return shared;
+        }
+        if (conditions.size() >= MAX_CONDITIONS) {
+            return new AlertCondition(alertType, condition, priorityLevel, repeatCount);
+        }
+        return conditions.computeIfAbsent(condition, c -> new AlertCondition(alertType, c, priorityLevel, repeatCount));
+    }
+
+    @Override
+    public String getAlertType() {
+        return alertType;
+    }
+
+    /**
+     * An alert of a flyweight factory: the shared condition plus patient and timestamp.
+     */
+    public static final class FlyweightAlert implements Alert {
+        private final AlertCondition condition;
+        private final AlertOutput output;
+        private final String patientId;
+        private final long timestamp;
+
+        FlyweightAlert(AlertCondition condition, AlertOutput output, String patientId, long timestamp) {
+            this.condition = condition;
+            this.output = output;
+            this.patientId = patientId;
+            this.timestamp = timestamp;
+        }
+
+        @Override
+        public void trigger() {
+            output.emit(condition, patientId, timestamp);
+        }
+
+        public AlertCondition getCondition() {
+            return condition;
+        }
+
+        public String getPatientId() {
+            return patientId;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            condition.renderTo(text, patientId, timestamp);
+            return text.toString();
+        }
+    }
+}
@@ -8,6 +8,13 @@ public class PriorityAlertDecorator extends AlertDecorator {
         this.priorityLevel = priorityLevel;
     }
 
+    /**
+     * @return the priority level, e.g. "HIGH"; see {@link com.alerts.dispatch.AlertPriority#fromLevel(String)}
+     */
+    public String getPriorityLevel() {
+        return priorityLevel;
+    }
+
     @Override
     public void trigger() {
         System.out.println("PRIORITY: " + priorityLevel);
@@ -1,17 +1,88 @@
 package com.design_pattern.factoryANDdecorator;
 
+import com.alerts.dispatch.TimingWheel;
+
+/**
+ * Triggers the wrapped alert several times. Without a {@link TimingWheel} the repeats
+ * fire at once; with one, the first fires on {@link #trigger()} and each further
+ * repeat is a timer on the wheel, one interval after the previous.
+ */
 public class RepeatedAlertDecorator extends AlertDecorator {
     private int repeatCount;
 
+    private final TimingWheel wheel;
+    private final long intervalMillis;
+    private int remaining;
+    private TimingWheel.Timeout pending;
+    // * Bumped by every cancel, so a timer that already fired for an earlier chain
+    // * cannot be cancelled but still ends without triggering.
+    private long generation;
+
     public RepeatedAlertDecorator(Alert alert, int repeatCount) {
         super(alert);
         this.repeatCount = repeatCount;
+        this.wheel = null;
+        this.intervalMillis = 0;
+    }
+
+    /**
+     * @param alert          the alert to repeat
+     * @param repeatCount    how often to trigger it in total
+     * @param wheel          the wheel that schedules the repeats
+     * @param intervalMillis the time between two repeats
+     */
+    public RepeatedAlertDecorator(Alert alert, int repeatCount, TimingWheel wheel, long intervalMillis) {
+        super(alert);
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("Repeat interval must be positive: " + intervalMillis);
+        }
+        this.repeatCount = repeatCount;
+        this.wheel = wheel;
+        this.intervalMillis = intervalMillis;
     }
 
     @Override
     public void trigger() {
-        for (int i = 0; i < repeatCount; i++) {
-            decoratedAlert.trigger();
+        if (wheel == null) {
+            for (int i = 0; i < repeatCount; i++) {
+                decoratedAlert.trigger();
+            }
+            return;
+        }
+        synchronized (this) {
+            cancel();
+            remaining = repeatCount;
+            fire(generation, wheel.getCurrentTimeMillis());
+        }
+    }
+
+    /**
+     * Cancels the repeats still scheduled.
+     */
+    public synchronized void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel();
+            pending = null;
+        }
+        remaining = 0;
+    }
+
+    /**
+     * @return the number of repeats not yet fired
+     */
+    public synchronized int getRemainingRepeats() {
+        return remaining;
+    }
+
+    private synchronized void fire(long chain, long firedAt) {
+        if (remaining <= 0 || chain != generation) {
+            return;
         }
+        remaining--;
+        // * Counted from the previous deadline, so a late tick does not shift the later repeats.
+        long next = firedAt + intervalMillis;
+        pending = remaining > 0 ? wheel.schedule(() -> fire(chain, next), next) : null;
+        decoratedAlert.trigger();
     }
 }
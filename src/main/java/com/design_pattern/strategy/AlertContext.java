@@ -1,9 +1,44 @@
 package com.design_pattern.strategy;
+import com.alerts.AlertClock;
 import com.data_management.Patient;
+import com.data_management.PatientRecord;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs alert strategies on a patient: one strategy at a time through
+ * {@link #setAlertStrategy}, or all registered strategies together through
+ * {@link #triggerAlerts}.
+ *
+ * In the composite mode the records of the widest window any strategy needs are
+ * fetched once, and each sample is passed only to the strategies that declared its
+ * record type and whose window it falls in. Strategies that declare no record types
+ * are run on their own with {@link AlertStrategy#checkAlert}.
+ */
 public class AlertContext {
     private AlertStrategy alertStrategy;
 
+    private final AlertClock clock;
+    private final List<AlertStrategy> strategies = new ArrayList<>();
+    private long[] windows = new long[0];
+    // * Indexes of the interested strategies per record type, looked up case-insensitively like the rules do.
+    private final Map<String, int[]> strategiesByType = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    public AlertContext() {
+        this(AlertClock.SYSTEM);
+    }
+
+    /**
+     * @param clock the source of the current time, which ends the windows of the composite evaluation
+     */
+    public AlertContext(AlertClock clock) {
+        this.clock = clock;
+    }
+
     public void setAlertStrategy(AlertStrategy alertStrategy) {
         this.alertStrategy = alertStrategy;
     }
@@ -11,4 +46,98 @@ public class AlertContext {
     public boolean triggerAlert(Patient patient) {
         return alertStrategy.checkAlert(patient);
     }
+
+    /**
+     * Registers a strategy for {@link #triggerAlerts}.
+     *
+     * @param strategy the strategy
+     */
+    public void addAlertStrategy(AlertStrategy strategy) {
+        int index = strategies.size();
+        strategies.add(strategy);
+        windows = Arrays.copyOf(windows, index + 1);
+        windows[index] = strategy.getWindowMillis();
+        for (String type : strategy.getRecordTypes()) {
+            int[] interested = strategiesByType.get(type);
+            int[] grown = interested == null ? new int[1] : Arrays.copyOf(interested, interested.length + 1);
+            grown[grown.length - 1] = index;
+            strategiesByType.put(type, grown);
+        }
+    }
+
+    /**
+     * @return the registered strategies, in registration order
+     */
+    public List<AlertStrategy> getAlertStrategies() {
+        return new ArrayList<>(strategies);
+    }
+
+    /**
+     * Evaluates all registered strategies in a single pass over the patient's records.
+     *
+     * @param patient the patient to evaluate
+     * @return for every registered strategy, in registration order, whether it alerts
+     */
+    public boolean[] triggerAlerts(Patient patient) {
+        return triggerAlerts(patient, null);
+    }
+
+    /**
+     * Evaluates some of the registered strategies in a single pass over the records of
+     * the widest window any of them needs.
+     *
+     * @param patient  the patient to evaluate
+     * @param selected for every registered strategy whether to evaluate it, or null for all
+     * @return for every registered strategy whether it alerts; false for those not selected
+     */
+    public boolean[] triggerAlerts(Patient patient, boolean[] selected) {
+        long now = clock.currentTimeMillis();
+        int count = strategies.size();
+        StrategyEvaluation[] evaluations = new StrategyEvaluation[count];
+        long[] windowStarts = new long[count];
+        boolean[] results = new boolean[count];
+        long widest = -1;
+        for (int i = 0; i < count; i++) {
+            if (selected != null && !selected[i]) {
+                continue;
+            }
+            AlertStrategy strategy = strategies.get(i);
+            if (strategy.getRecordTypes().isEmpty()) {
+                results[i] = strategy.checkAlert(patient);
+            } else {
+                evaluations[i] = strategy.startEvaluation(patient.getPatientId(), now);
+                windowStarts[i] = now - windows[i];
+                widest = Math.max(widest, windows[i]);
+            }
+        }
+        if (widest < 0) {
+            return results;
+        }
+
+        String lastType = null;
+        int[] interested = null;
+        for (PatientRecord record : patient.getRecords(now - widest, now)) {
+            // * Records of one type often come in runs, so the lookup result is reused.
+            String type = record.getRecordType();
+            if (!type.equals(lastType)) {
+                interested = strategiesByType.get(type);
+                lastType = type;
+            }
+            if (interested == null) {
+                continue;
+            }
+            long timestamp = record.getTimestamp();
+            for (int i : interested) {
+                if (evaluations[i] != null && timestamp >= windowStarts[i]) {
+                    evaluations[i].accept(type, record.getMeasurementValue(), timestamp);
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (evaluations[i] != null) {
+                results[i] = evaluations[i].result();
+            }
+        }
+        return results;
+    }
 }
@@ -1,6 +1,55 @@
 package com.design_pattern.strategy;
 import com.data_management.Patient;
 
+import java.util.Collections;
+import java.util.Set;
+
 public interface AlertStrategy {
     boolean checkAlert(Patient patient);
+
+    /**
+     * Declares the record types the strategy reads, so a composite {@link AlertContext}
+     * can fetch the records once for all its strategies and pass each sample only to
+     * the strategies that read it.
+     *
+     * @return the record types, or an empty set if the strategy only supports {@link #checkAlert}
+     */
+    default Set<String> getRecordTypes() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * @return how far back from now the strategy reads, in milliseconds
+     */
+    default long getWindowMillis() {
+        return 0;
+    }
+
+    /**
+     * Starts an evaluation over samples passed in by a composite {@link AlertContext};
+     * only called when {@link #getRecordTypes()} is not empty.
+     *
+     * The default collects the samples into a patient of its own and runs
+     * {@link #checkAlert} on it once all are in, so a strategy that declares its record
+     * types and window works without more; strategies override it to evaluate each
+     * sample as it arrives.
+     *
+     * @param patientId the patient being evaluated
+     * @param now       the end of the evaluation window in milliseconds since epoch
+     * @return the evaluation
+     */
+    default StrategyEvaluation startEvaluation(int patientId, long now) {
+        Patient samples = new Patient(patientId);
+        return new StrategyEvaluation() {
+            @Override
+            public void accept(String recordType, double value, long timestamp) {
+                samples.addRecord(value, recordType, timestamp);
+            }
+
+            @Override
+            public boolean result() {
+                return checkAlert(samples);
+            }
+        };
+    }
 }
@@ -1,24 +1,21 @@
 package com.design_pattern.strategy;
 
-import com.data_management.Patient;
-import com.data_management.PatientRecord;
+import com.alerts.AlertClock;
+import com.alerts.rules.AlertRules;
+import com.alerts.rules.CompiledRuleSet;
 
-import java.util.List;
+public class BloodPressureStrategy extends RuleStrategy {
+    // * Compiled once, the rule is evaluated over the last 1 minute.
+    private static final CompiledRuleSet RULES = CompiledRuleSet.parse(AlertRules.BLOOD_PRESSURE);
 
-public class BloodPressureStrategy implements AlertStrategy {
-    @Override
-    public boolean checkAlert(Patient patient) {
-        long now = System.currentTimeMillis();
-        List<PatientRecord> records = patient.getRecords(now - 60000, now); // last 1 minute
+    public BloodPressureStrategy() {
+        this(AlertClock.SYSTEM);
+    }
 
-        for (PatientRecord record : records) {
-            if (record.getRecordType().equalsIgnoreCase("BloodPressure")) {
-                double value = record.getMeasurementValue();
-                if (value > 180 || value < 90) {
-                    return true; // Critical blood pressure
-                }
-            }
-        }
-        return false;
+    /**
+     * @param clock the source of the current time, which ends the evaluation window
+     */
+    public BloodPressureStrategy(AlertClock clock) {
+        super(RULES, clock);
     }
 }
@@ -1,24 +1,21 @@
 package com.design_pattern.strategy;
 
-import com.data_management.Patient;
-import com.data_management.PatientRecord;
+import com.alerts.AlertClock;
+import com.alerts.rules.AlertRules;
+import com.alerts.rules.CompiledRuleSet;
 
-import java.util.List;
+public class HeartRateStrategy extends RuleStrategy {
+    // * Compiled once, the rule is evaluated over the last 1 minute.
+    private static final CompiledRuleSet RULES = CompiledRuleSet.parse(AlertRules.HEART_RATE);
 
-public class HeartRateStrategy implements AlertStrategy {
-    @Override
-    public boolean checkAlert(Patient patient) {
-        long now = System.currentTimeMillis();
-        List<PatientRecord> records = patient.getRecords(now - 60000, now); // last 1 minute
+    public HeartRateStrategy() {
+        this(AlertClock.SYSTEM);
+    }
 
-        for (PatientRecord record : records) {
-            if (record.getRecordType().equalsIgnoreCase("HeartRate")) {
-                double value = record.getMeasurementValue();
-                if (value > 120 || value < 50) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    /**
+     * @param clock the source of the current time, which ends the evaluation window
+     */
+    public HeartRateStrategy(AlertClock clock) {
+        super(RULES, clock);
     }
 }
@@ -1,25 +1,21 @@
 package com.design_pattern.strategy;
 
-import com.data_management.Patient;
-import com.data_management.PatientRecord;
+import com.alerts.AlertClock;
+import com.alerts.rules.AlertRules;
+import com.alerts.rules.CompiledRuleSet;
 
-import java.util.List;
+public class OxygenSaturationStrategy extends RuleStrategy {
+    // * Compiled once, the rule is evaluated over the last 10 seconds.
+    private static final CompiledRuleSet RULES = CompiledRuleSet.parse(AlertRules.OXYGEN_SATURATION);
 
-public class OxygenSaturationStrategy implements AlertStrategy {
-
-    @Override
-    public boolean checkAlert(Patient patient) {
-        long now = System.currentTimeMillis();
+    public OxygenSaturationStrategy() {
+        this(AlertClock.SYSTEM);
+    }
 
-        List<PatientRecord> records = patient.getRecords(now - 10000, now); // last 10 seconds
-        for (PatientRecord record : records) {
-            if (record.getRecordType().equalsIgnoreCase("OxygenSaturation")) {
-                double value = record.getMeasurementValue();
-                if (value < 90) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    /**
+     * @param clock the source of the current time, which ends the evaluation window
+     */
+    public OxygenSaturationStrategy(AlertClock clock) {
+        super(RULES, clock);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package com.design_pattern.strategy;
+
+import com.alerts.AlertClock;
+import com.alerts.rules.CompiledRuleSet;
+import com.data_management.Patient;
+
+import java.util.Set;
+
+/**
+ * Strategy that alerts when any rule of a compiled rule set fires, so new alert
+ * criteria can be written as rules instead of as new strategy classes.
+ */
+public class RuleStrategy implements AlertStrategy {
+    private final CompiledRuleSet rules;
+    private final AlertClock clock;
+
+    public RuleStrategy(CompiledRuleSet rules) {
+        this(rules, AlertClock.SYSTEM);
+    }
+
+    /**
+     * @param rules the compiled rules
+     * @param clock the source of the current time, which ends the evaluation windows
+     */
+    public RuleStrategy(CompiledRuleSet rules, AlertClock clock) {
+        this.rules = rules;
+        this.clock = clock;
+    }
+
+    /**
+     * @param ruleText rules in the language of {@link com.alerts.rules.RuleParser}
+     * @throws IllegalArgumentException if a rule cannot be parsed
+     */
+    public RuleStrategy(String ruleText) {
+        this(CompiledRuleSet.parse(ruleText));
+    }
+
+    @Override
+    public boolean checkAlert(Patient patient) {
+        return rules.anyFires(patient, clock.currentTimeMillis());
+    }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return rules.getMetrics();
+    }
+
+    @Override
+    public long getWindowMillis() {
+        return rules.getWidestWindowMillis();
+    }
+
+    @Override
+    public StrategyEvaluation startEvaluation(int patientId, long now) {
+        CompiledRuleSet.Evaluation evaluation = rules.startEvaluation(now);
+        return new StrategyEvaluation() {
+            @Override
+            public void accept(String recordType, double value, long timestamp) {
+                evaluation.accept(recordType, value, timestamp);
+            }
+
+            @Override
+            public boolean result() {
+                return evaluation.anyFires();
+            }
+        };
+    }
+}
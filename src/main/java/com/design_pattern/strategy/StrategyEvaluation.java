@@ -0,0 +1,20 @@
+package com.design_pattern.strategy;
+
+/**
+ * One evaluation of an {@link AlertStrategy}, fed the samples of the record types the
+ * strategy declared, in timestamp order per record type, by a composite {@link AlertContext}.
+ */
+public interface StrategyEvaluation {
+
+    /**
+     * @param recordType the record type of the sample
+     * @param value      the measured value
+     * @param timestamp  the time of the sample in milliseconds since epoch
+     */
+    void accept(String recordType, double value, long timestamp);
+
+    /**
+     * @return whether the strategy alerts on the samples accepted so far
+     */
+    boolean result();
+}
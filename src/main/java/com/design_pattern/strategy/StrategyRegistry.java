@@ -0,0 +1,191 @@
+package com.design_pattern.strategy;
+
+import com.alerts.AlertClock;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code StrategyRegistry} maps record types to the strategies that read them,
+ * so a newly arrived sample only re-evaluates the strategies it can affect: a new
+ * ECG value never changes the verdict of a blood pressure strategy.
+ *
+ * The verdict of every (patient, strategy) is cached. It is recomputed when a sample
+ * of a record type the strategy declared arrives, and otherwise when it is older than
+ * the maximum staleness, since readings leaving a window can change a verdict without
+ * any new sample. Strategies that declare no record types are re-evaluated on every
+ * sample. The re-evaluated strategies share one pass over the records through an
+ * {@link AlertContext}.
+ */
+public class StrategyRegistry {
+
+    public static final long DEFAULT_MAX_STALE_MILLIS = 1000;
+
+    private final AlertClock clock;
+    private final long maxStaleMillis;
+    private final AlertContext context;
+    private final List<AlertStrategy> strategies = new ArrayList<>();
+    // * Strategies to re-evaluate per record type, looked up case-insensitively like the rules do.
+    private final Map<String, int[]> dependentsByType = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private int[] undeclared = new int[0];
+    private final Map<Integer, PatientVerdicts> verdicts = new ConcurrentHashMap<>();
+
+    private final LongAdder evaluatedCount = new LongAdder();
+    private final LongAdder cachedCount = new LongAdder();
+
+    /**
+     * Constructs a registry whose cached verdicts are at most a second old.
+     */
+    public StrategyRegistry() {
+        this(AlertClock.SYSTEM, DEFAULT_MAX_STALE_MILLIS);
+    }
+
+    /**
+     * @param clock          the source of the current time, which ends the evaluation windows
+     * @param maxStaleMillis how long a verdict may be reused while no sample it depends on arrives
+     */
+    public StrategyRegistry(AlertClock clock, long maxStaleMillis) {
+        if (maxStaleMillis < 0) {
+            throw new IllegalArgumentException("Maximum staleness must not be negative: " + maxStaleMillis);
+        }
+        this.clock = clock;
+        this.maxStaleMillis = maxStaleMillis;
+        this.context = new AlertContext(clock);
+    }
+
+    /**
+     * Registers a strategy. Register all strategies before the first sample.
+     *
+     * @param strategy the strategy
+     * @return the index of the strategy in the verdict arrays
+     */
+    public synchronized int register(AlertStrategy strategy) {
+        int index = strategies.size();
+        strategies.add(strategy);
+        context.addAlertStrategy(strategy);
+        if (strategy.getRecordTypes().isEmpty()) {
+            undeclared = append(undeclared, index);
+        }
+        for (String type : strategy.getRecordTypes()) {
+            dependentsByType.put(type, append(dependentsByType.getOrDefault(type, new int[0]), index));
+        }
+        verdicts.clear();
+        return index;
+    }
+
+    /**
+     * @param recordType the record type
+     * @return the strategies a sample of the record type re-evaluates
+     */
+    public synchronized List<AlertStrategy> getDependentStrategies(String recordType) {
+        List<AlertStrategy> dependents = new ArrayList<>();
+        for (int index : dependentsByType.getOrDefault(recordType, new int[0])) {
+            dependents.add(strategies.get(index));
+        }
+        for (int index : undeclared) {
+            dependents.add(strategies.get(index));
+        }
+        return Collections.unmodifiableList(dependents);
+    }
+
+    /**
+     * Updates the verdicts of a patient after a sample arrived, re-evaluating only the
+     * strategies the sample can affect and those whose cached verdict is stale.
+     *
+     * @param patient the patient, whose records already contain the sample
+     * @param sample  the sample that just arrived
+     * @return for every registered strategy, in registration order, whether it alerts
+     */
+    public boolean[] onSample(Patient patient, PatientRecord sample) {
+        long now = clock.currentTimeMillis();
+        PatientVerdicts patientVerdicts = verdicts.get(patient.getPatientId());
+        if (patientVerdicts == null) {
+            patientVerdicts = verdicts.computeIfAbsent(patient.getPatientId(), id -> new PatientVerdicts());
+        }
+        synchronized (patientVerdicts) {
+            int count = patientVerdicts.verdicts.length;
+            boolean[] selected = new boolean[count];
+            int[] dependents = dependentsByType.get(sample.getRecordType());
+            if (dependents != null) {
+                for (int index : dependents) {
+                    selected[index] = true;
+                }
+            }
+            for (int index : undeclared) {
+                selected[index] = true;
+            }
+            int stale = 0;
+            for (int i = 0; i < count; i++) {
+                if (!selected[i] && now - patientVerdicts.evaluatedAt[i] > maxStaleMillis) {
+                    selected[i] = true;
+                }
+                if (selected[i]) {
+                    stale++;
+                }
+            }
+
+            if (stale > 0) {
+                boolean[] results = context.triggerAlerts(patient, selected);
+                for (int i = 0; i < count; i++) {
+                    if (selected[i]) {
+                        patientVerdicts.verdicts[i] = results[i];
+                        patientVerdicts.evaluatedAt[i] = now;
+                    }
+                }
+            }
+            evaluatedCount.add(stale);
+            cachedCount.add(count - stale);
+            return patientVerdicts.verdicts.clone();
+        }
+    }
+
+    /**
+     * @return the number of strategy evaluations performed
+     */
+    public long getEvaluatedCount() {
+        return evaluatedCount.sum();
+    }
+
+    /**
+     * @return the number of verdicts answered from the cache
+     */
+    public long getCachedCount() {
+        return cachedCount.sum();
+    }
+
+    /**
+     * Forgets the cached verdicts of a patient.
+     *
+     * @param patientId the patient
+     */
+    public void removePatient(int patientId) {
+        verdicts.remove(patientId);
+    }
+
+    private static int[] append(int[] indexes, int index) {
+        int[] grown = Arrays.copyOf(indexes, indexes.length + 1);
+        grown[indexes.length] = index;
+        return grown;
+    }
+
+    /**
+     * The cached verdicts of one patient.
+     */
+    private final class PatientVerdicts {
+        private final boolean[] verdicts = new boolean[strategies.size()];
+        private final long[] evaluatedAt = new long[strategies.size()];
+
+        PatientVerdicts() {
+            // * Never evaluated: stale on the first sample.
+            Arrays.fill(evaluatedAt, Long.MIN_VALUE / 2);
+        }
+    }
+}
@@ -1,11 +1,22 @@
 package com.server;
 
+import com.alerts.AlertGenerator;
+import com.alerts.AlertHistoryStore;
+import com.alerts.PushAlertEvaluator;
+import com.alerts.dispatch.AlertDispatcher;
+import com.alerts.dispatch.AlertGovernor;
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.dispatch.ConsoleAlertSink;
 import com.data_management.DataStorage;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
 
 import java.net.URI;
+import java.nio.file.Paths;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * WebSocket client that connects to a server, receives patient data as CSV,
@@ -116,6 +127,7 @@ public class MyWebSocketClient extends WebSocketClient {
     /**
      * Entry point to run the WebSocket client.
      * Connects to a local WebSocket server and listens for patient data.
+     * Alerts are evaluated for each patient as soon as their data arrives.
      *
      * @param args command-line arguments (not used)
      * @throws Exception if the URI is invalid or the connection fails
@@ -123,6 +135,28 @@ public class MyWebSocketClient extends WebSocketClient {
     public static void main(String[] args) throws Exception {
         URI serverUri = new URI("ws://localhost:9090");
         DataStorage dataStorage = DataStorage.getInstance();
+
+        AlertDispatcher dispatcher = new AlertDispatcher(10000, 256, new ConsoleAlertSink(),
+                AlertHistoryStore.open(Paths.get("alert-history")));
+        dispatcher.start();
+        AlertGenerator alertGenerator = new AlertGenerator(dataStorage, new ConcurrentHashMap<>());
+        alertGenerator.setAlertDispatcher(dispatcher);
+
+        // Summarize alert storms instead of dispatching every alert of them
+        AlertGovernor governor = AlertGovernor.ward("ward", (rule, count, summary, timestamp) ->
+                dispatcher.dispatch("ward", summary, timestamp, AlertPriority.HIGH));
+        alertGenerator.setAlertGovernor(governor);
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "alert-governor-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        governor.scheduleFlush(flusher, 1000);
+
+        PushAlertEvaluator pushEvaluator = new PushAlertEvaluator(alertGenerator);
+        dataStorage.addListener(pushEvaluator);
+        pushEvaluator.start();
+
         MyWebSocketClient client = new MyWebSocketClient(serverUri, dataStorage);
         client.connectBlocking();
     }
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import com.alerts.dispatch.AlertDispatcher;
+import com.alerts.dispatch.AlertEvent;
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.dispatch.AlertSink;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what an alert costs the evaluation thread when it is printed directly
+ * versus handed to the dispatcher, with a sink that takes 1 ms per delivery (like a
+ * slow console, disk or network), and reports queue depth, drops and delivery latency.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.AlertDispatchBenchmark
+ */
+public class AlertDispatchBenchmark {
+
+    private static final int ALERTS = 20000;
+
+    public static void main(String[] args) throws Exception {
+        SlowSink direct = new SlowSink();
+        long start = System.nanoTime();
+        for (int i = 0; i < 2000; i++) {
+            direct.deliver(List.of());
+        }
+        double directNanos = (System.nanoTime() - start) / 2000.0;
+
+        SlowSink slow = new SlowSink();
+        AlertDispatcher dispatcher = new AlertDispatcher(ALERTS, 256, slow);
+        dispatcher.start();
+        int maxDepth = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < ALERTS; i++) {
+            dispatcher.dispatch(String.valueOf(i % 100), "ALERT TRIGGERED based on vital signs", i,
+                    i % 10 == 0 ? AlertPriority.CRITICAL : AlertPriority.HIGH);
+            maxDepth = Math.max(maxDepth, dispatcher.getQueueDepth());
+        }
+        double dispatchNanos = (System.nanoTime() - start) / (double) ALERTS;
+        dispatcher.awaitDelivery(60, TimeUnit.SECONDS);
+        dispatcher.close();
+
+        System.out.printf("direct delivery:   %.1f us per alert on the evaluation thread%n", directNanos / 1000);
+        System.out.printf("dispatcher:        %.3f us per alert on the evaluation thread%n", dispatchNanos / 1000);
+        System.out.printf("  delivered %d in %d batches, dropped %d, max queue depth %d%n",
+                dispatcher.getDeliveredCount(), slow.batches, dispatcher.getDroppedCount(), maxDepth);
+        System.out.printf("  latency avg %.1f ms, max %.1f ms%n",
+                dispatcher.getAverageLatencyNanos() / 1e6, dispatcher.getMaxLatencyNanos() / 1e6);
+    }
+
+    private static class SlowSink implements AlertSink {
+        int batches;
+
+        @Override
+        public void deliver(List<AlertEvent> batch) throws InterruptedException {
+            batches++;
+            Thread.sleep(1);
+        }
+
+        @Override
+        public String getName() {
+            return "slow";
+        }
+    }
+}
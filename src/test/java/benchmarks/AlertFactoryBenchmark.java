@@ -0,0 +1,84 @@
+package benchmarks;
+
+import com.design_pattern.factoryANDdecorator.Alert;
+import com.design_pattern.factoryANDdecorator.AlertFactory;
+import com.design_pattern.factoryANDdecorator.AlertOutput;
+import com.design_pattern.factoryANDdecorator.BloodOxygenAlertFactory;
+import com.design_pattern.factoryANDdecorator.BloodPressureAlertFactory;
+import com.design_pattern.factoryANDdecorator.ECGAlertFactory;
+import com.design_pattern.factoryANDdecorator.FlyweightAlertFactory;
+import com.design_pattern.factoryANDdecorator.PriorityAlertDecorator;
+import com.design_pattern.factoryANDdecorator.RepeatedAlertDecorator;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the CPU time and the bytes allocated per alert during an alert storm, for
+ * a HIGH priority alert printed twice, across the three alert types and a few
+ * conditions. The text goes to a print stream that discards it, so only creating
+ * and formatting the alert is measured:
+ * <ul>
+ *     <li>decorated: {@code createAlert} wrapped in new repeat and priority decorators, then {@code trigger()}</li>
+ *     <li>flyweight alert: {@code createAlert} of a flyweight factory, then {@code trigger()}</li>
+ *     <li>flyweight trigger: {@link FlyweightAlertFactory#trigger}, which creates no alert</li>
+ * </ul>
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.AlertFactoryBenchmark
+ */
+public class AlertFactoryBenchmark {
+
+    private static final int ALERTS = 2_000_000;
+    private static final int ROUNDS = 5;
+    private static final String[] CONDITIONS = {"Critical Threshold", "Trend", "Rapid Drop"};
+    private static final String[] PATIENTS = new String[1000];
+
+    public static void main(String[] args) {
+        for (int i = 0; i < PATIENTS.length; i++) {
+            PATIENTS[i] = Integer.toString(i + 1);
+        }
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        PrintStream console = System.out;
+        AlertFactory[] factories = {new ECGAlertFactory(), new BloodPressureAlertFactory(), new BloodOxygenAlertFactory()};
+        FlyweightAlertFactory[] flyweights = new FlyweightAlertFactory[factories.length];
+        for (int i = 0; i < factories.length; i++) {
+            flyweights[i] = factories[i].flyweight("HIGH", 2, AlertOutput.console(discard));
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int round = 0; round < ROUNDS; round++) {
+            // * The last round is reported; the others warm up the JIT.
+            boolean report = round == ROUNDS - 1;
+            for (int mode = 0; mode < 3; mode++) {
+                System.setOut(discard);
+                long bytesBefore = threads.getThreadAllocatedBytes(thread);
+                long cpuBefore = threads.getCurrentThreadCpuTime();
+                for (int i = 0; i < ALERTS; i++) {
+                    int type = i % factories.length;
+                    String patient = PATIENTS[i % PATIENTS.length];
+                    String condition = CONDITIONS[(i / factories.length) % CONDITIONS.length];
+                    long timestamp = 1_700_000_000_000L + i;
+                    if (mode == 0) {
+                        Alert alert = new PriorityAlertDecorator(
+                                new RepeatedAlertDecorator(factories[type].createAlert(patient, condition, timestamp), 2), "HIGH");
+                        alert.trigger();
+                    } else if (mode == 1) {
+                        flyweights[type].createAlert(patient, condition, timestamp).trigger();
+                    } else {
+                        flyweights[type].trigger(patient, condition, timestamp);
+                    }
+                }
+                long cpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+                long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+                System.setOut(console);
+                if (report) {
+                    String name = mode == 0 ? "decorated" : mode == 1 ? "flyweight alert" : "flyweight trigger";
+                    System.out.printf("%-18s %6.0f ns/alert, %7.1f bytes/alert%n",
+                            name + ":", cpu / (double) ALERTS, bytes / (double) ALERTS);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import com.alerts.dispatch.AlertGovernor;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the cost per alert of the {@link AlertGovernor}: in the normal path,
+ * with alerts of five rules spread over time below the storm threshold and the rate,
+ * and during a storm, when every alert is held back for a summary.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.AlertGovernorBenchmark
+ */
+public class AlertGovernorBenchmark {
+
+    private static final int ALERTS = 20_000_000;
+    private static final int ROUNDS = 5;
+    private static final String[] RULES = {"Vital Signs", "Sustained Trend", "Hypotensive Hypoxemia",
+            "Low Saturation", "ECG Anomaly"};
+
+    public static void main(String[] args) {
+        long[] summaries = new long[1];
+        AlertGovernor.SummaryListener listener = (rule, count, summary, timestamp) -> summaries[0]++;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            // * The last round is reported; the others warm up the JIT.
+            boolean report = round == ROUNDS - 1;
+            for (int storm = 0; storm < 2; storm++) {
+                // * One alert per millisecond; normal has a threshold no rule reaches, storm the ward default of 20 in 30 s.
+                AlertGovernor governor = new AlertGovernor("ward 3", 2000, 1000, 30_000,
+                        storm == 0 ? 100_000 : 20, 30_000, listener);
+                long admitted = 0;
+                long bytesBefore = threads.getThreadAllocatedBytes(thread);
+                long start = System.nanoTime();
+                for (int i = 0; i < ALERTS; i++) {
+                    admitted += governor.admit(RULES[i % RULES.length], i) ? 1 : 0;
+                }
+                long nanos = System.nanoTime() - start;
+                long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+                if (report) {
+                    System.out.printf("%-7s %5.1f ns/alert, %.3f bytes/alert, %d of %d delivered, %d summaries%n",
+                            storm == 0 ? "normal:" : "storm:", nanos / (double) ALERTS, bytes / (double) ALERTS,
+                            admitted, ALERTS, summaries[0]);
+                }
+                summaries[0] = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import com.alerts.AlertHistoryStore;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+/**
+ * Appends one million alerts from four threads with a group commit every 10 ms,
+ * then measures range queries and how long reopening (recovery) takes.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.AlertHistoryBenchmark [directory]
+ */
+public class AlertHistoryBenchmark {
+
+    private static final int ALERTS = 1_000_000;
+    private static final int THREADS = 4;
+    private static final int PATIENTS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        Path directory = args.length > 0 ? Path.of(args[0]) : Files.createTempDirectory("alert-history");
+        try {
+            run(directory);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void run(Path directory) throws Exception {
+        long base = System.currentTimeMillis() - 24 * 3600 * 1000L;
+        long start;
+        try (AlertHistoryStore store = AlertHistoryStore.open(directory, AlertHistoryStore.DEFAULT_SEGMENT_BYTES, 10)) {
+            CountDownLatch done = new CountDownLatch(THREADS);
+            start = System.nanoTime();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                new Thread(() -> {
+                    try {
+                        for (int i = thread; i < ALERTS; i += THREADS) {
+                            store.append(i % PATIENTS, base + i * 86L, "ALERT TRIGGERED based on vital signs");
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    } finally {
+                        done.countDown();
+                    }
+                }).start();
+            }
+            done.await();
+            store.sync();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("append+sync: %d alerts in %.2f s = %.0f alerts/s, %d segments%n",
+                    ALERTS, seconds, ALERTS / seconds, store.getSegmentCount());
+
+            Random random = new Random(34);
+            int queries = 10000;
+            long found = 0;
+            start = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                long from = base + random.nextInt(ALERTS) * 86L;
+                found += store.query(random.nextInt(PATIENTS), from, from + 8 * 3600 * 1000L).size();
+            }
+            System.out.printf("query (8 hour range): %.1f us each, %.1f alerts per result%n",
+                    (System.nanoTime() - start) / 1e3 / queries, found / (double) queries);
+        }
+
+        start = System.nanoTime();
+        try (AlertHistoryStore store = AlertHistoryStore.open(directory, AlertHistoryStore.DEFAULT_SEGMENT_BYTES, 0)) {
+            System.out.printf("reopen: recovered %d alerts in %.0f ms%n", store.size(), (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
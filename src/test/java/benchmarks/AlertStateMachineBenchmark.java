@@ -0,0 +1,103 @@
+package benchmarks;
+
+import com.alerts.AlertPolicy;
+import com.alerts.AlertStateMachine;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Feeds a noisy heart rate that hovers around the 100 bpm limit, one reading per
+ * second for an hour and 1000 patients, and compares the alerts emitted and the
+ * bytes allocated per evaluation by:
+ *
+ *   - the former approach: a {@code Map<String, Boolean>} keyed by String.valueOf(patientId)
+ *     that flips on every reading,
+ *   - the state machine with the same immediate switching,
+ *   - the state machine with a 100/95 band, 10 s hold times and a 5 minute cooldown.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.AlertStateMachineBenchmark
+ */
+public class AlertStateMachineBenchmark {
+
+    private static final int PATIENTS = 1000;
+    private static final int SECONDS = 3600;
+
+    public static void main(String[] args) {
+        double[][] heartRates = createNoisyHeartRates();
+        AlertPolicy banded = AlertPolicy.above(100, 95).withHold(10000, 10000).withCooldown(5 * 60 * 1000);
+
+        // * Warm up all three so the JIT has compiled them before measuring.
+        runMap(heartRates);
+        runMachine(heartRates, new AlertStateMachine(AlertPolicy.above(100, 100)));
+        runMachine(heartRates, new AlertStateMachine(banded));
+
+        System.out.printf("%-34s %-10s %-14s %-10s%n", "approach", "alerts", "bytes/eval", "ns/eval");
+        report("Map<String, Boolean>, immediate", () -> runMap(heartRates));
+        report("state machine, immediate", () -> runMachine(heartRates, new AlertStateMachine(AlertPolicy.above(100, 100))));
+        report("state machine, band+hold+cooldown", () -> runMachine(heartRates, new AlertStateMachine(banded)));
+    }
+
+    private interface Run {
+        long alerts();
+    }
+
+    private static void report(String name, Run run) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long alerts = run.alerts();
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        double evaluations = (double) PATIENTS * SECONDS;
+        System.out.printf("%-34s %-10d %-14.2f %-10.1f%n", name, alerts, bytes / evaluations, nanos / evaluations);
+    }
+
+    private static long runMap(double[][] heartRates) {
+        Map<String, Boolean> alertStates = new HashMap<>();
+        long alerts = 0;
+        for (int second = 0; second < SECONDS; second++) {
+            for (int patient = 0; patient < PATIENTS; patient++) {
+                String patientId = String.valueOf(patient);
+                boolean alertNeeded = heartRates[patient][second] > 100;
+                if (alertStates.getOrDefault(patientId, false) != alertNeeded) {
+                    alertStates.put(patientId, alertNeeded);
+                    alerts++;
+                }
+            }
+        }
+        return alerts;
+    }
+
+    private static long runMachine(double[][] heartRates, AlertStateMachine machine) {
+        long alerts = 0;
+        for (int second = 0; second < SECONDS; second++) {
+            long now = second * 1000L;
+            for (int patient = 0; patient < PATIENTS; patient++) {
+                if (machine.update(patient, 0, heartRates[patient][second], now) != AlertStateMachine.Transition.NONE) {
+                    alerts++;
+                }
+            }
+        }
+        return alerts;
+    }
+
+    /**
+     * A slow random walk between 90 and 110 bpm with +-3 bpm of noise per reading.
+     */
+    private static double[][] createNoisyHeartRates() {
+        Random random = new Random(32);
+        double[][] heartRates = new double[PATIENTS][SECONDS];
+        for (int patient = 0; patient < PATIENTS; patient++) {
+            double level = 90 + random.nextDouble() * 20;
+            for (int second = 0; second < SECONDS; second++) {
+                level = Math.max(90, Math.min(110, level + random.nextGaussian() * 0.2));
+                heartRates[patient][second] = level + random.nextGaussian() * 3;
+            }
+        }
+        return heartRates;
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import com.alerts.AlertGenerator;
+import com.alerts.AlertSweepEngine;
+import com.data_management.Patient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the duration of a full alert sweep with the parallel sweep engine for
+ * 1 worker thread up to all cores.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.AlertSweepScalingBenchmark [patients]
+ */
+public class AlertSweepScalingBenchmark {
+
+    public static void main(String[] args) {
+        int patientCount = args.length > 0 ? Integer.parseInt(args[0]) : 40_000;
+        List<Patient> patients = createPatients(patientCount);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%d patients, %d cores%n", patientCount, cores);
+        System.out.printf("%-8s %-14s %-10s%n", "threads", "sweep ms", "speed-up");
+        double baseline = 0;
+        for (int threads = 1; threads <= cores; threads = threads < cores ? Math.min(threads * 2, cores) : threads + 1) {
+            try (AlertSweepEngine engine = new AlertSweepEngine(
+                    new AlertGenerator(null, new ConcurrentHashMap<>()), threads)) {
+                // * Two warm-up sweeps, then the best of three measured sweeps.
+                engine.sweep(patients, 1, TimeUnit.MINUTES);
+                engine.sweep(patients, 1, TimeUnit.MINUTES);
+                long best = Long.MAX_VALUE;
+                for (int run = 0; run < 3; run++) {
+                    best = Math.min(best, engine.sweep(patients, 1, TimeUnit.MINUTES).getDurationNanos());
+                }
+                double millis = best / 1e6;
+                if (threads == 1) {
+                    baseline = millis;
+                }
+                System.out.printf("%-8d %-14.1f %-10.2f%n", threads, millis, baseline / millis);
+            }
+        }
+    }
+
+    /**
+     * Creates patients with one minute-rate blood pressure and second-rate
+     * saturation data over the last 10 minutes, all within normal ranges.
+     */
+    private static List<Patient> createPatients(int count) {
+        Random random = new Random(7);
+        long now = System.currentTimeMillis();
+        List<Patient> patients = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            Patient patient = new Patient(id);
+            for (int minute = 9; minute >= 0; minute--) {
+                patient.addRecord(115 + random.nextInt(5), "Systolic", now - minute * 60_000L);
+                patient.addRecord(75 + random.nextInt(5), "Diastolic", now - minute * 60_000L);
+            }
+            for (int second = 59; second >= 0; second--) {
+                patient.addRecord(96 + random.nextInt(3), "Saturation", now - second * 1000L);
+            }
+            patients.add(patient);
+        }
+        return patients;
+    }
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import com.cardio_generator.BatchSimulation;
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodLevelsDataGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.outputs.FileOutputStrategy;
+import com.cardio_generator.outputs.OutputStrategy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Measures the batch simulation: the simulator's five generators for 10,000 patients
+ * on a simulated clock, into a discarding output and into buffered files. Reports the
+ * speedup over real time and extrapolates to a week of data.
+ *
+ * Run: java -cp target/classes:target/test-classes benchmarks.BatchSimulationBenchmark
+ */
+public class BatchSimulationBenchmark {
+
+    private static final int PATIENTS = 10_000;
+    private static final long START = 1_700_000_000_000L;
+    private static final long WEEK = 7 * 86_400_000L;
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.println(PATIENTS + " patients, " + threads + " threads");
+
+        LongAdder characters = new LongAdder();
+        OutputStrategy discard = (patientId, timestamp, label, data) -> characters.add(data.length());
+        // * Warm-up.
+        run(threads, 60_000, discard);
+        report("discarded", run(threads, 600_000, discard), 600_000);
+
+        Path directory = Files.createTempDirectory("batch-simulation");
+        try (FileOutputStrategy files = new FileOutputStrategy(directory.toString(), true)) {
+            run(threads, 60_000, files);
+            report("buffered files", run(threads, 300_000, files), 300_000);
+        } finally {
+            long bytes = 0;
+            try (Stream<Path> paths = Files.walk(directory)) {
+                List<Path> all = new ArrayList<>();
+                paths.sorted(Comparator.reverseOrder()).forEach(all::add);
+                for (Path path : all) {
+                    bytes += Files.isRegularFile(path) ? Files.size(path) : 0;
+                    delete(path);
+                }
+            }
+            System.out.printf("  files: %.1f MB for 6 simulated minutes%n", bytes / 1e6);
+        }
+    }
+
+    private static long[] run(int threads, long durationMillis, OutputStrategy output) throws InterruptedException {
+        List<Integer> patientIds = new ArrayList<>();
+        for (int i = 1; i <= PATIENTS; i++) {
+            patientIds.add(i);
+        }
+        long seed = 42;
+        try (BatchSimulation simulation = new BatchSimulation(threads, BatchSimulation.DEFAULT_TICK_MILLIS,
+                new Random(seed))) {
+            simulation.schedule(new ECGDataGenerator(PATIENTS, seed), patientIds, 1000);
+            simulation.schedule(new BloodSaturationDataGenerator(PATIENTS, seed), patientIds, 1000);
+            simulation.schedule(new BloodPressureDataGenerator(PATIENTS, seed), patientIds, 60_000);
+            simulation.schedule(new BloodLevelsDataGenerator(PATIENTS, seed), patientIds, 120_000);
+            simulation.schedule(new AlertGenerator(PATIENTS, seed), patientIds, 20_000);
+            long begin = System.nanoTime();
+            long generated = simulation.run(START, durationMillis, BatchSimulation.MAX_SPEEDUP, output);
+            return new long[]{generated, System.nanoTime() - begin};
+        }
+    }
+
+    private static void report(String name, long[] result, long durationMillis) {
+        double seconds = result[1] / 1e9;
+        double speedup = durationMillis / 1000.0 / seconds;
+        System.out.printf("%-15s %5.1f M generations/s, %6.0fx real time, a week in %5.1f min%n", name,
+                result[0] / seconds / 1e6, speedup, WEEK / 1000.0 / speedup / 60);
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.delete(path);
+        } catch (IOException e) {
+            System.err.println("Could not delete " + path + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package benchmarks;
+
+import com.alerts.ReplayClock;
+import com.alerts.rules.CompiledRuleSet;
+import com.data_management.Patient;
+import com.design_pattern.strategy.AlertContext;
+import com.design_pattern.strategy.AlertStrategy;
+import com.design_pattern.strategy.BloodPressureStrategy;
+import com.design_pattern.strategy.HeartRateStrategy;
+import com.design_pattern.strategy.OxygenSaturationStrategy;
+import com.design_pattern.strategy.RuleStrategy;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evaluates 12 strategies on a patient with 10 minutes of data (ECG at 50 Hz,
+ * saturation every second, heart rate, blood pressure and the legacy record types
+ * every few seconds), once by running each strategy on its own through
+ * {@link AlertContext#triggerAlert} and once in a single composite pass through
+ * {@link AlertContext#triggerAlerts}, and reports the time and allocation per
+ * evaluation of all strategies.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.CompositeStrategyBenchmark
+ */
+public class CompositeStrategyBenchmark {
+
+    private static final int ITERATIONS = 2000;
+
+    public static void main(String[] args) {
+        long now = 1_700_000_000_000L;
+        ReplayClock clock = new ReplayClock(now);
+        Patient patient = new Patient(1);
+        for (int ms = 0; ms < 10 * 60 * 1000; ms += 20) {
+            long timestamp = now - ms;
+            patient.addRecord(0.2 + 0.1 * Math.sin(ms / 150.0), "ECG", timestamp);
+            if (ms % 1000 == 0) {
+                patient.addRecord(97, "Saturation", timestamp);
+                patient.addRecord(96, "OxygenSaturation", timestamp);
+            }
+            if (ms % 5000 == 0) {
+                patient.addRecord(75, "HeartRate", timestamp);
+                patient.addRecord(120, "Systolic", timestamp);
+                patient.addRecord(80, "Diastolic", timestamp);
+                patient.addRecord(120, "BloodPressure", timestamp);
+            }
+        }
+
+        List<AlertStrategy> strategies = new ArrayList<>();
+        strategies.add(new HeartRateStrategy(clock));
+        strategies.add(new BloodPressureStrategy(clock));
+        strategies.add(new OxygenSaturationStrategy(clock));
+        String[] rules = {
+                "tachycardia: avg(HeartRate, 5m) > 110",
+                "bradycardia: min(HeartRate, 2m) < 45",
+                "hypertension: max(Systolic, 10m) > 180 or max(Diastolic, 10m) > 120",
+                "hypotension: min(Systolic, 5m) < 90",
+                "desaturation: drop(Saturation, 10m) >= 5",
+                "hypoxemia: min(Saturation, 1m) < 92",
+                "pressure_trend: trend(Systolic) > 10 or trend(Diastolic) > 10",
+                "sparse_saturation: count(Saturation, 1m) < 10",
+                "shock_index: last(HeartRate) > 130 and last(Systolic) < 100"};
+        for (String rule : rules) {
+            strategies.add(new RuleStrategy(CompiledRuleSet.parse(rule), clock));
+        }
+
+        AlertContext single = new AlertContext(clock);
+        AlertContext composite = new AlertContext(clock);
+        for (AlertStrategy strategy : strategies) {
+            composite.addAlertStrategy(strategy);
+        }
+
+        // * Warm up both before measuring.
+        runSingle(single, strategies, patient, ITERATIONS);
+        runComposite(composite, patient, ITERATIONS);
+
+        System.out.printf("%d strategies, %d records in the widest window%n", strategies.size(),
+                patient.getRecords(now - 10 * 60 * 1000, now).size());
+        report("each strategy on its own", () -> runSingle(single, strategies, patient, ITERATIONS));
+        report("composite single pass", () -> runComposite(composite, patient, ITERATIONS));
+    }
+
+    private interface Run {
+        long alerts();
+    }
+
+    private static void report(String name, Run run) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long alerts = run.alerts();
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        System.out.printf("%-26s %10.1f us/evaluation %12.0f bytes/evaluation (%d alerts)%n",
+                name, nanos / 1000.0 / ITERATIONS, bytes / (double) ITERATIONS, alerts);
+    }
+
+    private static long runSingle(AlertContext context, List<AlertStrategy> strategies, Patient patient,
+                                  int iterations) {
+        long alerts = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (AlertStrategy strategy : strategies) {
+                context.setAlertStrategy(strategy);
+                alerts += context.triggerAlert(patient) ? 1 : 0;
+            }
+        }
+        return alerts;
+    }
+
+    private static long runComposite(AlertContext context, Patient patient, int iterations) {
+        long alerts = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (boolean alert : context.triggerAlerts(patient)) {
+                alerts += alert ? 1 : 0;
+            }
+        }
+        return alerts;
+    }
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.EcgSynthesizer;
+import com.cardio_generator.outputs.SampleBatch;
+
+/**
+ * Compares generating ECG samples one at a time with the per-sample Gaussians against
+ * the table-driven synthesis in blocks, for 10000 patients at 500 Hz, both into a
+ * sample batch and as the bare synthesis into an array. Prints the samples per second
+ * of each and how much of one core 10000 patients at 500 Hz take.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.EcgSynthesisBenchmark
+ */
+public class EcgSynthesisBenchmark {
+
+    private static final int PATIENTS = 10_000;
+    private static final int SAMPLING_RATE = 500;
+    private static final long START = 1_700_000_000_000L;
+
+    private static double sink;
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            report(print, "per-sample Gaussians", perSample(2));
+            report(print, "table, into batch", blocksIntoBatch(5));
+            report(print, "table, into array", blocksIntoArray(5));
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    /**
+     * @return nanoseconds per sample, for one sample per call as the generator does by default
+     */
+    private static double perSample(int seconds) {
+        ECGDataGenerator generator = new ECGDataGenerator(PATIENTS, 42);
+        SampleBatch batch = new SampleBatch();
+        long samples = 0;
+        long start = System.nanoTime();
+        for (int sample = 0; sample < seconds * SAMPLING_RATE; sample++) {
+            long timestamp = START + sample * 1000L / SAMPLING_RATE;
+            for (int patientId = 1; patientId <= PATIENTS; patientId++) {
+                generator.generate(patientId, timestamp, batch);
+                if (batch.size() == SampleBatch.DEFAULT_CAPACITY) {
+                    sink += batch.getValue(0);
+                    samples += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        samples += batch.size();
+        return (System.nanoTime() - start) / (double) samples;
+    }
+
+    /**
+     * @return nanoseconds per sample, for one call per patient and second
+     */
+    private static double blocksIntoBatch(int seconds) {
+        ECGDataGenerator generator = new ECGDataGenerator(PATIENTS, 42, SAMPLING_RATE);
+        SampleBatch batch = new SampleBatch(1024);
+        long samples = 0;
+        long start = System.nanoTime();
+        for (int second = 0; second <= seconds; second++) {
+            for (int patientId = 1; patientId <= PATIENTS; patientId++) {
+                generator.generate(patientId, START + second * 1000L, batch);
+                sink += batch.getValue(batch.size() - 1);
+                samples += batch.size();
+                batch.clear();
+            }
+        }
+        return (System.nanoTime() - start) / (double) samples;
+    }
+
+    /**
+     * @return nanoseconds per sample of the bare synthesis
+     */
+    private static double blocksIntoArray(int seconds) {
+        EcgSynthesizer synthesizer = new EcgSynthesizer(PATIENTS, 42, SAMPLING_RATE);
+        double[] block = new double[SAMPLING_RATE];
+        long start = System.nanoTime();
+        for (int second = 0; second < seconds; second++) {
+            for (int patientId = 1; patientId <= PATIENTS; patientId++) {
+                synthesizer.synthesize(patientId, block, 0, block.length);
+                sink += block[0];
+            }
+        }
+        return (System.nanoTime() - start) / ((double) seconds * PATIENTS * SAMPLING_RATE);
+    }
+
+    private static void report(boolean print, String name, double nanosPerSample) {
+        if (print) {
+            // * 10000 patients at 500 Hz are 5 million samples per second.
+            System.out.printf("%-22s %6.1f ns/sample, %6.1f M samples/s, %6.1f%% of a core for %d patients at %d Hz%n",
+                    name, nanosPerSample, 1e3 / nanosPerSample,
+                    nanosPerSample * PATIENTS * SAMPLING_RATE / 1e7, PATIENTS, SAMPLING_RATE);
+        }
+    }
+}
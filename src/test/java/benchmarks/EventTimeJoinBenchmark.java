@@ -0,0 +1,108 @@
+package benchmarks;
+
+import com.alerts.EventTimeJoin;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Streams an hour of Saturation (every second) and Systolic (every minute) readings
+ * for 1000 patients through the hypotensive hypoxemia join. Each reading is delayed
+ * by a random network jitter of up to 5 s, and 1% of the readings by up to 2 minutes,
+ * so they arrive out of order and some behind the watermark. Reports the cost per
+ * reading, the bytes allocated per reading, the late readings and the largest buffer
+ * of any patient at the end.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.EventTimeJoinBenchmark
+ */
+public class EventTimeJoinBenchmark {
+
+    private static final int PATIENTS = 1000;
+    private static final int SECONDS = 3600;
+
+    public static void main(String[] args) {
+        long[] matches = new long[1];
+        // * Warm up on a separate join so the JIT has compiled it before measuring.
+        deliver(arrive(7), EventTimeJoin.hypotensiveHypoxemia((id, time, values) -> matches[0]++));
+
+        matches[0] = 0;
+        EventTimeJoin join = EventTimeJoin.hypotensiveHypoxemia((id, time, values) -> matches[0]++);
+        Arrivals arrivals = arrive(42);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long readings = deliver(arrivals, join);
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+
+        int maxBuffered = 0;
+        for (int patient = 0; patient < PATIENTS; patient++) {
+            maxBuffered = Math.max(maxBuffered, join.getBufferedCount(patient));
+        }
+        System.out.printf("readings: %d, matches reported: %d, late: %d, evicted: %d%n",
+                readings, matches[0], join.getLateCount(), join.getEvictedCount());
+        System.out.printf("%.1f ns/reading, %.2f bytes/reading, max buffered per patient: %d%n",
+                nanos / (double) readings, bytes / (double) readings, maxBuffered);
+    }
+
+    /**
+     * The readings bucketed by the second of their delayed arrival; delays are at most 120 s.
+     */
+    private static final class Arrivals {
+        final int horizon = SECONDS + 121;
+        final int[][] patients = new int[horizon][PATIENTS * 2];
+        final long[][] times = new long[horizon][PATIENTS * 2];
+        final double[][] values = new double[horizon][PATIENTS * 2];
+        final boolean[][] systolic = new boolean[horizon][PATIENTS * 2];
+        final int[] sizes = new int[horizon];
+
+        void add(Random random, int second, int patient, boolean isSystolic, double value) {
+            int delay = random.nextInt(100) == 0 ? random.nextInt(121) : random.nextInt(6);
+            int bucket = second + delay;
+            int at = sizes[bucket]++;
+            if (at == patients[bucket].length) {
+                patients[bucket] = Arrays.copyOf(patients[bucket], at * 2);
+                times[bucket] = Arrays.copyOf(times[bucket], at * 2);
+                values[bucket] = Arrays.copyOf(values[bucket], at * 2);
+                systolic[bucket] = Arrays.copyOf(systolic[bucket], at * 2);
+            }
+            patients[bucket][at] = patient;
+            times[bucket][at] = second * 1000L;
+            values[bucket][at] = value;
+            systolic[bucket][at] = isSystolic;
+        }
+    }
+
+    private static Arrivals arrive(long seed) {
+        Random random = new Random(seed);
+        Arrivals arrivals = new Arrivals();
+        for (int second = 0; second < SECONDS; second++) {
+            for (int patient = 0; patient < PATIENTS; patient++) {
+                // * Every patient has a two minute hypotensive hypoxemia episode every half hour.
+                boolean episode = (second + patient * 37) % 1800 < 120;
+                arrivals.add(random, second, patient, false, episode ? 90 : 97);
+                if ((second + patient) % 60 == 0) {
+                    arrivals.add(random, second, patient, true, episode ? 85 : 120);
+                }
+            }
+        }
+        return arrivals;
+    }
+
+    /**
+     * Delivers the readings in arrival order.
+     */
+    private static long deliver(Arrivals arrivals, EventTimeJoin join) {
+        long readings = 0;
+        for (int second = 0; second < arrivals.horizon; second++) {
+            for (int i = 0; i < arrivals.sizes[second]; i++) {
+                join.add(arrivals.patients[second][i], arrivals.systolic[second][i] ? "Systolic" : "Saturation",
+                        arrivals.values[second][i], arrivals.times[second][i]);
+                readings++;
+            }
+        }
+        return readings;
+    }
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodLevelsDataGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.generators.PatientRandom;
+import com.cardio_generator.outputs.OutputStrategy;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Generates data with 64 threads, each owning a slice of 100k patients, and reports
+ * the throughput:
+ * <ul>
+ *     <li>random draws: the draws of a saturation step from one shared {@link Random},
+ *     as every generator did, against the patient's own {@link PatientRandom} stream</li>
+ *     <li>generators: the five generators end to end, with an output that discards the samples</li>
+ * </ul>
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.GeneratorRandomBenchmark [threads]
+ */
+public class GeneratorRandomBenchmark {
+
+    private static final int PATIENTS = 100_000;
+    private static final int ROUNDS = 20;
+    private static final Random SHARED = new Random();
+    private static volatile long sink;
+    private static final LongAdder OUTPUT = new LongAdder();
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        PatientRandom streams = new PatientRandom(PATIENTS, 42, "Benchmark");
+        OutputStrategy discard = (patientId, timestamp, label, data) -> OUTPUT.add(data.length());
+        PatientDataGenerator[] generators = {
+                new ECGDataGenerator(PATIENTS, 42),
+                new BloodSaturationDataGenerator(PATIENTS, 42),
+                new BloodPressureDataGenerator(PATIENTS, 42),
+                new BloodLevelsDataGenerator(PATIENTS, 42),
+                new AlertGenerator(PATIENTS, 42)
+        };
+
+        System.out.printf("%d threads, %d patients, %d processors%n", threads, PATIENTS,
+                Runtime.getRuntime().availableProcessors());
+        for (int repeat = 0; repeat < 3; repeat++) {
+            // * The last repeat is reported; the others warm up the JIT.
+            boolean report = repeat == 2;
+            double shared = run(threads, patientId -> SHARED.nextInt(3) + SHARED.nextInt(5));
+            double own = run(threads, patientId -> streams.nextInt(patientId, 3) + streams.nextInt(patientId, 5));
+            double generated = run(threads, patientId -> {
+                for (PatientDataGenerator generator : generators) {
+                    generator.generate(patientId, discard);
+                }
+                return 0;
+            }) * generators.length;
+            if (report) {
+                System.out.printf("shared java.util.Random: %6.1f M steps/s%n", shared / 1e6);
+                System.out.printf("per-patient streams:     %6.1f M steps/s%n", own / 1e6);
+                System.out.printf("five generators:         %6.1f M generations/s%n", generated / 1e6);
+            }
+        }
+    }
+
+    /**
+     * @return the patients processed per second
+     */
+    private static double run(int threads, IntToLongFunction step) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t + 1;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // * Summed per thread, so the threads share nothing but what is measured.
+                long sum = 0;
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (int patientId = first; patientId <= PATIENTS; patientId += threads) {
+                        sum += step.applyAsLong(patientId);
+                    }
+                }
+                sink = sum;
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return (double) PATIENTS * ROUNDS / ((System.nanoTime() - begin) / 1e9);
+    }
+}
@@ -0,0 +1,91 @@
+package benchmarks;
+
+import com.cardio_generator.LatencyHistogram;
+import com.cardio_generator.LoadGenerator;
+import com.cardio_generator.RateProfile;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.TcpOutputStrategy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the open-loop load generator at increasing constant rates into a discarding
+ * output and into the TCP sink with a local client that reads and discards, printing
+ * the achieved rate and the latency percentiles of each step: where the achieved rate
+ * falls behind the target and the latency from the intended send time climbs, the
+ * sink is saturated. Also reports the cost of recording a latency.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.LoadGeneratorBenchmark
+ */
+public class LoadGeneratorBenchmark {
+
+    private static final int PATIENTS = 10_000;
+    private static final double[] RATES = {10_000, 100_000, 500_000, 1_000_000, 2_000_000};
+
+    public static void main(String[] args) throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(60_000_000_000L, 3);
+        long values = 20_000_000;
+        long start = System.nanoTime();
+        for (long i = 0; i < values; i++) {
+            histogram.recordValue((i * 7919) % 5_000_000);
+        }
+        System.out.printf("histogram: %.1f ns/record, p99 %d%n", (System.nanoTime() - start) / (double) values,
+                histogram.getValueAtPercentile(99));
+
+        LongAdder characters = new LongAdder();
+        OutputStrategy discard = (patientId, timestamp, label, data) -> characters.add(data.length());
+        sweep("discard", discard);
+
+        int port;
+        try (ServerSocket free = new ServerSocket(0)) {
+            port = free.getLocalPort();
+        }
+        TcpOutputStrategy tcp = new TcpOutputStrategy(port);
+        Socket socket = new Socket("localhost", port);
+        drain(socket.getInputStream());
+        // * The strategy starts writing once its accept thread has set up the stream.
+        Thread.sleep(500);
+        sweep("tcp", tcp);
+        socket.close();
+        System.exit(0);
+    }
+
+    private static void sweep(String name, OutputStrategy output) throws InterruptedException {
+        PatientDataGenerator[] generators = {
+                new ECGDataGenerator(PATIENTS, 42),
+                new BloodSaturationDataGenerator(PATIENTS, 42),
+                new BloodPressureDataGenerator(PATIENTS, 42)
+        };
+        LoadGenerator load = new LoadGenerator(generators, PATIENTS, 1);
+        // * Warm-up.
+        load.run(RateProfile.constant(100_000), 1000, output);
+        for (double rate : RATES) {
+            LoadGenerator.Result result = load.run(RateProfile.constant(rate), 2000, output);
+            System.out.println(name + ":");
+            System.out.print(result.summary());
+        }
+    }
+
+    private static void drain(InputStream in) {
+        Thread reader = new Thread(() -> {
+            byte[] buffer = new byte[1 << 16];
+            try {
+                while (in.read(buffer) >= 0) {
+                    // * Discarded.
+                }
+            } catch (IOException e) {
+                // * Closed at the end.
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+    }
+}
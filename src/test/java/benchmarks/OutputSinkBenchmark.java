@@ -0,0 +1,172 @@
+package benchmarks;
+
+import com.cardio_generator.outputs.ConsoleOutputStrategy;
+import com.cardio_generator.outputs.FileOutputStrategy;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleLabel;
+import com.cardio_generator.outputs.TcpOutputStrategy;
+import com.cardio_generator.outputs.WebSocketOutputStrategy;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Measures the CPU time and allocation per sample of each sink on the calling thread,
+ * before and after the batch output: "single" formats every value with
+ * {@link Double#toString} and calls the single-sample output, as the generators did;
+ * "batch" hands the sink a {@link SampleBatch} of primitive values. The TCP and
+ * WebSocket sinks send to a local client that discards the data.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.OutputSinkBenchmark
+ */
+public class OutputSinkBenchmark {
+
+    private static final int BATCH = SampleBatch.DEFAULT_CAPACITY;
+    private static final SampleLabel ECG = SampleLabel.of("ECG");
+    private static final SampleLabel SATURATION = SampleLabel.of("Saturation", "%");
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        SampleBatch batch = sampleBatch();
+        System.out.printf("%-20s %14s %14s %14s %14s%n", "sink", "single ns", "single B", "batch ns", "batch B");
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new BufferedOutputStream(OutputStream.nullOutputStream(), 1 << 16)));
+        String consoleResult = compare("Console", new ConsoleOutputStrategy(), batch, 400_000);
+        System.setOut(console);
+        System.out.print(consoleResult);
+
+        Path directory = Files.createTempDirectory("output-sinks");
+        try {
+            System.out.print(compare("File", new FileOutputStrategy(directory.resolve("a").toString()), batch, 20_000));
+            try (FileOutputStrategy buffered = new FileOutputStrategy(directory.resolve("b").toString(), true)) {
+                System.out.print(compare("File (buffered)", buffered, batch, 400_000));
+            }
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        int tcpPort = freePort();
+        TcpOutputStrategy tcp = new TcpOutputStrategy(tcpPort);
+        Socket socket = new Socket("localhost", tcpPort);
+        drain(socket.getInputStream());
+        // * The strategy starts writing once its accept thread has set up the stream.
+        Thread.sleep(500);
+        System.out.print(compare("Tcp", tcp, batch, 400_000));
+        socket.close();
+
+        int webSocketPort = freePort();
+        WebSocketOutputStrategy webSocket = new WebSocketOutputStrategy(webSocketPort);
+        System.out.print(compare("WebSocket, no client", webSocket, batch, 400_000));
+        WebSocketClient client = new WebSocketClient(new URI("ws://localhost:" + webSocketPort)) {
+            @Override
+            public void onOpen(ServerHandshake handshake) {
+            }
+
+            @Override
+            public void onMessage(String message) {
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+            }
+
+            @Override
+            public void onError(Exception e) {
+            }
+        };
+        client.connectBlocking();
+        System.out.print(compare("WebSocket", webSocket, batch, 100_000));
+        client.closeBlocking();
+        System.exit(0);
+    }
+
+    /**
+     * A batch like one of the simulator's: mostly ECG values, some saturation.
+     */
+    private static SampleBatch sampleBatch() {
+        Random random = new Random(42);
+        SampleBatch batch = new SampleBatch(BATCH);
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < BATCH; i++) {
+            if (i % 4 == 3) {
+                batch.add(i + 1, timestamp + i, SATURATION, 90 + random.nextInt(11));
+            } else {
+                batch.add(i + 1, timestamp + i, ECG, random.nextGaussian() * 0.3);
+            }
+        }
+        return batch;
+    }
+
+    private static String compare(String name, OutputStrategy sink, SampleBatch batch, int samples) {
+        int rounds = Math.max(1, samples / BATCH);
+        // * Warm-up of both paths.
+        measure(() -> single(sink, batch), rounds / 4 + 1);
+        measure(() -> sink.output(batch), rounds / 4 + 1);
+        double[] single = measure(() -> single(sink, batch), rounds);
+        double[] batched = measure(() -> sink.output(batch), rounds);
+        return String.format("%-20s %14.0f %14.0f %14.0f %14.0f%n", name, single[0], single[1], batched[0], batched[1]);
+    }
+
+    private static void single(OutputStrategy sink, SampleBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            sink.output(batch.getPatientId(i), batch.getTimestamp(i), batch.getLabel(i).getName(), batch.getData(i));
+        }
+    }
+
+    /**
+     * @return CPU nanoseconds and bytes allocated per sample
+     */
+    private static double[] measure(Runnable round, int rounds) {
+        long thread = Thread.currentThread().getId();
+        long bytesBefore = THREADS.getThreadAllocatedBytes(thread);
+        long cpuBefore = THREADS.getCurrentThreadCpuTime();
+        for (int i = 0; i < rounds; i++) {
+            round.run();
+        }
+        long cpu = THREADS.getCurrentThreadCpuTime() - cpuBefore;
+        long bytes = THREADS.getThreadAllocatedBytes(thread) - bytesBefore;
+        double samples = (double) rounds * BATCH;
+        return new double[]{cpu / samples, bytes / samples};
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void drain(InputStream in) {
+        Thread reader = new Thread(() -> {
+            byte[] buffer = new byte[1 << 16];
+            try {
+                while (in.read(buffer) >= 0) {
+                    // * Discarded.
+                }
+            } catch (IOException e) {
+                // * Closed at the end.
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+    }
+}
@@ -0,0 +1,120 @@
+package benchmarks;
+
+import com.cardio_generator.PatientThreadScheduler;
+import com.cardio_generator.TickScheduler;
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodLevelsDataGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.data_management.VirtualThreads;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the five generators of the simulator for many patients with an output that
+ * only counts the samples, and reports the sample rate, the live threads, the
+ * resident memory of the process (which includes the thread stacks) and the CPU:
+ * <ul>
+ *     <li>virtual: one virtual thread per patient, on Java 21 or later; 1M patients by default</li>
+ *     <li>platform: the same with one platform thread per patient; 10k patients by default</li>
+ *     <li>tick: the {@link TickScheduler}; 1M patients by default</li>
+ * </ul>
+ *
+ * Run with: java -Xmx4g -cp target/classes:target/test-classes benchmarks.PatientThreadsBenchmark [virtual|platform|tick] [patients] [seconds]
+ */
+public class PatientThreadsBenchmark {
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        String mode = args.length > 0 ? args[0] : "virtual";
+        int patients = args.length > 1 ? Integer.parseInt(args[1]) : mode.equals("platform") ? 10_000 : 1_000_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        if (mode.equals("virtual") && !VirtualThreads.isSupported()) {
+            System.out.println("Virtual threads need Java 21 or later, running on " + System.getProperty("java.version"));
+            return;
+        }
+
+        LongAdder samples = new LongAdder();
+        OutputStrategy counting = (patientId, timestamp, label, data) -> samples.increment();
+        List<Integer> patientIds = new ArrayList<>();
+        for (int i = 1; i <= patients; i++) {
+            patientIds.add(i);
+        }
+        PatientDataGenerator[] generators = {
+                new ECGDataGenerator(patients),
+                new BloodSaturationDataGenerator(patients),
+                new BloodPressureDataGenerator(patients),
+                new BloodLevelsDataGenerator(patients),
+                new AlertGenerator(patients)
+        };
+        long[] periodsMillis = {1000, 1000, 60_000, 120_000, 20_000};
+
+        long rssBefore = residentMegabytes();
+        long startNanos = System.nanoTime();
+        AutoCloseable scheduler;
+        if (mode.equals("tick")) {
+            TickScheduler tick = TickScheduler.forAvailableProcessors(new Random(42));
+            for (int i = 0; i < generators.length; i++) {
+                tick.schedule(generators[i], patientIds, periodsMillis[i], counting);
+            }
+            scheduler = tick;
+        } else {
+            PatientThreadScheduler threads = mode.equals("virtual")
+                    ? PatientThreadScheduler.virtual(new Random(42))
+                    : new PatientThreadScheduler(Thread::new, new Random(42));
+            threads.start(patientIds, generators, periodsMillis, counting);
+            scheduler = threads;
+        }
+        System.out.printf("%s: %d patients started in %d ms, %d processors%n", mode, patients,
+                (System.nanoTime() - startNanos) / 1_000_000, Runtime.getRuntime().availableProcessors());
+
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long lastSamples = samples.sum();
+        long lastCpu = os.getProcessCpuTime();
+        long lastTime = System.nanoTime();
+        for (int elapsed = 5; elapsed <= seconds; elapsed += 5) {
+            Thread.sleep(5000);
+            long now = System.nanoTime();
+            long count = samples.sum();
+            long cpu = os.getProcessCpuTime();
+            System.out.printf("%3d s: %9.0f samples/s, %7d platform threads, %6d MB resident (+%d), %5.1f%% CPU%n",
+                    elapsed, (count - lastSamples) * 1e9 / (now - lastTime),
+                    ManagementFactory.getThreadMXBean().getThreadCount(), residentMegabytes(),
+                    residentMegabytes() - rssBefore, 100.0 * (cpu - lastCpu) / (now - lastTime));
+            lastSamples = count;
+            lastCpu = cpu;
+            lastTime = now;
+        }
+        try {
+            scheduler.close();
+        } catch (Exception e) {
+            System.err.println("Error stopping the scheduler: " + e.getMessage());
+        }
+        System.exit(0);
+    }
+
+    /**
+     * @return the resident set size of the process from /proc, or -1 where there is none
+     */
+    private static long residentMegabytes() throws IOException {
+        if (!Files.exists(Paths.get("/proc/self/status"))) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", "")) / 1024;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import com.alerts.AlertGenerator;
+import com.alerts.PushAlertEvaluator;
+import com.data_management.DataStorage;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes samples into DataStorage at a fixed rate (100k samples/second by default)
+ * and reports ingest-to-alert-evaluation latency percentiles of the push evaluator.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.PushAlertLatencyBenchmark [rate] [seconds] [patients]
+ */
+public class PushAlertLatencyBenchmark {
+
+    public static void main(String[] args) {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int patients = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+
+        DataStorage storage = DataStorage.getInstance();
+        PushAlertEvaluator pushEvaluator = new PushAlertEvaluator(
+                new AlertGenerator(storage, new ConcurrentHashMap<>()));
+
+        long[] latencies = new long[rate * seconds];
+        int[] latencyCount = {0};
+        pushEvaluator.setLatencyListener(nanos -> {
+            if (latencyCount[0] < latencies.length) {
+                latencies[latencyCount[0]++] = nanos;
+            }
+        });
+        storage.addListener(pushEvaluator);
+        pushEvaluator.start();
+
+        long total = (long) rate * seconds;
+        long intervalNanos = 1_000_000_000L / rate;
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long due = start + i * intervalNanos;
+            while (System.nanoTime() < due) {
+                Thread.onSpinWait();
+            }
+            // * Normal readings so that no alert text is printed during the run.
+            storage.addPatientData((int) (i % patients) + 1, 97, "Saturation", System.currentTimeMillis());
+        }
+        double achievedRate = total / ((System.nanoTime() - start) / 1e9);
+
+        while (pushEvaluator.getPendingCount() > 0) {
+            LockSupport.parkNanos(1_000_000);
+        }
+        pushEvaluator.stop();
+        storage.removeListener(pushEvaluator);
+
+        long[] sorted = Arrays.copyOf(latencies, latencyCount[0]);
+        Arrays.sort(sorted);
+        System.out.printf("samples: %d, achieved rate: %.0f/s, evaluations: %d%n",
+                total, achievedRate, pushEvaluator.getEvaluationCount());
+        System.out.printf("latency us  p50: %.1f  p99: %.1f  p99.9: %.1f  max: %.1f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000.0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1000.0;
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import com.alerts.QrsDetector;
+
+import java.util.Random;
+
+/**
+ * Checks that one core keeps up with 500 Hz ECG for 1,000 patients (500k samples
+ * per second) through the streaming QRS detector.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.QrsDetectorBenchmark [patients] [seconds]
+ */
+public class QrsDetectorBenchmark {
+
+    private static final int SAMPLING_RATE = 500;
+
+    public static void main(String[] args) {
+        int patients = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        // * One beat of 0.8 s, played back with a per-patient offset and noise.
+        double[] beat = new double[(int) (0.8 * SAMPLING_RATE)];
+        for (int i = 0; i < beat.length; i++) {
+            double t = i / (double) SAMPLING_RATE;
+            beat[i] = gaussian(t, 0.2, 0.025, 0.1) + gaussian(t, 0.37, 0.012, -0.15)
+                    + gaussian(t, 0.4, 0.01, 1.0) + gaussian(t, 0.43, 0.012, -0.25)
+                    + gaussian(t, 0.6, 0.04, 0.35);
+        }
+        double[] noise = new double[4096];
+        Random random = new Random(9);
+        for (int i = 0; i < noise.length; i++) {
+            noise[i] = (random.nextDouble() - 0.5) * 0.05;
+        }
+
+        QrsDetector[] detectors = new QrsDetector[patients];
+        for (int p = 0; p < patients; p++) {
+            detectors[p] = new QrsDetector(SAMPLING_RATE);
+        }
+
+        long totalSamples = (long) patients * SAMPLING_RATE * seconds;
+        long beats = 0;
+        long start = System.nanoTime();
+        // * Interleaved like a live stream: every patient gets its next sample each tick.
+        for (int tick = 0; tick < SAMPLING_RATE * seconds; tick++) {
+            for (int p = 0; p < patients; p++) {
+                double value = beat[(tick + p * 7) % beat.length] + noise[(tick + p) & (noise.length - 1)];
+                if (detectors[p].addSample(value)) {
+                    beats++;
+                }
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        double rate = totalSamples / elapsed;
+        System.out.printf("%d patients x %d Hz x %d s: %.2f s, %.1f M samples/s (%.0f ns/sample), %d beats%n",
+                patients, SAMPLING_RATE, seconds, elapsed, rate / 1e6, 1e9 / rate, beats);
+        System.out.printf("real-time factor on one core: %.1fx (needs >= 1.0)%n",
+                rate / ((double) patients * SAMPLING_RATE));
+    }
+
+    private static double gaussian(double t, double mean, double stdDev, double amplitude) {
+        return amplitude * Math.exp(-Math.pow(t - mean, 2) / (2 * Math.pow(stdDev, 2)));
+    }
+}
@@ -0,0 +1,109 @@
+package benchmarks;
+
+import com.alerts.AlertGenerator;
+import com.alerts.AlertPolicy;
+import com.alerts.ReplayClock;
+import com.alerts.ReplayEngine;
+import com.data_management.PatientRecord;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Replays generated history through AlertGenerator.evaluateSample as fast as possible:
+ * 1,000 patients with one heart rate, blood pressure and saturation reading every
+ * few seconds. Records are generated on the fly, so a full day needs no memory.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.ReplayBenchmark [hours] [patients]
+ */
+public class ReplayBenchmark {
+
+    private static final String[] TYPES = {"HeartRate", "Systolic", "Diastolic", "Saturation"};
+
+    public static void main(String[] args) {
+        int hours = args.length > 0 ? Integer.parseInt(args[0]) : 24;
+        int patients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long start = 1_700_000_000_000L;
+        long end = start + hours * 3600_000L;
+
+        List<Iterator<PatientRecord>> sources = new ArrayList<>();
+        for (int patient = 1; patient <= patients; patient++) {
+            sources.add(new GeneratedSource(patient, start, end));
+        }
+
+        // * Count the printed alerts instead of writing them to the terminal.
+        PrintStream console = System.out;
+        long[] lines = new long[1];
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                if (b == '\n') {
+                    lines[0]++;
+                }
+            }
+        }));
+
+        ReplayClock clock = new ReplayClock(start);
+        AlertGenerator generator = new AlertGenerator(null, new HashMap<>(), AlertPolicy.immediate(), clock);
+        ReplayEngine.ReplayResult result = new ReplayEngine(clock, ReplayEngine.AS_FAST_AS_POSSIBLE)
+                .replay(sources, generator::evaluateSample);
+
+        System.setOut(console);
+        System.out.println(result);
+        System.out.println("Alert lines printed: " + lines[0]);
+    }
+
+    /**
+     * One reading every 1-4 seconds, rotating through the record types, with rare
+     * abnormal values so some alerts fire.
+     */
+    private static final class GeneratedSource implements Iterator<PatientRecord> {
+        private final int patientId;
+        private final long end;
+        private final Random random;
+        private long time;
+        private int type;
+
+        GeneratedSource(int patientId, long start, long end) {
+            this.patientId = patientId;
+            this.end = end;
+            this.random = new Random(patientId);
+            this.time = start + random.nextInt(1000);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return time < end;
+        }
+
+        @Override
+        public PatientRecord next() {
+            String recordType = TYPES[type];
+            type = (type + 1) % TYPES.length;
+            boolean abnormal = random.nextInt(20000) == 0;
+            double value;
+            switch (recordType) {
+                case "HeartRate":
+                    value = abnormal ? 130 : 70 + random.nextInt(20);
+                    break;
+                case "Systolic":
+                    value = abnormal ? 190 : 110 + random.nextInt(20);
+                    break;
+                case "Diastolic":
+                    value = 70 + random.nextInt(10);
+                    break;
+                default:
+                    value = abnormal ? 89 : 95 + random.nextInt(4);
+                    break;
+            }
+            PatientRecord record = new PatientRecord(patientId, value, recordType, time);
+            time += 1000 + random.nextInt(3000);
+            return record;
+        }
+    }
+}
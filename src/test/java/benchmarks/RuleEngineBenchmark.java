@@ -0,0 +1,88 @@
+package benchmarks;
+
+import com.alerts.rules.CompiledRuleSet;
+import com.alerts.rules.Rule;
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the compiled single-pass rule evaluation with evaluating every rule on
+ * its own, for growing rule counts over one patient's 10-minute window.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.RuleEngineBenchmark
+ */
+public class RuleEngineBenchmark {
+
+    private static final String[] TYPES = {"HeartRate", "Systolic", "Diastolic", "Saturation"};
+    private static final String[] FUNCTIONS = {"min", "max", "avg", "last", "drop", "trend"};
+    private static final String[] WINDOWS = {"30s", "1m", "5m", "10m"};
+
+    public static void main(String[] args) {
+        long now = 1_000_000_000L;
+        List<PatientRecord> records = createRecords(now, 2400);
+
+        System.out.printf("%-8s %-12s %-18s %-18s %-8s%n", "rules", "aggregates", "compiled us/eval", "naive us/eval", "speedup");
+        for (int ruleCount : new int[]{5, 50, 500}) {
+            CompiledRuleSet ruleSet = CompiledRuleSet.parse(createRules(ruleCount));
+            int iterations = Math.max(20, 20000 / ruleCount);
+
+            double compiled = measure(iterations, () -> ruleSet.evaluate(records, now));
+            double naive = measure(Math.max(5, iterations / 10), () -> {
+                for (Rule rule : ruleSet.getRules()) {
+                    rule.evaluateDirectly(records, now);
+                }
+            });
+            System.out.printf("%-8d %-12d %-18.1f %-18.1f %-8.1f%n",
+                    ruleCount, ruleSet.getAggregateCount(), compiled / 1000, naive / 1000, naive / compiled);
+        }
+    }
+
+    private static double measure(int iterations, Runnable evaluation) {
+        for (int i = 0; i < iterations; i++) {
+            evaluation.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            evaluation.run();
+        }
+        return (System.nanoTime() - start) / (double) iterations;
+    }
+
+    /**
+     * Creates rules from a limited vocabulary, so larger rule sets share aggregates
+     * the way real rule sets written per ward or per condition do.
+     */
+    private static String createRules(int count) {
+        Random random = new Random(7);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append("rule").append(i).append(": ");
+            int clauses = 1 + random.nextInt(3);
+            for (int c = 0; c < clauses; c++) {
+                if (c > 0) {
+                    text.append(random.nextBoolean() ? " and " : " or ");
+                }
+                text.append(FUNCTIONS[random.nextInt(FUNCTIONS.length)]).append('(')
+                        .append(TYPES[random.nextInt(TYPES.length)]).append(", ")
+                        .append(WINDOWS[random.nextInt(WINDOWS.length)]).append(") > ")
+                        .append(50 + random.nextInt(150));
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    private static List<PatientRecord> createRecords(long now, int count) {
+        Random random = new Random(42);
+        List<PatientRecord> records = new ArrayList<>();
+        long interval = 10 * 60 * 1000 / count;
+        for (int i = 0; i < count; i++) {
+            String type = TYPES[i % TYPES.length];
+            records.add(new PatientRecord(1, 80 + random.nextInt(40), type, now - (count - 1 - i) * interval));
+        }
+        return records;
+    }
+}
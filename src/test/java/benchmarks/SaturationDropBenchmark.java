@@ -0,0 +1,78 @@
+package benchmarks;
+
+import com.alerts.SlidingWindowDropDetector;
+
+import java.util.Random;
+
+/**
+ * Compares the old copy/sort/nested-loop rapid drop check with the monotonic-deque
+ * detector on 1 Hz saturation over a 10-minute window for 10k patients.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.SaturationDropBenchmark
+ */
+public class SaturationDropBenchmark {
+
+    private static final long WINDOW_MILLIS = 10 * 60 * 1000;
+    private static final int SAMPLES = 600;
+    private static final int PATIENTS = 10_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        long[] times = new long[SAMPLES];
+        double[][] values = new double[PATIENTS][SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            times[i] = i * 1000L;
+        }
+        for (int p = 0; p < PATIENTS; p++) {
+            double value = 95 + random.nextInt(5);
+            for (int i = 0; i < SAMPLES; i++) {
+                // * Normal fluctuation without drops, the worst case for the nested loop.
+                value = Math.max(94, Math.min(98, value + random.nextInt(3) - 1));
+                values[p][i] = value;
+            }
+        }
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            int nestedDrops = 0;
+            for (int p = 0; p < PATIENTS; p++) {
+                nestedDrops += nestedLoop(times, values[p]) ? 1 : 0;
+            }
+            long nested = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int dequeDrops = 0;
+            for (int p = 0; p < PATIENTS; p++) {
+                dequeDrops += monotonicDeque(times, values[p]) ? 1 : 0;
+            }
+            long deque = System.nanoTime() - start;
+
+            System.out.printf("round %d: nested loop %.1f ms (%d drops), monotonic deque %.1f ms (%d drops), speed-up %.1fx%n",
+                    round + 1, nested / 1e6, nestedDrops, deque / 1e6, dequeDrops, nested / (double) deque);
+        }
+    }
+
+    private static boolean nestedLoop(long[] times, double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            for (int j = i + 1; j < values.length; j++) {
+                if (times[j] - times[i] > WINDOW_MILLIS) {
+                    break;
+                }
+                if (values[i] - values[j] >= 5.0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean monotonicDeque(long[] times, double[] values) {
+        SlidingWindowDropDetector detector = new SlidingWindowDropDetector(WINDOW_MILLIS, 5.0);
+        for (int i = 0; i < values.length; i++) {
+            if (detector.add(times[i], values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
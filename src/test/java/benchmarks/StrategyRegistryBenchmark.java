@@ -0,0 +1,123 @@
+package benchmarks;
+
+import com.alerts.ReplayClock;
+import com.alerts.rules.CompiledRuleSet;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import com.design_pattern.strategy.AlertContext;
+import com.design_pattern.strategy.AlertStrategy;
+import com.design_pattern.strategy.BloodPressureStrategy;
+import com.design_pattern.strategy.HeartRateStrategy;
+import com.design_pattern.strategy.OxygenSaturationStrategy;
+import com.design_pattern.strategy.RuleStrategy;
+import com.design_pattern.strategy.StrategyRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays simulator-like traffic in which ECG dominates the volume (ECG at 50 Hz,
+ * saturation every second, heart rate every 5 s, blood pressure every minute) for 10
+ * patients and a minute, evaluating 12 strategies on every arriving sample, once by
+ * evaluating all of them in a composite pass and once through a
+ * {@link StrategyRegistry} that only re-evaluates the strategies the sample affects
+ * and reuses verdicts for up to a second. Reports the CPU time per sample.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.StrategyRegistryBenchmark
+ */
+public class StrategyRegistryBenchmark {
+
+    private static final int PATIENTS = 10;
+    private static final long START = 1_700_000_000_000L;
+    private static final int HISTORY_SECONDS = 120;
+    private static final int SECONDS = 60;
+
+    public static void main(String[] args) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (int round = 0; round < 2; round++) {
+            // * The first round warms up the JIT.
+            String[] names = {"all strategies per sample", "registry"};
+            for (int mode = 0; mode < 2; mode++) {
+                ReplayClock clock = new ReplayClock(START);
+                List<AlertStrategy> strategies = createStrategies(clock);
+                AlertContext context = new AlertContext(clock);
+                StrategyRegistry registry = new StrategyRegistry(clock, StrategyRegistry.DEFAULT_MAX_STALE_MILLIS);
+                for (AlertStrategy strategy : strategies) {
+                    context.addAlertStrategy(strategy);
+                    registry.register(strategy);
+                }
+                Patient[] patients = new Patient[PATIENTS];
+                for (int p = 0; p < PATIENTS; p++) {
+                    patients[p] = new Patient(p);
+                    for (int ms = -HISTORY_SECONDS * 1000; ms < 0; ms += 20) {
+                        addSample(patients[p], ms);
+                    }
+                }
+
+                long cpuBefore = threads.getCurrentThreadCpuTime();
+                long samples = 0;
+                long alerts = 0;
+                for (int ms = 0; ms < SECONDS * 1000; ms += 20) {
+                    clock.advanceTo(START + ms);
+                    for (Patient patient : patients) {
+                        for (PatientRecord sample : addSample(patient, ms)) {
+                            boolean[] verdicts = mode == 0 ? context.triggerAlerts(patient)
+                                    : registry.onSample(patient, sample);
+                            for (boolean verdict : verdicts) {
+                                alerts += verdict ? 1 : 0;
+                            }
+                            samples++;
+                        }
+                    }
+                }
+                long cpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+                if (round == 1) {
+                    System.out.printf("%-26s %d samples, %8.1f us CPU/sample, %d alert verdicts%s%n", names[mode],
+                            samples, cpu / 1000.0 / samples, alerts, mode == 0 ? "" : String.format(
+                                    " (%d evaluated, %d cached)", registry.getEvaluatedCount(),
+                                    registry.getCachedCount()));
+                }
+            }
+        }
+    }
+
+    private static List<PatientRecord> addSample(Patient patient, int ms) {
+        long timestamp = START + ms;
+        List<PatientRecord> added = new ArrayList<>(4);
+        added.add(patient.addRecord(0.2 + 0.1 * Math.sin(ms / 150.0), "ECG", timestamp));
+        if (ms % 1000 == 0) {
+            added.add(patient.addRecord(96 + (ms / 1000) % 3, "Saturation", timestamp));
+        }
+        if (ms % 5000 == 0) {
+            added.add(patient.addRecord(75 + (ms / 5000) % 10, "HeartRate", timestamp));
+        }
+        if (ms % 60000 == 0) {
+            added.add(patient.addRecord(120, "Systolic", timestamp));
+            added.add(patient.addRecord(80, "Diastolic", timestamp));
+        }
+        return added;
+    }
+
+    private static List<AlertStrategy> createStrategies(ReplayClock clock) {
+        List<AlertStrategy> strategies = new ArrayList<>();
+        strategies.add(new HeartRateStrategy(clock));
+        strategies.add(new BloodPressureStrategy(clock));
+        strategies.add(new OxygenSaturationStrategy(clock));
+        String[] rules = {
+                "tachycardia: avg(HeartRate, 5m) > 110",
+                "bradycardia: min(HeartRate, 2m) < 45",
+                "hypertension: max(Systolic, 10m) > 180 or max(Diastolic, 10m) > 120",
+                "hypotension: min(Systolic, 5m) < 90",
+                "desaturation: drop(Saturation, 10m) >= 5",
+                "hypoxemia: min(Saturation, 1m) < 92",
+                "pressure_trend: trend(Systolic) > 10 or trend(Diastolic) > 10",
+                "sparse_saturation: count(Saturation, 1m) < 10",
+                "shock_index: last(HeartRate) > 130 and last(Systolic) < 100"};
+        for (String rule : rules) {
+            strategies.add(new RuleStrategy(CompiledRuleSet.parse(rule), clock));
+        }
+        return strategies;
+    }
+}
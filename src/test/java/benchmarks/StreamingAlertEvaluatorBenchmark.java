@@ -0,0 +1,89 @@
+package benchmarks;
+
+import com.alerts.AlertGenerator;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Compares the per-sample cost of the streaming evaluation with re-running
+ * {@link AlertGenerator#evaluateData(Patient)} after every sample, for growing
+ * numbers of samples inside the 10-minute window.
+ *
+ * Run with: java -cp target/classes:target/test-classes benchmarks.StreamingAlertEvaluatorBenchmark
+ */
+public class StreamingAlertEvaluatorBenchmark {
+
+    private static final long WINDOW_MILLIS = 10 * 60 * 1000;
+
+    public static void main(String[] args) {
+        int[] samplesPerWindow = {60, 600, 6000, 60000};
+
+        System.out.printf("%-18s %-22s %-22s%n", "samples/window", "streaming ns/sample", "full scan ns/sample");
+        for (int windowSamples : samplesPerWindow) {
+            double streaming = measureStreaming(windowSamples);
+            String fullScan = windowSamples <= 6000
+                    ? String.format("%.1f", measureFullScan(windowSamples))
+                    : "(skipped, too slow)";
+            System.out.printf("%-18d %-22.1f %-22s%n", windowSamples, streaming, fullScan);
+        }
+    }
+
+    /**
+     * Feeds five windows worth of saturation samples through evaluateSample and
+     * returns the average cost of one sample in nanoseconds.
+     */
+    private static double measureStreaming(int windowSamples) {
+        int total = windowSamples * 5;
+        PatientRecord[] records = createRecords(1, total, WINDOW_MILLIS / windowSamples);
+        // * Warm up on a separate patient so the JIT has compiled the hot path.
+        AlertGenerator warmUp = new AlertGenerator(null, new HashMap<>());
+        for (PatientRecord record : createRecords(2, 200000, 1)) {
+            warmUp.evaluateSample(record);
+        }
+
+        AlertGenerator generator = new AlertGenerator(null, new HashMap<>());
+        long start = System.nanoTime();
+        for (PatientRecord record : records) {
+            generator.evaluateSample(record);
+        }
+        return (System.nanoTime() - start) / (double) total;
+    }
+
+    /**
+     * Adds the same samples to a patient and calls evaluateData after every
+     * sample, once the window is full, and returns the average cost per sample.
+     */
+    private static double measureFullScan(int windowSamples) {
+        int measured = Math.min(windowSamples, 2000);
+        PatientRecord[] records = createRecords(3, windowSamples + measured, WINDOW_MILLIS / windowSamples);
+        Patient patient = new Patient(3);
+        AlertGenerator generator = new AlertGenerator(null, new HashMap<>());
+        for (int i = 0; i < windowSamples; i++) {
+            patient.addRecord(records[i]);
+        }
+
+        long start = System.nanoTime();
+        for (int i = windowSamples; i < records.length; i++) {
+            patient.addRecord(records[i]);
+            generator.evaluateData(patient);
+        }
+        return (System.nanoTime() - start) / (double) measured;
+    }
+
+    /**
+     * Creates normal saturation readings ending now, so no alert is printed.
+     */
+    private static PatientRecord[] createRecords(int patientId, int count, long intervalMillis) {
+        Random random = new Random(42);
+        long end = System.currentTimeMillis();
+        PatientRecord[] records = new PatientRecord[count];
+        for (int i = 0; i < count; i++) {
+            long timestamp = end - (count - 1 - i) * intervalMillis;
+            records[i] = new PatientRecord(patientId, 96 + random.nextInt(3), "Saturation", timestamp);
+        }
+        return records;
+    }
+}
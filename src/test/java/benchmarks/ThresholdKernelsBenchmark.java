@@ -0,0 +1,106 @@
+package benchmarks;
+
+import com.alerts.kernels.ThresholdKernels;
+
+import java.util.Random;
+
+/**
+ * Compares the scalar and the Vector API threshold kernels, and the former
+ * record-by-record check over a {@code List<Double>}, on windows of 1k to 1M ECG-like
+ * values that never cross the thresholds (the common case: the whole window is read).
+ * Reports nanoseconds per element.
+ *
+ * Run with the vector kernels available (built on JDK 17+):
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes benchmarks.ThresholdKernelsBenchmark
+ */
+public class ThresholdKernelsBenchmark {
+
+    private static final int[] SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    // * Elements processed per measurement, so every size does the same amount of work.
+    private static final long WORK = 200_000_000L;
+
+    private static volatile double sink;
+
+    public static void main(String[] args) {
+        ThresholdKernels scalar = ThresholdKernels.scalar();
+        ThresholdKernels best = ThresholdKernels.best();
+        if (best == scalar) {
+            System.out.println("Vector API kernels unavailable; run with --add-modules jdk.incubator.vector");
+        }
+        System.out.printf("%-10s %-14s %12s %12s %12s %12s%n", "size", "kernels", "countOutside", "firstOutside",
+                "min", "max");
+        Random random = new Random(1);
+        for (int size : SIZES) {
+            double[] values = new double[size];
+            java.util.List<Double> boxed = new java.util.ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values[i] = 0.2 * Math.sin(i / 40.0) + 0.03 * random.nextGaussian();
+                boxed.add(values[i]);
+            }
+            for (ThresholdKernels kernels : best == scalar ? new ThresholdKernels[]{scalar}
+                    : new ThresholdKernels[]{scalar, best}) {
+                // * Measure twice; the first round warms up the JIT.
+                double[] nanos = null;
+                for (int round = 0; round < 2; round++) {
+                    nanos = measure(kernels, values);
+                }
+                System.out.printf("%-10d %-14s %12.3f %12.3f %12.3f %12.3f%n", size, kernels.getName().split(" ")[0],
+                        nanos[0], nanos[1], nanos[2], nanos[3]);
+            }
+            double listNanos = 0;
+            for (int round = 0; round < 2; round++) {
+                listNanos = measureList(boxed);
+            }
+            System.out.printf("%-10d %-14s %12s %12.3f%n", size, "List<Double>", "", listNanos);
+        }
+    }
+
+    private static double[] measure(ThresholdKernels kernels, double[] values) {
+        int n = values.length;
+        long repeats = WORK / n;
+        double[] nanos = new double[4];
+        long start = System.nanoTime();
+        long total = 0;
+        for (long r = 0; r < repeats; r++) {
+            total += kernels.countOutside(values, 0, n, -0.4, 1.2);
+        }
+        nanos[0] = (System.nanoTime() - start) / (double) (repeats * n);
+        start = System.nanoTime();
+        for (long r = 0; r < repeats; r++) {
+            total += kernels.firstOutside(values, 0, n, -0.4, 1.2);
+        }
+        nanos[1] = (System.nanoTime() - start) / (double) (repeats * n);
+        double result = 0;
+        start = System.nanoTime();
+        for (long r = 0; r < repeats; r++) {
+            result += kernels.min(values, 0, n);
+        }
+        nanos[2] = (System.nanoTime() - start) / (double) (repeats * n);
+        start = System.nanoTime();
+        for (long r = 0; r < repeats; r++) {
+            result += kernels.max(values, 0, n);
+        }
+        nanos[3] = (System.nanoTime() - start) / (double) (repeats * n);
+        sink = result + total;
+        return nanos;
+    }
+
+    /**
+     * The former ECG check: unboxing every value and comparing it on its own.
+     */
+    private static double measureList(java.util.List<Double> values) {
+        long repeats = WORK / 4 / values.size();
+        long start = System.nanoTime();
+        int found = 0;
+        for (long r = 0; r < repeats; r++) {
+            for (double value : values) {
+                if (value > 1.2 || value < -0.4) {
+                    found++;
+                    break;
+                }
+            }
+        }
+        sink = found;
+        return (System.nanoTime() - start) / (double) (repeats * values.size());
+    }
+}
@@ -0,0 +1,100 @@
+package benchmarks;
+
+import com.cardio_generator.TickScheduler;
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodLevelsDataGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the five generators of the simulator for many patients, with an output that
+ * only counts the samples, and reports every 5 seconds the sample rate, the live
+ * threads, the heap in use and the process CPU:
+ * <ul>
+ *     <li>tick: the {@link TickScheduler} with one thread per processor, for 100k patients by default</li>
+ *     <li>per-patient: the former scheduling, a pool of 4 threads per patient with five periodic
+ *     tasks per patient, for 2k patients by default, since 100k would need 400k threads</li>
+ * </ul>
+ *
+ * Run with: java -Xmx2g -cp target/classes:target/test-classes benchmarks.TickSchedulerBenchmark [tick|per-patient] [patients] [seconds]
+ */
+public class TickSchedulerBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        String mode = args.length > 0 ? args[0] : "tick";
+        boolean tick = mode.equals("tick");
+        int patients = args.length > 1 ? Integer.parseInt(args[1]) : tick ? 100_000 : 2_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        LongAdder samples = new LongAdder();
+        OutputStrategy counting = (patientId, timestamp, label, data) -> samples.increment();
+        List<Integer> patientIds = new ArrayList<>();
+        for (int i = 1; i <= patients; i++) {
+            patientIds.add(i);
+        }
+        ECGDataGenerator ecg = new ECGDataGenerator(patients);
+        BloodSaturationDataGenerator saturation = new BloodSaturationDataGenerator(patients);
+        BloodPressureDataGenerator pressure = new BloodPressureDataGenerator(patients);
+        BloodLevelsDataGenerator levels = new BloodLevelsDataGenerator(patients);
+        AlertGenerator alerts = new AlertGenerator(patients);
+
+        TickScheduler tickScheduler = null;
+        ScheduledExecutorService pool = null;
+        if (tick) {
+            tickScheduler = TickScheduler.forAvailableProcessors(new Random(42));
+            tickScheduler.schedule(ecg, patientIds, 1000, counting);
+            tickScheduler.schedule(saturation, patientIds, 1000, counting);
+            tickScheduler.schedule(pressure, patientIds, 60_000, counting);
+            tickScheduler.schedule(levels, patientIds, 120_000, counting);
+            tickScheduler.schedule(alerts, patientIds, 20_000, counting);
+        } else {
+            Random random = new Random(42);
+            pool = Executors.newScheduledThreadPool(patients * 4);
+            for (int patientId : patientIds) {
+                pool.scheduleAtFixedRate(() -> ecg.generate(patientId, counting), random.nextInt(5), 1, TimeUnit.SECONDS);
+                pool.scheduleAtFixedRate(() -> saturation.generate(patientId, counting), random.nextInt(5), 1, TimeUnit.SECONDS);
+                pool.scheduleAtFixedRate(() -> pressure.generate(patientId, counting), random.nextInt(5), 1, TimeUnit.MINUTES);
+                pool.scheduleAtFixedRate(() -> levels.generate(patientId, counting), random.nextInt(5), 2, TimeUnit.MINUTES);
+                pool.scheduleAtFixedRate(() -> alerts.generate(patientId, counting), random.nextInt(5), 20, TimeUnit.SECONDS);
+            }
+        }
+
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("%s scheduling, %d patients, %d processors%n", mode, patients, runtime.availableProcessors());
+        long lastSamples = samples.sum();
+        long lastCpu = os.getProcessCpuTime();
+        long lastTime = System.nanoTime();
+        for (int elapsed = 5; elapsed <= seconds; elapsed += 5) {
+            Thread.sleep(5000);
+            long now = System.nanoTime();
+            long count = samples.sum();
+            long cpu = os.getProcessCpuTime();
+            long heap = runtime.totalMemory() - runtime.freeMemory();
+            System.out.printf("%3d s: %8.0f samples/s, %6d threads, %5d MB heap, %5.1f%% CPU%n", elapsed,
+                    (count - lastSamples) * 1e9 / (now - lastTime), Thread.activeCount(), heap >> 20,
+                    100.0 * (cpu - lastCpu) / (now - lastTime));
+            lastSamples = count;
+            lastCpu = cpu;
+            lastTime = now;
+        }
+        if (tickScheduler != null) {
+            tickScheduler.close();
+        } else {
+            pool.shutdownNow();
+        }
+        System.exit(0);
+    }
+}
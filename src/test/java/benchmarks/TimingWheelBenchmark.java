@@ -0,0 +1,117 @@
+package benchmarks;
+
+import com.alerts.dispatch.TimingWheel;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link TimingWheel} with a {@link ScheduledThreadPoolExecutor} for
+ * the timers of repeated alerts: 500k pending timers with deadlines spread over the
+ * next 10 minutes are inserted, half of them cancelled (acknowledged), and finally
+ * 500k timers that are all due are expired.
+ *
+ * The wheel is advanced by hand; the executor runs its single thread, and its expiry
+ * is measured from scheduling timers due in 1 ms until the last one ran.
+ *
+ * Run with: java -Xmx2g -cp target/classes:target/test-classes benchmarks.TimingWheelBenchmark
+ */
+public class TimingWheelBenchmark {
+
+    private static final int TIMERS = 500_000;
+    private static final long SPAN_MILLIS = 10 * 60_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws InterruptedException {
+        long[] delays = new long[TIMERS];
+        Random random = new Random(42);
+        for (int i = 0; i < TIMERS; i++) {
+            delays[i] = 1 + random.nextInt((int) SPAN_MILLIS);
+        }
+        Runnable task = () -> { };
+
+        for (int round = 0; round < ROUNDS; round++) {
+            // * The last round is reported; the others warm up the JIT.
+            boolean report = round == ROUNDS - 1;
+            runWheel(delays, task, report);
+            runExecutor(delays, task, report);
+        }
+    }
+
+    private static void runWheel(long[] delays, Runnable task, boolean report) {
+        TimingWheel wheel = new TimingWheel(10, 0);
+        TimingWheel.Timeout[] timeouts = new TimingWheel.Timeout[TIMERS];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMERS; i++) {
+            timeouts[i] = wheel.schedule(task, delays[i]);
+        }
+        long insert = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < TIMERS; i += 2) {
+            timeouts[i].cancel();
+        }
+        long cancel = System.nanoTime() - start;
+
+        // * The remaining half expires while the wheel steps through 10 minutes tick by tick.
+        start = System.nanoTime();
+        int spread = 0;
+        for (long now = 0; now <= SPAN_MILLIS; now += 10) {
+            spread += wheel.advanceTo(now);
+        }
+        long expireSpread = System.nanoTime() - start;
+
+        for (int i = 0; i < TIMERS; i++) {
+            wheel.schedule(task, SPAN_MILLIS + 1);
+        }
+        start = System.nanoTime();
+        int due = wheel.advanceTo(SPAN_MILLIS + 10);
+        long expireDue = System.nanoTime() - start;
+
+        if (report) {
+            System.out.printf("TimingWheel:                 insert %.0f ns, cancel %.0f ns, expire %.0f ns/timer (%d due at once), "
+                            + "%.0f ns/timer (%d over 10 min of ticks)%n",
+                    insert / (double) TIMERS, cancel / (TIMERS / 2.0), expireDue / (double) due, due,
+                    expireSpread / (double) spread, spread);
+        }
+    }
+
+    private static void runExecutor(long[] delays, Runnable task, boolean report) throws InterruptedException {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[TIMERS];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMERS; i++) {
+            futures[i] = executor.schedule(task, delays[i], TimeUnit.MILLISECONDS);
+        }
+        long insert = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < TIMERS; i += 2) {
+            futures[i].cancel(false);
+        }
+        long cancel = System.nanoTime() - start;
+
+        // * The uncancelled half stays pending behind the timers that are due.
+        CountDownLatch done = new CountDownLatch(TIMERS);
+        Runnable counted = done::countDown;
+        start = System.nanoTime();
+        for (int i = 0; i < TIMERS; i++) {
+            executor.schedule(counted, 1, TimeUnit.MILLISECONDS);
+        }
+        long scheduled = System.nanoTime() - start;
+        done.await();
+        long expire = System.nanoTime() - start - scheduled;
+        executor.shutdownNow();
+
+        if (report) {
+            System.out.printf("ScheduledThreadPoolExecutor: insert %.0f ns, cancel %.0f ns, expire %.0f ns/timer (%d due at once)%n",
+                    insert / (double) TIMERS, cancel / (TIMERS / 2.0), expire / (double) TIMERS, TIMERS);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package benchmarks;
+
+import com.alerts.TrendEstimator;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Updates the trend estimators of 100k patients with simulated readings (a random
+ * walk per vital sign, like the generators) and reports the cost and allocation per
+ * update, the state per patient, and the cost of the former approach: copying the
+ * window of blood pressure values into a {@code List<Double>} and scanning it for
+ * three consecutive readings, as {@code AlertGenerator.hasTrendAlert} does on every evaluation.
+ *
+ * Run with: java -Xmx2g -cp target/classes:target/test-classes benchmarks.TrendEstimatorBenchmark
+ */
+public class TrendEstimatorBenchmark {
+
+    private static final int PATIENTS = 100_000;
+    private static final int ROUNDS = 100;
+    private static final String[] TYPES = {"Systolic", "Diastolic", "HeartRate", "Saturation"};
+    private static final double[] BASELINES = {120, 80, 75, 97};
+
+    public static void main(String[] args) {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        TrendEstimator estimator = TrendEstimator.vitalSigns();
+        double[] values = new double[PATIENTS * TYPES.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = BASELINES[i % TYPES.length];
+        }
+        Random random = new Random(42);
+
+        // * The first rounds fill the windows and warm up the JIT.
+        run(estimator, values, random, 0, ROUNDS);
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long onsets = run(estimator, values, random, ROUNDS, ROUNDS);
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        long updates = (long) PATIENTS * TYPES.length * ROUNDS;
+
+        System.out.printf("%d patients, %d updates: %.1f ns/update, %.3f bytes/update, %d trend onsets%n",
+                PATIENTS, updates, nanos / (double) updates, bytes / (double) updates, onsets);
+        System.out.printf("state: %d bytes/patient as laid out, %.0f bytes/patient measured on the heap%n",
+                estimator.getBytesPerPatient(), (heapAfter - heapBefore - values.length * 8.0) / PATIENTS);
+
+        // * The former approach, for one evaluation of 10 minutes of blood pressure per patient.
+        List<Double> window = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            window.add(120.0 + (i % 3));
+        }
+        long found = 0;
+        for (int i = 0; i < PATIENTS; i++) {
+            found += hasTrendAlert(new ArrayList<>(window)) ? 1 : 0;
+        }
+        bytesBefore = threads.getThreadAllocatedBytes(thread);
+        start = System.nanoTime();
+        for (int i = 0; i < PATIENTS; i++) {
+            found += hasTrendAlert(new ArrayList<>(window)) ? 1 : 0;
+        }
+        nanos = System.nanoTime() - start;
+        bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        System.out.printf("List<Double> copy + 3-reading scan: %.1f ns/evaluation, %.1f bytes/evaluation (%d)%n",
+                nanos / (double) PATIENTS, bytes / (double) PATIENTS, found);
+    }
+
+    private static long run(TrendEstimator estimator, double[] values, Random random, int firstRound, int rounds) {
+        long onsets = 0;
+        for (int round = firstRound; round < firstRound + rounds; round++) {
+            long timestamp = round * 60_000L;
+            for (int patient = 0; patient < PATIENTS; patient++) {
+                for (int type = 0; type < TYPES.length; type++) {
+                    int index = patient * TYPES.length + type;
+                    values[index] += random.nextInt(5) - 2;
+                    if (estimator.update(patient, TYPES[type], values[index], timestamp)
+                            != TrendEstimator.Trend.NONE) {
+                        onsets++;
+                    }
+                }
+            }
+        }
+        return onsets;
+    }
+
+    private static boolean hasTrendAlert(List<Double> values) {
+        for (int i = 0; i <= values.size() - 3; i++) {
+            double v1 = values.get(i);
+            double v2 = values.get(i + 1);
+            double v3 = values.get(i + 2);
+            if ((v2 - v1 > 10 && v3 - v2 > 10) || (v1 - v2 > 10 && v2 - v3 > 10)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
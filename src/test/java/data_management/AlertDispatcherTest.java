@@ -0,0 +1,149 @@
+package data_management;
+
+import com.alerts.AlertGenerator;
+import com.alerts.dispatch.AlertDispatcher;
+import com.alerts.dispatch.AlertEvent;
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.dispatch.AlertSink;
+import com.alerts.dispatch.FileAlertSink;
+import com.data_management.Patient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the asynchronous alert dispatcher: priorities, batching, slow sinks and drops.
+ */
+public class AlertDispatcherTest {
+
+    /**
+     * Records every batch; blocks on the first one until released, to let alerts pile up.
+     */
+    private static class RecordingSink implements AlertSink {
+        final List<List<AlertEvent>> batches = new ArrayList<>();
+        final CountDownLatch release;
+
+        RecordingSink(boolean blockFirstBatch) {
+            release = new CountDownLatch(blockFirstBatch ? 1 : 0);
+        }
+
+        @Override
+        public void deliver(List<AlertEvent> batch) throws InterruptedException {
+            release.await();
+            synchronized (batches) {
+                batches.add(batch);
+            }
+        }
+
+        @Override
+        public String getName() {
+            return "recording";
+        }
+
+        List<AlertEvent> all() {
+            List<AlertEvent> events = new ArrayList<>();
+            synchronized (batches) {
+                batches.forEach(events::addAll);
+            }
+            return events;
+        }
+    }
+
+    @Test
+    void testHigherPrioritiesAreDeliveredFirst() {
+        RecordingSink sink = new RecordingSink(false);
+        AlertDispatcher dispatcher = new AlertDispatcher(100, 100, sink);
+        // * Queue everything before starting, so the first batch sees all alerts.
+        dispatcher.dispatch("1", "low", 1, AlertPriority.LOW);
+        dispatcher.dispatch("2", "medium", 2, AlertPriority.MEDIUM);
+        dispatcher.dispatch("3", "critical", 3, AlertPriority.CRITICAL);
+        dispatcher.dispatch("4", "high", 4, AlertPriority.HIGH);
+        assertEquals(4, dispatcher.getQueueDepth());
+
+        dispatcher.start();
+        assertTrue(dispatcher.awaitDelivery(5, TimeUnit.SECONDS));
+        dispatcher.close();
+
+        assertEquals(1, sink.batches.size());
+        List<String> order = new ArrayList<>();
+        for (AlertEvent event : sink.all()) {
+            order.add(event.getCondition());
+        }
+        assertEquals(List.of("critical", "high", "medium", "low"), order);
+        assertEquals(4, dispatcher.getDeliveredCount());
+        assertEquals(0, dispatcher.getQueueDepth());
+    }
+
+    @Test
+    void testSlowSinkDoesNotBlockDispatchOrOtherSinks() throws Exception {
+        RecordingSink slow = new RecordingSink(true);
+        RecordingSink fast = new RecordingSink(false);
+        AlertDispatcher dispatcher = new AlertDispatcher(50, 10, slow, fast);
+        dispatcher.start();
+
+        long start = System.nanoTime();
+        int accepted = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (dispatcher.dispatch(String.valueOf(i), "alert", i, AlertPriority.HIGH)) {
+                accepted++;
+            }
+            if (i % 50 == 0) {
+                // * Give the dispatcher thread time to move alerts on to the sinks.
+                Thread.sleep(5);
+            }
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "dispatch must not block");
+        assertTrue(dispatcher.getDroppedCount() > 0, "The stuck sink's queue must overflow and drop");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (fast.all().size() < accepted && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(accepted, fast.all().size(), "The fast sink must get every accepted alert");
+        assertTrue(slow.all().isEmpty());
+
+        slow.release.countDown();
+        dispatcher.close();
+        assertTrue(slow.all().size() <= 50 + 10);
+    }
+
+    @Test
+    void testFullQueueDropsInsteadOfBlocking() {
+        AlertDispatcher dispatcher = new AlertDispatcher(3, 10, new RecordingSink(false));
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch("1", "alert", i, AlertPriority.LOW);
+        }
+        assertEquals(3, dispatcher.getQueueDepth());
+        assertEquals(2, dispatcher.getDroppedCount());
+        assertEquals(AlertPriority.HIGH, AlertPriority.fromLevel("high"));
+        assertEquals(AlertPriority.MEDIUM, AlertPriority.fromLevel("unknown"));
+    }
+
+    @Test
+    void testGeneratorAlertsReachFileSink(@TempDir Path directory) throws Exception {
+        Path log = directory.resolve("alerts/alerts.log");
+        AlertDispatcher dispatcher = new AlertDispatcher(100, 10, new FileAlertSink(log));
+        dispatcher.start();
+        AlertGenerator generator = new AlertGenerator(null, new HashMap<>());
+        generator.setAlertDispatcher(dispatcher);
+
+        Patient patient = new Patient(33);
+        patient.addRecord(200, "Systolic", System.currentTimeMillis() - 1000);
+        generator.evaluateData(patient);
+        dispatcher.close();
+
+        List<String> lines = Files.readAllLines(log);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("[HIGH] Patient 33: ALERT TRIGGERED based on vital signs"), lines.get(0));
+        assertTrue(dispatcher.getMaxLatencyNanos() > 0);
+    }
+}
@@ -0,0 +1,141 @@
+package data_management;
+
+import com.alerts.dispatch.AlertGovernor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ward-wide alert governor: storm detection per rule, summaries
+ * of held back alerts, and the token bucket over all alerts.
+ */
+class AlertGovernorTest {
+
+    private final List<String> summaries = new ArrayList<>();
+    private final List<Long> counts = new ArrayList<>();
+
+    private AlertGovernor governor(double alertsPerSecond, int burst) {
+        return new AlertGovernor("ward 3", alertsPerSecond, burst, 30_000, 20, 30_000,
+                (rule, count, summary, timestamp) -> {
+                    counts.add(count);
+                    summaries.add(summary);
+                });
+    }
+
+    /**
+     * A storm of one rule is summarized, while other rules still pass, and the storm ends.
+     */
+    @Test
+    void testStormIsSummarized() {
+        AlertGovernor governor = governor(1000, 1000);
+        long now = 1_000_000;
+        int delivered = 0;
+        // * 56 patients cross the saturation threshold within 28 seconds.
+        for (int i = 0; i < 56; i++) {
+            delivered += governor.admit("Low Saturation", now + i * 500) ? 1 : 0;
+        }
+        assertEquals(19, delivered);
+        assertTrue(governor.isStorming("Low Saturation"));
+        assertTrue(governor.admit("Sustained Trend", now + 28_000));
+        assertTrue(summaries.isEmpty());
+
+        governor.flush(now + 19 * 500 + 30_000);
+        assertEquals(List.of(37L), counts);
+        assertEquals("37 Low Saturation alerts in ward 3 in 30 s", summaries.get(0));
+
+        // * A minute later the window is empty again, so the storm is over.
+        governor.flush(now + 90_000);
+        assertFalse(governor.isStorming("Low Saturation"));
+        assertTrue(governor.admit("Low Saturation", now + 90_000));
+        assertEquals(1, summaries.size());
+        assertEquals(37, governor.getHeldBackCount());
+    }
+
+    /**
+     * Alerts over the rate of the token bucket are held back and summarized.
+     */
+    @Test
+    void testRateLimit() {
+        AlertGovernor governor = governor(1, 5);
+        long now = 1_000_000;
+        int delivered = 0;
+        for (int i = 0; i < 10; i++) {
+            // * Different rules, so no storm is detected.
+            delivered += governor.admit("Rule " + i, now) ? 1 : 0;
+        }
+        assertEquals(5, delivered);
+        assertEquals(5, governor.getHeldBackCount());
+        assertTrue(governor.admit("Rule 0", now + 1000));
+
+        governor.flush(now + 30_000);
+        assertEquals(5, summaries.size());
+        assertTrue(summaries.contains("1 Rule 9 alerts in ward 3 in 30 s"));
+    }
+
+    /**
+     * Threads that count alerts of one rule at once, as they enter each new bucket
+     * together, never see more alerts in the window than were raised, so no storm is
+     * detected early.
+     */
+    @Test
+    void testConcurrentAdmitsDoNotOverCount() throws InterruptedException {
+        int threadCount = 8;
+        int buckets = 30;
+        int perBucket = 20;
+        int total = threadCount * buckets * perBucket;
+        // * A bucket of the 30 second window is 937 ms.
+        long bucketMillis = 30_000 / 32;
+        AlertGovernor governor = new AlertGovernor("ward 3", 1_000_000, 100_000_000, 30_000, total + 1, 30_000,
+                (rule, count, summary, timestamp) -> summaries.add(summary));
+        long now = 1_000_000 * bucketMillis;
+        CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int bucket = 0; bucket < buckets; bucket++) {
+                        barrier.await();
+                        for (int i = 0; i < perBucket; i++) {
+                            governor.admit("Low Saturation", now + bucket * bucketMillis);
+                        }
+                    }
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long end = now + (buckets - 1) * bucketMillis;
+        assertEquals(total, governor.getWindowCount("Low Saturation", end));
+        assertFalse(governor.isStorming("Low Saturation"));
+        assertEquals(total, governor.getAdmittedCount());
+        assertEquals(0, governor.getHeldBackCount());
+        assertTrue(summaries.isEmpty());
+    }
+
+    /**
+     * A window of 64 ms has 2 ms buckets; numbered from the epoch, they would not fit
+     * into a slot next to the count.
+     */
+    @Test
+    void testSmallWindowWithEpochTimestamps() {
+        AlertGovernor governor = new AlertGovernor("ward 3", 1000, 1000, 64, 100, 30_000,
+                (rule, count, summary, timestamp) -> summaries.add(summary));
+        long now = 1_700_000_000_000L;
+        for (int i = 0; i < 40; i++) {
+            assertTrue(governor.admit("Low Saturation", now + i));
+        }
+        assertEquals(40, governor.getWindowCount("Low Saturation", now + 39));
+        // * 40 ms later the alerts of the first 16 ms have left the window.
+        assertEquals(24, governor.getWindowCount("Low Saturation", now + 79));
+    }
+}
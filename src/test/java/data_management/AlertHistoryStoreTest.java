@@ -0,0 +1,110 @@
+package data_management;
+
+import com.alerts.Alert;
+import com.alerts.AlertHistoryStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests range queries, segment rolling and recovery of the alert history store.
+ */
+public class AlertHistoryStoreTest {
+
+    @Test
+    void testRangeQueryPerPatient(@TempDir Path directory) throws IOException {
+        try (AlertHistoryStore store = AlertHistoryStore.open(directory, 1024 * 1024, 0)) {
+            for (int i = 0; i < 100; i++) {
+                store.append(i % 4, 1000L * i, "alert " + i);
+            }
+            // * A late alert is put in time order.
+            store.append(2, 1500, "late");
+
+            List<Alert> alerts = store.query(2, 1000, 10000);
+            assertEquals(List.of("late", "alert 2", "alert 6"),
+                    alerts.stream().map(Alert::getCondition).limit(3).collect(Collectors.toList()));
+            assertEquals(4, store.count(2, 2000, 14000));
+            assertEquals("2", alerts.get(0).getPatientId());
+            assertEquals(1500, alerts.get(0).getTimestamp());
+            assertTrue(store.query(99, 0, Long.MAX_VALUE).isEmpty());
+            assertEquals(26, store.query(2, Long.MIN_VALUE, Long.MAX_VALUE).size());
+        }
+    }
+
+    @Test
+    void testReopenRecoversAllSegments(@TempDir Path directory) throws IOException {
+        try (AlertHistoryStore store = AlertHistoryStore.open(directory, 4096, 0)) {
+            for (int i = 0; i < 1000; i++) {
+                store.append(42, i, "ALERT TRIGGERED based on vital signs");
+            }
+            assertTrue(store.getSegmentCount() > 1, "Small segments must roll over");
+        }
+
+        try (AlertHistoryStore store = AlertHistoryStore.open(directory, 4096, 0)) {
+            assertEquals(1000, store.size());
+            List<Alert> alerts = store.query(42, 500, 509);
+            assertEquals(10, alerts.size());
+            assertEquals(509, alerts.get(9).getTimestamp());
+
+            store.append(42, 1000, "after restart");
+            assertEquals("after restart", store.query(42, 1000, 1000).get(0).getCondition());
+        }
+    }
+
+    @Test
+    void testTornWriteIsTruncatedOnReopen(@TempDir Path directory) throws IOException {
+        try (AlertHistoryStore store = AlertHistoryStore.open(directory, 1024 * 1024, 0)) {
+            store.append(7, 1, "first");
+            store.append(7, 2, "second");
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        // * Cut the last record in half, as a crash during the write would.
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        try (AlertHistoryStore store = AlertHistoryStore.open(directory, 1024 * 1024, 0)) {
+            assertEquals(1, store.size());
+            store.append(7, 3, "third");
+            assertEquals(List.of("first", "third"), store.query(7, 0, 10).stream()
+                    .map(Alert::getCondition).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void testNewSegmentsNeverReuseANameAfterAGap(@TempDir Path directory) throws IOException {
+        try (AlertHistoryStore store = AlertHistoryStore.open(directory, 4096, 0)) {
+            for (int i = 0; i < 150; i++) {
+                store.append(42, i, "ALERT TRIGGERED based on vital signs");
+            }
+            assertEquals(3, store.getSegmentCount());
+        }
+        // * An old segment removed, e.g. by hand to free space.
+        Files.delete(directory.resolve("alerts-000000.seg"));
+
+        try (AlertHistoryStore store = AlertHistoryStore.open(directory, 4096, 0)) {
+            for (int i = 150; i < 250; i++) {
+                store.append(42, i, "ALERT TRIGGERED based on vital signs");
+            }
+            assertEquals(3, store.getSegmentCount());
+            assertEquals(1, store.query(42, 249, 249).size());
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of("alerts-000001.seg", "alerts-000002.seg", "alerts-000003.seg"),
+                    files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList()));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package data_management;
+
+import com.alerts.AlertGenerator;
+import com.alerts.AlertPolicy;
+import com.alerts.AlertStateMachine;
+import com.alerts.AlertStateMachine.Transition;
+import com.data_management.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the hysteresis, hold times and cooldown of the alert state machine.
+ */
+public class AlertStateMachineTest {
+
+    @Test
+    void testHysteresisBand() {
+        AlertStateMachine machine = new AlertStateMachine(AlertPolicy.above(100, 95));
+
+        assertEquals(Transition.NONE, machine.update(1, 0, 99.0, 0));
+        assertEquals(Transition.TRIGGERED, machine.update(1, 0, 101.0, 1000));
+        // * Inside the band the alert stays active.
+        assertEquals(Transition.NONE, machine.update(1, 0, 99.0, 2000));
+        assertEquals(Transition.NONE, machine.update(1, 0, 101.0, 3000));
+        assertTrue(machine.isActive(1, 0));
+        assertEquals(Transition.RESOLVED, machine.update(1, 0, 94.0, 4000));
+        assertFalse(machine.isActive(1, 0));
+    }
+
+    @Test
+    void testLowValuePolicy() {
+        AlertStateMachine machine = new AlertStateMachine(AlertPolicy.below(92, 94));
+
+        assertEquals(Transition.TRIGGERED, machine.update(7, 0, 91.0, 0));
+        assertEquals(Transition.NONE, machine.update(7, 0, 93.0, 1000));
+        assertEquals(Transition.RESOLVED, machine.update(7, 0, 95.0, 2000));
+        assertThrows(IllegalArgumentException.class, () -> AlertPolicy.below(92, 90));
+    }
+
+    @Test
+    void testHoldTimesIgnoreShortExcursions() {
+        AlertStateMachine machine = new AlertStateMachine(AlertPolicy.above(100, 95).withHold(5000, 10000));
+
+        // * A single outlier does not trigger.
+        assertEquals(Transition.NONE, machine.update(1, 0, 120.0, 0));
+        assertEquals(Transition.NONE, machine.update(1, 0, 90.0, 1000));
+        assertEquals(Transition.NONE, machine.update(1, 0, 120.0, 2000));
+        assertEquals(Transition.NONE, machine.update(1, 0, 120.0, 6000));
+        assertEquals(Transition.TRIGGERED, machine.update(1, 0, 120.0, 7000));
+
+        // * Clearing needs 10 seconds of normal values; a relapse restarts the hold.
+        assertEquals(Transition.NONE, machine.update(1, 0, 90.0, 8000));
+        assertEquals(Transition.NONE, machine.update(1, 0, 120.0, 12000));
+        assertEquals(Transition.NONE, machine.update(1, 0, 90.0, 13000));
+        assertEquals(Transition.NONE, machine.update(1, 0, 90.0, 22000));
+        assertEquals(Transition.RESOLVED, machine.update(1, 0, 90.0, 23000));
+    }
+
+    @Test
+    void testCooldownLimitsReminders() {
+        AlertStateMachine machine = new AlertStateMachine(AlertPolicy.immediate().withCooldown(60000));
+
+        assertEquals(Transition.TRIGGERED, machine.update(3, 0, true, 0));
+        assertEquals(Transition.NONE, machine.update(3, 0, true, 30000));
+        assertEquals(Transition.RENOTIFIED, machine.update(3, 0, true, 60000));
+        assertEquals(Transition.NONE, machine.update(3, 0, true, 90000));
+        assertEquals(Transition.RENOTIFIED, machine.update(3, 0, true, 120000));
+        assertEquals(Transition.RESOLVED, machine.update(3, 0, false, 121000));
+    }
+
+    @Test
+    void testRulesAndPatientsAreIndependent() {
+        AlertStateMachine machine = new AlertStateMachine(AlertPolicy.above(100, 95), AlertPolicy.below(90, 92));
+
+        for (int id = 0; id < 5000; id++) {
+            machine.update(id * 7919, id % 2, id % 2 == 0 ? 101.0 : 89.0, 0);
+        }
+        assertEquals(5000, machine.getPatientCount());
+        for (int id = 0; id < 5000; id++) {
+            assertTrue(machine.isActive(id * 7919, id % 2));
+            assertFalse(machine.isActive(id * 7919, 1 - id % 2));
+        }
+        assertFalse(machine.isActive(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> machine.update(1, 2, true, 0));
+    }
+
+    /**
+     * With a clear hold, the generator keeps the alert through a short normal phase.
+     */
+    @Test
+    void testGeneratorUsesPolicy() {
+        Map<String, Boolean> alertStates = new HashMap<>();
+        AlertGenerator generator = new AlertGenerator(null, alertStates,
+                AlertPolicy.immediate().withHold(0, 60 * 60 * 1000));
+        long now = System.currentTimeMillis();
+
+        Patient patient = new Patient(32);
+        patient.addRecord(190, "Systolic", now - 1000);
+        generator.evaluateData(patient);
+        assertTrue(alertStates.get("32"));
+
+        generator.evaluateData(new Patient(32));
+        assertTrue(alertStates.get("32"), "The alert must stay active during the clear hold");
+    }
+
+    /**
+     * A patient marked active in the map given to the generator continues its alert:
+     * abnormal readings do not trigger it again and normal ones resolve it.
+     */
+    @Test
+    void testGeneratorHonorsSeededStates() {
+        Map<String, Boolean> alertStates = new HashMap<>();
+        alertStates.put("41", true);
+        alertStates.put("42", true);
+        AlertGenerator generator = new AlertGenerator(null, alertStates);
+        long now = System.currentTimeMillis();
+
+        Patient abnormal = new Patient(41);
+        abnormal.addRecord(190, "Systolic", now - 1000);
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out));
+        try {
+            generator.evaluateData(abnormal);
+        } finally {
+            System.setOut(originalOut);
+        }
+        assertTrue(alertStates.get("41"));
+        assertFalse(out.toString().contains("ALERT TRIGGERED"), "The seeded alert must not trigger again");
+
+        generator.evaluateData(new Patient(42));
+        assertFalse(alertStates.get("42"), "A seeded alert must resolve once the readings are normal");
+    }
+
+    /**
+     * Threads updating different patients at once lose no patient and no transition.
+     */
+    @Test
+    void testConcurrentUpdates() throws InterruptedException {
+        AlertStateMachine machine = new AlertStateMachine(AlertPolicy.immediate());
+        AtomicInteger triggered = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int first = t * 10_000;
+            threads.add(new Thread(() -> {
+                for (int id = first; id < first + 10_000; id++) {
+                    if (machine.update(id, 0, true, 0) == Transition.TRIGGERED) {
+                        triggered.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80_000, machine.getPatientCount());
+        assertEquals(80_000, triggered.get());
+        for (int id = 0; id < 80_000; id += 997) {
+            assertTrue(machine.isActive(id, 0));
+        }
+    }
+}
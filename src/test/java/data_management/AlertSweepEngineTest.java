@@ -0,0 +1,94 @@
+package data_management;
+
+import com.alerts.AlertGenerator;
+import com.alerts.AlertSweepEngine;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the parallel sweep engine: all patients are evaluated with the same
+ * result as a sequential loop, and patients are skipped once the deadline passes.
+ */
+public class AlertSweepEngineTest {
+
+    /**
+     * Creates patients where every even patient has a critical systolic reading.
+     */
+    private List<Patient> createPatients(int count) {
+        long now = System.currentTimeMillis();
+        List<Patient> patients = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            Patient patient = new Patient(id);
+            patient.addRecord(id % 2 == 0 ? 190 : 120, "Systolic", now - 1000);
+            patient.addRecord(80, "Diastolic", now - 1000);
+            patients.add(patient);
+        }
+        return patients;
+    }
+
+    @Test
+    void testParallelSweepEvaluatesEveryPatient() {
+        Map<String, Boolean> alertStates = new ConcurrentHashMap<>();
+        List<Patient> patients = createPatients(500);
+
+        try (AlertSweepEngine engine = new AlertSweepEngine(new AlertGenerator(null, alertStates), 4)) {
+            AlertSweepEngine.SweepResult result = engine.sweep(patients, 1, TimeUnit.MINUTES);
+
+            assertEquals(500, result.getEvaluatedPatients());
+            assertEquals(0, result.getSkippedPatients());
+            assertFalse(result.isDeadlineMissed());
+        }
+        for (int id = 1; id <= 500; id++) {
+            assertEquals(id % 2 == 0, alertStates.getOrDefault(String.valueOf(id), false),
+                    "Unexpected alert state for patient " + id);
+        }
+    }
+
+    @Test
+    void testExpiredDeadlineSkipsPatients() {
+        Map<String, Boolean> alertStates = new ConcurrentHashMap<>();
+
+        try (AlertSweepEngine engine = new AlertSweepEngine(new AlertGenerator(null, alertStates), 2)) {
+            AlertSweepEngine.SweepResult result = engine.sweep(createPatients(200), 0, TimeUnit.MILLISECONDS);
+
+            assertEquals(200, result.getEvaluatedPatients() + result.getSkippedPatients()
+                    + result.getFailedPatients());
+            assertTrue(result.isDeadlineMissed(), "A zero deadline should skip patients");
+        }
+    }
+
+    @Test
+    void testFailedEvaluationsAreCounted() {
+        List<Patient> patients = createPatients(100);
+        // * A patient whose records cannot be read, so its evaluation throws.
+        patients.set(41, new Patient(42) {
+            @Override
+            public synchronized List<PatientRecord> getRecords(long startTime, long endTime) {
+                throw new IllegalStateException("records unavailable");
+            }
+        });
+
+        try (AlertSweepEngine engine = new AlertSweepEngine(new AlertGenerator(null, new ConcurrentHashMap<>()), 2)) {
+            AlertSweepEngine.SweepResult result = engine.sweep(patients, 1, TimeUnit.MINUTES);
+
+            assertEquals(99, result.getEvaluatedPatients());
+            assertEquals(0, result.getSkippedPatients());
+            assertEquals(1, result.getFailedPatients());
+        }
+    }
+
+    @Test
+    void testInvalidParallelismIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AlertSweepEngine(new AlertGenerator(null, new ConcurrentHashMap<>()), 0));
+    }
+}
@@ -0,0 +1,83 @@
+package data_management;
+
+import com.cardio_generator.BatchSimulation;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the batch simulation on a simulated clock.
+ */
+class BatchSimulationTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long HOUR = 3_600_000;
+
+    /**
+     * An hour of data has every sample of the hour, stamped a period apart, and nothing outside it.
+     */
+    @Test
+    void testGeneratesEverySampleOfTheSpan() throws InterruptedException {
+        List<String> lines = run(1, 42);
+        int patients = 10;
+        assertEquals(patients * 3600 + patients * 60 * 2, lines.size());
+
+        long[] lastEcg = new long[patients + 1];
+        for (String line : lines) {
+            String[] parts = line.split(",");
+            int patientId = Integer.parseInt(parts[0]);
+            long timestamp = Long.parseLong(parts[1]);
+            assertTrue(timestamp >= START && timestamp < START + HOUR, line);
+            if (parts[2].equals("ECG")) {
+                if (lastEcg[patientId] != 0) {
+                    assertEquals(1000, timestamp - lastEcg[patientId], line);
+                }
+                lastEcg[patientId] = timestamp;
+            }
+        }
+    }
+
+    /**
+     * The same seed gives the same data set, however many threads generate it.
+     */
+    @Test
+    void testSeedReproducesTheDataOnAnyThreadCount() throws InterruptedException {
+        List<String> single = run(1, 7);
+        List<String> parallel = run(3, 7);
+        Collections.sort(single);
+        Collections.sort(parallel);
+        assertEquals(single, parallel);
+        assertNotEquals(single, sorted(run(1, 8)));
+    }
+
+    private static List<String> run(int threads, long seed) throws InterruptedException {
+        int patients = 10;
+        List<Integer> patientIds = new ArrayList<>();
+        for (int i = 1; i <= patients; i++) {
+            patientIds.add(i);
+        }
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        OutputStrategy output = (patientId, timestamp, label, data) ->
+                lines.add(patientId + "," + timestamp + "," + label + "," + data);
+        try (BatchSimulation simulation = new BatchSimulation(threads, 1000, new Random(seed))) {
+            simulation.schedule(new ECGDataGenerator(patients, seed), patientIds, 1000);
+            simulation.schedule(new BloodPressureDataGenerator(patients, seed), patientIds, 60_000);
+            long generated = simulation.run(START, HOUR, BatchSimulation.MAX_SPEEDUP, output);
+            assertEquals(patients * 3600 + patients * 60, generated);
+        }
+        return new ArrayList<>(lines);
+    }
+
+    private static List<String> sorted(List<String> lines) {
+        Collections.sort(lines);
+        return lines;
+    }
+}
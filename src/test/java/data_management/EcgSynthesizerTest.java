@@ -0,0 +1,121 @@
+package data_management;
+
+import com.alerts.QrsDetector;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.EcgSynthesizer;
+import com.cardio_generator.outputs.SampleBatch;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the table-driven ECG synthesis and the sampling-rate mode of the ECG generator.
+ */
+class EcgSynthesizerTest {
+
+    private double gaussian(double t, double mean, double stdDev, double amplitude) {
+        return amplitude * Math.exp(-Math.pow(t - mean, 2) / (2 * Math.pow(stdDev, 2)));
+    }
+
+    /**
+     * The beat table follows the Gaussian waves of the per-sample generator.
+     */
+    @Test
+    void testTemplateMatchesGaussians() {
+        for (int i = 0; i <= 10_000; i++) {
+            double t = i / 10_000.0;
+            double expected = gaussian(t, 0.2, 0.025, 0.1) + gaussian(t, 0.37, 0.012, -0.15)
+                    + gaussian(t, 0.4, 0.01, 1.0) + gaussian(t, 0.43, 0.012, -0.25)
+                    + gaussian(t, 0.6, 0.04, 0.35);
+            assertEquals(expected, EcgSynthesizer.template(t), 1e-3, "at t=" + t);
+        }
+    }
+
+    /**
+     * A signal synthesized in blocks continues exactly where the previous block stopped.
+     */
+    @Test
+    void testBlocksContinueThePhase() {
+        EcgSynthesizer whole = new EcgSynthesizer(5, 7, 500);
+        EcgSynthesizer blocks = new EcgSynthesizer(5, 7, 500);
+        double[] expected = new double[5000];
+        double[] actual = new double[5000];
+        whole.synthesize(3, expected, 0, expected.length);
+        for (int offset = 0; offset < actual.length; offset += 137) {
+            blocks.synthesize(3, actual, offset, Math.min(137, actual.length - offset));
+        }
+        assertArrayEquals(expected, actual);
+    }
+
+    /**
+     * The synthesized signal has beats a QRS detector finds, at the synthesized heart rate.
+     */
+    @Test
+    void testDetectedHeartRateMatches() {
+        EcgSynthesizer synthesizer = new EcgSynthesizer(2, 11, 500);
+        QrsDetector detector = new QrsDetector(500);
+        double[] block = new double[500];
+        int beats = 0;
+        for (int second = 0; second < 30; second++) {
+            synthesizer.synthesize(1, block, 0, block.length);
+            for (double value : block) {
+                if (detector.addSample(value)) {
+                    beats++;
+                }
+            }
+        }
+        double rate = synthesizer.getHeartRate(1);
+        assertTrue(rate >= 50 && rate <= 90, "rate " + rate);
+        // * The first two seconds are used to learn the signal level.
+        assertEquals(rate / 2, beats, 4, "beats in 28 s at " + rate + " bpm");
+        assertEquals(rate, detector.getHeartRate(), 5);
+    }
+
+    /**
+     * At a sampling rate, a call generates the samples due since the previous call,
+     * evenly spaced on the patient's sample clock.
+     */
+    @Test
+    void testGeneratorEmitsBlocksAtTheSamplingRate() {
+        ECGDataGenerator generator = new ECGDataGenerator(3, 5, 500);
+        SampleBatch batch = new SampleBatch();
+        long start = 1_700_000_000_000L;
+
+        generator.generate(2, start, batch);
+        assertEquals(1, batch.size());
+        assertEquals(start, batch.getTimestamp(0));
+        batch.clear();
+
+        generator.generate(2, start + 1000, batch);
+        assertEquals(500, batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(2, batch.getPatientId(i));
+            assertEquals(start + 2 * (i + 1), batch.getTimestamp(i));
+            assertTrue(batch.getValue(i) > -0.5 && batch.getValue(i) < 1.5, "value " + batch.getValue(i));
+        }
+        batch.clear();
+
+        // * Nothing new is due yet.
+        generator.generate(2, start + 1001, batch);
+        assertEquals(0, batch.size());
+    }
+
+    /**
+     * At the highest rate every sample still gets its own millisecond; above it the
+     * timestamps would repeat, so the rate is rejected.
+     */
+    @Test
+    void testSamplingRateIsCappedAtOneKilohertz() {
+        ECGDataGenerator generator = new ECGDataGenerator(1, 5, ECGDataGenerator.MAX_SAMPLING_RATE);
+        SampleBatch batch = new SampleBatch();
+        long start = 1_700_000_000_000L;
+        generator.generate(1, start, batch);
+        generator.generate(1, start + 1000, batch);
+        assertEquals(1001, batch.size());
+        for (int i = 1; i < batch.size(); i++) {
+            assertEquals(batch.getTimestamp(i - 1) + 1, batch.getTimestamp(i));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new ECGDataGenerator(1, 5, 2000));
+    }
+}
@@ -0,0 +1,147 @@
+package data_management;
+
+import com.alerts.AlertGenerator;
+import com.alerts.EventTimeJoin;
+import com.data_management.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the alignment, watermarks and bounded buffering of the event-time join.
+ */
+public class EventTimeJoinTest {
+
+    private final List<long[]> matches = new ArrayList<>();
+
+    private EventTimeJoin join(long suppressRepeatsMillis) {
+        return new EventTimeJoin(new String[]{"Systolic", "Saturation"}, 60_000, 30_000, 512, suppressRepeatsMillis,
+                values -> values[0] < 90 && values[1] < 92,
+                (patientId, time, values) -> matches.add(new long[]{patientId, time}));
+    }
+
+    @Test
+    void testJoinsStreamsOfDifferentRates() {
+        EventTimeJoin join = join(0);
+        // * Saturation every second, low from 100 s to 110 s; Systolic once a minute, low at 120 s.
+        for (int second = 0; second <= 180; second++) {
+            join.add(1, "Saturation", second >= 100 && second <= 110 ? 90 : 97, second * 1000L);
+            if (second % 60 == 0) {
+                join.add(1, "Systolic", second == 120 ? 85 : 120, second * 1000L);
+            }
+        }
+
+        // * The low systolic at 120 s pairs with the saturation readings of 60 s to 180 s.
+        assertEquals(1, matches.size());
+        assertEquals(120_000, matches.get(0)[1]);
+    }
+
+    @Test
+    void testReadingsTooFarApartDoNotMatch() {
+        EventTimeJoin join = join(0);
+        join.add(1, "Systolic", 85, 0);
+        join.add(1, "Saturation", 90, 61_000);
+
+        assertTrue(matches.isEmpty());
+    }
+
+    @Test
+    void testOutOfOrderReadingWithinLatenessMatches() {
+        EventTimeJoin join = join(0);
+        join.add(2, "Saturation", 97, 100_000);
+        join.add(2, "Systolic", 85, 120_000);
+        // * Arrives after a later reading, but within the 30 s allowed lateness.
+        join.add(2, "Saturation", 90, 95_000);
+
+        assertEquals(1, matches.size());
+        assertEquals(120_000, matches.get(0)[1]);
+        assertEquals(0, join.getLateCount());
+    }
+
+    @Test
+    void testReadingBehindWatermarkIsDropped() {
+        EventTimeJoin join = join(0);
+        join.add(3, "Systolic", 85, 100_000);
+        join.add(3, "Saturation", 97, 200_000);
+        join.add(3, "Saturation", 90, 110_000);
+
+        assertTrue(matches.isEmpty());
+        assertEquals(1, join.getLateCount());
+    }
+
+    @Test
+    void testBufferStaysBoundedUnderLateData() {
+        EventTimeJoin join = join(0);
+        for (int second = 0; second < 24 * 3600; second++) {
+            join.add(4, "Saturation", 97, second * 1000L);
+            // * Every tenth reading is a minute late and every hundredth an hour late.
+            join.add(4, "Saturation", 97, (second - (second % 100 == 0 ? 3600 : 60)) * 1000L);
+            if (second % 60 == 0) {
+                join.add(4, "Systolic", 120, second * 1000L);
+            }
+        }
+
+        // * At most tolerance + lateness (90 s) of each stream is kept.
+        assertTrue(join.getBufferedCount(4) <= 93, "buffered " + join.getBufferedCount(4));
+        assertEquals(24 * 3600, join.getLateCount());
+    }
+
+    @Test
+    void testBufferCapEvictsOldestReadings() {
+        EventTimeJoin join = new EventTimeJoin(new String[]{"Systolic", "Saturation"}, 60_000, 30_000, 16, 0,
+                values -> true, (patientId, time, values) -> { });
+        for (int i = 0; i < 100; i++) {
+            join.add(5, "Saturation", 97, i);
+        }
+
+        assertEquals(16, join.getBufferedCount(5));
+        assertEquals(84, join.getEvictedCount());
+    }
+
+    @Test
+    void testRepeatedMatchesAreSuppressed() {
+        EventTimeJoin join = join(5 * 60_000);
+        for (int second = 0; second < 600; second++) {
+            join.add(6, "Saturation", 90, second * 1000L);
+            if (second % 60 == 0) {
+                join.add(6, "Systolic", 85, second * 1000L);
+            }
+        }
+
+        // * Matches at 0 s and 300 s; everything in between repeats the first.
+        assertEquals(2, matches.size());
+        assertEquals(0, matches.get(0)[1]);
+        assertEquals(300_000, matches.get(1)[1]);
+    }
+
+    @Test
+    void testEvaluateDataRequiresAlignedReadings() {
+        long now = System.currentTimeMillis();
+        Patient aligned = new Patient(7);
+        aligned.addRecord(88, "Systolic", now - 5 * 60_000);
+        aligned.addRecord(91, "Saturation", now - 5 * 60_000 + 20_000);
+        Patient apart = new Patient(8);
+        apart.addRecord(88, "Systolic", now - 9 * 60_000);
+        apart.addRecord(91, "Saturation", now - 60_000);
+
+        AlertGenerator generator = new AlertGenerator(null, new HashMap<>());
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out));
+        try {
+            generator.evaluateData(aligned);
+            generator.evaluateData(apart);
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertTrue(out.toString().contains("Hypotensive Hypoxemia Alert for patient: 7"));
+        assertFalse(out.toString().contains("Hypotensive Hypoxemia Alert for patient: 8"));
+    }
+}
@@ -7,6 +7,8 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -101,4 +103,28 @@ class FactoryANDDecoratorTest {
         long count = output.lines().filter(line -> line.contains("ECG Alert")).count();
         assertTrue(count == 2);
     }
-}
\ No newline at end of file
+
+    /**
+     * The flyweight mode prints what the decorated alert prints, and shares one condition per text.
+     */
+    @Test
+    void testFlyweightFactoryMatchesDecoratedAlert() {
+        new PriorityAlertDecorator(
+                new RepeatedAlertDecorator(new BloodPressureAlertFactory().createAlert("patient7", "High BP", 444444444L), 2),
+                "HIGH"
+        ).trigger();
+        String decorated = outContent.toString();
+        outContent.reset();
+
+        FlyweightAlertFactory factory = new BloodPressureAlertFactory().flyweight("HIGH", 2, AlertOutput.console(System.out));
+        Alert alert = factory.createAlert("patient7", "High BP", 444444444L);
+        alert.trigger();
+        assertEquals(decorated, outContent.toString());
+        assertEquals(decorated, alert.toString());
+
+        outContent.reset();
+        factory.trigger("patient7", "High BP", 444444444L);
+        assertEquals(decorated, outContent.toString());
+        assertSame(factory.getCondition("High BP"), factory.getCondition(new String("High BP")));
+    }
+}
@@ -99,4 +99,23 @@ class FileDataReaderTest {
         FileDataReader reader = new FileDataReader(myPath.toString());
         assertThrows(IOException.class, () -> reader.readData(dataStorage));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that files read concurrently, all holding records of the same patient, lose no record.
+     */
+    @Test
+    void testReadDataConcurrently() throws IOException {
+        for (int file = 0; file < 8; file++) {
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; i < 500; i++) {
+                content.append("1,").append(i).append(",Type").append(file).append(',')
+                        .append(1714376789050L + i).append('\n');
+            }
+            Files.write(myPath.resolve("type" + file + ".csv"), content.toString().getBytes());
+        }
+
+        new FileDataReader(myPath.toString()).readDataConcurrently(dataStorage);
+
+        assertEquals(4000, dataStorage.getRecords(1, 1714370000000L, 1714380000000L).size());
+    }
+}
@@ -0,0 +1,117 @@
+package data_management;
+
+import com.cardio_generator.LatencyHistogram;
+import com.cardio_generator.LoadGenerator;
+import com.cardio_generator.RateProfile;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the open-loop load generator, its rate profiles and the latency histogram.
+ */
+class LoadGeneratorTest {
+
+    /**
+     * Percentiles are kept to the histogram's precision, and histograms add up.
+     */
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram(3_600_000_000_000L, 3);
+        LatencyHistogram other = new LatencyHistogram(3_600_000_000_000L, 3);
+        for (long value = 1; value <= 100_000; value++) {
+            (value % 2 == 0 ? histogram : other).recordValue(value * 1000);
+        }
+        histogram.add(other);
+
+        assertEquals(100_000, histogram.getTotalCount());
+        assertEquals(50_000_000, histogram.getValueAtPercentile(50), 50_000);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(99), 99_000);
+        assertEquals(99_900_000, histogram.getValueAtPercentile(99.9), 99_900);
+        assertEquals(100_000_000, histogram.getMaxValue());
+        assertEquals(1000, histogram.getMinValue());
+        assertEquals(50_000_500, histogram.getMean(), 1);
+    }
+
+    /**
+     * A closed-loop measurement stalled for ten intervals is counted with the sends it held back.
+     */
+    @Test
+    void testHistogramCorrectsCoordinatedOmission() {
+        LatencyHistogram histogram = new LatencyHistogram(1_000_000, 2);
+        for (int i = 0; i < 89; i++) {
+            histogram.recordValueWithExpectedInterval(10, 100);
+        }
+        histogram.recordValueWithExpectedInterval(1000, 100);
+        // * 1000 plus the sends due meanwhile, which would have waited 900, 800, ... 100.
+        assertEquals(99, histogram.getTotalCount());
+        assertTrue(histogram.getValueAtPercentile(95) >= 500, "p95 " + histogram.getValueAtPercentile(95));
+    }
+
+    /**
+     * The schedule of a ramp follows the area under its rate.
+     */
+    @Test
+    void testRateProfiles() {
+        RateProfile constant = RateProfile.constant(1000);
+        assertEquals(5_000_000, constant.intendedNanos(5));
+        assertEquals(2000, constant.sendsDueBy(2_000_000_000L));
+
+        RateProfile ramp = RateProfile.ramp(1000, 3000, 1000);
+        // * 2000 sends during the ramp, then 3000 per second.
+        assertEquals(2000, ramp.sendsDueBy(1_000_000_000L));
+        assertEquals(5000, ramp.sendsDueBy(2_000_000_000L));
+        assertEquals(1_000_000_000L, ramp.intendedNanos(2000), 1000);
+        long previous = -1;
+        for (long send = 0; send < 5000; send += 7) {
+            long intended = ramp.intendedNanos(send);
+            assertTrue(intended > previous);
+            assertEquals(send, ramp.sendsDueBy(intended + 1), 1);
+            previous = intended;
+        }
+    }
+
+    /**
+     * Samples are sent at the rate, stamped with their intended times, and a stalled
+     * send shows in the latency of the sends behind it, not only in its own service time.
+     */
+    @Test
+    void testOpenLoopRateAndLatency() throws InterruptedException {
+        PatientDataGenerator[] generators = {new ECGDataGenerator(10, 1), new BloodSaturationDataGenerator(10, 1)};
+        List<Long> timestamps = Collections.synchronizedList(new ArrayList<>());
+        OutputStrategy stallOnce = (patientId, timestamp, label, data) -> {
+            timestamps.add(timestamp);
+            if (timestamps.size() == 20) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        LoadGenerator.Result result = new LoadGenerator(generators, 10, 1)
+                .run(RateProfile.constant(1000), 500, stallOnce);
+
+        assertEquals(500, result.getSentCount());
+        assertEquals(500, timestamps.size());
+        assertEquals(1000, result.getAchievedRate(), 150);
+        for (int i = 1; i < timestamps.size(); i++) {
+            assertTrue(timestamps.get(i) >= timestamps.get(i - 1));
+        }
+        assertTrue(timestamps.get(499) - timestamps.get(0) >= 498);
+        // * About 100 sends were due during the stall; a closed loop would have measured only the stalled one.
+        assertTrue(result.getLatency().getValueAtPercentile(90) >= 10_000_000,
+                "p90 " + result.getLatency().getValueAtPercentile(90));
+        assertTrue(result.getServiceTime().getValueAtPercentile(90) < 10_000_000,
+                "service p90 " + result.getServiceTime().getValueAtPercentile(90));
+    }
+}
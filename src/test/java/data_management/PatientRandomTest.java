@@ -0,0 +1,74 @@
+package data_management;
+
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.PatientRandom;
+import com.cardio_generator.outputs.OutputStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the per-patient random streams of the generators.
+ */
+class PatientRandomTest {
+
+    /**
+     * The same seed reproduces every patient's values, whatever order and threads generate them in.
+     */
+    @Test
+    void testSeedReproducesDataAcrossThreads() throws InterruptedException {
+        Map<Integer, List<String>> sequential = generate(1, 42);
+        Map<Integer, List<String>> concurrent = generate(8, 42);
+        assertEquals(sequential, concurrent);
+        assertNotEquals(sequential, generate(1, 43));
+    }
+
+    /**
+     * The streams are uniform enough for a simulation.
+     */
+    @Test
+    void testBounds() {
+        PatientRandom random = new PatientRandom(2, 7, "Test");
+        int[] counts = new int[5];
+        for (int i = 0; i < 50_000; i++) {
+            counts[random.nextInt(1, 5)]++;
+            double value = random.nextDouble(2);
+            assertTrue(value >= 0 && value < 1);
+        }
+        for (int count : counts) {
+            assertTrue(count > 9_500 && count < 10_500, "count " + count);
+        }
+    }
+
+    private static Map<Integer, List<String>> generate(int threads, long seed) throws InterruptedException {
+        int patients = 64;
+        BloodPressureDataGenerator generator = new BloodPressureDataGenerator(patients, seed);
+        Map<Integer, List<String>> values = new ConcurrentHashMap<>();
+        OutputStrategy output = (patientId, timestamp, label, data) ->
+                values.computeIfAbsent(patientId, id -> new ArrayList<>()).add(label + data);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            // * Each thread takes every threads-th patient, in reverse, so the order differs from the sequential run.
+            workers.add(new Thread(() -> {
+                for (int round = 0; round < 20; round++) {
+                    for (int patientId = patients - first; patientId >= 1; patientId -= threads) {
+                        generator.generate(patientId, output);
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,141 @@
+package data_management;
+
+import com.alerts.AlertGenerator;
+import com.alerts.PushAlertEvaluator;
+import com.data_management.DataStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that writes to DataStorage reach the push evaluator and that bursts of
+ * samples for one patient are coalesced into a single evaluation.
+ */
+public class PushAlertEvaluatorTest {
+
+    private DataStorage storage;
+    private Map<String, Boolean> alertStates;
+    private PushAlertEvaluator pushEvaluator;
+
+    @BeforeEach
+    void setUp() {
+        storage = DataStorage.getInstance();
+        storage.clear();
+        alertStates = new ConcurrentHashMap<>();
+        pushEvaluator = new PushAlertEvaluator(new AlertGenerator(storage, alertStates));
+        storage.addListener(pushEvaluator);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pushEvaluator.stop();
+        storage.removeListener(pushEvaluator);
+        storage.clear();
+    }
+
+    /**
+     * Tests that a critical reading written to the storage triggers the alert.
+     */
+    @Test
+    void testWriteTriggersEvaluation() {
+        storage.addPatientData(21, 190, "Systolic", System.currentTimeMillis());
+        pushEvaluator.processPending();
+
+        assertTrue(alertStates.getOrDefault("21", false), "Critical systolic reading should trigger an alert");
+    }
+
+    /**
+     * Tests that several samples for the same patient lead to one evaluation.
+     */
+    @Test
+    void testBurstIsCoalesced() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            storage.addPatientData(22, 97, "Saturation", now - 10 + i);
+        }
+        storage.addPatientData(23, 97, "Saturation", now);
+
+        assertEquals(2, pushEvaluator.getPendingCount(), "Each dirty patient should be queued once");
+        assertEquals(2, pushEvaluator.processPending());
+        assertEquals(11, pushEvaluator.getSampleCount());
+        assertEquals(2, pushEvaluator.getEvaluationCount());
+    }
+
+    /**
+     * Tests that the worker thread evaluates patients without an explicit call.
+     */
+    @Test
+    void testWorkerEvaluatesInBackground() throws InterruptedException {
+        pushEvaluator.start();
+        storage.addPatientData(24, 40, "HeartRate", System.currentTimeMillis());
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!alertStates.getOrDefault("24", false) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(alertStates.getOrDefault("24", false), "Worker should have triggered the heart rate alert");
+    }
+
+    /**
+     * Tests that records written to the storage reach the event-time join, so the
+     * correlated hypotensive hypoxemia alert fires on the push path.
+     */
+    @Test
+    void testWritesFeedHypoxemiaJoin() {
+        long now = System.currentTimeMillis();
+        String output = captureOutput(() -> {
+            storage.addPatientData(26, 88, "Systolic", now - 30_000);
+            storage.addPatientData(26, 91, "Saturation", now - 10_000);
+            pushEvaluator.processPending();
+        });
+
+        assertTrue(output.contains("Patient 26: Hypotensive Hypoxemia: systolic 88 mmHg with saturation 91%"), output);
+    }
+
+    /**
+     * Tests that records written to the storage reach the trend estimator.
+     */
+    @Test
+    void testWritesFeedTrendEstimator() {
+        long now = System.currentTimeMillis();
+        String output = captureOutput(() -> {
+            // * A systolic pressure climbing 5 mmHg a minute, all within the normal range.
+            for (int i = 0; i < 15; i++) {
+                storage.addPatientData(27, 110 + 5 * i, "Systolic", now - (15 - i) * 60_000L);
+            }
+            pushEvaluator.processPending();
+        });
+
+        assertTrue(output.contains("Patient 27: Sustained rising Systolic trend"), output);
+    }
+
+    private static String captureOutput(Runnable action) {
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out));
+        try {
+            action.run();
+        } finally {
+            System.setOut(originalOut);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Tests that a removed listener no longer receives records.
+     */
+    @Test
+    void testRemovedListenerIsNotNotified() {
+        storage.removeListener(pushEvaluator);
+        storage.addPatientData(25, 190, "Systolic", System.currentTimeMillis());
+
+        assertEquals(0, pushEvaluator.getSampleCount());
+    }
+}
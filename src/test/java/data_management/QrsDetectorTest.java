@@ -0,0 +1,169 @@
+package data_management;
+
+import com.alerts.AlertGenerator;
+import com.alerts.EcgHeartRateMonitor;
+import com.alerts.QrsDetector;
+import com.alerts.dispatch.AlertGovernor;
+import com.data_management.DataStorage;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the streaming QRS detector on synthetic ECG built from the same Gaussian
+ * P/Q/R/S/T waves as ECGDataGenerator.
+ */
+public class QrsDetectorTest {
+
+    private static final int SAMPLING_RATE = 500;
+
+    private double gaussian(double t, double mean, double stdDev, double amplitude) {
+        return amplitude * Math.exp(-Math.pow(t - mean, 2) / (2 * Math.pow(stdDev, 2)));
+    }
+
+    /**
+     * Creates an ECG with the given beat lengths (in seconds), with noise and baseline wander.
+     */
+    private double[] synthesizeEcg(double[] beatLengths, long seed) {
+        Random random = new Random(seed);
+        double total = 0;
+        for (double length : beatLengths) {
+            total += length;
+        }
+        double[] samples = new double[(int) (total * SAMPLING_RATE)];
+        int index = 0;
+        for (double length : beatLengths) {
+            int beatSamples = (int) (length * SAMPLING_RATE);
+            for (int i = 0; i < beatSamples && index < samples.length; i++, index++) {
+                double t = i / (double) SAMPLING_RATE;
+                double value = gaussian(t, 0.2, 0.025, 0.1) + gaussian(t, 0.37, 0.012, -0.15)
+                        + gaussian(t, 0.4, 0.01, 1.0) + gaussian(t, 0.43, 0.012, -0.25)
+                        + gaussian(t, 0.6, 0.04, 0.35);
+                value += 0.1 * Math.sin(2 * Math.PI * 0.3 * index / SAMPLING_RATE);
+                value += (random.nextDouble() - 0.5) * 0.05;
+                samples[index] = value;
+            }
+        }
+        return samples;
+    }
+
+    private double[] constantBeats(int count, double length) {
+        double[] lengths = new double[count];
+        java.util.Arrays.fill(lengths, length);
+        return lengths;
+    }
+
+    /**
+     * Tests that a regular 75 bpm rhythm gives 75 bpm and is not irregular.
+     */
+    @Test
+    void testDetectsRegularHeartRate() {
+        QrsDetector detector = new QrsDetector(SAMPLING_RATE);
+        int beats = 0;
+        for (double value : synthesizeEcg(constantBeats(30, 0.8), 1)) {
+            if (detector.addSample(value)) {
+                beats++;
+            }
+        }
+
+        // * The first two seconds are used to learn the signal level.
+        assertTrue(beats >= 26 && beats <= 29, "Unexpected number of beats: " + beats);
+        assertEquals(75.0, detector.getHeartRate(), 1.0);
+        assertEquals(800, detector.getLastRrMillis(), 10);
+        assertFalse(detector.isRhythmIrregular(), "A constant rhythm should be regular");
+    }
+
+    /**
+     * Tests that strongly varying beat lengths are reported as irregular.
+     */
+    @Test
+    void testDetectsIrregularRhythm() {
+        Random random = new Random(3);
+        double[] lengths = new double[30];
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = 0.55 + random.nextDouble() * 0.6;
+        }
+        QrsDetector detector = new QrsDetector(SAMPLING_RATE);
+        for (double value : synthesizeEcg(lengths, 4)) {
+            detector.addSample(value);
+        }
+
+        assertTrue(detector.isRhythmIrregular(), "Random beat lengths should be irregular");
+    }
+
+    /**
+     * Tests that the monitor writes derived heart rate records into the storage.
+     */
+    @Test
+    void testMonitorStoresDerivedHeartRate() {
+        DataStorage storage = DataStorage.getInstance();
+        storage.clear();
+        EcgHeartRateMonitor monitor = new EcgHeartRateMonitor(storage, SAMPLING_RATE,
+                new AlertGenerator(storage, new HashMap<>()));
+        storage.addListener(monitor);
+        try {
+            double[] ecg = synthesizeEcg(constantBeats(15, 0.6), 5);
+            long start = 1_700_000_000_000L;
+            for (int i = 0; i < ecg.length; i++) {
+                storage.addPatientData(31, ecg[i], "ECG", start + i * 1000L / SAMPLING_RATE);
+            }
+
+            List<PatientRecord> records = storage.getRecords(31, start, start + 60_000);
+            long heartRates = records.stream().filter(r -> r.getRecordType().equals("HeartRate")).count();
+            assertTrue(heartRates > 5, "Heart rate records should have been derived");
+            assertEquals(100.0, monitor.getHeartRate(31), 2.0);
+        } finally {
+            storage.removeListener(monitor);
+            storage.clear();
+        }
+    }
+
+    /**
+     * Tests that the monitor refuses ECG sampled too slowly to find the beats in,
+     * e.g. the simulator's default of one sample per second.
+     */
+    @Test
+    void testMonitorRejectsLowSamplingRate() {
+        DataStorage storage = DataStorage.getInstance();
+        assertThrows(IllegalArgumentException.class,
+                () -> new EcgHeartRateMonitor(storage, 1, new AlertGenerator(storage, new HashMap<>())));
+    }
+
+    /**
+     * Tests that an irregular rhythm is raised through the alert generator, so it is
+     * counted by the governor like every other alert.
+     */
+    @Test
+    void testMonitorRaisesIrregularRhythmThroughGenerator() {
+        DataStorage storage = DataStorage.getInstance();
+        storage.clear();
+        AlertGenerator alertGenerator = new AlertGenerator(storage, new HashMap<>());
+        AlertGovernor governor = AlertGovernor.ward("ward 3", (rule, count, summary, timestamp) -> { });
+        alertGenerator.setAlertGovernor(governor);
+        EcgHeartRateMonitor monitor = new EcgHeartRateMonitor(storage, SAMPLING_RATE, alertGenerator);
+        storage.addListener(monitor);
+        try {
+            Random random = new Random(3);
+            double[] lengths = new double[30];
+            for (int i = 0; i < lengths.length; i++) {
+                lengths[i] = 0.55 + random.nextDouble() * 0.6;
+            }
+            double[] ecg = synthesizeEcg(lengths, 4);
+            long start = 1_700_000_000_000L;
+            for (int i = 0; i < ecg.length; i++) {
+                storage.addPatientData(32, ecg[i], "ECG", start + i * 1000L / SAMPLING_RATE);
+            }
+
+            assertTrue(monitor.isIrregular(32));
+            assertEquals(1, governor.getWindowCount("Irregular Rhythm", System.currentTimeMillis()));
+        } finally {
+            storage.removeListener(monitor);
+            storage.clear();
+        }
+    }
+}
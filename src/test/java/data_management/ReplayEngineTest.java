@@ -0,0 +1,137 @@
+package data_management;
+
+import com.alerts.AlertGenerator;
+import com.alerts.AlertPolicy;
+import com.alerts.ReplayClock;
+import com.alerts.ReplayEngine;
+import com.data_management.DataStorage;
+import com.data_management.FileDataReader;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import com.design_pattern.strategy.HeartRateStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests event-time replay of historical data through the alert pipeline.
+ */
+public class ReplayEngineTest {
+
+    private static final long YESTERDAY = System.currentTimeMillis() - 24 * 3600 * 1000L;
+
+    private final PrintStream originalOut = System.out;
+
+    @AfterEach
+    void restoreOutput() {
+        System.setOut(originalOut);
+        DataStorage.getInstance().clear();
+    }
+
+    /**
+     * Writes a heart rate file and a saturation file for three patients, with
+     * abnormal episodes, all timestamped yesterday.
+     */
+    private Path writeHistory(Path directory) throws IOException {
+        StringBuilder heartRate = new StringBuilder();
+        StringBuilder saturation = new StringBuilder();
+        for (int second = 0; second < 3600; second += 5) {
+            long time = YESTERDAY + second * 1000L;
+            for (int patient = 1; patient <= 3; patient++) {
+                boolean episode = second > 600 * patient && second < 600 * patient + 120;
+                heartRate.append(patient).append(',').append(episode ? 130 : 75).append(",HeartRate,")
+                        .append(time).append('\n');
+                saturation.append(patient).append(',').append(second % 1800 == 0 ? 90 : 97).append(",Saturation,")
+                        .append(time + 2).append('\n');
+            }
+        }
+        Files.writeString(directory.resolve("HeartRate.txt"), heartRate);
+        Files.writeString(directory.resolve("Saturation.txt"), saturation);
+        return directory;
+    }
+
+    private String replayFiles(Path directory) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output));
+        ReplayClock clock = new ReplayClock(0);
+        AlertGenerator generator = new AlertGenerator(null, new HashMap<>(), AlertPolicy.immediate(), clock);
+        ReplayEngine.ReplayResult result = new ReplayEngine(clock, ReplayEngine.AS_FAST_AS_POSSIBLE)
+                .replay(new FileDataReader(directory.toString()), generator::evaluateSample);
+        System.setOut(originalOut);
+        assertEquals(2 * 3 * 720, result.getRecords());
+        assertEquals(0, result.getOutOfOrderRecords());
+        return output.toString();
+    }
+
+    @Test
+    void testReplayOfYesterdayIsDeterministic(@TempDir Path directory) throws IOException {
+        writeHistory(directory);
+
+        String first = replayFiles(directory);
+        String second = replayFiles(directory);
+
+        assertTrue(first.contains(">> [ALERT] Patient 2: ALERT TRIGGERED based on vital signs"), first);
+        assertTrue(first.contains("Alert RESOLVED"), first);
+        assertEquals(first, second, "Replaying the same data must produce the same alerts in the same order");
+    }
+
+    @Test
+    void testWallClockMissesHistoricalAlerts() {
+        DataStorage storage = DataStorage.getInstance();
+        storage.clear();
+        storage.addPatientData(9, 140, "HeartRate", YESTERDAY);
+
+        HashMap<String, Boolean> liveStates = new HashMap<>();
+        new AlertGenerator(storage, liveStates).evaluateData(storage.getAllPatients().get(0));
+        assertFalse(liveStates.getOrDefault("9", false), "Yesterday's record is outside the live window");
+
+        ReplayClock clock = new ReplayClock(0);
+        HashMap<String, Boolean> replayStates = new HashMap<>();
+        AlertGenerator generator = new AlertGenerator(storage, replayStates, AlertPolicy.immediate(), clock);
+        new ReplayEngine(clock, ReplayEngine.AS_FAST_AS_POSSIBLE).replay(storage, generator::evaluateSample);
+        assertTrue(replayStates.get("9"));
+
+        Patient patient = storage.getAllPatients().get(0);
+        assertFalse(new HeartRateStrategy().checkAlert(patient));
+        assertTrue(new HeartRateStrategy(clock).checkAlert(patient));
+    }
+
+    @Test
+    void testMergeOrdersByTimestampThenSource() {
+        List<PatientRecord> a = List.of(new PatientRecord(1, 1, "A", 10), new PatientRecord(1, 2, "A", 30));
+        List<PatientRecord> b = List.of(new PatientRecord(2, 3, "B", 10), new PatientRecord(2, 4, "B", 20));
+        List<Double> order = new ArrayList<>();
+        List<Long> clockTimes = new ArrayList<>();
+        ReplayClock clock = new ReplayClock(0);
+
+        new ReplayEngine(clock, ReplayEngine.AS_FAST_AS_POSSIBLE).replay(List.of(a.iterator(), b.iterator()), record -> {
+            order.add(record.getMeasurementValue());
+            clockTimes.add(clock.currentTimeMillis());
+        });
+
+        assertEquals(List.of(1.0, 3.0, 4.0, 2.0), order);
+        assertEquals(List.of(10L, 10L, 20L, 30L), clockTimes);
+    }
+
+    @Test
+    void testSpeedUpPacesReplay() {
+        List<PatientRecord> records = List.of(new PatientRecord(1, 1, "A", 0), new PatientRecord(1, 2, "A", 400));
+        long start = System.nanoTime();
+        new ReplayEngine(new ReplayClock(0), 4).replay(List.of(records.iterator()), record -> { });
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis >= 95, "400 ms of data at 4x must take about 100 ms, took " + elapsedMillis);
+        assertThrows(IllegalArgumentException.class, () -> new ReplayEngine(new ReplayClock(0), 0));
+    }
+}
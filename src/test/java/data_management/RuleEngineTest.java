@@ -0,0 +1,143 @@
+package data_management;
+
+import com.alerts.rules.AlertRules;
+import com.alerts.rules.CompiledRuleSet;
+import com.alerts.rules.Rule;
+import com.alerts.rules.RuleParser;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import com.design_pattern.strategy.AlertContext;
+import com.design_pattern.strategy.RuleStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the rule language and checks that the compiled single-pass plan decides
+ * exactly like evaluating every rule on its own.
+ */
+public class RuleEngineTest {
+
+    private static final String[] TYPES = {"HeartRate", "Systolic", "Diastolic", "Saturation"};
+
+    @Test
+    void testParsesRulesAndSharesAggregates() {
+        List<Rule> rules = RuleParser.parse(String.join("\n",
+                "# comment lines and empty lines are skipped",
+                "",
+                "high: max(Systolic, 60s) > 180 or Diastolic > 120",
+                "low: max(Systolic, 60s) > 170 and min(Saturation, 1h) < 92"), 10 * 60 * 1000);
+
+        assertEquals(2, rules.size());
+        assertEquals("high", rules.get(0).getName());
+        assertEquals("low", rules.get(1).getName());
+        // * max(Systolic, 60s) is used by both rules but computed once.
+        assertEquals(3, CompiledRuleSet.compile(rules).getAggregateCount());
+        assertEquals(60 * 60 * 1000, CompiledRuleSet.compile(rules).getWidestWindowMillis());
+    }
+
+    @Test
+    void testRejectsInvalidRules() {
+        String[] invalid = {
+                "missing_colon Systolic > 180",
+                "no_threshold: Systolic >",
+                "bad_function: median(Systolic) > 3",
+                "bad_duration: max(Systolic, 10y) > 3",
+                "dangling: Systolic > 180 or",
+                "bad_char: Systolic > 180 & Diastolic > 3"
+        };
+        for (String rule : invalid) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> RuleParser.parse("ok: Systolic > 1\n" + rule, 1000), rule);
+            assertTrue(e.getMessage().startsWith("Line 2:"), e.getMessage());
+        }
+    }
+
+    @Test
+    void testCompiledPlanMatchesDirectEvaluation() {
+        CompiledRuleSet ruleSet = CompiledRuleSet.parse(String.join("\n",
+                AlertRules.VITAL_SIGNS,
+                "avg_hr: avg(HeartRate, 5m) >= 95",
+                "sparse: count(Saturation, 2m) < 3 or last(Saturation) <= 93",
+                "fast_drop: drop(Saturation, 30s) > 3 and trend(HeartRate, 2m) > 4"));
+        Random random = new Random(31);
+        long now = 100_000_000L;
+
+        for (int series = 0; series < 300; series++) {
+            List<PatientRecord> records = randomRecords(random, now);
+            boolean[] fired = ruleSet.evaluate(records, now);
+            for (int r = 0; r < fired.length; r++) {
+                Rule rule = ruleSet.getRules().get(r);
+                assertEquals(rule.evaluateDirectly(records, now), fired[r], "Rule " + rule + " in series " + series);
+            }
+        }
+    }
+
+    @Test
+    void testVitalSignRules() {
+        CompiledRuleSet ruleSet = CompiledRuleSet.parse(AlertRules.VITAL_SIGNS);
+        long now = System.currentTimeMillis();
+        Patient patient = new Patient(31);
+        patient.addRecord(75, "HeartRate", now - 30000);
+        patient.addRecord(96, "Saturation", now - 20000);
+        patient.addRecord(90, "Saturation", now - 10000);
+
+        assertEquals(List.of("low_saturation", "rapid_desaturation"), ruleSet.firedRules(patient, now));
+
+        patient.addRecord(85, "Systolic", now - 5000);
+        assertTrue(ruleSet.firedRules(patient, now).contains("hypotensive_hypoxemia"));
+        assertTrue(ruleSet.firedRules(patient, now).contains("critical_systolic"));
+    }
+
+    @Test
+    void testRuleStrategy() {
+        long now = System.currentTimeMillis();
+        Patient patient = new Patient(32);
+        patient.addRecord(150, "HeartRate", now - 90000);
+        patient.addRecord(80, "HeartRate", now - 1000);
+
+        AlertContext context = new AlertContext();
+        context.setAlertStrategy(new RuleStrategy("tachycardia: max(HeartRate, 60s) > 120"));
+        assertFalse(context.triggerAlert(patient), "The high reading is outside the 60 second window");
+
+        context.setAlertStrategy(new RuleStrategy("tachycardia: max(HeartRate, 2m) > 120"));
+        assertTrue(context.triggerAlert(patient));
+    }
+
+    @Test
+    void testEmptyWindowNeverFires() {
+        CompiledRuleSet ruleSet = CompiledRuleSet.parse(String.join("\n",
+                "bradycardia: max(HeartRate, 60s) < 40",
+                "no_drop: drop(Saturation, 10m) < 1",
+                "flat: trend(Systolic) < 5",
+                "low: min(Diastolic, 60s) < 200",
+                "last: last(HeartRate) < 300",
+                "silent: count(HeartRate, 60s) < 1"));
+        long now = System.currentTimeMillis();
+        Patient patient = new Patient(33);
+
+        // * Only COUNT is defined on an empty window; every other aggregate is NaN.
+        assertEquals(List.of("silent"), ruleSet.firedRules(patient, now));
+        for (Rule rule : ruleSet.getRules()) {
+            assertEquals(rule.getName().equals("silent"), rule.evaluateDirectly(List.of(), now), rule.toString());
+        }
+    }
+
+    private List<PatientRecord> randomRecords(Random random, long now) {
+        List<PatientRecord> records = new ArrayList<>();
+        int count = random.nextInt(200);
+        long time = now - 15 * 60 * 1000;
+        double[] values = {80, 120, 80, 96};
+        for (int i = 0; i < count && time <= now; i++) {
+            int type = random.nextInt(TYPES.length);
+            values[type] += random.nextGaussian() * 6;
+            records.add(new PatientRecord(1, values[type], TYPES[type], time));
+            time += random.nextInt(20_000);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,110 @@
+package data_management;
+
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.FileOutputStrategy;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the batch output of the generators and sinks.
+ */
+class SampleBatchTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    /**
+     * A batch hands a sink the same data strings as the single-sample output.
+     */
+    @Test
+    void testBatchMatchesSingleSampleOutput() {
+        List<String> single = new ArrayList<>();
+        generate(7, (patientId, timestamp, label, data) -> single.add(patientId + "," + timestamp + "," + label + "," + data),
+                null);
+
+        List<String> batched = new ArrayList<>();
+        SampleBatch batch = new SampleBatch(4);
+        generate(7, null, batch);
+        // * The default batch output goes through the single-sample method.
+        OutputStrategy adapter = (patientId, timestamp, label, data) ->
+                batched.add(patientId + "," + timestamp + "," + label + "," + data);
+        batch.flushTo(adapter);
+
+        assertEquals(single, batched);
+        assertTrue(single.stream().anyMatch(line -> line.contains(",Saturation,") && line.endsWith("%")));
+        assertTrue(batch.isEmpty());
+    }
+
+    /**
+     * Data of generators that only know the single-sample output is kept as text.
+     */
+    @Test
+    void testStringGeneratorIntoBatch() {
+        PatientDataGenerator legacy = (patientId, output) -> output.output(patientId, 0, "Note", "n/a");
+        SampleBatch batch = new SampleBatch();
+        legacy.generate(3, START, batch);
+        assertEquals(1, batch.size());
+        assertEquals(START, batch.getTimestamp(0));
+        assertEquals("Note", batch.getLabel(0).getName());
+        assertEquals("n/a", batch.getData(0));
+        assertTrue(Double.isNaN(batch.getValue(0)));
+    }
+
+    /**
+     * The file sink writes the same lines for a batch as for single samples.
+     */
+    @Test
+    void testFileOutputOfBatch(@TempDir Path directory) throws IOException {
+        Path single = directory.resolve("single");
+        Path batched = directory.resolve("batched");
+        generate(11, new FileOutputStrategy(single.toString()), null);
+        SampleBatch batch = new SampleBatch();
+        generate(11, null, batch);
+        try (FileOutputStrategy buffered = new FileOutputStrategy(batched.toString(), true)) {
+            batch.flushTo(buffered);
+        }
+
+        for (String file : new String[]{"ECG.txt", "Saturation.txt", "SystolicPressure.txt"}) {
+            List<String> expected = Files.readAllLines(single.resolve(file));
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, Files.readAllLines(batched.resolve(file)), file);
+        }
+    }
+
+    /**
+     * Generates a few samples of several generators, seeded so both paths see the same values.
+     */
+    private static void generate(long seed, OutputStrategy output, SampleBatch batch) {
+        PatientDataGenerator[] generators = {
+                new ECGDataGenerator(5, seed),
+                new BloodSaturationDataGenerator(5, seed),
+                new BloodPressureDataGenerator(5, seed),
+                new AlertGenerator(5, seed)
+        };
+        for (int round = 0; round < 20; round++) {
+            for (PatientDataGenerator generator : generators) {
+                for (int patientId = 1; patientId <= 5; patientId++) {
+                    long timestamp = START + round * 1000L + patientId;
+                    if (batch != null) {
+                        generator.generate(patientId, timestamp, batch);
+                    } else {
+                        generator.generate(patientId, timestamp, output);
+                    }
+                }
+            }
+        }
+    }
+}
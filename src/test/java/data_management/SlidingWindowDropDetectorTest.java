@@ -0,0 +1,92 @@
+package data_management;
+
+import com.alerts.SlidingWindowDropDetector;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that the monotonic-deque drop detector makes exactly the same decisions
+ * as the previous nested-loop search over all pairs of readings.
+ */
+public class SlidingWindowDropDetectorTest {
+
+    /**
+     * Reference implementation: the nested i/j loop that checkSaturationAlerts used,
+     * answering whether reading j completes a drop with any earlier reading.
+     */
+    private boolean bruteForceDrop(long[] times, double[] values, int j, long windowMillis, double threshold) {
+        for (int i = 0; i < j; i++) {
+            if (times[j] - times[i] <= windowMillis && values[i] - values[j] >= threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests random saturation-like series with different windows and thresholds
+     * and checks every single reading against the reference.
+     */
+    @Test
+    void testMatchesNestedLoopOnRandomSeries() {
+        Random random = new Random(2024);
+        long[] windows = {1000, 60_000, 10 * 60 * 1000};
+        double[] thresholds = {1.0, 5.0, 10.0};
+
+        for (int series = 0; series < 200; series++) {
+            int count = 50 + random.nextInt(400);
+            long[] times = new long[count];
+            double[] values = new double[count];
+            long time = 0;
+            double value = 96;
+            for (int i = 0; i < count; i++) {
+                // * Irregular spacing, including equal timestamps.
+                time += random.nextInt(3) * 500L;
+                value = Math.max(80, Math.min(100, value + random.nextGaussian() * 2));
+                times[i] = time;
+                values[i] = value;
+            }
+
+            for (long window : windows) {
+                for (double threshold : thresholds) {
+                    SlidingWindowDropDetector detector = new SlidingWindowDropDetector(window, threshold);
+                    for (int j = 0; j < count; j++) {
+                        boolean expected = bruteForceDrop(times, values, j, window, threshold);
+                        assertEquals(expected, detector.add(times[j], values[j]),
+                                "Decision differs at reading " + j + " (window " + window + ", threshold " + threshold + ")");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that the reported start of a drop is the latest reading high enough.
+     */
+    @Test
+    void testReportsLatestHighReading() {
+        SlidingWindowDropDetector detector = new SlidingWindowDropDetector(60_000, 5.0);
+        assertFalse(detector.add(0, 99));
+        assertFalse(detector.add(1000, 98));
+        assertFalse(detector.add(2000, 96));
+
+        assertTrue(detector.add(3000, 92.5));
+        assertEquals(1000, detector.getDropStartTime());
+        assertEquals(98, detector.getDropStartValue());
+    }
+
+    /**
+     * Tests that readings further apart than the window do not form a drop.
+     */
+    @Test
+    void testIgnoresReadingsOutsideWindow() {
+        SlidingWindowDropDetector detector = new SlidingWindowDropDetector(10 * 60 * 1000, 5.0);
+        detector.add(0, 98);
+
+        assertFalse(detector.add(10 * 60 * 1000 + 1, 90), "High reading is older than the window");
+        assertEquals(90, detector.getWindowMax());
+    }
+}
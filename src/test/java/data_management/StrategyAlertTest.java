@@ -1,14 +1,20 @@
 package data_management;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
+import com.alerts.ReplayClock;
+import com.alerts.rules.CompiledRuleSet;
 import com.design_pattern.strategy.AlertContext;
+import com.design_pattern.strategy.AlertStrategy;
 import com.design_pattern.strategy.BloodPressureStrategy;
 import com.design_pattern.strategy.HeartRateStrategy;
 import com.design_pattern.strategy.OxygenSaturationStrategy;
+import com.design_pattern.strategy.RuleStrategy;
+import com.design_pattern.strategy.StrategyRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
 
 
@@ -124,5 +130,117 @@ public class StrategyAlertTest {
         };
         assertTrue(context.triggerAlert(patient), "Expected oxygen saturation alert to be triggered.");
     }
+    
+    /**
+     * Verifies that the composite evaluation gives every registered strategy the same
+     * result as running it on its own, including a strategy that declares no record types.
+     */
+    @Test
+    void testCompositeEvaluationMatchesSingleStrategies() {
+        ReplayClock clock = new ReplayClock(System.currentTimeMillis());
+        Patient real = new Patient(667);
+        long now = clock.currentTimeMillis();
+        for (int i = 0; i < 600; i++) {
+            real.addRecord(i % 100 == 50 ? 92 : 97, "Saturation", now - i * 1000L);
+            real.addRecord(0.1 * (i % 7), "ECG", now - i * 1000L);
+        }
+        real.addRecord(130, "HeartRate", now - 30000);
+        real.addRecord(185, "Systolic", now - 5 * 60000);
+        real.addRecord(85, "OxygenSaturation", now - 20000);
+
+        List<AlertStrategy> strategies = List.of(
+                new HeartRateStrategy(clock),
+                new BloodPressureStrategy(clock),
+                new OxygenSaturationStrategy(clock),
+                new RuleStrategy(CompiledRuleSet.parse("low: min(Saturation, 2m) < 93"), clock),
+                new RuleStrategy(CompiledRuleSet.parse("low: min(Saturation, 30s) < 93"), clock),
+                new RuleStrategy(CompiledRuleSet.parse("high: Systolic > 180 and HeartRate > 120"), clock),
+                p -> true);
+        AlertContext context = new AlertContext(clock);
+        for (AlertStrategy strategy : strategies) {
+            context.addAlertStrategy(strategy);
+        }
+
+        boolean[] results = context.triggerAlerts(real);
+
+        assertArrayEquals(new boolean[]{true, false, false, true, false, true, true}, results);
+        for (int i = 0; i < strategies.size(); i++) {
+            assertEquals(strategies.get(i).checkAlert(real), results[i], "strategy " + i);
+        }
+    }
+
+    /**
+     * Verifies that a strategy declaring its record types without its own evaluation
+     * is run on the samples of its window by the default buffered evaluation.
+     */
+    @Test
+    void testDefaultEvaluationRunsCheckAlert() {
+        ReplayClock clock = new ReplayClock(1_000_000);
+        Patient real = new Patient(669);
+        real.addRecord(40, "HeartRate", 990_000);
+        real.addRecord(80, "HeartRate", 900_000);
+        real.addRecord(99, "Saturation", 995_000);
+
+        AlertStrategy bradycardia = new AlertStrategy() {
+            @Override
+            public boolean checkAlert(Patient patient) {
+                List<PatientRecord> records = patient.getRecords(clock.currentTimeMillis() - 30_000,
+                        clock.currentTimeMillis());
+                return patient.getPatientId() == 669 && records.size() == 1
+                        && records.get(0).getMeasurementValue() < 50;
+            }
+
+            @Override
+            public Set<String> getRecordTypes() {
+                return Set.of("HeartRate");
+            }
+
+            @Override
+            public long getWindowMillis() {
+                return 30_000;
+            }
+        };
+        AlertContext context = new AlertContext(clock);
+        context.addAlertStrategy(bradycardia);
+
+        assertArrayEquals(new boolean[]{true}, context.triggerAlerts(real));
     }
 
+    /**
+     * Verifies that a sample only re-evaluates the strategies that read its record
+     * type, and that cached verdicts are recomputed once they are stale.
+     */
+    @Test
+    void testRegistryOnlyReevaluatesDependentStrategies() {
+        ReplayClock clock = new ReplayClock(1_000_000);
+        StrategyRegistry registry = new StrategyRegistry(clock, 5000);
+        registry.register(new HeartRateStrategy(clock));
+        registry.register(new BloodPressureStrategy(clock));
+        Patient real = new Patient(668);
+
+        real.addRecord(130, "HeartRate", 1_000_000);
+        assertArrayEquals(new boolean[]{true, false},
+                registry.onSample(real, new PatientRecord(668, 130, "HeartRate", 1_000_000)));
+        assertEquals(2, registry.getEvaluatedCount());
+
+        // * ECG affects neither strategy; a blood pressure sample only the second one.
+        clock.advanceTo(1_001_000);
+        real.addRecord(0.3, "ECG", 1_001_000);
+        registry.onSample(real, new PatientRecord(668, 0.3, "ECG", 1_001_000));
+        assertEquals(2, registry.getEvaluatedCount());
+        real.addRecord(190, "BloodPressure", 1_001_000);
+        assertArrayEquals(new boolean[]{true, true},
+                registry.onSample(real, new PatientRecord(668, 190, "BloodPressure", 1_001_000)));
+        assertEquals(3, registry.getEvaluatedCount());
+        assertEquals(3, registry.getCachedCount());
+
+        // * After a minute the readings left both windows; the stale verdicts are recomputed.
+        clock.advanceTo(1_062_000);
+        real.addRecord(0.3, "ECG", 1_062_000);
+        assertArrayEquals(new boolean[]{false, false},
+                registry.onSample(real, new PatientRecord(668, 0.3, "ECG", 1_062_000)));
+        assertEquals(5, registry.getEvaluatedCount());
+        assertEquals(1, registry.getDependentStrategies("bloodpressure").size());
+        assertTrue(registry.getDependentStrategies("ECG").isEmpty());
+    }
+}
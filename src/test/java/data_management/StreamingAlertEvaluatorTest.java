@@ -0,0 +1,132 @@
+package data_management;
+
+import com.alerts.AlertGenerator;
+import com.alerts.StreamingAlertEvaluator;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that the incremental evaluation gives the same alert decisions as
+ * {@link AlertGenerator#evaluateData(Patient)} on the AlertGeneratorTest cases,
+ * and that violations leave the window over time.
+ */
+public class StreamingAlertEvaluatorTest {
+
+    /**
+     * Feeds the same records through the full-scan and the streaming path and
+     * returns both alert states as {batch, streaming}.
+     */
+    private boolean[] evaluateBothWays(int patientId, List<PatientRecord> records) {
+        Map<String, Boolean> batchStates = new HashMap<>();
+        Patient patient = new Patient(patientId);
+        for (PatientRecord record : records) {
+            patient.addRecord(record);
+        }
+        new AlertGenerator(null, batchStates).evaluateData(patient);
+
+        Map<String, Boolean> streamingStates = new HashMap<>();
+        AlertGenerator streaming = new AlertGenerator(null, streamingStates);
+        for (PatientRecord record : records) {
+            streaming.evaluateSample(record);
+        }
+
+        String key = String.valueOf(patientId);
+        return new boolean[]{batchStates.getOrDefault(key, false), streamingStates.getOrDefault(key, false)};
+    }
+
+    private void assertSameDecision(boolean expected, int patientId, List<PatientRecord> records) {
+        boolean[] states = evaluateBothWays(patientId, records);
+        assertEquals(expected, states[0], "Full-scan evaluation gave an unexpected result");
+        assertEquals(states[0], states[1], "Streaming evaluation should match the full-scan evaluation");
+    }
+
+    @Test
+    void testTrendsMatchFullScan() {
+        long now = System.currentTimeMillis();
+        assertSameDecision(true, 123, Arrays.asList(
+                new PatientRecord(123, 110, "Systolic", now - 30000),
+                new PatientRecord(123, 121, "Systolic", now - 20000),
+                new PatientRecord(123, 133, "Systolic", now - 10000)));
+        assertSameDecision(true, 1, Arrays.asList(
+                new PatientRecord(1, 90, "Diastolic", now - 30000),
+                new PatientRecord(1, 78, "Diastolic", now - 20000),
+                new PatientRecord(1, 65, "Diastolic", now - 10000)));
+    }
+
+    @Test
+    void testCriticalPressureMatchesFullScan() {
+        long now = System.currentTimeMillis();
+        assertSameDecision(true, 3, Arrays.asList(
+                new PatientRecord(3, 185, "Systolic", now),
+                new PatientRecord(3, 125, "Diastolic", now)));
+        assertSameDecision(true, 4, Arrays.asList(
+                new PatientRecord(4, 85, "Systolic", now),
+                new PatientRecord(4, 55, "Diastolic", now)));
+    }
+
+    @Test
+    void testSaturationMatchesFullScan() {
+        long now = System.currentTimeMillis();
+        assertSameDecision(true, 5, Collections.singletonList(new PatientRecord(5, 91.5, "Saturation", now)));
+        assertSameDecision(true, 3, Arrays.asList(
+                new PatientRecord(3, 97.0, "Saturation", now - 9 * 60 * 1000),
+                new PatientRecord(3, 91.5, "Saturation", now)));
+        assertSameDecision(true, 8, Arrays.asList(
+                new PatientRecord(8, 99.0, "Saturation", now - 5 * 60 * 1000),
+                new PatientRecord(8, 97.0, "Saturation", now - 4 * 60 * 1000),
+                new PatientRecord(8, 93.5, "Saturation", now)));
+        assertSameDecision(false, 9, Arrays.asList(
+                new PatientRecord(9, 97.0, "Saturation", now - 5 * 60 * 1000),
+                new PatientRecord(9, 93.0, "Saturation", now)));
+    }
+
+    @Test
+    void testCombinedAndNormalReadingsMatchFullScan() {
+        long now = System.currentTimeMillis();
+        assertSameDecision(true, 6, Arrays.asList(
+                new PatientRecord(6, 88, "Systolic", now - 20000),
+                new PatientRecord(6, 90.5, "Saturation", now - 10000)));
+        assertSameDecision(false, 7, Arrays.asList(
+                new PatientRecord(7, 115, "Systolic", now - 30000),
+                new PatientRecord(7, 75, "Diastolic", now - 30000),
+                new PatientRecord(7, 98.0, "Saturation", now - 30000),
+                new PatientRecord(7, 72, "HeartRate", now - 30000)));
+    }
+
+    /**
+     * Tests that a violation stops counting once it is older than the window.
+     */
+    @Test
+    void testViolationExpiresFromWindow() {
+        StreamingAlertEvaluator evaluator = new StreamingAlertEvaluator(60000);
+        evaluator.addSample(10, "HeartRate", 130, 1000);
+
+        assertTrue(evaluator.isAlertNeeded(10, 61000), "Violation is still inside the window");
+        assertFalse(evaluator.isAlertNeeded(10, 61001), "Violation should have left the window");
+    }
+
+    /**
+     * Tests that the ECG rule needs five ECG values in the window, like hasEcgAlert.
+     */
+    @Test
+    void testEcgAnomalyNeedsFiveValues() {
+        StreamingAlertEvaluator evaluator = new StreamingAlertEvaluator(60000);
+        double[] values = {0.2, 0.4, 1.9, 0.5};
+        for (int i = 0; i < values.length; i++) {
+            evaluator.addSample(11, "ECG", values[i], 1000 + i);
+        }
+        assertFalse(evaluator.hasEcgAnomaly(11, 2000), "Only four ECG values so far");
+
+        evaluator.addSample(11, "ECG", 0.3, 1004);
+        assertTrue(evaluator.hasEcgAnomaly(11, 2000), "Five values with one spike should be an anomaly");
+    }
+}
@@ -0,0 +1,64 @@
+package data_management;
+
+import com.alerts.kernels.ThresholdKernels;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the batch threshold kernels, and that the implementation picked for this JVM
+ * agrees with the scalar one on every range, including the tails shorter than a vector.
+ */
+public class ThresholdKernelsTest {
+
+    private final ThresholdKernels scalar = ThresholdKernels.scalar();
+    private final ThresholdKernels best = ThresholdKernels.best();
+
+    @Test
+    void testScalarKernels() {
+        double[] values = {97, 96, 91, 95, 99, 88, 93};
+
+        assertEquals(3, scalar.countOutside(values, 0, values.length, 92, 98.5));
+        assertEquals(2, scalar.firstOutside(values, 0, values.length, 92, 98.5));
+        assertEquals(4, scalar.firstOutside(values, 3, values.length, 92, 98.5));
+        assertEquals(-1, scalar.firstOutside(values, 3, 4, 92, 98.5));
+        assertEquals(88, scalar.min(values, 0, values.length));
+        assertEquals(99, scalar.max(values, 0, 5));
+        // * From 99 down to 88; the earlier fall from 97 to 91 is smaller.
+        assertEquals(11, scalar.maxDrop(values, 0, values.length));
+        assertEquals(0, scalar.maxDrop(new double[]{1, 2, 3}, 0, 3));
+    }
+
+    @Test
+    void testEmptyAndInvalidRanges() {
+        double[] values = new double[10];
+
+        assertEquals(Double.POSITIVE_INFINITY, best.min(values, 4, 4));
+        assertEquals(Double.NEGATIVE_INFINITY, best.max(values, 4, 4));
+        assertEquals(0, best.countOutside(values, 4, 4, -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> best.min(values, 5, 11));
+        assertThrows(IllegalArgumentException.class, () -> best.countOutside(values, 6, 5, 0, 1));
+    }
+
+    @Test
+    void testBestAgreesWithScalar() {
+        Random random = new Random(7);
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 0.4 * random.nextGaussian();
+        }
+        for (int from = 0; from < 20; from++) {
+            for (int to = from; to <= values.length; to += 1 + random.nextInt(50)) {
+                assertEquals(scalar.countOutside(values, from, to, -0.4, 1.2),
+                        best.countOutside(values, from, to, -0.4, 1.2), best.getName());
+                assertEquals(scalar.firstOutside(values, from, to, -0.4, 1.2),
+                        best.firstOutside(values, from, to, -0.4, 1.2), best.getName());
+                assertEquals(scalar.min(values, from, to), best.min(values, from, to), best.getName());
+                assertEquals(scalar.max(values, from, to), best.max(values, from, to), best.getName());
+                assertEquals(scalar.maxDrop(values, from, to), best.maxDrop(values, from, to), best.getName());
+            }
+        }
+    }
+}
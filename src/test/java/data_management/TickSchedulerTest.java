@@ -0,0 +1,134 @@
+package data_management;
+
+import com.cardio_generator.PatientThreadScheduler;
+import com.cardio_generator.TickScheduler;
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodLevelsDataGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.data_management.VirtualThreads;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the schedulers of the simulator.
+ */
+class TickSchedulerTest {
+
+    /**
+     * Every patient is generated about once per period, on the pool's few threads.
+     */
+    @Test
+    void testPatientsAreGeneratedEveryPeriod() throws InterruptedException {
+        int patients = 1000;
+        List<Integer> patientIds = new ArrayList<>();
+        for (int i = 1; i <= patients; i++) {
+            patientIds.add(i);
+        }
+        AtomicIntegerArray generated = new AtomicIntegerArray(patients + 1);
+        try (TickScheduler scheduler = new TickScheduler(2, 10, new Random(42))) {
+            scheduler.schedule((patientId, output) -> generated.incrementAndGet(patientId), patientIds, 100, null);
+            // * Delays reach 4 periods plus the phase, so after a second every patient ran 5 to 10 times, give or take a late tick.
+            Thread.sleep(1000);
+            assertTrue(scheduler.getThreadCount() <= 2);
+        }
+        for (int i = 1; i <= patients; i++) {
+            assertTrue(generated.get(i) >= 3 && generated.get(i) <= 11, "patient " + i + ": " + generated.get(i));
+        }
+    }
+
+    /**
+     * One thread per patient generates all its signals, each at its own period.
+     */
+    @Test
+    void testPatientThreads() throws InterruptedException {
+        List<Integer> patientIds = List.of(1, 2, 3);
+        AtomicIntegerArray fast = new AtomicIntegerArray(4);
+        AtomicIntegerArray slow = new AtomicIntegerArray(4);
+        PatientDataGenerator[] generators = {
+                (patientId, output) -> fast.incrementAndGet(patientId),
+                (patientId, output) -> slow.incrementAndGet(patientId)
+        };
+        long begin = System.nanoTime();
+        // * Virtual threads where the JVM has them, platform threads otherwise.
+        try (PatientThreadScheduler scheduler = new PatientThreadScheduler(VirtualThreads.factory("patient-"),
+                new Random(42))) {
+            scheduler.start(patientIds, generators, new long[]{20, 200}, null);
+            Thread.sleep(1000);
+        }
+        long elapsed = (System.nanoTime() - begin) / 1_000_000;
+        // * At most one run per period of the time the threads actually ran, which can exceed the sleep.
+        long maxFast = elapsed / 20 + 1;
+        for (int patientId : patientIds) {
+            assertTrue(fast.get(patientId) >= 40 && fast.get(patientId) <= maxFast, "fast: " + fast.get(patientId));
+            assertTrue(slow.get(patientId) >= 1 && slow.get(patientId) <= 6, "slow: " + slow.get(patientId));
+        }
+    }
+
+    /**
+     * A patient thread keeps no per-thread batches or buffers alive between its signals,
+     * so the heap retained per patient is its thread, its schedule and one small batch.
+     */
+    @Test
+    void testPatientThreadsRetainLittleHeap() throws InterruptedException {
+        int patients = 1000;
+        List<Integer> patientIds = new ArrayList<>();
+        for (int i = 1; i <= patients; i++) {
+            patientIds.add(i);
+        }
+        PatientDataGenerator[] generators = {
+                new ECGDataGenerator(patients, 42),
+                new BloodSaturationDataGenerator(patients, 42),
+                new BloodPressureDataGenerator(patients, 42),
+                new BloodLevelsDataGenerator(patients, 42),
+                new AlertGenerator(patients, 42)
+        };
+        long[] periodsMillis = {20, 20, 20, 20, 20};
+        LongAdder samples = new LongAdder();
+        OutputStrategy counting = (patientId, timestamp, label, data) -> samples.increment();
+
+        long before = usedHeapAfterGc();
+        try (PatientThreadScheduler scheduler = new PatientThreadScheduler(VirtualThreads.factory("patient-"),
+                new Random(42))) {
+            scheduler.start(patientIds, generators, periodsMillis, counting);
+            // * Delays reach 4 periods, so by now every patient generated every signal a few times.
+            Thread.sleep(300);
+            assertTrue(scheduler.getGeneratedCount() >= 5L * patients, "generated: " + scheduler.getGeneratedCount());
+            long perPatient = (usedHeapAfterGc() - before) / patients;
+            // * About 1.3 KB with platform threads; thread-local batches and buffers took it past 8 KB.
+            assertTrue(perPatient < 4096, perPatient + " bytes retained per patient");
+        }
+        assertTrue(samples.sum() > 0);
+    }
+
+    /**
+     * @return the heap in use right after a full collection, which leaves out what the
+     *         running patient threads allocated since
+     */
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+                used += pool.getCollectionUsage().getUsed();
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,184 @@
+package data_management;
+
+import com.alerts.dispatch.TimingWheel;
+import com.design_pattern.factoryANDdecorator.EscalatingAlertDecorator;
+import com.design_pattern.factoryANDdecorator.RepeatedAlertDecorator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the hierarchical timing wheel and the decorators that schedule
+ * repeated and escalating alerts on it.
+ */
+class TimingWheelTest {
+
+    /**
+     * Timers across all levels expire in deadline order, never early and at most one tick late.
+     */
+    @Test
+    void testTimersExpireOnTimeAcrossLevels() {
+        // * 4 buckets per level, so deadlines up to 256 ticks exercise every level's cascade.
+        TimingWheel wheel = new TimingWheel(10, 2, 0);
+        Random random = new Random(7);
+        List<long[]> fired = new ArrayList<>();
+        long[] now = new long[1];
+        for (int i = 0; i < 2000; i++) {
+            long deadline = random.nextInt(3000);
+            wheel.schedule(() -> fired.add(new long[]{deadline, now[0]}), deadline);
+        }
+        for (now[0] = 0; now[0] <= 3000; now[0]++) {
+            wheel.advanceTo(now[0]);
+        }
+
+        assertEquals(2000, fired.size());
+        assertEquals(0, wheel.getPendingCount());
+        long previous = -1;
+        for (long[] timer : fired) {
+            assertTrue(timer[1] >= timer[0], "fired early: " + timer[0] + " at " + timer[1]);
+            assertTrue(timer[1] < timer[0] + 10, "fired late: " + timer[0] + " at " + timer[1]);
+            assertTrue((timer[0] + 9) / 10 >= (previous + 9) / 10, "out of order");
+            previous = timer[0];
+        }
+    }
+
+    /**
+     * Cancelled timers never run, and deadlines beyond the wheel's span still expire.
+     */
+    @Test
+    void testCancelAndDeadlinesBeyondSpan() {
+        TimingWheel wheel = new TimingWheel(1, 2, 0);
+        AtomicInteger runs = new AtomicInteger();
+        TimingWheel.Timeout kept = wheel.schedule(runs::incrementAndGet, 50);
+        TimingWheel.Timeout cancelled = wheel.schedule(runs::incrementAndGet, 50);
+        // * The span of 4 levels of 4 buckets is 256 ticks.
+        TimingWheel.Timeout far = wheel.schedule(runs::incrementAndGet, 1000);
+
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        assertEquals(2, wheel.getPendingCount());
+
+        assertEquals(1, wheel.advanceTo(999));
+        assertTrue(kept.isExpired());
+        assertFalse(far.isExpired());
+        assertEquals(1, wheel.advanceTo(1000));
+        assertTrue(far.isExpired());
+        assertFalse(far.cancel());
+        assertEquals(2, runs.get());
+    }
+
+    /**
+     * The scheduled repeat decorator fires once at once and the rest one interval apart.
+     */
+    @Test
+    void testScheduledRepeats() {
+        TimingWheel wheel = new TimingWheel(100, 0);
+        AtomicInteger triggers = new AtomicInteger();
+        RepeatedAlertDecorator repeated = new RepeatedAlertDecorator(triggers::incrementAndGet, 3, wheel, 60_000);
+
+        repeated.trigger();
+        assertEquals(1, triggers.get());
+        wheel.advanceTo(59_999);
+        assertEquals(1, triggers.get());
+        wheel.advanceTo(60_000);
+        assertEquals(2, triggers.get());
+        wheel.advanceTo(600_000);
+        assertEquals(3, triggers.get());
+        assertEquals(0, repeated.getRemainingRepeats());
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    /**
+     * A repeat timer that already fired when the alert is triggered again, so it cannot
+     * be cancelled any more, must neither trigger nor start a second chain of repeats.
+     */
+    @Test
+    void testRetriggerIgnoresRepeatThatAlreadyFired() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(100, 0);
+        AtomicInteger triggers = new AtomicInteger();
+        RepeatedAlertDecorator repeated = new RepeatedAlertDecorator(triggers::incrementAndGet, 3, wheel, 60_000);
+        repeated.trigger();
+
+        Thread ticker = new Thread(() -> wheel.advanceTo(60_000));
+        synchronized (repeated) {
+            // * The timer expires, then its task waits for the decorator's lock.
+            ticker.start();
+            while (ticker.getState() != Thread.State.BLOCKED) {
+                Thread.sleep(1);
+            }
+            repeated.trigger();
+        }
+        ticker.join();
+        assertEquals(2, triggers.get());
+        assertEquals(2, repeated.getRemainingRepeats());
+        assertEquals(1, wheel.getPendingCount());
+
+        wheel.advanceTo(600_000);
+        assertEquals(4, triggers.get());
+        assertEquals(0, repeated.getRemainingRepeats());
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    /**
+     * Re-notifies every two minutes, escalates after three repeats and stops on acknowledgement.
+     */
+    @Test
+    void testEscalationUntilAcknowledged() {
+        TimingWheel wheel = new TimingWheel(1000, 0);
+        AtomicInteger triggers = new AtomicInteger();
+        EscalatingAlertDecorator alert = new EscalatingAlertDecorator(triggers::incrementAndGet, "MEDIUM", wheel, 120_000, 3);
+
+        alert.trigger();
+        assertEquals(1, triggers.get());
+        assertEquals("MEDIUM", alert.getPriorityLevel());
+        wheel.advanceTo(2 * 120_000);
+        assertEquals(3, triggers.get());
+        assertEquals("MEDIUM", alert.getPriorityLevel());
+        wheel.advanceTo(3 * 120_000);
+        assertEquals("HIGH", alert.getPriorityLevel());
+        wheel.advanceTo(9 * 120_000);
+        assertEquals("CRITICAL", alert.getPriorityLevel());
+        assertEquals(10, triggers.get());
+
+        assertTrue(alert.acknowledge());
+        assertFalse(alert.acknowledge());
+        wheel.advanceTo(20 * 120_000);
+        assertEquals(10, triggers.get());
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    /**
+     * A timer that already fired when the alert is triggered again, so it cannot be
+     * cancelled any more, must not start a second chain of re-notifications.
+     */
+    @Test
+    void testRetriggerIgnoresTimerThatAlreadyFired() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(1000, 0);
+        AtomicInteger triggers = new AtomicInteger();
+        EscalatingAlertDecorator alert = new EscalatingAlertDecorator(triggers::incrementAndGet, "MEDIUM", wheel, 120_000, 3);
+        alert.trigger();
+
+        Thread ticker = new Thread(() -> wheel.advanceTo(120_000));
+        synchronized (alert) {
+            // * The timer expires, then its task waits for the alert's lock.
+            ticker.start();
+            while (ticker.getState() != Thread.State.BLOCKED) {
+                Thread.sleep(1);
+            }
+            alert.trigger();
+        }
+        ticker.join();
+        assertEquals(2, triggers.get());
+        assertEquals(0, alert.getRepeatCount());
+        assertEquals(1, wheel.getPendingCount());
+
+        wheel.advanceTo(2 * 120_000);
+        assertEquals(3, triggers.get());
+        assertEquals(1, alert.getRepeatCount());
+    }
+}
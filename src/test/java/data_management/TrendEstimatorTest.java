@@ -0,0 +1,146 @@
+package data_management;
+
+import com.alerts.TrendEstimator;
+import com.alerts.TrendEstimator.Trend;
+import com.alerts.TrendLimits;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.outputs.SampleBatch;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the EWMA, rolling slope and CUSUM of the trend estimator.
+ */
+public class TrendEstimatorTest {
+
+    private static final long MINUTE = 60_000;
+
+    @Test
+    void testSlopeAndEwmaOfLinearSeries() {
+        TrendEstimator estimator = new TrendEstimator(TrendLimits.of("Systolic", 5, 100, 0, 1000));
+        for (int i = 0; i < 20; i++) {
+            estimator.update(1, "Systolic", 100 + 3 * i, i * MINUTE);
+        }
+
+        assertEquals(3.0, estimator.getSlopePerMinute(1, "Systolic"), 1e-6);
+        // * An EWMA lags a straight line by slope * (1 - alpha) / alpha = 3 * 2 readings.
+        assertEquals(157 - 6, estimator.getEwma(1, "Systolic"), 0.1);
+    }
+
+    @Test
+    void testSlopeIsUndefinedUntilWindowIsFull() {
+        TrendEstimator estimator = new TrendEstimator(TrendLimits.of("Systolic", 5, 100, 0, 1000));
+        for (int i = 0; i < 4; i++) {
+            estimator.update(1, "Systolic", 120, i * MINUTE);
+        }
+
+        assertTrue(Double.isNaN(estimator.getSlopePerMinute(1, "Systolic")));
+        assertTrue(Double.isNaN(estimator.getEwma(2, "Systolic")));
+        assertEquals(Trend.NONE, estimator.update(1, "ECG", 0.5, 0));
+    }
+
+    @Test
+    void testSustainedSlopeIsReportedOnce() {
+        TrendEstimator estimator = new TrendEstimator(TrendLimits.of("Systolic", 10, 2.0, 5, 1000));
+        int onsets = 0;
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Trend.NONE, estimator.update(3, "Systolic", 120 + (i % 2), i * MINUTE));
+        }
+        for (int i = 10; i < 40; i++) {
+            Trend trend = estimator.update(3, "Systolic", 120 - 4 * (i - 10), i * MINUTE);
+            if (trend != Trend.NONE) {
+                assertEquals(Trend.FALLING, trend);
+                onsets++;
+            }
+        }
+        // * The trend settles, then rises again.
+        for (int i = 40; i < 60; i++) {
+            estimator.update(3, "Systolic", 0, i * MINUTE);
+        }
+        Trend rising = Trend.NONE;
+        for (int i = 60; i < 80 && rising == Trend.NONE; i++) {
+            rising = estimator.update(3, "Systolic", 5 * (i - 59), i * MINUTE);
+        }
+
+        assertEquals(1, onsets);
+        assertEquals(Trend.RISING, rising);
+    }
+
+    @Test
+    void testCusumDetectsLevelShift() {
+        // * The slope limit is out of reach, so only the CUSUM can report.
+        TrendEstimator estimator = new TrendEstimator(TrendLimits.of("Saturation", 60, 1000, 1, 10));
+        for (int i = 0; i < 120; i++) {
+            assertEquals(Trend.NONE, estimator.update(4, "Saturation", 97 + (i % 2), i * 1000L));
+        }
+        int reportedAfter = -1;
+        for (int i = 0; i < 30 && reportedAfter < 0; i++) {
+            if (estimator.update(4, "Saturation", 92, (120 + i) * 1000L) == Trend.FALLING) {
+                reportedAfter = i;
+            }
+        }
+
+        // * Deviations of about 5.5 minus a slack of 1 pass 10 on the third low reading.
+        assertEquals(2, reportedAfter);
+    }
+
+    @Test
+    void testSimulatedSaturationNoiseIsNoTrend() {
+        TrendEstimator estimator = TrendEstimator.vitalSigns();
+        BloodSaturationDataGenerator generator = new BloodSaturationDataGenerator(20, 42);
+        SampleBatch batch = new SampleBatch();
+        int onsets = 0;
+        // * An hour of the simulator's saturation, a reading a second for each of 20 patients.
+        for (long second = 0; second < 3600; second++) {
+            for (int patient = 1; patient <= 20; patient++) {
+                batch.clear();
+                generator.generate(patient, second * 1000, batch);
+                if (estimator.update(patient, "Saturation", batch.getValue(0), second * 1000) != Trend.NONE) {
+                    onsets++;
+                }
+            }
+        }
+        assertTrue(onsets <= 5, "Noise reported as " + onsets + " trends");
+    }
+
+    @Test
+    void testSaturationFallIsATrend() {
+        TrendEstimator estimator = TrendEstimator.vitalSigns();
+        int detectedAfter = -1;
+        for (int second = 0; second < 1200; second++) {
+            // * Steady at 98 for 10 minutes, then a point lost every 10 seconds down to 88.
+            double value = second < 600 ? 98 : Math.max(88, 98 - (second - 600) / 10);
+            if (estimator.update(3, "Saturation", value, second * 1000L) == Trend.FALLING && detectedAfter < 0) {
+                detectedAfter = second - 600;
+            }
+        }
+        assertTrue(detectedAfter > 0 && detectedAfter <= 180, "Detected after " + detectedAfter + " s");
+    }
+
+    @Test
+    void testPatientsAreIndependent() {
+        TrendEstimator estimator = TrendEstimator.vitalSigns();
+        for (int patient = 0; patient < 1000; patient++) {
+            for (int i = 0; i < 10; i++) {
+                estimator.update(patient, "HeartRate", 70 + patient % 7 * i, i * MINUTE);
+            }
+        }
+
+        assertEquals(1000, estimator.getPatientCount());
+        assertEquals(0.0, estimator.getSlopePerMinute(7, "HeartRate"), 1e-9);
+        assertEquals(6.0, estimator.getSlopePerMinute(13, "HeartRate"), 1e-6);
+    }
+
+    @Test
+    void testLongRunsDoNotDrift() {
+        TrendEstimator estimator = new TrendEstimator(TrendLimits.of("Diastolic", 10, 100, 0, 1e9));
+        long start = 1_700_000_000_000L;
+        for (int i = 0; i < 1_000_000; i++) {
+            // * A saw tooth rising 0.5 a second; the last 10 readings are on one tooth.
+            estimator.update(5, "Diastolic", 80 + (i % 100) * 0.5, start + i * 1000L);
+        }
+
+        assertEquals(30.0, estimator.getSlopePerMinute(5, "Diastolic"), 1e-9);
+    }
+}